@@ -0,0 +1,341 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.benchmarks;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimpleDependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimpleParentRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimplePluginRelationship;
+import org.commonjava.atlas.maven.ident.DependencyScope;
+import org.commonjava.atlas.maven.ident.ref.ProjectRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+
+/**
+ * Generates the inputs for the benchmarks. The shapes follow what shows up in Maven Central and the npm registry
+ * (plain numeric releases, qualifiers like 'Final' or 'redhat-00001', milestones, snapshots with and without
+ * timestamps, scoped npm packages), and every generator is seeded so runs stay comparable.
+ */
+public final class BenchmarkCorpus
+{
+
+    public static final long DEFAULT_SEED = 0xA71A5L;
+
+    private static final String[] GROUP_IDS = { "org.apache.maven", "org.apache.maven.plugins", "org.apache.commons",
+        "com.fasterxml.jackson.core", "org.slf4j", "io.netty", "org.springframework.boot", "org.hibernate.orm",
+        "com.google.guava", "org.jboss.logging", "io.quarkus", "org.eclipse.jetty", "junit", "org.commonjava.atlas" };
+
+    private static final String[] ARTIFACT_IDS = { "maven-core", "maven-compiler-plugin", "commons-lang3",
+        "jackson-databind", "slf4j-api", "netty-handler", "spring-boot-starter-web", "hibernate-core", "guava",
+        "jboss-logging", "quarkus-arc", "jetty-server", "junit", "atlas-identities" };
+
+    private static final String[] QUALIFIERS = { "Final", "GA", "RELEASE", "jre", "android", "redhat-00001",
+        "redhat-2", "M1", "M5", "RC1", "rc2", "alpha-1", "beta.2", "CR1", "SP1", "v20230101" };
+
+    private static final String[] TYPES = { "jar", "pom", "war", "maven-plugin", "tar.gz", "zip" };
+
+    private static final String[] CLASSIFIERS = { "sources", "javadoc", "tests", "linux-x86_64", "jdk8" };
+
+    private static final DependencyScope[] SCOPES =
+        { DependencyScope.compile, DependencyScope.runtime, DependencyScope.test, DependencyScope.provided };
+
+    private static final String[] NPM_SCOPES = { "@babel", "@types", "@angular", "@hawtio", "@redhat" };
+
+    private static final String[] NPM_NAMES = { "lodash", "core", "react", "express", "node", "keycloak-connect",
+        "core-dts", "typescript", "left-pad", "rxjs" };
+
+    private BenchmarkCorpus()
+    {
+    }
+
+    public static List<String> versions( final int count, final long seed )
+    {
+        final Random random = new Random( seed );
+        final List<String> result = new ArrayList<String>( count );
+        for ( int i = 0; i < count; i++ )
+        {
+            result.add( version( random ) );
+        }
+
+        return result;
+    }
+
+    public static List<String> ranges( final int count, final long seed )
+    {
+        final Random random = new Random( seed );
+        final List<String> result = new ArrayList<String>( count );
+        for ( int i = 0; i < count; i++ )
+        {
+            final int major = random.nextInt( 6 );
+            switch ( random.nextInt( 4 ) )
+            {
+                case 0:
+                    result.add( "[" + major + ".0," + ( major + 1 ) + ".0)" );
+                    break;
+                case 1:
+                    result.add( "[" + major + "." + random.nextInt( 10 ) + ",)" );
+                    break;
+                case 2:
+                    result.add( "(," + major + "." + random.nextInt( 10 ) + "]" );
+                    break;
+                default:
+                    result.add( "[" + version( random ) + "]" );
+            }
+        }
+
+        return result;
+    }
+
+    public static List<String> projectVersionSpecs( final int count, final long seed )
+    {
+        final Random random = new Random( seed );
+        final List<String> result = new ArrayList<String>( count );
+        for ( int i = 0; i < count; i++ )
+        {
+            final int project = random.nextInt( GROUP_IDS.length );
+            result.add( GROUP_IDS[project] + ":" + ARTIFACT_IDS[project] + ":" + version( random ) );
+        }
+
+        return result;
+    }
+
+    public static List<String> artifactSpecs( final int count, final long seed )
+    {
+        final Random random = new Random( seed );
+        final List<String> result = new ArrayList<String>( count );
+        for ( int i = 0; i < count; i++ )
+        {
+            final int project = random.nextInt( GROUP_IDS.length );
+            final StringBuilder sb = new StringBuilder();
+            sb.append( GROUP_IDS[project] )
+              .append( ':' )
+              .append( ARTIFACT_IDS[project] )
+              .append( ':' )
+              .append( TYPES[random.nextInt( TYPES.length )] )
+              .append( ':' )
+              .append( version( random ) );
+            if ( random.nextInt( 4 ) == 0 )
+            {
+                sb.append( ':' )
+                  .append( CLASSIFIERS[random.nextInt( CLASSIFIERS.length )] );
+            }
+            result.add( sb.toString() );
+        }
+
+        return result;
+    }
+
+    /**
+     * Maven repository paths, like <code>org/slf4j/slf4j-api/1.7.36/slf4j-api-1.7.36-sources.jar</code>, including
+     * timestamped snapshot files and checksums.
+     */
+    public static List<String> artifactPaths( final int count, final long seed )
+    {
+        final Random random = new Random( seed );
+        final List<String> result = new ArrayList<String>( count );
+        for ( int i = 0; i < count; i++ )
+        {
+            final int project = random.nextInt( GROUP_IDS.length );
+            final String a = ARTIFACT_IDS[project];
+            final boolean snapshot = random.nextInt( 5 ) == 0;
+            final String base = release( random );
+            final String dirVersion = snapshot ? base + "-SNAPSHOT" : base;
+            final String fileVersion = snapshot ? base + "-" + timestamp( random ) : base;
+
+            final StringBuilder sb = new StringBuilder();
+            sb.append( GROUP_IDS[project].replace( '.', '/' ) )
+              .append( '/' )
+              .append( a )
+              .append( '/' )
+              .append( dirVersion )
+              .append( '/' )
+              .append( a )
+              .append( '-' )
+              .append( fileVersion );
+            if ( random.nextInt( 4 ) == 0 )
+            {
+                sb.append( '-' )
+                  .append( CLASSIFIERS[random.nextInt( CLASSIFIERS.length )] );
+            }
+            sb.append( '.' )
+              .append( TYPES[random.nextInt( TYPES.length )].replace( "maven-plugin", "jar" ) );
+            if ( random.nextInt( 3 ) == 0 )
+            {
+                sb.append( random.nextBoolean() ? ".sha1" : ".md5" );
+            }
+            result.add( sb.toString() );
+        }
+
+        return result;
+    }
+
+    /**
+     * npm tarball paths, scoped (<code>/@babel/core/-/core-7.22.5.tgz</code>) and unscoped.
+     */
+    public static List<String> npmPaths( final int count, final long seed )
+    {
+        final Random random = new Random( seed );
+        final List<String> result = new ArrayList<String>( count );
+        for ( int i = 0; i < count; i++ )
+        {
+            final String name = NPM_NAMES[random.nextInt( NPM_NAMES.length )];
+            String version = random.nextInt( 20 ) + "." + random.nextInt( 30 ) + "." + random.nextInt( 40 );
+            if ( random.nextInt( 5 ) == 0 )
+            {
+                version += "-" + ( random.nextBoolean() ? "beta." : "rc." ) + random.nextInt( 5 );
+            }
+
+            final String scoped =
+                random.nextBoolean() ? NPM_SCOPES[random.nextInt( NPM_SCOPES.length )] + "/" + name : name;
+            result.add( "/" + scoped + "/-/" + name + "-" + version + ".tgz" );
+        }
+
+        return result;
+    }
+
+    /**
+     * An npm package document (packument) with the given number of versions, each carrying the usual noise (scripts,
+     * keywords, dist signatures) around the fields a dependency walk needs.
+     */
+    public static String packument( final int versions, final long seed )
+    {
+        final Random random = new Random( seed );
+        final String name = NPM_SCOPES[random.nextInt( NPM_SCOPES.length )] + "/"
+                        + NPM_NAMES[random.nextInt( NPM_NAMES.length )];
+        final String file = name.substring( name.indexOf( '/' ) + 1 );
+
+        final StringBuilder sb = new StringBuilder();
+        sb.append( "{\"_id\":\"" ).append( name ).append( "\",\"name\":\"" ).append( name ).append( "\"," );
+        sb.append( "\"dist-tags\":{\"latest\":\"" ).append( versions - 1 ).append( ".0.0\"},\"versions\":{" );
+        for ( int i = 0; i < versions; i++ )
+        {
+            final String version = i + "." + random.nextInt( 30 ) + "." + random.nextInt( 40 );
+            sb.append( i == 0 ? "" : "," ).append( '"' ).append( version ).append( "\":{" );
+            sb.append( "\"name\":\"" ).append( name ).append( "\",\"version\":\"" ).append( version ).append( "\"," );
+            sb.append( "\"description\":\"A package\",\"scripts\":{\"build\":\"tsc\",\"test\":\"jest\"}," );
+            sb.append( "\"keywords\":[\"npm\",\"benchmark\"],\"dependencies\":{" );
+            final int deps = random.nextInt( 8 );
+            for ( int d = 0; d < deps; d++ )
+            {
+                sb.append( d == 0 ? "" : "," )
+                  .append( '"' )
+                  .append( NPM_NAMES[random.nextInt( NPM_NAMES.length )] )
+                  .append( d )
+                  .append( "\":\"^" )
+                  .append( random.nextInt( 10 ) )
+                  .append( ".0.0\"" );
+            }
+            sb.append( "},\"dist\":{\"shasum\":\"" ).append( Long.toHexString( random.nextLong() ) );
+            sb.append( "\",\"tarball\":\"https://registry.npmjs.org/" ).append( name ).append( "/-/" );
+            sb.append( file ).append( '-' ).append( version ).append( ".tgz\"," );
+            sb.append( "\"signatures\":[{\"keyid\":\"SHA256:x\",\"sig\":\"" );
+            sb.append( Long.toHexString( random.nextLong() ) ).append( "\"}]}}" );
+        }
+        sb.append( "},\"time\":{\"created\":\"2020-01-01T00:00:00.000Z\"},\"readme\":\"# " ).append( name );
+        sb.append( "\"}" );
+
+        return sb.toString();
+    }
+
+    public static List<ProjectRelationship<?, ?>> relationships( final int count, final long seed )
+    {
+        final Random random = new Random( seed );
+        final URI source = URI.create( "http://repo.maven.apache.org/maven2/" );
+        final List<ProjectRelationship<?, ?>> result = new ArrayList<ProjectRelationship<?, ?>>( count );
+        for ( int i = 0; i < count; i++ )
+        {
+            final ProjectVersionRef declaring = projectVersion( random );
+            switch ( random.nextInt( 4 ) )
+            {
+                case 0:
+                    result.add( new SimpleParentRelationship( source, declaring, projectVersion( random ) ) );
+                    break;
+                case 1:
+                    result.add( new SimplePluginRelationship( source, declaring, projectVersion( random ), i,
+                                                              random.nextBoolean(), false ) );
+                    break;
+                default:
+                    final ProjectVersionRef target = projectVersion( random );
+                    final ProjectRef[] excludes = random.nextInt( 3 ) == 0 ? new ProjectRef[] {
+                        new SimpleProjectRef( GROUP_IDS[random.nextInt( GROUP_IDS.length )], "*" ) }
+                                    : new ProjectRef[0];
+                    result.add( new SimpleDependencyRelationship( source, declaring,
+                                                                  new SimpleArtifactRef( target, "jar", null ),
+                                                                  SCOPES[random.nextInt( SCOPES.length )], i,
+                                                                  random.nextBoolean(), false, random.nextBoolean(),
+                                                                  excludes ) );
+            }
+        }
+
+        return result;
+    }
+
+    private static ProjectVersionRef projectVersion( final Random random )
+    {
+        final int project = random.nextInt( GROUP_IDS.length );
+        return new SimpleProjectVersionRef( GROUP_IDS[project], ARTIFACT_IDS[project], version( random ) );
+    }
+
+    private static String version( final Random random )
+    {
+        final int shape = random.nextInt( 100 );
+        final String release = release( random );
+        if ( shape < 55 )
+        {
+            return release;
+        }
+        else if ( shape < 75 )
+        {
+            return release + ( random.nextBoolean() ? "." : "-" ) + QUALIFIERS[random.nextInt( QUALIFIERS.length )];
+        }
+        else if ( shape < 90 )
+        {
+            return release + "-SNAPSHOT";
+        }
+
+        return release + "-" + timestamp( random );
+    }
+
+    private static String release( final Random random )
+    {
+        final StringBuilder sb = new StringBuilder();
+        sb.append( random.nextInt( 12 ) )
+          .append( '.' )
+          .append( random.nextInt( 30 ) );
+        if ( random.nextInt( 3 ) > 0 )
+        {
+            sb.append( '.' )
+              .append( random.nextInt( 20 ) );
+        }
+
+        return sb.toString();
+    }
+
+    private static String timestamp( final Random random )
+    {
+        return String.format( "2023%02d%02d.%02d%02d%02d-%d", 1 + random.nextInt( 12 ), 1 + random.nextInt( 28 ),
+                              random.nextInt( 24 ), random.nextInt( 60 ), random.nextInt( 60 ),
+                              1 + random.nextInt( 40 ) );
+    }
+
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.benchmarks;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar. Accepts the usual JMH command-line options; unless a result file is given with
+ * <code>-rff</code>, results are written as JSON to <code>jmh-results/atlas-&lt;timestamp&gt;.json</code> (or to the
+ * directory named by the <code>atlas.benchmarks.results</code> system property), so successive runs can be compared.
+ */
+public final class BenchmarkMain
+{
+
+    public static final String RESULTS_DIR_PROP = "atlas.benchmarks.results";
+
+    private BenchmarkMain()
+    {
+    }
+
+    public static void main( final String[] args )
+        throws Exception
+    {
+        final CommandLineOptions cli = new CommandLineOptions( args );
+        final ChainedOptionsBuilder options = new OptionsBuilder().parent( cli );
+
+        if ( !cli.getResult()
+                 .hasValue() )
+        {
+            final File dir = new File( System.getProperty( RESULTS_DIR_PROP, "jmh-results" ) );
+            if ( !dir.isDirectory() && !dir.mkdirs() )
+            {
+                throw new IllegalStateException( "Cannot create benchmark results directory: " + dir );
+            }
+
+            final String stamp = new SimpleDateFormat( "yyyyMMdd-HHmmss" ).format( new Date() );
+            options.resultFormat( ResultFormatType.JSON )
+                   .result( new File( dir, "atlas-" + stamp + ".json" ).getPath() );
+        }
+
+        new Runner( options.build() ).run();
+    }
+
+}
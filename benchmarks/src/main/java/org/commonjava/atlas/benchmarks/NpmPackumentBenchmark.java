@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.commonjava.atlas.npm.ident.ref.NpmPackageRef;
+import org.commonjava.atlas.npm.ident.util.NpmPackumentReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reading the versions of a packument with {@link NpmPackumentReader} against reading the whole document into a tree.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class NpmPackumentBenchmark
+{
+
+    @Param( { "50", "1000" } )
+    private int versions;
+
+    private ObjectMapper mapper;
+
+    private byte[] packument;
+
+    @Setup( Level.Trial )
+    public void setup()
+    {
+        mapper = new ObjectMapper();
+        packument = BenchmarkCorpus.packument( versions, BenchmarkCorpus.DEFAULT_SEED )
+                                   .getBytes( StandardCharsets.UTF_8 );
+    }
+
+    @Benchmark
+    public void streamVersions( final Blackhole hole )
+        throws IOException
+    {
+        try (Stream<NpmPackumentReader.PackageVersion> stream =
+                        NpmPackumentReader.versions( new ByteArrayInputStream( packument ) ))
+        {
+            final Iterator<NpmPackumentReader.PackageVersion> it = stream.iterator();
+            while ( it.hasNext() )
+            {
+                final NpmPackumentReader.PackageVersion version = it.next();
+                hole.consume( version.getRef() );
+                hole.consume( version.getTarballPath() );
+                hole.consume( version.getDependencies() );
+            }
+        }
+    }
+
+    @Benchmark
+    public void readTree( final Blackhole hole )
+        throws IOException
+    {
+        final JsonNode root = mapper.readTree( new ByteArrayInputStream( packument ) );
+        final String name = root.path( "name" )
+                                .asText();
+        final Iterator<Map.Entry<String, JsonNode>> fields = root.path( "versions" )
+                                                                 .fields();
+        while ( fields.hasNext() )
+        {
+            final Map.Entry<String, JsonNode> entry = fields.next();
+            hole.consume( new NpmPackageRef( name, entry.getKey() ) );
+            hole.consume( NpmPackumentReader.getTarballPath( entry.getValue()
+                                                                  .path( "dist" )
+                                                                  .path( "tarball" )
+                                                                  .asText() ) );
+            hole.consume( entry.getValue()
+                               .path( "dependencies" ) );
+        }
+    }
+
+}
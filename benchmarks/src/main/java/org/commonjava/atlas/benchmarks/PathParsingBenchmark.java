@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.commonjava.atlas.maven.ident.util.ArtifactPathClassifier;
+import org.commonjava.atlas.maven.ident.util.ArtifactPathInfo;
+import org.commonjava.atlas.maven.ident.util.SnapshotUtils;
+import org.commonjava.atlas.npm.ident.util.NpmPackagePathInfo;
+import org.commonjava.atlas.npm.ident.util.NpmVersionUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Repository path parsing with {@link ArtifactPathInfo#parse(String)} and {@link NpmPackagePathInfo#parse(String)},
+ * bulk classification with {@link ArtifactPathClassifier} (on the common fork-join pool), and snapshot version parsing
+ * with {@link SnapshotUtils#extractSnapshotVersionPart(String)}. npm paths are also parsed with the regex that
+ * {@link NpmPackagePathInfo#parse(String)} used before it was hand-written, as a baseline.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class PathParsingBenchmark
+{
+
+    private static final int CORPUS_SIZE = 10000;
+
+    private static final String NPM_PACKAGE_PATH_REGEX = "/((?:(.+)/)?(.+))/-/(.+)\\.tgz";
+
+    private List<String> artifactPaths;
+
+    private List<String> npmPaths;
+
+    private List<String> snapshotVersions;
+
+    private ArtifactPathClassifier classifier;
+
+    @Setup( Level.Trial )
+    public void setup()
+    {
+        artifactPaths = BenchmarkCorpus.artifactPaths( CORPUS_SIZE, BenchmarkCorpus.DEFAULT_SEED );
+        npmPaths = BenchmarkCorpus.npmPaths( CORPUS_SIZE, BenchmarkCorpus.DEFAULT_SEED );
+        classifier = new ArtifactPathClassifier.Builder().build();
+
+        snapshotVersions = new ArrayList<String>();
+        for ( final String path : artifactPaths )
+        {
+            final ArtifactPathInfo info = ArtifactPathInfo.parse( path );
+            if ( info != null && info.isSnapshot() )
+            {
+                snapshotVersions.add( info.getVersion() );
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( CORPUS_SIZE )
+    public void parseArtifactPaths( final Blackhole hole )
+    {
+        for ( final String path : artifactPaths )
+        {
+            hole.consume( ArtifactPathInfo.parse( path ) );
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( CORPUS_SIZE )
+    public ArtifactPathClassifier.Summary classifyArtifactPaths()
+    {
+        return classifier.classify( artifactPaths.stream() );
+    }
+
+    @Benchmark
+    public void parseSnapshotVersions( final Blackhole hole )
+    {
+        for ( final String version : snapshotVersions )
+        {
+            hole.consume( SnapshotUtils.extractSnapshotVersionPart( version ) );
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( CORPUS_SIZE )
+    public void parseNpmPackagePaths( final Blackhole hole )
+    {
+        for ( final String path : npmPaths )
+        {
+            hole.consume( NpmPackagePathInfo.parse( path ) );
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( CORPUS_SIZE )
+    public void parseNpmPackagePathsRegex( final Blackhole hole )
+    {
+        for ( final String path : npmPaths )
+        {
+            final Matcher matcher = Pattern.compile( NPM_PACKAGE_PATH_REGEX ).matcher( path.replace( '\\', '/' ) );
+            if ( matcher.matches() )
+            {
+                final String nameAndVersion = matcher.group( 4 );
+                final String version = nameAndVersion.substring( matcher.group( 3 ).length() + 1 );
+                hole.consume( new NpmPackagePathInfo( matcher.group( 1 ), NpmVersionUtils.valueOf( version ),
+                                                      nameAndVersion + ".tgz", path ) );
+            }
+        }
+    }
+
+}
@@ -0,0 +1,212 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.benchmarks;
+
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.commonjava.atlas.maven.graph.ProjectGraph;
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link ProjectGraph} against the HashMap-of-lists adjacency that graphs have been built with so far, for loading a
+ * relationship corpus and walking everything reachable (forward and in reverse) from a few projects. The approximate
+ * heap each structure retains is printed when the trial starts; run with '-prof gc' for allocation rates.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( value = 1, jvmArgsAppend = "-Xmx6g" )
+public class ProjectGraphBenchmark
+{
+
+    private static final int ROOTS = 16;
+
+    @Param( { "100000", "1000000" } )
+    private int relationships;
+
+    private List<ProjectRelationship<?, ?>> corpus;
+
+    private ProjectGraph graph;
+
+    private Map<ProjectVersionRef, List<ProjectRelationship<?, ?>>> forward;
+
+    private Map<ProjectVersionRef, List<ProjectRelationship<?, ?>>> reverse;
+
+    private List<ProjectVersionRef> roots;
+
+    @Setup( Level.Trial )
+    public void setup()
+    {
+        corpus = BenchmarkCorpus.relationships( relationships, BenchmarkCorpus.DEFAULT_SEED );
+
+        // the first pass parses versions shared with the corpus; don't charge that to whichever structure goes first.
+        loadGraph();
+
+        long before = usedHeap();
+        graph = loadGraph();
+        final long graphHeap = usedHeap() - before;
+
+        before = usedHeap();
+        forward = new HashMap<ProjectVersionRef, List<ProjectRelationship<?, ?>>>();
+        reverse = new HashMap<ProjectVersionRef, List<ProjectRelationship<?, ?>>>();
+        loadMaps( forward, reverse );
+        final long mapHeap = usedHeap() - before;
+
+        System.out.printf( "%n%d relationships, %d projects: ProjectGraph ~%d KB, adjacency maps ~%d KB "
+                               + "(not counting the relationships themselves)%n", relationships, graph.getNodeCount(),
+                           graphHeap / 1024, mapHeap / 1024 );
+
+        roots = new ArrayList<ProjectVersionRef>( ROOTS );
+        for ( int i = 0; i < ROOTS; i++ )
+        {
+            roots.add( corpus.get( i * ( corpus.size() / ROOTS ) ).getDeclaring() );
+        }
+    }
+
+    @Benchmark
+    public ProjectGraph loadGraph()
+    {
+        return new ProjectGraph.Builder().addAll( corpus )
+                                         .build();
+    }
+
+    @Benchmark
+    public Object loadMaps()
+    {
+        final Map<ProjectVersionRef, List<ProjectRelationship<?, ?>>> fwd =
+            new HashMap<ProjectVersionRef, List<ProjectRelationship<?, ?>>>();
+        final Map<ProjectVersionRef, List<ProjectRelationship<?, ?>>> rev =
+            new HashMap<ProjectVersionRef, List<ProjectRelationship<?, ?>>>();
+        loadMaps( fwd, rev );
+        return rev;
+    }
+
+    @Benchmark
+    public int traverseGraph()
+    {
+        int reached = 0;
+        for ( final ProjectVersionRef root : roots )
+        {
+            final int id = graph.getId( root );
+            final BitSet down = graph.reachable( id, false, null );
+            final BitSet up = graph.reachable( id, true, null );
+            reached += down.cardinality() + up.cardinality();
+        }
+
+        return reached;
+    }
+
+    @Benchmark
+    public int traverseMaps()
+    {
+        int reached = 0;
+        for ( final ProjectVersionRef root : roots )
+        {
+            reached += reachable( forward, root, false ) + reachable( reverse, root, true );
+        }
+
+        return reached;
+    }
+
+    private void loadMaps( final Map<ProjectVersionRef, List<ProjectRelationship<?, ?>>> fwd,
+                           final Map<ProjectVersionRef, List<ProjectRelationship<?, ?>>> rev )
+    {
+        for ( final ProjectRelationship<?, ?> rel : corpus )
+        {
+            list( fwd, rel.getDeclaring() ).add( rel );
+            list( rev, rel.getTarget()
+                          .asProjectVersionRef() ).add( rel );
+        }
+    }
+
+    private static int reachable( final Map<ProjectVersionRef, List<ProjectRelationship<?, ?>>> edges,
+                                  final ProjectVersionRef root, final boolean reverse )
+    {
+        final Set<ProjectVersionRef> seen = new HashSet<ProjectVersionRef>();
+        final Deque<ProjectVersionRef> queue = new ArrayDeque<ProjectVersionRef>();
+        seen.add( root );
+        queue.add( root );
+        while ( !queue.isEmpty() )
+        {
+            final List<ProjectRelationship<?, ?>> rels = edges.get( queue.poll() );
+            if ( rels == null )
+            {
+                continue;
+            }
+
+            for ( final ProjectRelationship<?, ?> rel : rels )
+            {
+                final ProjectVersionRef next = reverse ? rel.getDeclaring() : rel.getTarget()
+                                                                                 .asProjectVersionRef();
+                if ( seen.add( next ) )
+                {
+                    queue.add( next );
+                }
+            }
+        }
+
+        return seen.size();
+    }
+
+    private static List<ProjectRelationship<?, ?>> list( final Map<ProjectVersionRef, List<ProjectRelationship<?, ?>>> map,
+                                                         final ProjectVersionRef ref )
+    {
+        List<ProjectRelationship<?, ?>> list = map.get( ref );
+        if ( list == null )
+        {
+            list = new ArrayList<ProjectRelationship<?, ?>>();
+            map.put( ref, list );
+        }
+
+        return list;
+    }
+
+    private static long usedHeap()
+    {
+        final Runtime runtime = Runtime.getRuntime();
+        for ( int i = 0; i < 3; i++ )
+        {
+            System.gc();
+        }
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
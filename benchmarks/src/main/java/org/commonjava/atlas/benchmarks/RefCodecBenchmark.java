@@ -0,0 +1,124 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.commonjava.atlas.maven.ident.ref.ProjectRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.RefCodec;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link RefCodec} against default Java serialization, for a batch of refs whose versions have been parsed (as refs
+ * that have been in use for a while are when they're put in a cache). The encoded size of each is printed when the
+ * trial starts.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class RefCodecBenchmark
+{
+
+    private static final int CORPUS_SIZE = 5000;
+
+    private List<ProjectRef> refs;
+
+    private byte[] encoded;
+
+    private byte[] serialized;
+
+    @Setup( Level.Trial )
+    public void setup()
+        throws IOException
+    {
+        refs = new ArrayList<ProjectRef>( 2 * CORPUS_SIZE );
+        for ( final String spec : BenchmarkCorpus.artifactSpecs( CORPUS_SIZE, BenchmarkCorpus.DEFAULT_SEED ) )
+        {
+            refs.add( parsed( SimpleArtifactRef.parse( spec, null ) ) );
+        }
+        for ( final String gav : BenchmarkCorpus.projectVersionSpecs( CORPUS_SIZE, BenchmarkCorpus.DEFAULT_SEED ) )
+        {
+            refs.add( parsed( SimpleProjectVersionRef.parse( gav, null ) ) );
+        }
+
+        encoded = encodeRefs();
+        serialized = serializeRefs();
+        System.out.printf( "%n%d refs: RefCodec %d bytes, Java serialization %d bytes%n", refs.size(), encoded.length,
+                           serialized.length );
+    }
+
+    @Benchmark
+    public byte[] encodeRefs()
+        throws IOException
+    {
+        return RefCodec.encode( refs );
+    }
+
+    @Benchmark
+    public List<ProjectRef> decodeRefs()
+        throws IOException
+    {
+        return RefCodec.decode( encoded, null );
+    }
+
+    @Benchmark
+    public byte[] serializeRefs()
+        throws IOException
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream( bytes );
+        out.writeObject( refs );
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object deserializeRefs()
+        throws IOException, ClassNotFoundException
+    {
+        return new ObjectInputStream( new ByteArrayInputStream( serialized ) ).readObject();
+    }
+
+    private static ProjectRef parsed( final ProjectVersionRef ref )
+    {
+        ref.getVersionSpec();
+        return ref;
+    }
+
+}
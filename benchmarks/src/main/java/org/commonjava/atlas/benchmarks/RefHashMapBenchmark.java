@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Lookups of shared refs in a shared, read-only {@link HashMap} from as many threads as there are CPUs, the way
+ * dependency graph traversals use them. The lookup keys are distinct instances from the map keys, so every lookup
+ * computes (or reuses) a hash code and runs an equality check.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Threads( Threads.MAX )
+@Fork( 1 )
+public class RefHashMapBenchmark
+{
+
+    private static final int CORPUS_SIZE = 10000;
+
+    private Map<ProjectVersionRef, Integer> map;
+
+    private List<ProjectVersionRef> keys;
+
+    @Setup( Level.Trial )
+    public void setup()
+    {
+        final List<String> gavs = BenchmarkCorpus.projectVersionSpecs( CORPUS_SIZE, BenchmarkCorpus.DEFAULT_SEED );
+
+        map = new HashMap<ProjectVersionRef, Integer>();
+        keys = new ArrayList<ProjectVersionRef>( gavs.size() );
+        for ( int i = 0; i < gavs.size(); i++ )
+        {
+            map.put( SimpleProjectVersionRef.parse( gavs.get( i ) ), i );
+            keys.add( SimpleProjectVersionRef.parse( gavs.get( i ) ) );
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( CORPUS_SIZE )
+    public void lookupSharedRefs( final Blackhole hole )
+    {
+        for ( final ProjectVersionRef key : keys )
+        {
+            hole.consume( map.get( key ) );
+        }
+    }
+
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.benchmarks;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.commonjava.atlas.maven.ident.jackson.ProjectVersionRefSerializerModule;
+import org.commonjava.atlas.maven.ident.ref.ArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.KeyDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+/**
+ * Reading map-heavy documents (project to artifact maps, as a dependency report would carry) where the same refs come
+ * back as keys and values over and over. 'reflective' reproduces the per-value parse method lookup the ref
+ * deserializers used to do, 'resolved' uses the parsers bound when the module is built, and 'cached' adds the parse
+ * cache on top.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class RefMapJsonBenchmark
+{
+
+    private static final int DOCUMENTS = 200;
+
+    private static final int ENTRIES = 50;
+
+    private static final int DISTINCT_REFS = 500;
+
+    private static final TypeReference<Map<ProjectVersionRef, ArtifactRef>> DOCUMENT_TYPE =
+        new TypeReference<Map<ProjectVersionRef, ArtifactRef>>()
+        {
+        };
+
+    @Param( { "reflective", "resolved", "cached" } )
+    private String parsing;
+
+    private ObjectReader reader;
+
+    private List<String> documents;
+
+    @Setup( Level.Trial )
+    public void setup()
+        throws IOException
+    {
+        final ObjectMapper mapper = new ObjectMapper();
+        if ( "reflective".equals( parsing ) )
+        {
+            mapper.registerModule( new ReflectiveRefModule() );
+        }
+        else
+        {
+            mapper.registerModule( new ProjectVersionRefSerializerModule( null,
+                                                                          "cached".equals( parsing ) ? 4 * DISTINCT_REFS
+                                                                                          : 0 ) );
+        }
+        reader = mapper.readerFor( DOCUMENT_TYPE );
+
+        final List<String> projects = BenchmarkCorpus.projectVersionSpecs( DISTINCT_REFS, BenchmarkCorpus.DEFAULT_SEED );
+        final List<String> artifacts = BenchmarkCorpus.artifactSpecs( DISTINCT_REFS, BenchmarkCorpus.DEFAULT_SEED );
+        final Random random = new Random( BenchmarkCorpus.DEFAULT_SEED );
+        final ObjectMapper writer = new ObjectMapper();
+        documents = new ArrayList<String>( DOCUMENTS );
+        for ( int i = 0; i < DOCUMENTS; i++ )
+        {
+            final Map<String, String> document = new LinkedHashMap<String, String>();
+            while ( document.size() < ENTRIES )
+            {
+                document.put( projects.get( random.nextInt( DISTINCT_REFS ) ),
+                              artifacts.get( random.nextInt( DISTINCT_REFS ) ) );
+            }
+            documents.add( writer.writeValueAsString( document ) );
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( DOCUMENTS )
+    public void readDocuments( final Blackhole hole )
+        throws IOException
+    {
+        for ( final String document : documents )
+        {
+            hole.consume( reader.<Map<ProjectVersionRef, ArtifactRef>> readValue( document ) );
+        }
+    }
+
+    private static Object parseReflectively( final Class<?> realType, final String value )
+        throws IOException
+    {
+        try
+        {
+            final Method parseMethod = realType.getMethod( "parse", String.class );
+            return parseMethod.invoke( null, value );
+        }
+        catch ( final ReflectiveOperationException e )
+        {
+            throw new IOException( "Failed to lookup/invoke parse() method on " + realType.getSimpleName(), e );
+        }
+    }
+
+    private static final class ReflectiveRefModule
+        extends SimpleModule
+    {
+        private static final long serialVersionUID = 1L;
+
+        ReflectiveRefModule()
+        {
+            super( "Reflective ProjectRef Deserializer" );
+            addDeserializer( ArtifactRef.class, new ReflectiveDeserializer<ArtifactRef>( ArtifactRef.class,
+                                                                                         SimpleArtifactRef.class ) );
+            addKeyDeserializer( ProjectVersionRef.class, new KeyDeserializer()
+            {
+                @Override
+                public Object deserializeKey( final String key, final DeserializationContext ctxt )
+                    throws IOException
+                {
+                    return parseReflectively( SimpleProjectVersionRef.class, key );
+                }
+            } );
+        }
+    }
+
+    private static final class ReflectiveDeserializer<T>
+        extends StdDeserializer<T>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final Class<?> realType;
+
+        ReflectiveDeserializer( final Class<T> type, final Class<?> realType )
+        {
+            super( type );
+            this.realType = realType;
+        }
+
+        @Override
+        public T deserialize( final JsonParser jp, final DeserializationContext ctxt )
+            throws IOException
+        {
+            @SuppressWarnings( "unchecked" )
+            final T ref = (T) parseReflectively( realType, jp.getText() );
+            return ref;
+        }
+    }
+
+}
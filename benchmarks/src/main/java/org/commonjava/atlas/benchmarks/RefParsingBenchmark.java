@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.commonjava.atlas.maven.ident.ref.RefInterner;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Coordinate parsing with {@link SimpleArtifactRef#parse(String)} and {@link SimpleProjectVersionRef#parse(String)}.
+ * The version spec of each ref is forced, since that's where most of the parsing cost is deferred to. The interned
+ * variant keeps one {@link RefInterner} for the whole trial, as a graph load would.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class RefParsingBenchmark
+{
+
+    private static final int CORPUS_SIZE = 10000;
+
+    private List<String> artifacts;
+
+    private List<String> projects;
+
+    private RefInterner interner;
+
+    @Setup( Level.Trial )
+    public void setup()
+    {
+        interner = new RefInterner();
+        artifacts = BenchmarkCorpus.artifactSpecs( CORPUS_SIZE, BenchmarkCorpus.DEFAULT_SEED );
+        projects = BenchmarkCorpus.projectVersionSpecs( CORPUS_SIZE, BenchmarkCorpus.DEFAULT_SEED );
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( CORPUS_SIZE )
+    public void parseArtifactRefs( final Blackhole hole )
+    {
+        for ( final String spec : artifacts )
+        {
+            hole.consume( SimpleArtifactRef.parse( spec )
+                                           .getVersionSpec() );
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( CORPUS_SIZE )
+    public void parseProjectVersionRefs( final Blackhole hole )
+    {
+        for ( final String gav : projects )
+        {
+            hole.consume( SimpleProjectVersionRef.parse( gav )
+                                                 .getVersionSpec() );
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( CORPUS_SIZE )
+    public void parseInternedProjectVersionRefs( final Blackhole hole )
+    {
+        for ( final String gav : projects )
+        {
+            hole.consume( SimpleProjectVersionRef.parse( gav, interner )
+                                                 .getVersionSpec() );
+        }
+    }
+
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.commonjava.atlas.maven.graph.jackson.ProjectRelationshipSerializerModule;
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+import org.commonjava.atlas.maven.ident.jackson.ProjectVersionRefSerializerModule;
+import org.commonjava.atlas.maven.ident.jackson.SmileSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Writing and reading a whole relationship graph as JSON and as Smile (with shared strings, see {@link SmileSupport}).
+ * The payload size of each format is printed when the trial starts.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class RelationshipFormatBenchmark
+{
+
+    private static final int GRAPH_SIZE = 100000;
+
+    private static final TypeReference<List<ProjectRelationship<?, ?>>> GRAPH_TYPE =
+        new TypeReference<List<ProjectRelationship<?, ?>>>()
+        {
+        };
+
+    @Param( { "json", "smile" } )
+    private String format;
+
+    private List<ProjectRelationship<?, ?>> graph;
+
+    private ObjectWriter writer;
+
+    private ObjectReader reader;
+
+    private byte[] payload;
+
+    @Setup( Level.Trial )
+    public void setup()
+        throws IOException
+    {
+        final ObjectMapper mapper;
+        if ( "smile".equals( format ) )
+        {
+            mapper = SmileSupport.newSmileMapper( new ProjectRelationshipSerializerModule() );
+        }
+        else
+        {
+            mapper = new ObjectMapper();
+            mapper.registerModules( new ProjectVersionRefSerializerModule(), new ProjectRelationshipSerializerModule() );
+        }
+
+        writer = mapper.writerFor( GRAPH_TYPE );
+        reader = mapper.readerFor( GRAPH_TYPE );
+
+        graph = BenchmarkCorpus.relationships( GRAPH_SIZE, BenchmarkCorpus.DEFAULT_SEED );
+        payload = writer.writeValueAsBytes( graph );
+        System.out.printf( "%n%s payload for %d relationships: %d bytes%n", format, GRAPH_SIZE, payload.length );
+    }
+
+    @Benchmark
+    public byte[] serialize()
+        throws IOException
+    {
+        return writer.writeValueAsBytes( graph );
+    }
+
+    @Benchmark
+    public List<ProjectRelationship<?, ?>> deserialize()
+        throws IOException
+    {
+        return reader.readValue( payload );
+    }
+
+}
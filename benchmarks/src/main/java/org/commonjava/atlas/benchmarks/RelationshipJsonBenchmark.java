@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.commonjava.atlas.maven.graph.jackson.ProjectRelationshipSerializerModule;
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+import org.commonjava.atlas.maven.ident.jackson.ProjectVersionRefSerializerModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * JSON round trips of relationships through {@link ProjectRelationshipSerializerModule}.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class RelationshipJsonBenchmark
+{
+
+    private static final int CORPUS_SIZE = 2000;
+
+    private ObjectMapper mapper;
+
+    private List<ProjectRelationship<?, ?>> relationships;
+
+    private List<String> json;
+
+    @Setup( Level.Trial )
+    public void setup()
+        throws IOException
+    {
+        mapper = new ObjectMapper();
+        mapper.registerModules( new ProjectVersionRefSerializerModule(), new ProjectRelationshipSerializerModule() );
+
+        relationships = BenchmarkCorpus.relationships( CORPUS_SIZE, BenchmarkCorpus.DEFAULT_SEED );
+        json = new ArrayList<String>( CORPUS_SIZE );
+        for ( final ProjectRelationship<?, ?> rel : relationships )
+        {
+            json.add( mapper.writeValueAsString( rel ) );
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( CORPUS_SIZE )
+    public void serialize( final Blackhole hole )
+        throws IOException
+    {
+        for ( final ProjectRelationship<?, ?> rel : relationships )
+        {
+            hole.consume( mapper.writeValueAsString( rel ) );
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( CORPUS_SIZE )
+    public void deserialize( final Blackhole hole )
+        throws IOException
+    {
+        for ( final String value : json )
+        {
+            hole.consume( mapper.readValue( value, ProjectRelationship.class ) );
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( CORPUS_SIZE )
+    public void roundTrip( final Blackhole hole )
+        throws IOException
+    {
+        for ( final ProjectRelationship<?, ?> rel : relationships )
+        {
+            hole.consume( mapper.readValue( mapper.writeValueAsString( rel ), ProjectRelationship.class ) );
+        }
+    }
+
+}
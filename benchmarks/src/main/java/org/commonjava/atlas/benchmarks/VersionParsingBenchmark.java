@@ -0,0 +1,157 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.commonjava.atlas.maven.ident.util.VersionUtils;
+import org.commonjava.atlas.maven.ident.version.SingleVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parsing and validation through {@link VersionUtils}, with and without the parsed-version cache, and hashing of
+ * already parsed versions. Scores are per expression.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class VersionParsingBenchmark
+{
+
+    private static final int CORPUS_SIZE = 10000;
+
+    /**
+     * Size of the parsed-version cache; 0 disables it. The corpus repeats versions the way a dependency graph does,
+     * so the cached runs show the hit-rate benefit, not just the lookup cost.
+     */
+    @Param( { "0", "4096" } )
+    public int cacheSize;
+
+    private List<String> versions;
+
+    private List<String> ranges;
+
+    private List<SingleVersion> parsed;
+
+    @Setup( Level.Trial )
+    public void setup()
+    {
+        versions = BenchmarkCorpus.versions( CORPUS_SIZE, BenchmarkCorpus.DEFAULT_SEED );
+        ranges = BenchmarkCorpus.ranges( CORPUS_SIZE, BenchmarkCorpus.DEFAULT_SEED );
+
+        if ( cacheSize > 0 )
+        {
+            VersionUtils.enableCache( cacheSize );
+        }
+        else
+        {
+            VersionUtils.disableCache();
+        }
+
+        parsed = new ArrayList<SingleVersion>( CORPUS_SIZE );
+        for ( final String version : versions )
+        {
+            parsed.add( VersionUtils.createSingleVersion( version ) );
+        }
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown()
+    {
+        VersionUtils.disableCache();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( CORPUS_SIZE )
+    public void parseSingleVersions( final Blackhole hole )
+    {
+        for ( final String version : versions )
+        {
+            hole.consume( VersionUtils.createSingleVersion( version ) );
+        }
+    }
+
+    /**
+     * Lazy versions that are only hashed, the way most versions read from a repository index are used.
+     */
+    @Benchmark
+    @OperationsPerInvocation( CORPUS_SIZE )
+    public void hashLazySingleVersions( final Blackhole hole )
+    {
+        for ( final String version : versions )
+        {
+            hole.consume( VersionUtils.createLazySingleVersion( version )
+                                      .hashCode() );
+        }
+    }
+
+    /**
+     * Hash the phrases (and so the individual parts) of parsed versions, the per-part work that hash-based collections
+     * of versions repeat.
+     */
+    @Benchmark
+    @OperationsPerInvocation( CORPUS_SIZE )
+    public int hashPhrases()
+    {
+        int hash = 0;
+        for ( final SingleVersion version : parsed )
+        {
+            hash += version.getVersionPhrases()
+                           .hashCode();
+        }
+        return hash;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( CORPUS_SIZE )
+    public void parseRanges( final Blackhole hole )
+    {
+        for ( final String range : ranges )
+        {
+            hole.consume( VersionUtils.createFromSpec( range ) );
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation( CORPUS_SIZE )
+    public void validateSingleVersions( final Blackhole hole )
+    {
+        for ( final String version : versions )
+        {
+            hole.consume( VersionUtils.isValidSingleVersion( version ) );
+        }
+    }
+
+}
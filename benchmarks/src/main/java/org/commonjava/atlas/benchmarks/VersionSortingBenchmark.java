@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.commonjava.atlas.maven.ident.util.VersionUtils;
+import org.commonjava.atlas.maven.ident.version.SingleVersion;
+import org.commonjava.atlas.maven.ident.version.SnapshotResolver;
+import org.commonjava.atlas.maven.ident.version.VersionSpec;
+import org.commonjava.atlas.maven.ident.version.VersionSpecComparisons;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Ordering of parsed versions through {@link VersionSpecComparisons}, and picking the latest snapshot builds from
+ * the same versions with {@link SnapshotResolver}.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class VersionSortingBenchmark
+{
+
+    private static final int PAIRS = 10000;
+
+    @Param( { "1000", "10000" } )
+    public int size;
+
+    private List<VersionSpec> versions;
+
+    private SingleVersion[] left;
+
+    private SingleVersion[] right;
+
+    @Setup( Level.Trial )
+    public void setup()
+    {
+        versions = new ArrayList<VersionSpec>( size );
+        for ( final String version : BenchmarkCorpus.versions( size, BenchmarkCorpus.DEFAULT_SEED ) )
+        {
+            versions.add( VersionUtils.createSingleVersion( version ) );
+        }
+
+        final List<String> pairs = BenchmarkCorpus.versions( PAIRS * 2, BenchmarkCorpus.DEFAULT_SEED + 1 );
+        left = new SingleVersion[PAIRS];
+        right = new SingleVersion[PAIRS];
+        for ( int i = 0; i < PAIRS; i++ )
+        {
+            left[i] = VersionUtils.createSingleVersion( pairs.get( i * 2 ) );
+            right[i] = VersionUtils.createSingleVersion( pairs.get( i * 2 + 1 ) );
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit( TimeUnit.MICROSECONDS )
+    public List<VersionSpec> sortVersions()
+    {
+        final List<VersionSpec> copy = new ArrayList<VersionSpec>( versions );
+        Collections.sort( copy, VersionSpecComparisons.comparator() );
+        return copy;
+    }
+
+    @Benchmark
+    @OutputTimeUnit( TimeUnit.MICROSECONDS )
+    public SnapshotResolver resolveLatestSnapshots()
+    {
+        final SnapshotResolver resolver = new SnapshotResolver();
+        for ( final VersionSpec version : versions )
+        {
+            resolver.add( (SingleVersion) version );
+        }
+        return resolver;
+    }
+
+    @Benchmark
+    @OutputTimeUnit( TimeUnit.NANOSECONDS )
+    @OperationsPerInvocation( PAIRS )
+    public int compareVersionPairs()
+    {
+        int sum = 0;
+        for ( int i = 0; i < PAIRS; i++ )
+        {
+            sum += VersionSpecComparisons.compareTo( left[i], right[i] );
+        }
+        return sum;
+    }
+
+}
@@ -20,8 +20,10 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 import org.commonjava.atlas.maven.ident.ref.ProjectRef;
+import org.commonjava.atlas.maven.ident.ref.RefInterner;
 
 import java.io.IOException;
+import java.util.function.Function;
 
 /**
  * Created by jdcasey on 8/26/15.
@@ -33,16 +35,38 @@ public class ProjectRefDeserializer<T extends ProjectRef>
 
     private final Class<T> refCls;
 
+    private final Function<String, T> parser;
+
     public ProjectRefDeserializer( final Class<T> refCls )
+    {
+        this( refCls, null );
+    }
+
+    public ProjectRefDeserializer( final Class<T> refCls, final RefInterner interner )
+    {
+        this( SerializerIdentityUtils.parserFor( refCls, interner ), refCls );
+    }
+
+    /**
+     * @param parser see {@link SerializerIdentityUtils#parserFor(Class, RefInterner, int)}
+     */
+    public static <T extends ProjectRef> ProjectRefDeserializer<T> withParser( final Class<T> refCls,
+                                                                               final Function<String, T> parser )
+    {
+        return new ProjectRefDeserializer<T>( parser, refCls );
+    }
+
+    private ProjectRefDeserializer( final Function<String, T> parser, final Class<T> refCls )
     {
         super( refCls );
         this.refCls = refCls;
+        this.parser = parser;
     }
 
     @Override
     public T deserialize( final JsonParser jp, final DeserializationContext ctxt )
             throws IOException, JsonProcessingException
     {
-        return SerializerIdentityUtils.parse( jp.getText(), refCls );
+        return SerializerIdentityUtils.parseWith( jp.getText(), refCls, parser );
     }
 }
@@ -19,8 +19,10 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.KeyDeserializer;
 import org.commonjava.atlas.maven.ident.ref.ProjectRef;
+import org.commonjava.atlas.maven.ident.ref.RefInterner;
 
 import java.io.IOException;
+import java.util.function.Function;
 
 /**
  * Created by jdcasey on 8/26/15.
@@ -32,15 +34,37 @@ public class ProjectRefKeyDeserializer<T extends ProjectRef>
 
     private final Class<T> refCls;
 
+    private final Function<String, T> parser;
+
     public ProjectRefKeyDeserializer( final Class<T> type )
+    {
+        this( type, null );
+    }
+
+    public ProjectRefKeyDeserializer( final Class<T> type, final RefInterner interner )
+    {
+        this( SerializerIdentityUtils.parserFor( type, interner ), type );
+    }
+
+    /**
+     * @param parser see {@link SerializerIdentityUtils#parserFor(Class, RefInterner, int)}
+     */
+    public static <T extends ProjectRef> ProjectRefKeyDeserializer<T> withParser( final Class<T> type,
+                                                                                  final Function<String, T> parser )
+    {
+        return new ProjectRefKeyDeserializer<T>( parser, type );
+    }
+
+    private ProjectRefKeyDeserializer( final Function<String, T> parser, final Class<T> type )
     {
         this.refCls = type;
+        this.parser = parser;
     }
 
     @Override
     public Object deserializeKey( String key, DeserializationContext ctxt )
             throws IOException, JsonProcessingException
     {
-        return SerializerIdentityUtils.parse( key, refCls );
+        return SerializerIdentityUtils.parseWith( key, refCls, parser );
     }
 }
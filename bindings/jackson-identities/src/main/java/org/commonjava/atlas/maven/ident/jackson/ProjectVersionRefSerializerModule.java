@@ -19,10 +19,12 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.function.Function;
 
 import org.commonjava.atlas.maven.ident.ref.ArtifactRef;
 import org.commonjava.atlas.maven.ident.ref.ProjectRef;
 import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.RefInterner;
 import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
 import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
 import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
@@ -52,16 +54,34 @@ public class ProjectVersionRefSerializerModule
     public static final ProjectVersionRefSerializerModule INSTANCE = new ProjectVersionRefSerializerModule();
 
     public ProjectVersionRefSerializerModule()
+    {
+        this( null );
+    }
+
+    /**
+     * @param interner interns every deserialized ref (may be null)
+     */
+    public ProjectVersionRefSerializerModule( final RefInterner interner )
+    {
+        this( interner, 0 );
+    }
+
+    /**
+     * @param interner interns every deserialized ref (may be null)
+     * @param parseCacheSize how many parsed refs to keep per ref class, so that refs repeated across documents (map
+     *            keys especially) are only parsed once; 0 for no cache
+     */
+    public ProjectVersionRefSerializerModule( final RefInterner interner, final int parseCacheSize )
     {
         super( "ProjectRef (with variants) Serializer" );
 
         for ( Class<? extends ProjectRef> cls: REF_CLASSES )
         {
-            register( cls );
+            register( cls, interner, parseCacheSize );
         }
     }
 
-    private <T extends ProjectRef> void register( Class<T> cls )
+    private <T extends ProjectRef> void register( Class<T> cls, RefInterner interner, int parseCacheSize )
     {
         Logger logger = LoggerFactory.getLogger( getClass() );
         logger.debug( "Registering {} serializers/deserialers", cls.getSimpleName() );
@@ -69,8 +89,10 @@ public class ProjectVersionRefSerializerModule
         addSerializer( cls, new ProjectRefSerializer<T>( cls, false ) );
         addKeySerializer( cls, new ProjectRefSerializer<T>( cls, true ) );
 
-        addDeserializer( cls, new ProjectRefDeserializer<T>( cls ) );
-        addKeyDeserializer( cls, new ProjectRefKeyDeserializer<T>( cls ) );
+        // resolved once, and shared by the value and key deserializers (along with its cache, if any).
+        final Function<String, T> parser = SerializerIdentityUtils.parserFor( cls, interner, parseCacheSize );
+        addDeserializer( cls, ProjectRefDeserializer.withParser( cls, parser ) );
+        addKeyDeserializer( cls, ProjectRefKeyDeserializer.withParser( cls, parser ) );
     }
 
     @Override
@@ -16,17 +16,19 @@
 package org.commonjava.atlas.maven.ident.jackson;
 
 import org.commonjava.atlas.maven.ident.ref.ArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.InvalidRefException;
 import org.commonjava.atlas.maven.ident.ref.ProjectRef;
 import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.RefInterner;
 import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
 import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
 import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
 import org.commonjava.atlas.maven.ident.ref.SimpleVersionlessArtifactRef;
 import org.commonjava.atlas.maven.ident.ref.VersionlessArtifactRef;
+import org.commonjava.atlas.maven.ident.util.ParseCache;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
+import java.util.function.Function;
 
 /**
  * Created by jdcasey on 8/26/15.
@@ -38,45 +40,138 @@ public final class SerializerIdentityUtils
     public static <T extends ProjectRef> T parse( final String value, final Class<T> type )
             throws IOException
     {
-        Class<?> realType = null;
-        if ( ArtifactRef.class.isAssignableFrom( type ) )
+        return parse( value, type, null );
+    }
+
+    /**
+     * Parse the ref, interning the result if an interner is given. (If the shared {@link RefInterner} is enabled, the
+     * ref is also interned there.) To parse many refs of the same type, get a parser from
+     * {@link #parserFor(Class, RefInterner)} once and reuse it instead.
+     */
+    public static <T extends ProjectRef> T parse( final String value, final Class<T> type, final RefInterner interner )
+            throws IOException
+    {
+        return parseWith( value, type, parserFor( type, interner ) );
+    }
+
+    /**
+     * Parse the ref with a parser from {@link #parserFor(Class, RefInterner)}, reporting a missing parser or an
+     * invalid ref as an {@link IOException}.
+     */
+    public static <T extends ProjectRef> T parseWith( final String value, final Class<T> type,
+                                                      final Function<String, T> parser )
+            throws IOException
+    {
+        if ( parser == null )
         {
-            realType = SimpleArtifactRef.class;
+            throw new IOException( "Cannot find acceptable deserialization target class to parse: " + type.getSimpleName() );
         }
-        else if ( VersionlessArtifactRef.class.isAssignableFrom( type ) )
+
+        try
         {
-            realType = SimpleVersionlessArtifactRef.class;
+            return parser.apply( value );
         }
-        else if ( ProjectVersionRef.class.isAssignableFrom( type ) )
+        catch ( final InvalidRefException e )
         {
-            realType = SimpleProjectVersionRef.class;
+            throw new IOException( "Failed to parse " + type.getSimpleName() + " from: '" + value + "'", e );
         }
-        else if ( ProjectRef.class.isAssignableFrom( type ) )
+    }
+
+    /**
+     * @return a parser producing refs of the given type, resolved once so it can be reused for every value; or null
+     *         if refs of that type can't be parsed. The parsed refs are interned if an interner is given, and in the
+     *         shared {@link RefInterner} when that's enabled.
+     */
+    public static <T extends ProjectRef> Function<String, T> parserFor( final Class<T> type,
+                                                                        final RefInterner interner )
+    {
+        if ( ArtifactRef.class.isAssignableFrom( type ) )
         {
-            realType = SimpleProjectRef.class;
+            return new Function<String, T>()
+            {
+                @Override
+                public T apply( final String value )
+                {
+                    return type.cast( SimpleArtifactRef.parse( value, interner( interner ) ) );
+                }
+            };
         }
-        else
+        else if ( VersionlessArtifactRef.class.isAssignableFrom( type ) )
         {
-            throw new IOException( "Cannot find acceptable deserialization target class to parse: " + type.getSimpleName() );
+            return new Function<String, T>()
+            {
+                @Override
+                public T apply( final String value )
+                {
+                    final VersionlessArtifactRef ref = SimpleVersionlessArtifactRef.parse( value );
+                    final RefInterner refs = interner( interner );
+                    return type.cast( refs == null ? ref : refs.intern( ref ) );
+                }
+            };
         }
-
-        try
+        else if ( ProjectVersionRef.class.isAssignableFrom( type ) )
         {
-            final Method parseMethod = realType.getMethod( "parse", String.class );
-            return type.cast( parseMethod.invoke( null, value ) );
+            return new Function<String, T>()
+            {
+                @Override
+                public T apply( final String value )
+                {
+                    return type.cast( SimpleProjectVersionRef.parse( value, interner( interner ) ) );
+                }
+            };
         }
-        catch ( final NoSuchMethodException e )
+        else if ( ProjectRef.class.isAssignableFrom( type ) )
         {
-            throw new IOException( "Failed to lookup/invoke parse() method on " + type.getSimpleName(), e );
+            return new Function<String, T>()
+            {
+                @Override
+                public T apply( final String value )
+                {
+                    return type.cast( SimpleProjectRef.parse( value, interner( interner ) ) );
+                }
+            };
         }
-        catch ( final IllegalAccessException e )
+
+        return null;
+    }
+
+    /**
+     * @param cacheSize the number of parsed refs to keep, by their string form; refs are immutable, so cached
+     *            instances are shared between callers. With a size below 1, no cache is used.
+     * @return a parser as from {@link #parserFor(Class, RefInterner)}, that first looks the value up in a cache of its
+     *         own. This pays off when the same refs keep coming back, e.g. as map keys across a large document.
+     */
+    public static <T extends ProjectRef> Function<String, T> parserFor( final Class<T> type,
+                                                                        final RefInterner interner,
+                                                                        final int cacheSize )
+    {
+        final Function<String, T> parser = parserFor( type, interner );
+        if ( parser == null || cacheSize < 1 )
         {
-            throw new IOException( "Failed to lookup/invoke parse() method on " + type.getSimpleName(), e );
+            return parser;
         }
-        catch ( final InvocationTargetException e )
+
+        final ParseCache<T> cache = new ParseCache<T>( cacheSize );
+        return new Function<String, T>()
         {
-            throw new IOException( "Failed to lookup/invoke parse() method on " + type.getSimpleName(), e );
-        }
+            @Override
+            public T apply( final String value )
+            {
+                T ref = cache.get( value );
+                if ( ref == null )
+                {
+                    ref = parser.apply( value );
+                    cache.put( value, ref );
+                }
+
+                return ref;
+            }
+        };
+    }
+
+    private static RefInterner interner( final RefInterner interner )
+    {
+        return interner == null ? RefInterner.getShared() : interner;
     }
 
 }
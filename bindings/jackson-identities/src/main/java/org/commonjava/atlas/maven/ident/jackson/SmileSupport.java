@@ -0,0 +1,77 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.jackson;
+
+import org.commonjava.atlas.maven.ident.ref.RefInterner;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
+/**
+ * Binary (Smile) counterpart of the JSON mappers built from the Atlas modules. Smile is a drop-in for JSON as far as
+ * the serializers are concerned, so the same modules work unchanged; what's added here is that repeated field names
+ * and repeated short strings (the groupId:artifactId:version refs and scopes that make up most of a relationship
+ * graph) are written once and then referred back to, instead of being written out every time.
+ */
+public final class SmileSupport
+{
+
+    public static final String SMILE_CONTENT_TYPE = "application/x-jackson-smile";
+
+    private SmileSupport()
+    {
+    }
+
+    /**
+     * @return a factory writing shared property names and shared string values. Readers pick up which back-references
+     *         are in use from the document header, so any Smile factory can read what this one writes.
+     */
+    public static SmileFactory newSmileFactory()
+    {
+        return SmileFactory.builder()
+                           .enable( SmileGenerator.Feature.CHECK_SHARED_NAMES )
+                           .enable( SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES )
+                           .build();
+    }
+
+    /**
+     * @return a Smile mapper with {@link ProjectVersionRefSerializerModule} and the given modules (e.g. the
+     *         relationship module, if any) registered
+     */
+    public static ObjectMapper newSmileMapper( final Module... modules )
+    {
+        return newSmileMapperWithInterner( null, modules );
+    }
+
+    /**
+     * @param interner interns every deserialized ref (may be null)
+     * @see #newSmileMapper(Module...)
+     */
+    public static ObjectMapper newSmileMapperWithInterner( final RefInterner interner, final Module... modules )
+    {
+        final ObjectMapper mapper = new SmileMapper( newSmileFactory() );
+        mapper.registerModule( new ProjectVersionRefSerializerModule( interner ) );
+        if ( modules != null )
+        {
+            mapper.registerModules( modules );
+        }
+        return mapper;
+    }
+
+}
@@ -16,13 +16,21 @@
 package org.commonjava.atlas.maven.ident.jackson;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.commonjava.atlas.maven.ident.ref.ArtifactRef;
 import org.commonjava.atlas.maven.ident.ref.ProjectRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.RefInterner;
 import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
+import org.commonjava.atlas.maven.ident.ref.VersionlessArtifactRef;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -72,4 +80,65 @@ public class ProjectVersionRefSerializerModuleTest
         assertThat( result.get( pr ), equalTo( value ) );
     }
 
+    @Test
+    public void internedRefsAreShared()
+        throws Exception
+    {
+        final ObjectMapper interning = new ObjectMapper();
+        interning.registerModule( new ProjectVersionRefSerializerModule( new RefInterner() ) );
+
+        final String json = "[\"org.foo:bar:1.0\", \"org.foo:bar:1.0\"]";
+        final List<ProjectVersionRef> result = interning.readValue( json, new TypeReference<List<ProjectVersionRef>>()
+        {
+        } );
+
+        assertThat( result.get( 1 ), sameInstance( result.get( 0 ) ) );
+
+        final List<VersionlessArtifactRef> versionless =
+            interning.readValue( "[\"org.foo:bar:jar\", \"org.foo:bar:jar\"]",
+                                 new TypeReference<List<VersionlessArtifactRef>>()
+                                 {
+                                 } );
+
+        assertThat( versionless.get( 1 ), sameInstance( versionless.get( 0 ) ) );
+    }
+
+    @Test
+    public void cachedRefsAreSharedAcrossDocuments()
+        throws Exception
+    {
+        final ObjectMapper caching = new ObjectMapper();
+        caching.registerModule( new ProjectVersionRefSerializerModule( null, 100 ) );
+
+        final TypeReference<Map<ProjectVersionRef, ArtifactRef>> type =
+            new TypeReference<Map<ProjectVersionRef, ArtifactRef>>()
+            {
+            };
+        final String json = "{\"org.foo:bar:1.0\": \"org.foo:dep:2.0:jar\"}";
+
+        final List<Map.Entry<ProjectVersionRef, ArtifactRef>> entries =
+            new ArrayList<Map.Entry<ProjectVersionRef, ArtifactRef>>();
+        for ( int i = 0; i < 2; i++ )
+        {
+            final Map<ProjectVersionRef, ArtifactRef> result = caching.readValue( json, type );
+            entries.addAll( result.entrySet() );
+        }
+
+        assertThat( entries.get( 1 ).getKey(), sameInstance( entries.get( 0 ).getKey() ) );
+        assertThat( entries.get( 1 ).getValue(), sameInstance( entries.get( 0 ).getValue() ) );
+
+        // keys and values share the parser (and its cache) of their class.
+        final ProjectVersionRef value = caching.readValue( "\"org.foo:bar:1.0\"", ProjectVersionRef.class );
+        assertThat( value, sameInstance( entries.get( 0 ).getKey() ) );
+    }
+
+    @Test( expected = IOException.class )
+    public void invalidRefsFailAsIOExceptions()
+        throws Exception
+    {
+        mapper.readValue( "{\"org.foo\": \"value\"}", new TypeReference<Map<ProjectVersionRef, String>>()
+        {
+        } );
+    }
+
 }
@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.jackson;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.commonjava.atlas.maven.ident.ref.ArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.RefInterner;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+public class SmileSupportTest
+{
+
+    @Test
+    public void refsRoundTrip()
+        throws Exception
+    {
+        final ObjectMapper mapper = SmileSupport.newSmileMapper();
+
+        final Map<ProjectRef, List<ArtifactRef>> refs = new LinkedHashMap<ProjectRef, List<ArtifactRef>>();
+        final List<ArtifactRef> artifacts = new ArrayList<ArtifactRef>();
+        artifacts.add( new SimpleArtifactRef( "org.foo", "bar", "1.0", "jar", "sources" ) );
+        artifacts.add( new SimpleArtifactRef( "org.foo", "bar", "1.0", "pom", null ) );
+        refs.put( new SimpleProjectRef( "org.foo", "bar" ), artifacts );
+
+        final byte[] smile = mapper.writeValueAsBytes( refs );
+        final Map<ProjectRef, List<ArtifactRef>> result =
+            mapper.readValue( smile, new TypeReference<Map<ProjectRef, List<ArtifactRef>>>()
+            {
+            } );
+
+        assertThat( result, equalTo( refs ) );
+    }
+
+    @Test
+    public void nullModulesGiveAPlainSmileMapper()
+        throws Exception
+    {
+        final ObjectMapper mapper = SmileSupport.newSmileMapper( (Module[]) null );
+        final ProjectVersionRef ref = new SimpleProjectVersionRef( "org.foo", "bar", "1.0" );
+
+        assertThat( mapper.readValue( mapper.writeValueAsBytes( ref ), ProjectVersionRef.class ), equalTo( ref ) );
+    }
+
+    @Test
+    public void internerIsUsedForDeserializedRefs()
+        throws Exception
+    {
+        final ObjectMapper mapper = SmileSupport.newSmileMapperWithInterner( new RefInterner() );
+        final List<ProjectVersionRef> refs = new ArrayList<ProjectVersionRef>();
+        refs.add( new SimpleProjectVersionRef( "org.foo", "bar", "1.0" ) );
+        refs.add( new SimpleProjectVersionRef( "org.foo", "bar", "1.0" ) );
+
+        final List<ProjectVersionRef> result =
+            mapper.readValue( mapper.writeValueAsBytes( refs ), new TypeReference<List<ProjectVersionRef>>()
+            {
+            } );
+
+        assertThat( result.get( 1 ), sameInstance( result.get( 0 ) ) );
+    }
+
+    @Test
+    public void repeatedRefsAreWrittenOnce()
+        throws Exception
+    {
+        final List<ProjectVersionRef> refs = new ArrayList<ProjectVersionRef>();
+        for ( int i = 0; i < 500; i++ )
+        {
+            refs.add( new SimpleProjectVersionRef( "org.foo", "bar-" + ( i % 5 ), "1." + ( i % 3 ) ) );
+        }
+
+        final byte[] smile = SmileSupport.newSmileMapper()
+                                         .writeValueAsBytes( refs );
+        final byte[] json = new ObjectMapper().registerModule( new ProjectVersionRefSerializerModule() )
+                                              .writeValueAsBytes( refs );
+
+        // 15 distinct values, every other occurrence is a back-reference of a byte or two.
+        assertTrue( smile.length + " vs. " + json.length, smile.length * 10 < json.length );
+
+        // plain Smile readers follow the back-references too.
+        final ObjectMapper reader = new ObjectMapper( new SmileFactory() );
+        reader.registerModule( new ProjectVersionRefSerializerModule() );
+        assertThat( reader.readValue( smile, new TypeReference<List<ProjectVersionRef>>()
+        {
+        } ), equalTo( refs ) );
+    }
+
+}
@@ -0,0 +1,365 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.ref;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.commonjava.atlas.maven.ident.util.VersionUtils;
+import org.commonjava.atlas.maven.ident.version.SingleVersion;
+import org.commonjava.atlas.maven.ident.version.VersionSpec;
+
+/**
+ * Compact binary encoding of refs and version specs, as an alternative to default Java serialization (which writes out
+ * the parsed phrases and parts of every version). Each groupId, artifactId, version, type and classifier string is
+ * written once per stream and referred back to by index after that, and versions are written as their expression and
+ * only parsed again when a decoded ref first needs its version spec.
+ * <p/>
+ * {@link Writer} and {@link Reader} work on any {@link DataOutput} / {@link DataInput}, so they can be used from the
+ * writeExternal / readExternal methods of an {@link java.io.Externalizable} value that holds refs, as well as on plain
+ * streams. The string dictionary lives for as long as the writer (or reader) does, so both sides must handle the same
+ * sequence of values, and call {@link Writer#reset()} / {@link Reader#reset()} at the same points if they do.
+ */
+public final class RefCodec
+{
+
+    private static final int NULL = 0;
+
+    private static final int PROJECT = 1;
+
+    private static final int PROJECT_VERSION = 2;
+
+    private static final int ARTIFACT = 3;
+
+    private static final int VERSIONLESS_ARTIFACT = 4;
+
+    private static final int SINGLE_VERSION = 1;
+
+    private static final int OTHER_VERSION_SPEC = 2;
+
+    // string codes: 0 is null, 1 is a new string (which follows), and anything above is a dictionary index + 2.
+    private static final int NULL_STRING = 0;
+
+    private static final int NEW_STRING = 1;
+
+    private RefCodec()
+    {
+    }
+
+    public static byte[] encode( final Collection<? extends ProjectRef> refs )
+        throws IOException
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream( bytes );
+        final Writer writer = new Writer( out );
+
+        writer.writeVarInt( refs.size() );
+        for ( final ProjectRef ref : refs )
+        {
+            writer.writeRef( ref );
+        }
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    public static List<ProjectRef> decode( final byte[] data )
+        throws IOException
+    {
+        return decode( data, RefInterner.getShared() );
+    }
+
+    /**
+     * @param interner interns every decoded ref (may be null)
+     */
+    public static List<ProjectRef> decode( final byte[] data, final RefInterner interner )
+        throws IOException
+    {
+        final Reader reader = new Reader( new DataInputStream( new ByteArrayInputStream( data ) ), interner );
+
+        final int size = reader.readVarInt();
+        if ( size < 0 )
+        {
+            throw new StreamCorruptedException( "Invalid ref count: " + size );
+        }
+
+        final List<ProjectRef> refs = new ArrayList<ProjectRef>( Math.min( size, data.length ) );
+        for ( int i = 0; i < size; i++ )
+        {
+            refs.add( reader.readRef() );
+        }
+
+        return refs;
+    }
+
+    public static final class Writer
+    {
+        private final DataOutput out;
+
+        private final Map<String, Integer> dictionary = new HashMap<String, Integer>();
+
+        public Writer( final DataOutput out )
+        {
+            this.out = out;
+        }
+
+        /**
+         * Write any ref (or null). It's read back as the Simple* class of its kind: artifact, versionless artifact,
+         * project version or project.
+         */
+        public void writeRef( final ProjectRef ref )
+            throws IOException
+        {
+            if ( ref == null )
+            {
+                out.writeByte( NULL );
+            }
+            else if ( ref instanceof ArtifactRef )
+            {
+                final ArtifactRef artifact = (ArtifactRef) ref;
+                out.writeByte( ARTIFACT );
+                writeGA( ref );
+                writeString( artifact.getVersionString() );
+                writeString( artifact.getType() );
+                writeString( artifact.getClassifier() );
+            }
+            else if ( ref instanceof VersionlessArtifactRef )
+            {
+                final VersionlessArtifactRef artifact = (VersionlessArtifactRef) ref;
+                out.writeByte( VERSIONLESS_ARTIFACT );
+                writeGA( ref );
+                writeString( artifact.getType() );
+                writeString( artifact.getClassifier() );
+            }
+            else if ( ref instanceof ProjectVersionRef )
+            {
+                out.writeByte( PROJECT_VERSION );
+                writeGA( ref );
+                writeString( ( (ProjectVersionRef) ref ).getVersionString() );
+            }
+            else
+            {
+                out.writeByte( PROJECT );
+                writeGA( ref );
+            }
+        }
+
+        /**
+         * Write a version spec (or null) as its expression.
+         */
+        public void writeVersionSpec( final VersionSpec spec )
+            throws IOException
+        {
+            if ( spec == null )
+            {
+                out.writeByte( NULL );
+            }
+            else
+            {
+                out.writeByte( spec instanceof SingleVersion ? SINGLE_VERSION : OTHER_VERSION_SPEC );
+                writeString( spec.renderStandard() );
+            }
+        }
+
+        /**
+         * Write a string (or null) through the dictionary.
+         */
+        public void writeString( final String value )
+            throws IOException
+        {
+            if ( value == null )
+            {
+                writeVarInt( NULL_STRING );
+                return;
+            }
+
+            final Integer index = dictionary.get( value );
+            if ( index != null )
+            {
+                writeVarInt( index + 2 );
+            }
+            else
+            {
+                dictionary.put( value, dictionary.size() );
+                writeVarInt( NEW_STRING );
+                out.writeUTF( value );
+            }
+        }
+
+        public void writeVarInt( final int value )
+            throws IOException
+        {
+            int v = value;
+            while ( ( v & ~0x7F ) != 0 )
+            {
+                out.writeByte( ( v & 0x7F ) | 0x80 );
+                v >>>= 7;
+            }
+
+            out.writeByte( v );
+        }
+
+        /**
+         * Forget the strings written so far; the next occurrence of each is written out in full again.
+         */
+        public void reset()
+        {
+            dictionary.clear();
+        }
+
+        private void writeGA( final ProjectRef ref )
+            throws IOException
+        {
+            writeString( ref.getGroupId() );
+            writeString( ref.getArtifactId() );
+        }
+    }
+
+    public static final class Reader
+    {
+        private final DataInput in;
+
+        private final RefInterner interner;
+
+        private final List<String> dictionary = new ArrayList<String>();
+
+        public Reader( final DataInput in )
+        {
+            this( in, RefInterner.getShared() );
+        }
+
+        /**
+         * @param interner interns every decoded ref (may be null)
+         */
+        public Reader( final DataInput in, final RefInterner interner )
+        {
+            this.in = in;
+            this.interner = interner;
+        }
+
+        /**
+         * Read a ref written by {@link Writer#writeRef(ProjectRef)}. Versions aren't parsed until they're used.
+         */
+        public ProjectRef readRef()
+            throws IOException
+        {
+            final int kind = in.readByte();
+            final ProjectRef ref;
+            switch ( kind )
+            {
+                case NULL:
+                    return null;
+                case PROJECT:
+                    ref = new SimpleProjectRef( readString(), readString() );
+                    break;
+                case PROJECT_VERSION:
+                    ref = new SimpleProjectVersionRef( readString(), readString(), readString() );
+                    break;
+                case ARTIFACT:
+                    ref = new SimpleArtifactRef( readString(), readString(), readString(), readString(),
+                                                 readString() );
+                    break;
+                case VERSIONLESS_ARTIFACT:
+                    ref = new SimpleVersionlessArtifactRef( readString(), readString(), readString(), readString() );
+                    break;
+                default:
+                    throw new StreamCorruptedException( "Unknown ref kind: " + kind );
+            }
+
+            return interner == null ? ref : interner.intern( ref );
+        }
+
+        /**
+         * Read a version spec written by {@link Writer#writeVersionSpec(VersionSpec)}. Single versions are parsed
+         * lazily (see {@link SingleVersion#lazy(String)}).
+         */
+        public VersionSpec readVersionSpec()
+            throws IOException
+        {
+            final int kind = in.readByte();
+            switch ( kind )
+            {
+                case NULL:
+                    return null;
+                case SINGLE_VERSION:
+                    return VersionUtils.createLazySingleVersion( readString() );
+                case OTHER_VERSION_SPEC:
+                    return VersionUtils.createFromSpec( readString() );
+                default:
+                    throw new StreamCorruptedException( "Unknown version spec kind: " + kind );
+            }
+        }
+
+        public String readString()
+            throws IOException
+        {
+            final int code = readVarInt();
+            if ( code == NULL_STRING )
+            {
+                return null;
+            }
+            else if ( code == NEW_STRING )
+            {
+                final String value = in.readUTF();
+                dictionary.add( value );
+                return value;
+            }
+
+            final int index = code - 2;
+            if ( index >= dictionary.size() )
+            {
+                throw new StreamCorruptedException( "Unknown string reference: " + index + " (dictionary size: "
+                    + dictionary.size() + ")" );
+            }
+
+            return dictionary.get( index );
+        }
+
+        public int readVarInt()
+            throws IOException
+        {
+            int value = 0;
+            for ( int shift = 0; shift < 32; shift += 7 )
+            {
+                final int b = in.readUnsignedByte();
+                value |= ( b & 0x7F ) << shift;
+                if ( ( b & 0x80 ) == 0 )
+                {
+                    return value;
+                }
+            }
+
+            throw new StreamCorruptedException( "Malformed variable-length int" );
+        }
+
+        public void reset()
+        {
+            dictionary.clear();
+        }
+    }
+
+}
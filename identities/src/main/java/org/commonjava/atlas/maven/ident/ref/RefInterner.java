@@ -0,0 +1,334 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.ref;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Thread-safe pool of canonical {@link SimpleProjectRef}, {@link SimpleProjectVersionRef}, {@link SimpleArtifactRef} and
+ * {@link SimpleVersionlessArtifactRef} instances, along with the groupId / artifactId / version strings they're made of. Entries are only weakly reachable
+ * from the pool, so anything no longer used elsewhere is dropped on the next garbage collection.
+ * <p/>
+ * Two refs are only interned to the same instance if they have the same class and render the same version string, so
+ * interning never changes what a ref looks like (1.0 and 1 are equal versions, but are kept apart here). Refs of any
+ * other class are returned unchanged.
+ * <p/>
+ * Interning is opt-in. Either pass an interner to the parse methods that accept one, or enable the shared interner
+ * (see {@link #INTERN_REFS_PROP} and {@link #enableShared()}), which the plain parse methods,
+ * {@link org.commonjava.atlas.maven.ident.util.IdentityUtils} and the Jackson bindings all use when it's set.
+ */
+public final class RefInterner
+{
+
+    /**
+     * When this system property is "true", the shared interner is enabled on startup.
+     */
+    public static final String INTERN_REFS_PROP = "atlas.ref.intern";
+
+    private static volatile RefInterner shared;
+
+    static
+    {
+        if ( Boolean.parseBoolean( System.getProperty( INTERN_REFS_PROP ) ) )
+        {
+            enableShared();
+        }
+    }
+
+    private final ConcurrentMap<Object, Entry> refs = new ConcurrentHashMap<Object, Entry>();
+
+    private final ConcurrentMap<Object, Entry> strings = new ConcurrentHashMap<Object, Entry>();
+
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<Object>();
+
+    /**
+     * Enable the shared interner, if it isn't already.
+     */
+    public static synchronized void enableShared()
+    {
+        if ( shared == null )
+        {
+            shared = new RefInterner();
+        }
+    }
+
+    public static synchronized void disableShared()
+    {
+        shared = null;
+    }
+
+    /**
+     * @return the shared interner, or null if it's disabled.
+     */
+    public static RefInterner getShared()
+    {
+        return shared;
+    }
+
+    /**
+     * Intern the ref with the shared interner, or return it unchanged if that's disabled.
+     */
+    public static <T extends ProjectRef> T internShared( final T ref )
+    {
+        final RefInterner interner = shared;
+        return interner == null ? ref : interner.intern( ref );
+    }
+
+    /**
+     * @return the canonical instance equivalent to the given ref, which is the ref itself (rebuilt around interned
+     *         strings) the first time it's seen.
+     */
+    public <T extends ProjectRef> T intern( final T ref )
+    {
+        if ( ref == null || !isInternable( ref ) )
+        {
+            return ref;
+        }
+
+        expungeStaleEntries();
+
+        final T found = lookup( refs, ref );
+        if ( found != null )
+        {
+            return found;
+        }
+
+        return insert( refs, rebuild( ref ) );
+    }
+
+    public String intern( final String value )
+    {
+        if ( value == null )
+        {
+            return null;
+        }
+
+        expungeStaleEntries();
+
+        final String found = lookup( strings, value );
+        if ( found != null )
+        {
+            return found;
+        }
+
+        return insert( strings, value );
+    }
+
+    /**
+     * @return the number of interned refs, including any that have been collected but not yet expunged.
+     */
+    public int size()
+    {
+        expungeStaleEntries();
+        return refs.size();
+    }
+
+    public void clear()
+    {
+        refs.clear();
+        strings.clear();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "RefInterner [refs=%s, strings=%s]", refs.size(), strings.size() );
+    }
+
+    private static boolean isInternable( final ProjectRef ref )
+    {
+        final Class<?> cls = ref.getClass();
+        return cls == SimpleProjectRef.class || cls == SimpleProjectVersionRef.class || cls == SimpleArtifactRef.class
+            || cls == SimpleVersionlessArtifactRef.class;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private <T extends ProjectRef> T rebuild( final T ref )
+    {
+        final String groupId = intern( ref.getGroupId() );
+        final String artifactId = intern( ref.getArtifactId() );
+        if ( ref.getClass() == SimpleProjectRef.class )
+        {
+            if ( groupId == ref.getGroupId() && artifactId == ref.getArtifactId() )
+            {
+                return ref;
+            }
+
+            return (T) new SimpleProjectRef( groupId, artifactId );
+        }
+
+        if ( ref.getClass() == SimpleVersionlessArtifactRef.class )
+        {
+            return (T) new SimpleVersionlessArtifactRef( new SimpleProjectRef( groupId, artifactId ),
+                                                         ( (VersionlessArtifactRef) ref ).getTypeAndClassifier() );
+        }
+
+        final ProjectVersionRef pvr = (ProjectVersionRef) ref;
+        final String versionString = intern( pvr.getVersionStringRaw() );
+        final SimpleProjectVersionRef rebuilt =
+            new SimpleProjectVersionRef( groupId, artifactId, pvr.getVersionSpecRaw(), versionString );
+
+        if ( ref.getClass() == SimpleArtifactRef.class )
+        {
+            return (T) new SimpleArtifactRef( rebuilt, ( (ArtifactRef) ref ).getTypeAndClassifier() );
+        }
+
+        return (T) rebuilt;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private <T> T lookup( final ConcurrentMap<Object, Entry> map, final T value )
+    {
+        final Entry entry = map.get( new Lookup( value ) );
+        return entry == null ? null : (T) entry.get();
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private <T> T insert( final ConcurrentMap<Object, Entry> map, final T value )
+    {
+        final Entry entry = new Entry( value, queue, map );
+        while ( true )
+        {
+            final Entry existing = map.putIfAbsent( entry, entry );
+            if ( existing == null )
+            {
+                return value;
+            }
+
+            // entries only match while their referent is alive, but it may be collected right after matching.
+            final Object current = existing.get();
+            if ( current != null )
+            {
+                return (T) current;
+            }
+
+            map.remove( existing, existing );
+        }
+    }
+
+    private void expungeStaleEntries()
+    {
+        Reference<?> ref;
+        while ( ( ref = queue.poll() ) != null )
+        {
+            final Entry entry = (Entry) ref;
+            entry.map.remove( entry, entry );
+        }
+    }
+
+    private static boolean matches( final Object first, final Object second )
+    {
+        if ( first == second )
+        {
+            return true;
+        }
+
+        if ( first == null || second == null || first.getClass() != second.getClass() || !first.equals( second ) )
+        {
+            return false;
+        }
+
+        if ( first instanceof ProjectVersionRef )
+        {
+            return ( (ProjectVersionRef) first ).getVersionString()
+                                                .equals( ( (ProjectVersionRef) second ).getVersionString() );
+        }
+
+        return true;
+    }
+
+    /**
+     * Weak pool entry. Once its referent is gone it's only equal to itself, which is how it gets removed.
+     */
+    private static final class Entry
+        extends WeakReference<Object>
+    {
+        private final int hash;
+
+        private final ConcurrentMap<Object, Entry> map;
+
+        Entry( final Object referent, final ReferenceQueue<Object> queue, final ConcurrentMap<Object, Entry> map )
+        {
+            super( referent, queue );
+            this.hash = referent.hashCode();
+            this.map = map;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals( final Object obj )
+        {
+            if ( this == obj )
+            {
+                return true;
+            }
+
+            if ( obj instanceof Entry )
+            {
+                final Object referent = get();
+                return referent != null && matches( referent, ( (Entry) obj ).get() );
+            }
+
+            if ( obj instanceof Lookup )
+            {
+                final Object referent = get();
+                return referent != null && matches( referent, ( (Lookup) obj ).value );
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * Strongly held probe, used to look up an entry without creating a weak reference.
+     */
+    private static final class Lookup
+    {
+        private final Object value;
+
+        Lookup( final Object value )
+        {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return value.hashCode();
+        }
+
+        @Override
+        public boolean equals( final Object obj )
+        {
+            if ( obj instanceof Entry )
+            {
+                return obj.equals( this );
+            }
+
+            return obj instanceof Lookup && matches( value, ( (Lookup) obj ).value );
+        }
+    }
+
+}
@@ -96,6 +96,14 @@ public class SimpleArtifactRef
     }
 
     public static SimpleArtifactRef parse( final String spec )
+    {
+        return parse( spec, RefInterner.getShared() );
+    }
+
+    /**
+     * Parse the ref, interning the result if an interner is given.
+     */
+    public static SimpleArtifactRef parse( final String spec, final RefInterner interner )
     {
         final String[] parts = spec.split( ":" );
 
@@ -128,7 +136,8 @@ public class SimpleArtifactRef
 
         // assume non-optional, because it might not matter if you're parsing a string like this...you'd be more careful if you were reading something
         // that had an optional field, because it's not in the normal GATV[C] spec.
-        return new SimpleArtifactRef( g, a, v, t, c );
+        final SimpleArtifactRef ref = new SimpleArtifactRef( g, a, v, t, c );
+        return interner == null ? ref : interner.intern( ref );
     }
 
     @Override
@@ -156,10 +165,10 @@ public class SimpleArtifactRef
     }
 
     @Override
-    public int hashCode()
+    protected int computeHashCode()
     {
         final int prime = 31;
-        int result = super.hashCode();
+        int result = super.computeHashCode();
         result = prime * result + ( ( tc == null ) ? 0 : tc.hashCode() );
         return result;
     }
@@ -34,6 +34,9 @@ public class SimpleProjectRef
     // NEVER null
     private final String artifactId;
 
+    // computed on first use; everything that goes into it is immutable, so a racy check is enough (as in String).
+    private transient int hash;
+
     public SimpleProjectRef( final String groupId, final String artifactId )
     {
         if ( isEmpty( groupId ) || isEmpty( artifactId ) )
@@ -53,6 +56,14 @@ public class SimpleProjectRef
     }
 
     public static ProjectRef parse( final String ga )
+    {
+        return parse( ga, RefInterner.getShared() );
+    }
+
+    /**
+     * Parse the ref, interning the result if an interner is given.
+     */
+    public static ProjectRef parse( final String ga, final RefInterner interner )
     {
         final String[] parts = ga.split( ":" );
         if ( parts.length < 2 || isEmpty( parts[0] ) || isEmpty( parts[1] ) )
@@ -61,7 +72,8 @@ public class SimpleProjectRef
                 + "')" );
         }
 
-        return new SimpleProjectRef( parts[0], parts[1] );
+        final ProjectRef ref = new SimpleProjectRef( parts[0], parts[1] );
+        return interner == null ? ref : interner.intern( ref );
     }
 
     @Override
@@ -114,6 +126,22 @@ public class SimpleProjectRef
 
     @Override
     public int hashCode()
+    {
+        int h = hash;
+        if ( h == 0 )
+        {
+            h = computeHashCode();
+            hash = h;
+        }
+
+        return h;
+    }
+
+    /**
+     * Compute the hash code, which {@link #hashCode()} caches. Subclasses that add fields to {@link #equals(Object)}
+     * extend this rather than hashCode().
+     */
+    protected int computeHashCode()
     {
         final int prime = 31;
         int result = 1;
@@ -38,10 +38,11 @@ public class SimpleProjectVersionRef
 
     private static final long serialVersionUID = 1L;
 
-    // NEVER null
-    private VersionSpec versionSpec;
+    // at least one of these is set on construction, and the other is derived from it on first use. Both are
+    // volatile so that a ref shared between threads is never seen half-initialized.
+    private volatile VersionSpec versionSpec;
 
-    private String versionString;
+    private volatile String versionString;
 
     public SimpleProjectVersionRef( final ProjectRef ref, final VersionSpec versionSpec )
     {
@@ -87,6 +88,14 @@ public class SimpleProjectVersionRef
     }
 
     public static ProjectVersionRef parse( final String gav )
+    {
+        return parse( gav, RefInterner.getShared() );
+    }
+
+    /**
+     * Parse the ref, interning the result if an interner is given.
+     */
+    public static ProjectVersionRef parse( final String gav, final RefInterner interner )
     {
         final String[] parts = gav.split( ":" );
         if ( parts.length < 3 || isEmpty( parts[0] ) || isEmpty( parts[1] ) || isEmpty( parts[2] ) )
@@ -96,7 +105,8 @@ public class SimpleProjectVersionRef
                                                + gav + "')" );
         }
 
-        return new SimpleProjectVersionRef( parts[0], parts[1], parts[2] );
+        final ProjectVersionRef ref = new SimpleProjectVersionRef( parts[0], parts[1], parts[2] );
+        return interner == null ? ref : interner.intern( ref );
     }
 
     @Override
@@ -209,18 +219,20 @@ public class SimpleProjectVersionRef
     @Override
     public VersionSpec getVersionSpec()
     {
-        if ( versionSpec == null )
+        VersionSpec spec = versionSpec;
+        if ( spec == null )
         {
-            versionSpec = VersionUtils.createFromSpec( versionString );
+            spec = VersionUtils.createFromSpec( versionString );
+            versionSpec = spec;
         }
-        return versionSpec;
+        return spec;
     }
 
     @Override
-    public int hashCode()
+    protected int computeHashCode()
     {
         final int prime = 31;
-        int result = super.hashCode();
+        int result = super.computeHashCode();
         result = prime * result + ( ( getVersionString() == null ) ? 0 : getVersionString().hashCode() );
         return result;
     }
@@ -302,12 +314,14 @@ public class SimpleProjectVersionRef
     @Override
     public String getVersionString()
     {
-        if ( versionString == null )
+        String version = versionString;
+        if ( version == null )
         {
-            versionString = versionSpec.renderStandard();
+            version = versionSpec.renderStandard();
+            versionString = version;
         }
 
-        return versionString;
+        return version;
     }
 
     @Override
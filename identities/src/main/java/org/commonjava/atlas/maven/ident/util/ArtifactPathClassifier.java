@@ -0,0 +1,544 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Sorts large numbers of repository paths (from a stream, a listing file or a directory tree) into artifacts,
+ * checksums, maven-metadata files and everything else, using {@link ArtifactPathInfo#parse(String)}. Paths are
+ * classified in batches on an executor, and each sink receives whole batches, from whichever thread classified them.
+ * Sinks must therefore be thread-safe; batches don't arrive in any particular order.
+ * <p/>
+ * Checksum paths of artifacts parse as artifacts too (with types like jar.sha1), but go to the checksum sink. Paths
+ * that don't look like artifacts go to the unrecognized sink. Sinks that aren't set discard their paths.
+ */
+public final class ArtifactPathClassifier
+{
+
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private static final String METADATA_PREFIX = "maven-metadata";
+
+    // listing files are mapped in windows of this size, each ending on a line break.
+    private static final int MAP_WINDOW = 64 * 1024 * 1024;
+
+    private final Consumer<? super List<ArtifactPathInfo>> artifacts;
+
+    private final Consumer<? super List<ArtifactPathInfo>> checksums;
+
+    private final Consumer<? super List<String>> metadata;
+
+    private final Consumer<? super List<String>> unrecognized;
+
+    private final ExecutorService executor;
+
+    private final int batchSize;
+
+    private final int maxPendingBatches;
+
+    private ArtifactPathClassifier( final Builder builder )
+    {
+        this.artifacts = builder.artifacts;
+        this.checksums = builder.checksums;
+        this.metadata = builder.metadata;
+        this.unrecognized = builder.unrecognized;
+        this.executor = builder.executor == null ? ForkJoinPool.commonPool() : builder.executor;
+        this.batchSize = builder.batchSize;
+        this.maxPendingBatches = builder.maxPendingBatches;
+    }
+
+    /**
+     * Classify the paths and wait until every sink has received its batches. The stream is not closed.
+     */
+    public Summary classify( final Stream<String> paths )
+    {
+        final Batcher batcher = new Batcher();
+        try
+        {
+            final Iterator<String> it = paths.iterator();
+            while ( it.hasNext() )
+            {
+                batcher.add( it.next() );
+            }
+
+            return batcher.finish();
+        }
+        finally
+        {
+            batcher.cancel();
+        }
+    }
+
+    /**
+     * Classify the paths listed in a file, one per line (UTF-8, blank lines ignored). The file is memory-mapped, and
+     * each line is decoded straight into the path string that ends up in its record.
+     */
+    public Summary classifyListing( final Path listing )
+        throws IOException
+    {
+        final Batcher batcher = new Batcher();
+        try (FileChannel channel = FileChannel.open( listing, StandardOpenOption.READ ))
+        {
+            final long size = channel.size();
+            byte[] line = new byte[256];
+
+            long position = 0;
+            while ( position < size )
+            {
+                final long windowSize = Math.min( MAP_WINDOW, size - position );
+                final MappedByteBuffer buffer = channel.map( FileChannel.MapMode.READ_ONLY, position, windowSize );
+                final boolean lastWindow = position + windowSize == size;
+
+                int lineStart = 0;
+                for ( int i = 0; i < windowSize; i++ )
+                {
+                    if ( buffer.get( i ) == '\n' )
+                    {
+                        line = addLine( batcher, buffer, lineStart, i, line );
+                        lineStart = i + 1;
+                    }
+                }
+
+                if ( lastWindow )
+                {
+                    addLine( batcher, buffer, lineStart, (int) windowSize, line );
+                    position = size;
+                }
+                else if ( lineStart == 0 )
+                {
+                    throw new IOException( "Line longer than " + MAP_WINDOW + " bytes at offset " + position + " of: "
+                        + listing );
+                }
+                else
+                {
+                    // start the next window at the beginning of the unfinished line.
+                    position += lineStart;
+                }
+            }
+
+            return batcher.finish();
+        }
+        finally
+        {
+            batcher.cancel();
+        }
+    }
+
+    /**
+     * Classify every regular file under the directory, by its path relative to it (using '/' as separator).
+     */
+    public Summary classifyTree( final Path root )
+        throws IOException
+    {
+        final Batcher batcher = new Batcher();
+        try (Stream<Path> files = Files.walk( root ))
+        {
+            final Iterator<Path> it = files.iterator();
+            while ( it.hasNext() )
+            {
+                final Path file = it.next();
+                if ( Files.isRegularFile( file ) )
+                {
+                    String path = root.relativize( file )
+                                      .toString();
+                    if ( File.separatorChar != '/' )
+                    {
+                        path = path.replace( File.separatorChar, '/' );
+                    }
+
+                    batcher.add( path );
+                }
+            }
+
+            return batcher.finish();
+        }
+        finally
+        {
+            batcher.cancel();
+        }
+    }
+
+    private byte[] addLine( final Batcher batcher, final MappedByteBuffer buffer, final int start, final int end,
+                            final byte[] line )
+    {
+        int len = end - start;
+        if ( len > 0 && buffer.get( end - 1 ) == '\r' )
+        {
+            len--;
+        }
+
+        if ( len == 0 )
+        {
+            return line;
+        }
+
+        final byte[] bytes = line.length < len ? new byte[Math.max( len, line.length * 2 )] : line;
+        // through Buffer, so this also links on Java 8.
+        ( (Buffer) buffer ).position( start );
+        buffer.get( bytes, 0, len );
+
+        batcher.add( new String( bytes, 0, len, StandardCharsets.UTF_8 ) );
+        return bytes;
+    }
+
+    private void classifyBatch( final List<String> paths, final Counts counts )
+    {
+        final List<ArtifactPathInfo> artifactBatch = new ArrayList<ArtifactPathInfo>();
+        final List<ArtifactPathInfo> checksumBatch = new ArrayList<ArtifactPathInfo>();
+        final List<String> metadataBatch = new ArrayList<String>();
+        final List<String> unrecognizedBatch = new ArrayList<String>();
+
+        for ( final String path : paths )
+        {
+            if ( isMetadata( path ) )
+            {
+                metadataBatch.add( path );
+                continue;
+            }
+
+            final ArtifactPathInfo info = ArtifactPathInfo.parse( path );
+            if ( info == null )
+            {
+                unrecognizedBatch.add( path );
+            }
+            else if ( ArtifactPathInfo.isChecksumPath( path ) )
+            {
+                checksumBatch.add( info );
+            }
+            else
+            {
+                artifactBatch.add( info );
+            }
+        }
+
+        counts.artifacts.addAndGet( artifactBatch.size() );
+        counts.checksums.addAndGet( checksumBatch.size() );
+        counts.metadata.addAndGet( metadataBatch.size() );
+        counts.unrecognized.addAndGet( unrecognizedBatch.size() );
+
+        deliver( artifacts, artifactBatch );
+        deliver( checksums, checksumBatch );
+        deliver( metadata, metadataBatch );
+        deliver( unrecognized, unrecognizedBatch );
+    }
+
+    private static <T> void deliver( final Consumer<? super List<T>> sink, final List<T> batch )
+    {
+        if ( sink != null && !batch.isEmpty() )
+        {
+            sink.accept( Collections.unmodifiableList( batch ) );
+        }
+    }
+
+    private static boolean isMetadata( final String path )
+    {
+        final int slash = Math.max( path.lastIndexOf( '/' ), path.lastIndexOf( '\\' ) );
+        return path.startsWith( METADATA_PREFIX, slash + 1 );
+    }
+
+    /**
+     * Groups paths into batches and hands them to the executor, keeping at most maxPendingBatches in flight so that a
+     * fast reader can't queue up the whole listing.
+     */
+    private final class Batcher
+    {
+        private final Counts counts = new Counts();
+
+        private final Semaphore pending = new Semaphore( maxPendingBatches );
+
+        private final ArrayDeque<Future<?>> futures = new ArrayDeque<Future<?>>();
+
+        private List<String> batch = new ArrayList<String>( batchSize );
+
+        void add( final String path )
+        {
+            batch.add( path );
+            if ( batch.size() == batchSize )
+            {
+                submit();
+            }
+        }
+
+        Summary finish()
+        {
+            if ( !batch.isEmpty() )
+            {
+                submit();
+            }
+
+            while ( !futures.isEmpty() )
+            {
+                await( futures.removeFirst() );
+            }
+
+            return new Summary( counts );
+        }
+
+        void cancel()
+        {
+            for ( final Future<?> future : futures )
+            {
+                future.cancel( true );
+            }
+        }
+
+        private void submit()
+        {
+            final List<String> paths = batch;
+            batch = new ArrayList<String>( batchSize );
+
+            try
+            {
+                pending.acquire();
+            }
+            catch ( final InterruptedException e )
+            {
+                Thread.currentThread()
+                      .interrupt();
+                throw new IllegalStateException( "Interrupted while waiting to classify paths", e );
+            }
+
+            final Future<?> future;
+            try
+            {
+                future = executor.submit( new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        try
+                        {
+                            classifyBatch( paths, counts );
+                        }
+                        finally
+                        {
+                            pending.release();
+                        }
+                    }
+                } );
+            }
+            catch ( final RuntimeException e )
+            {
+                // the batch never ran (e.g. the executor rejected it), so nothing else will hand its permit back.
+                pending.release();
+                throw e;
+            }
+            futures.addLast( future );
+
+            // surface sink failures early, and don't keep finished futures around.
+            while ( !futures.isEmpty() && futures.peekFirst()
+                                                 .isDone() )
+            {
+                await( futures.removeFirst() );
+            }
+        }
+
+        private void await( final Future<?> future )
+        {
+            try
+            {
+                future.get();
+            }
+            catch ( final InterruptedException e )
+            {
+                Thread.currentThread()
+                      .interrupt();
+                throw new IllegalStateException( "Interrupted while waiting to classify paths", e );
+            }
+            catch ( final ExecutionException e )
+            {
+                final Throwable cause = e.getCause();
+                if ( cause instanceof RuntimeException )
+                {
+                    throw (RuntimeException) cause;
+                }
+                if ( cause instanceof Error )
+                {
+                    throw (Error) cause;
+                }
+
+                throw new IllegalStateException( "Failed to classify paths: " + cause.getMessage(), cause );
+            }
+        }
+    }
+
+    private static final class Counts
+    {
+        private final AtomicLong artifacts = new AtomicLong();
+
+        private final AtomicLong checksums = new AtomicLong();
+
+        private final AtomicLong metadata = new AtomicLong();
+
+        private final AtomicLong unrecognized = new AtomicLong();
+    }
+
+    /**
+     * Number of paths sent to each sink (including sinks that weren't set).
+     */
+    public static final class Summary
+    {
+        private final long artifacts;
+
+        private final long checksums;
+
+        private final long metadata;
+
+        private final long unrecognized;
+
+        private Summary( final Counts counts )
+        {
+            this.artifacts = counts.artifacts.get();
+            this.checksums = counts.checksums.get();
+            this.metadata = counts.metadata.get();
+            this.unrecognized = counts.unrecognized.get();
+        }
+
+        public long getArtifactCount()
+        {
+            return artifacts;
+        }
+
+        public long getChecksumCount()
+        {
+            return checksums;
+        }
+
+        public long getMetadataCount()
+        {
+            return metadata;
+        }
+
+        public long getUnrecognizedCount()
+        {
+            return unrecognized;
+        }
+
+        public long getTotalCount()
+        {
+            return artifacts + checksums + metadata + unrecognized;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format( "Summary [artifacts=%s, checksums=%s, metadata=%s, unrecognized=%s]", artifacts,
+                                  checksums, metadata, unrecognized );
+        }
+    }
+
+    public static final class Builder
+    {
+        private Consumer<? super List<ArtifactPathInfo>> artifacts;
+
+        private Consumer<? super List<ArtifactPathInfo>> checksums;
+
+        private Consumer<? super List<String>> metadata;
+
+        private Consumer<? super List<String>> unrecognized;
+
+        private ExecutorService executor;
+
+        private int batchSize = DEFAULT_BATCH_SIZE;
+
+        private int maxPendingBatches = 2 * Runtime.getRuntime()
+                                                   .availableProcessors();
+
+        public Builder withArtifactSink( final Consumer<? super List<ArtifactPathInfo>> artifacts )
+        {
+            this.artifacts = artifacts;
+            return this;
+        }
+
+        public Builder withChecksumSink( final Consumer<? super List<ArtifactPathInfo>> checksums )
+        {
+            this.checksums = checksums;
+            return this;
+        }
+
+        public Builder withMetadataSink( final Consumer<? super List<String>> metadata )
+        {
+            this.metadata = metadata;
+            return this;
+        }
+
+        public Builder withUnrecognizedSink( final Consumer<? super List<String>> unrecognized )
+        {
+            this.unrecognized = unrecognized;
+            return this;
+        }
+
+        /**
+         * Run batches on this executor instead of the common fork-join pool. The executor isn't shut down.
+         */
+        public Builder withExecutor( final ExecutorService executor )
+        {
+            this.executor = executor;
+            return this;
+        }
+
+        public Builder withBatchSize( final int batchSize )
+        {
+            if ( batchSize < 1 )
+            {
+                throw new IllegalArgumentException( "Batch size must be positive. (Given: " + batchSize + ")" );
+            }
+
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public Builder withMaxPendingBatches( final int maxPendingBatches )
+        {
+            if ( maxPendingBatches < 1 )
+            {
+                throw new IllegalArgumentException(
+                    "Max pending batches must be positive. (Given: " + maxPendingBatches + ")" );
+            }
+
+            this.maxPendingBatches = maxPendingBatches;
+            return this;
+        }
+
+        public ArtifactPathClassifier build()
+        {
+            return new ArtifactPathClassifier( this );
+        }
+    }
+
+}
@@ -25,31 +25,10 @@ import org.commonjava.atlas.maven.ident.version.part.SnapshotPart;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class ArtifactPathInfo implements PathInfo
 {
-    private static final String GROUP_REGEX = "(([^/]+/)*[^/]+)"; // group 1~2
-
-    private static final String ARTIFACT_REGEX = "([^/]+)"; // group 3
-
-    private static final String VERSION_RAW_REGEX = "(([^/]+)(-SNAPSHOT)?)"; // group 4~6
-
-    private static final String CLASSIFIER_AND_TYPE = "-?(.+)";
-
-    // regex developed at: http://fiddle.re/tvk5
-    private static final String ARTIFACT_PATH_REGEX =
-            "/?" + GROUP_REGEX + "/" + ARTIFACT_REGEX + "/" + VERSION_RAW_REGEX + "/(\\3-((\\4)|(\\5-"
-                    + SnapshotUtils.RAW_REMOTE_SNAPSHOT_PART_PATTERN + "))" + CLASSIFIER_AND_TYPE + ")";
-
-    private static final int GROUP_ID_GROUP = 1;
-
-    private static final int ARTIFACT_ID_GROUP = 3;
-
-    private static final int FILE_GROUP = 7;
-
-    private static final int VERSION_GROUP = 8;
+    private static final String SNAPSHOT_SUFFIX = "-SNAPSHOT";
 
     // Note: this looks a little ugly, but it's also caused by the "classifier with dots" problem in maven artifacts.
     //       So for the file types with more than one extension separated by dots, we should treat them as special types
@@ -61,79 +40,174 @@ public class ArtifactPathInfo implements PathInfo
 
     private static final Set<String> CHECKSUM_TYPES = new HashSet<>( Arrays.asList( ".md5", ".sha1", ".sha128", ".sha256", ".sha384", ".sha512" ) );
 
-    public static ArtifactPathInfo parse( final String path )
+    private static final SuffixTrie CHECKSUM_SUFFIXES = new SuffixTrie( CHECKSUM_TYPES );
+
+    private static volatile SuffixTrie compoundExtensions = loadCompoundExtensions();
+
+    /**
+     * Re-read the compound extension types from the atlas.compoext.types system property. The property is only read
+     * when this class is loaded and when this method is called.
+     */
+    public static void reloadConfiguration()
     {
-        if ( path == null || path.isEmpty() )
+        compoundExtensions = loadCompoundExtensions();
+    }
+
+    private static SuffixTrie loadCompoundExtensions()
+    {
+        final String typesFromSys = System.getProperty( COMPOUND_EXTENSIONS_PROP );
+        final Set<String> compoundedExtensions = new HashSet<>( DEFAULT_COMPOUND_EXTENSIONS_TYPES );
+        if ( StringUtils.isNotBlank( typesFromSys ) )
         {
-            return null;
+            for ( final String type : typesFromSys.split( "," ) )
+            {
+                compoundedExtensions.add( type.trim() );
+            }
         }
 
-        final Matcher matcher = Pattern.compile( ARTIFACT_PATH_REGEX )
-                                       .matcher( path.replace( '\\', '/' ) );
-        if ( !matcher.matches() )
+        // if several types match a file, the first one in the set's iteration order wins.
+        return new SuffixTrie( compoundedExtensions );
+    }
+
+    /**
+     * Parse a path of the form <code>[/]group/path/artifactId/version/artifactId-version[-classifier].type</code>. The
+     * file version may also be a timestamped snapshot of a -SNAPSHOT directory version.
+     * <p/>
+     * This is a hand-written form of the regular expression
+     * <code>/?(([^/]+/)*[^/]+)/([^/]+)/(([^/]+)(-SNAPSHOT)?)/(\3-((\4)|(\5-([0-9]{8}.[0-9]{6})-([0-9]+)))-?(.+))</code>
+     * (developed at: http://fiddle.re/tvk5), including the way it backtracks, so it returns the same results.
+     */
+    public static ArtifactPathInfo parse( final String path )
+    {
+        if ( path == null || path.isEmpty() )
         {
             return null;
         }
 
-        final int groupCount = matcher.groupCount();
-        final String g = matcher.group( GROUP_ID_GROUP )
-                                .replace( '/', '.' );
-        final String a = matcher.group( ARTIFACT_ID_GROUP );
-        final String v = matcher.group( VERSION_GROUP );
+        final String p = path.replace( '\\', '/' );
+        final int start = p.charAt( 0 ) == '/' ? 1 : 0;
 
-        String c = "";
-        String t = null;
-
-        String left = matcher.group( groupCount );
-
-        // If the path is a checksum path, we should abandon the checksum type and analyze its real artifact.
-        String checksumType = null;
-        for ( String type : CHECKSUM_TYPES )
+        // slash positions, and the index of the first empty segment (which only the file part may contain).
+        int[] slashes = new int[16];
+        int count = 0;
+        int firstEmpty = -1;
+        int segmentStart = start;
+        for ( int i = start; i < p.length(); i++ )
         {
-            if ( left.endsWith( type ) )
+            if ( p.charAt( i ) == '/' )
             {
-                left = left.substring( 0, left.length() - type.length() );
-                checksumType = type;
-                break;
+                if ( count == slashes.length )
+                {
+                    slashes = Arrays.copyOf( slashes, count * 2 );
+                }
+
+                if ( firstEmpty < 0 && i == segmentStart )
+                {
+                    firstEmpty = count;
+                }
+
+                slashes[count++] = i;
+                segmentStart = i + 1;
             }
         }
 
-        // The classifier can contain dots or hyphens, it is hard to separate it from type. e.g,
-        // wildfly8.1.3.jar, project-sources.tar.gz, etc. We don't have a very solid pattern to match the classifier.
-        // Here we use the best guess.
-        final String typesFromSys = System.getProperty( COMPOUND_EXTENSIONS_PROP );
-        final Set<String> compoundedExtensions = new HashSet<>( DEFAULT_COMPOUND_EXTENSIONS_TYPES );
-        if ( StringUtils.isNotBlank( typesFromSys ) )
+        if ( firstEmpty < 0 )
         {
-            for ( final String type : typesFromSys.split( "," ) )
+            firstEmpty = count;
+        }
+
+        // like the regex, try the longest groupId first; the file name is then whatever follows the version directory.
+        for ( int i = Math.min( count, firstEmpty ) - 3; i > -1; i-- )
+        {
+            final ArtifactPathInfo info = parse( path, p, start, slashes[i], slashes[i + 1], slashes[i + 2] );
+            if ( info != null )
             {
-                compoundedExtensions.add( type.trim() );
+                return info;
             }
         }
-        for ( String type : compoundedExtensions )
+
+        return null;
+    }
+
+    private static ArtifactPathInfo parse( final String path, final String p, final int start, final int groupEnd,
+                                           final int artifactEnd, final int versionEnd )
+    {
+        final int artifactStart = groupEnd + 1;
+        final int artifactLen = artifactEnd - artifactStart;
+        final int versionStart = artifactEnd + 1;
+        final int versionLen = versionEnd - versionStart;
+        final int fileStart = versionEnd + 1;
+
+        if ( !p.regionMatches( fileStart, p, artifactStart, artifactLen ) || !charAt( p, fileStart + artifactLen, '-' ) )
+        {
+            return null;
+        }
+
+        final int fileVersionStart = fileStart + artifactLen + 1;
+
+        // the file version is the directory version...
+        int fileVersionEnd = -1;
+        int left = -1;
+        if ( p.regionMatches( fileVersionStart, p, versionStart, versionLen ) )
+        {
+            fileVersionEnd = fileVersionStart + versionLen;
+            left = classifierAndTypeStart( p, fileVersionEnd );
+        }
+
+        // ...or a timestamped snapshot of it, with or without its -SNAPSHOT suffix.
+        if ( left < 0 )
         {
-            if ( left.endsWith( type ) )
+            fileVersionEnd = remoteSnapshotEnd( p, fileVersionStart, versionStart, versionLen );
+            if ( fileVersionEnd < 0 && versionLen > SNAPSHOT_SUFFIX.length()
+                && p.startsWith( SNAPSHOT_SUFFIX, versionEnd - SNAPSHOT_SUFFIX.length() ) )
             {
-                t = type;
-                break;
+                fileVersionEnd =
+                    remoteSnapshotEnd( p, fileVersionStart, versionStart, versionLen - SNAPSHOT_SUFFIX.length() );
             }
+
+            if ( fileVersionEnd < 0 )
+            {
+                return null;
+            }
+
+            left = classifierAndTypeStart( p, fileVersionEnd );
         }
-        if ( t == null || t.isEmpty() )
+
+        final String g = p.substring( start, groupEnd )
+                          .replace( '/', '.' );
+        final String a = p.substring( artifactStart, artifactEnd );
+        final String v = p.substring( fileVersionStart, fileVersionEnd );
+
+        // If the path is a checksum path, we should abandon the checksum type and analyze its real artifact.
+        int leftEnd = p.length();
+        final String checksumType = CHECKSUM_SUFFIXES.match( p, left, leftEnd );
+        if ( checksumType != null )
         {
-            t = left.substring( left.lastIndexOf( "." ) + 1 ); // Otherwise, use the simple file ext as type
+            leftEnd -= checksumType.length();
         }
 
+        // The classifier can contain dots or hyphens, it is hard to separate it from type. e.g,
+        // wildfly8.1.3.jar, project-sources.tar.gz, etc. We don't have a very solid pattern to match the classifier.
+        // Here we use the best guess.
+        String t = compoundExtensions.match( p, left, leftEnd );
+        if ( t == null || t.isEmpty() )
+        {
+            // Otherwise, use the simple file ext as type
+            final int dot = p.lastIndexOf( '.', leftEnd - 1 );
+            t = p.substring( dot < left ? left : dot + 1, leftEnd );
+        }
 
+        String c = "";
         int extLen = t.length() + 1; // plus len of "."
-        int leftLen = left.length();
+        int leftLen = leftEnd - left;
         if ( leftLen > extLen )
         {
-            c = left.substring( 0, leftLen - extLen );
+            c = p.substring( left, left + leftLen - extLen );
         }
 
-        final String f = matcher.group( FILE_GROUP );
+        final String f = p.substring( fileStart );
 
-        if ( checksumType != null && CHECKSUM_TYPES.contains( checksumType ) )
+        if ( checksumType != null )
         {
             t = t + checksumType;
         }
@@ -141,6 +215,119 @@ public class ArtifactPathInfo implements PathInfo
         return new ArtifactPathInfo( g, a, v, c, t, f, path );
     }
 
+    /**
+     * @return true if the path ends with one of the checksum extensions (.md5, .sha1, ...)
+     */
+    static boolean isChecksumPath( final String path )
+    {
+        return CHECKSUM_SUFFIXES.match( path, 0, path.length() ) != null;
+    }
+
+    /**
+     * Match <code>base-yyyyMMdd.HHmmss-build</code> at the given position, where base is the version directory (or the
+     * part of it before -SNAPSHOT), backtracking over the build number as the regex does.
+     *
+     * @return the end of the snapshot version, or -1 if it doesn't match.
+     */
+    private static int remoteSnapshotEnd( final String p, final int pos, final int baseStart, final int baseLen )
+    {
+        if ( !p.regionMatches( pos, p, baseStart, baseLen ) || !charAt( p, pos + baseLen, '-' ) )
+        {
+            return -1;
+        }
+
+        int i = digits( p, pos + baseLen + 1, 8 );
+        if ( i < 0 || i >= p.length() || isLineTerminator( p.charAt( i ) ) )
+        {
+            return -1;
+        }
+
+        // the regex has an unescaped '.' between the date and time, which matches any code point.
+        i += Character.isSurrogatePair( p.charAt( i ), i + 1 < p.length() ? p.charAt( i + 1 ) : ' ' ) ? 2 : 1;
+
+        i = digits( p, i, 6 );
+        if ( i < 0 || !charAt( p, i, '-' ) )
+        {
+            return -1;
+        }
+
+        final int buildStart = i + 1;
+        int buildEnd = buildStart;
+        while ( buildEnd < p.length() && isDigit( p.charAt( buildEnd ) ) )
+        {
+            buildEnd++;
+        }
+
+        // the build number can't use up the whole path, since the classifier and type need at least one character.
+        if ( buildEnd == p.length() )
+        {
+            buildEnd--;
+        }
+
+        if ( buildEnd <= buildStart || classifierAndTypeStart( p, buildEnd ) < 0 )
+        {
+            return -1;
+        }
+
+        return buildEnd;
+    }
+
+    /**
+     * @return the start of the classifier and type following the file version (the regex's <code>-?(.+)</code>), or -1
+     *         if there are none.
+     */
+    private static int classifierAndTypeStart( final String p, final int pos )
+    {
+        if ( pos >= p.length() )
+        {
+            return -1;
+        }
+
+        for ( int i = pos; i < p.length(); i++ )
+        {
+            if ( isLineTerminator( p.charAt( i ) ) )
+            {
+                return -1;
+            }
+        }
+
+        return p.charAt( pos ) == '-' && pos + 1 < p.length() ? pos + 1 : pos;
+    }
+
+    private static int digits( final String p, final int pos, final int count )
+    {
+        if ( pos + count > p.length() )
+        {
+            return -1;
+        }
+
+        for ( int i = pos; i < pos + count; i++ )
+        {
+            if ( !isDigit( p.charAt( i ) ) )
+            {
+                return -1;
+            }
+        }
+
+        return pos + count;
+    }
+
+    private static boolean charAt( final String p, final int pos, final char c )
+    {
+        return pos < p.length() && p.charAt( pos ) == c;
+    }
+
+    private static boolean isDigit( final char c )
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    // the characters that '.' doesn't match in a java.util.regex.Pattern without flags.
+    private static boolean isLineTerminator( final char c )
+    {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
     private final String groupId;
 
     private final String artifactId;
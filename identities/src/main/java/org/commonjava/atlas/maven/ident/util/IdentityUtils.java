@@ -18,11 +18,15 @@ package org.commonjava.atlas.maven.ident.util;
 import org.commonjava.atlas.maven.ident.ref.ArtifactRef;
 import org.commonjava.atlas.maven.ident.ref.ProjectRef;
 import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.RefInterner;
 import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
 import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
 import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
 import org.commonjava.atlas.maven.ident.version.InvalidVersionSpecificationException;
 
+/**
+ * Factory methods for refs. When the shared {@link RefInterner} is enabled, the refs returned here are interned.
+ */
 public final class IdentityUtils
 {
 
@@ -33,25 +37,25 @@ public final class IdentityUtils
     public static ArtifactRef artifact( final String groupId, final String artifactId, final String version )
         throws InvalidVersionSpecificationException
     {
-        return new SimpleArtifactRef( projectVersion( groupId, artifactId, version ), null, null );
+        return RefInterner.internShared( new SimpleArtifactRef( groupId, artifactId, version, null, null ) );
     }
 
     public static ArtifactRef artifact( final ProjectVersionRef ref )
         throws InvalidVersionSpecificationException
     {
-        return new SimpleArtifactRef( ref, null, null );
+        return RefInterner.internShared( new SimpleArtifactRef( ref, null, null ) );
     }
 
     public static ArtifactRef artifact( final String groupId, final String artifactId, final String version,
                                         final String type, final String classifier )
         throws InvalidVersionSpecificationException
     {
-        return new SimpleArtifactRef( projectVersion( groupId, artifactId, version ), type, classifier );
+        return RefInterner.internShared( new SimpleArtifactRef( groupId, artifactId, version, type, classifier ) );
     }
 
     public static ArtifactRef artifact( final ProjectVersionRef dep, final String type, final String classifier )
     {
-        return new SimpleArtifactRef( dep, type, classifier );
+        return RefInterner.internShared( new SimpleArtifactRef( dep, type, classifier ) );
     }
 
     public static ProjectVersionRef projectVersion( final String src )
@@ -65,7 +69,7 @@ public final class IdentityUtils
 
         try
         {
-            return new SimpleProjectVersionRef( parts[0], parts[1], parts[2] );
+            return RefInterner.internShared( new SimpleProjectVersionRef( parts[0], parts[1], parts[2] ) );
         }
         catch ( final InvalidVersionSpecificationException e )
         {
@@ -77,7 +81,7 @@ public final class IdentityUtils
     public static ProjectVersionRef projectVersion( final String groupId, final String artifactId, final String version )
         throws InvalidVersionSpecificationException
     {
-        return new SimpleProjectVersionRef( groupId, artifactId, version );
+        return RefInterner.internShared( new SimpleProjectVersionRef( groupId, artifactId, version ) );
     }
 
     public static ProjectRef project( final String src )
@@ -89,13 +93,13 @@ public final class IdentityUtils
                 + "'. Must contain at least two fields separated by ':'" );
         }
 
-        return new SimpleProjectRef( parts[0], parts[1] );
+        return RefInterner.internShared( new SimpleProjectRef( parts[0], parts[1] ) );
     }
 
     public static ProjectRef project( final String groupId, final String artifactId )
         throws InvalidVersionSpecificationException
     {
-        return new SimpleProjectRef( groupId, artifactId );
+        return RefInterner.internShared( new SimpleProjectRef( groupId, artifactId ) );
     }
 
 }
@@ -0,0 +1,297 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Interval tree over values that each span a range of bounds, answering "which values could contain this point" in
+ * O(log n + k). It's a treap ordered by lower bound and augmented with the highest upper bound of each subtree. Bounds
+ * are compared with the given comparator; a null lower bound is below everything and a null upper bound is above
+ * everything. Every bound is treated as inclusive, so the values found are candidates, for the caller to check against
+ * whatever finer rules (exclusive bounds, snapshots, prereleases) apply to them.
+ * <p/>
+ * The same value may be added more than once; each addition gets its own {@link Entry}, which is what removes it.
+ * <p/>
+ * This class is not thread-safe.
+ */
+public final class IntervalTreap<B, V>
+{
+
+    private final Comparator<? super B> comparator;
+
+    private final Function<? super V, ? extends B> lower;
+
+    private final Function<? super V, ? extends B> upper;
+
+    private final Random priorities = new Random( 0x5eed );
+
+    private Entry<B, V> root;
+
+    private long sequence;
+
+    public IntervalTreap( final Comparator<? super B> comparator, final Function<? super V, ? extends B> lower,
+                          final Function<? super V, ? extends B> upper )
+    {
+        this.comparator = comparator;
+        this.lower = lower;
+        this.upper = upper;
+    }
+
+    /**
+     * @return the entry for this addition of the value, for {@link #remove(Entry)}
+     */
+    public Entry<B, V> add( final V value )
+    {
+        final Entry<B, V> entry =
+            new Entry<B, V>( value, lower.apply( value ), upper.apply( value ), sequence++, priorities.nextInt() );
+        root = insert( root, entry );
+        return entry;
+    }
+
+    public void remove( final Entry<B, V> entry )
+    {
+        root = delete( root, entry );
+    }
+
+    /**
+     * Pass every value whose bounds (taken as inclusive) contain the point to the visitor, in lower bound order.
+     */
+    public void stab( final B point, final Consumer<? super V> visitor )
+    {
+        stab( root, point, visitor );
+    }
+
+    public boolean isEmpty()
+    {
+        return root == null;
+    }
+
+    public void clear()
+    {
+        root = null;
+    }
+
+    private void stab( final Entry<B, V> node, final B point, final Consumer<? super V> visitor )
+    {
+        if ( node == null || compareUpper( node.maxUpper, point ) < 0 )
+        {
+            // nothing in this subtree reaches up to the point.
+            return;
+        }
+
+        stab( node.left, point, visitor );
+
+        if ( node.lower != null && comparator.compare( node.lower, point ) > 0 )
+        {
+            // this node and everything to its right start above the point.
+            return;
+        }
+
+        if ( compareUpper( node.upper, point ) >= 0 )
+        {
+            visitor.accept( node.value );
+        }
+
+        stab( node.right, point, visitor );
+    }
+
+    private Entry<B, V> insert( final Entry<B, V> node, final Entry<B, V> added )
+    {
+        if ( node == null )
+        {
+            return added;
+        }
+
+        if ( compareEntries( added, node ) < 0 )
+        {
+            node.left = insert( node.left, added );
+            if ( node.left.priority > node.priority )
+            {
+                return rotateRight( node );
+            }
+        }
+        else
+        {
+            node.right = insert( node.right, added );
+            if ( node.right.priority > node.priority )
+            {
+                return rotateLeft( node );
+            }
+        }
+
+        update( node );
+        return node;
+    }
+
+    private Entry<B, V> delete( final Entry<B, V> node, final Entry<B, V> removed )
+    {
+        if ( node == null )
+        {
+            return null;
+        }
+
+        if ( node == removed )
+        {
+            return merge( node.left, node.right );
+        }
+
+        if ( compareEntries( removed, node ) < 0 )
+        {
+            node.left = delete( node.left, removed );
+        }
+        else
+        {
+            node.right = delete( node.right, removed );
+        }
+
+        update( node );
+        return node;
+    }
+
+    private Entry<B, V> merge( final Entry<B, V> left, final Entry<B, V> right )
+    {
+        if ( left == null )
+        {
+            return right;
+        }
+        else if ( right == null )
+        {
+            return left;
+        }
+
+        if ( left.priority > right.priority )
+        {
+            left.right = merge( left.right, right );
+            update( left );
+            return left;
+        }
+        else
+        {
+            right.left = merge( left, right.left );
+            update( right );
+            return right;
+        }
+    }
+
+    private Entry<B, V> rotateRight( final Entry<B, V> node )
+    {
+        final Entry<B, V> pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update( node );
+        update( pivot );
+        return pivot;
+    }
+
+    private Entry<B, V> rotateLeft( final Entry<B, V> node )
+    {
+        final Entry<B, V> pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update( node );
+        update( pivot );
+        return pivot;
+    }
+
+    // recompute the highest upper bound of the node's subtree; null when any of them is unbounded.
+    private void update( final Entry<B, V> node )
+    {
+        B max = node.upper;
+        if ( max != null && node.left != null )
+        {
+            max = higherUpper( node.left.maxUpper, max );
+        }
+        if ( max != null && node.right != null )
+        {
+            max = higherUpper( node.right.maxUpper, max );
+        }
+
+        node.maxUpper = max;
+    }
+
+    private B higherUpper( final B first, final B second )
+    {
+        return first == null || comparator.compare( first, second ) > 0 ? first : second;
+    }
+
+    private int compareEntries( final Entry<B, V> first, final Entry<B, V> second )
+    {
+        int comp;
+        if ( first.lower == null || second.lower == null )
+        {
+            comp = first.lower == second.lower ? 0 : ( first.lower == null ? -1 : 1 );
+        }
+        else
+        {
+            comp = comparator.compare( first.lower, second.lower );
+        }
+
+        if ( comp != 0 )
+        {
+            return comp;
+        }
+
+        return first.sequence < second.sequence ? -1 : ( first.sequence == second.sequence ? 0 : 1 );
+    }
+
+    // a missing upper bound is above every point.
+    private int compareUpper( final B bound, final B point )
+    {
+        return bound == null ? 1 : comparator.compare( bound, point );
+    }
+
+    /**
+     * One addition of a value to the tree.
+     */
+    public static final class Entry<B, V>
+    {
+        private final V value;
+
+        private final B lower;
+
+        private final B upper;
+
+        private final long sequence;
+
+        private final int priority;
+
+        private B maxUpper;
+
+        private Entry<B, V> left;
+
+        private Entry<B, V> right;
+
+        Entry( final V value, final B lower, final B upper, final long sequence, final int priority )
+        {
+            this.value = value;
+            this.lower = lower;
+            this.upper = upper;
+            this.sequence = sequence;
+            this.priority = priority;
+            this.maxUpper = upper;
+        }
+
+        public V getValue()
+        {
+            return value;
+        }
+    }
+
+}
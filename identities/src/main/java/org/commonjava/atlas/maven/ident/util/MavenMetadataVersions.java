@@ -0,0 +1,427 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.commonjava.atlas.maven.ident.version.InvalidVersionSpecificationException;
+import org.commonjava.atlas.maven.ident.version.SingleVersion;
+import org.commonjava.atlas.maven.ident.version.SortedVersionList;
+
+/**
+ * The versions listed in a maven-metadata.xml file: the &lt;versions&gt; list, &lt;latest&gt; and &lt;release&gt;,
+ * and the &lt;snapshotVersions&gt; of snapshot metadata. The file is read with a StAX stream reader, picking out only
+ * these elements (and the coordinates), without building a document.
+ * <p/>
+ * Version strings that can't be parsed are skipped, and kept in {@link #getInvalidVersions()}.
+ */
+public final class MavenMetadataVersions
+{
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private final String groupId;
+
+    private final String artifactId;
+
+    private final String version;
+
+    private final SingleVersion latest;
+
+    private final SingleVersion release;
+
+    private final SortedVersionList versions;
+
+    private final List<SnapshotVersion> snapshotVersions;
+
+    private final Date lastUpdated;
+
+    private final List<String> invalidVersions;
+
+    private MavenMetadataVersions( final Reader reader )
+    {
+        this.groupId = reader.groupId;
+        this.artifactId = reader.artifactId;
+        this.version = reader.version;
+        this.latest = reader.latest;
+        this.release = reader.release;
+        this.versions = new SortedVersionList( reader.versions );
+        this.snapshotVersions = Collections.unmodifiableList( reader.snapshotVersions );
+        this.lastUpdated = reader.lastUpdated;
+        this.invalidVersions = Collections.unmodifiableList( reader.invalid );
+    }
+
+    public static MavenMetadataVersions read( final InputStream in )
+        throws IOException
+    {
+        final Reader reader = new Reader();
+        try
+        {
+            final XMLStreamReader xml = FACTORY.createXMLStreamReader( in );
+            try
+            {
+                reader.read( xml );
+            }
+            finally
+            {
+                xml.close();
+            }
+        }
+        catch ( final XMLStreamException e )
+        {
+            throw new IOException( "Failed to read maven metadata: " + e.getMessage(), e );
+        }
+
+        return new MavenMetadataVersions( reader );
+    }
+
+    public String getGroupId()
+    {
+        return groupId;
+    }
+
+    public String getArtifactId()
+    {
+        return artifactId;
+    }
+
+    /**
+     * @return the version in the coordinates of snapshot metadata (like '1.0-SNAPSHOT'), or null
+     */
+    public String getVersion()
+    {
+        return version;
+    }
+
+    public SingleVersion getLatest()
+    {
+        return latest;
+    }
+
+    public SingleVersion getRelease()
+    {
+        return release;
+    }
+
+    /**
+     * @return the entries of &lt;versions&gt;, sorted and without duplicates
+     */
+    public SortedVersionList getVersions()
+    {
+        return versions;
+    }
+
+    /**
+     * @return the entries of &lt;snapshotVersions&gt;, in document order
+     */
+    public List<SnapshotVersion> getSnapshotVersions()
+    {
+        return snapshotVersions;
+    }
+
+    /**
+     * @return the distinct values of &lt;snapshotVersions&gt;, sorted
+     */
+    public SortedVersionList getSnapshotVersionList()
+    {
+        final List<SingleVersion> values = new ArrayList<SingleVersion>( snapshotVersions.size() );
+        for ( final SnapshotVersion snapshot : snapshotVersions )
+        {
+            values.add( snapshot.getValue() );
+        }
+
+        return new SortedVersionList( values );
+    }
+
+    public Date getLastUpdated()
+    {
+        return lastUpdated == null ? null : new Date( lastUpdated.getTime() );
+    }
+
+    public List<String> getInvalidVersions()
+    {
+        return invalidVersions;
+    }
+
+    /**
+     * One &lt;snapshotVersion&gt; entry: the concrete version of the file with the given classifier and extension.
+     */
+    public static final class SnapshotVersion
+    {
+        private final String classifier;
+
+        private final String extension;
+
+        private final SingleVersion value;
+
+        private final Date updated;
+
+        SnapshotVersion( final String classifier, final String extension, final SingleVersion value,
+                         final Date updated )
+        {
+            this.classifier = classifier;
+            this.extension = extension;
+            this.value = value;
+            this.updated = updated;
+        }
+
+        public String getClassifier()
+        {
+            return classifier;
+        }
+
+        public String getExtension()
+        {
+            return extension;
+        }
+
+        public SingleVersion getValue()
+        {
+            return value;
+        }
+
+        public Date getUpdated()
+        {
+            return updated == null ? null : new Date( updated.getTime() );
+        }
+
+        @Override
+        public String toString()
+        {
+            return "SnapshotVersion [" + classifier + ":" + extension + ":" + value + "]";
+        }
+    }
+
+    private static XMLInputFactory createFactory()
+    {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty( XMLInputFactory.SUPPORT_DTD, Boolean.FALSE );
+        factory.setProperty( XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE );
+        factory.setProperty( XMLInputFactory.IS_COALESCING, Boolean.TRUE );
+
+        return factory;
+    }
+
+    private static final class Reader
+    {
+        private final List<String> path = new ArrayList<String>();
+
+        private final List<SingleVersion> versions = new ArrayList<SingleVersion>();
+
+        private final List<SnapshotVersion> snapshotVersions = new ArrayList<SnapshotVersion>();
+
+        private final List<String> invalid = new ArrayList<String>();
+
+        private String groupId;
+
+        private String artifactId;
+
+        private String version;
+
+        private SingleVersion latest;
+
+        private SingleVersion release;
+
+        private Date lastUpdated;
+
+        private String classifier;
+
+        private String extension;
+
+        private String value;
+
+        private Date updated;
+
+        void read( final XMLStreamReader xml )
+            throws XMLStreamException
+        {
+            while ( xml.hasNext() )
+            {
+                final int event = xml.next();
+                if ( event == XMLStreamConstants.START_ELEMENT )
+                {
+                    final String name = xml.getLocalName();
+                    if ( isValue( name ) )
+                    {
+                        value( name, xml.getElementText()
+                                        .trim() );
+                    }
+                    else
+                    {
+                        if ( "snapshotVersion".equals( name ) )
+                        {
+                            classifier = null;
+                            extension = null;
+                            value = null;
+                            updated = null;
+                        }
+
+                        path.add( name );
+                    }
+                }
+                else if ( event == XMLStreamConstants.END_ELEMENT )
+                {
+                    final String name = path.remove( path.size() - 1 );
+                    if ( "snapshotVersion".equals( name ) && value != null && parent( "snapshotVersions" ) )
+                    {
+                        final SingleVersion v = parse( value );
+                        if ( v != null )
+                        {
+                            snapshotVersions.add( new SnapshotVersion( classifier, extension, v, updated ) );
+                        }
+                    }
+                }
+            }
+        }
+
+        // the leaf elements read as text, wherever they are; value(..) decides whether they matter.
+        private boolean isValue( final String name )
+        {
+            final String parent = path.isEmpty() ? null : path.get( path.size() - 1 );
+            if ( "metadata".equals( parent ) )
+            {
+                return "groupId".equals( name ) || "artifactId".equals( name ) || "version".equals( name );
+            }
+            else if ( "versioning".equals( parent ) )
+            {
+                return "latest".equals( name ) || "release".equals( name ) || "lastUpdated".equals( name );
+            }
+            else if ( "versions".equals( parent ) )
+            {
+                return "version".equals( name );
+            }
+            else if ( "snapshotVersion".equals( parent ) )
+            {
+                return "classifier".equals( name ) || "extension".equals( name ) || "value".equals( name )
+                    || "updated".equals( name );
+            }
+
+            return false;
+        }
+
+        private void value( final String name, final String text )
+        {
+            final String parent = path.get( path.size() - 1 );
+            if ( "metadata".equals( parent ) )
+            {
+                if ( "groupId".equals( name ) )
+                {
+                    groupId = text;
+                }
+                else if ( "artifactId".equals( name ) )
+                {
+                    artifactId = text;
+                }
+                else
+                {
+                    version = text;
+                }
+            }
+            else if ( "versioning".equals( parent ) )
+            {
+                if ( "latest".equals( name ) )
+                {
+                    latest = parse( text );
+                }
+                else if ( "release".equals( name ) )
+                {
+                    release = parse( text );
+                }
+                else
+                {
+                    lastUpdated = timestamp( text );
+                }
+            }
+            else if ( "versions".equals( parent ) )
+            {
+                final SingleVersion v = parse( text );
+                if ( v != null )
+                {
+                    versions.add( v );
+                }
+            }
+            else if ( "classifier".equals( name ) )
+            {
+                classifier = text;
+            }
+            else if ( "extension".equals( name ) )
+            {
+                extension = text;
+            }
+            else if ( "value".equals( name ) )
+            {
+                value = text;
+            }
+            else
+            {
+                updated = timestamp( text );
+            }
+        }
+
+        private boolean parent( final String name )
+        {
+            return !path.isEmpty() && name.equals( path.get( path.size() - 1 ) );
+        }
+
+        private SingleVersion parse( final String text )
+        {
+            if ( text.isEmpty() )
+            {
+                return null;
+            }
+
+            try
+            {
+                return VersionUtils.createSingleVersion( text );
+            }
+            catch ( final InvalidVersionSpecificationException e )
+            {
+                invalid.add( text );
+                return null;
+            }
+            catch ( final NumberFormatException e )
+            {
+                // a numeric part too big for the parser.
+                invalid.add( text );
+                return null;
+            }
+        }
+
+        private static Date timestamp( final String text )
+        {
+            try
+            {
+                return text.isEmpty() ? null : SnapshotUtils.parseUpdateTimestamp( text );
+            }
+            catch ( final ParseException e )
+            {
+                return null;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size-bounded, thread-safe cache of immutable values parsed from strings (versions, refs), keyed by the string they
+ * were parsed from. The cache is split into lock-striped segments, each of which evicts its least-recently-used entry
+ * once full. Since the values are immutable, cached instances are shared between all callers.
+ *
+ * @see VersionSpecCache
+ */
+public class ParseCache<T>
+{
+
+    private static final int DEFAULT_SEGMENTS = 16;
+
+    private final Segment<T>[] segments;
+
+    private final int maxSize;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ParseCache( final int maxSize )
+    {
+        if ( maxSize < 1 )
+        {
+            throw new IllegalArgumentException( "Cache size must be positive. (Given: " + maxSize + ")" );
+        }
+
+        this.maxSize = maxSize;
+
+        final int segmentCount = Math.min( DEFAULT_SEGMENTS, maxSize );
+        final int segmentSize = maxSize / segmentCount;
+        final int remainder = maxSize % segmentCount;
+
+        @SuppressWarnings( { "rawtypes", "unchecked" } )
+        final Segment<T>[] segs = new Segment[segmentCount];
+        for ( int i = 0; i < segs.length; i++ )
+        {
+            // spread the remainder, so the segments add up to exactly maxSize.
+            segs[i] = new Segment<T>( i < remainder ? segmentSize + 1 : segmentSize, evictions );
+        }
+
+        this.segments = segs;
+    }
+
+    public T get( final String key )
+    {
+        final Segment<T> segment = segmentFor( key );
+        final T result;
+        synchronized ( segment )
+        {
+            result = segment.get( key );
+        }
+
+        if ( result == null )
+        {
+            misses.incrementAndGet();
+        }
+        else
+        {
+            hits.incrementAndGet();
+        }
+
+        return result;
+    }
+
+    public void put( final String key, final T value )
+    {
+        final Segment<T> segment = segmentFor( key );
+        synchronized ( segment )
+        {
+            segment.put( key, value );
+        }
+    }
+
+    public void clear()
+    {
+        for ( final Segment<T> segment : segments )
+        {
+            synchronized ( segment )
+            {
+                segment.clear();
+            }
+        }
+    }
+
+    public int size()
+    {
+        int size = 0;
+        for ( final Segment<T> segment : segments )
+        {
+            synchronized ( segment )
+            {
+                size += segment.size();
+            }
+        }
+
+        return size;
+    }
+
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    public long getHitCount()
+    {
+        return hits.get();
+    }
+
+    public long getMissCount()
+    {
+        return misses.get();
+    }
+
+    public long getEvictionCount()
+    {
+        return evictions.get();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "%s [maxSize=%s, size=%s, hits=%s, misses=%s, evictions=%s]", getClass().getSimpleName(),
+                              maxSize, size(), getHitCount(), getMissCount(), getEvictionCount() );
+    }
+
+    private Segment<T> segmentFor( final String key )
+    {
+        int h = key.hashCode();
+        h ^= ( h >>> 16 );
+        return segments[( h & 0x7fffffff ) % segments.length];
+    }
+
+    private static final class Segment<T>
+        extends LinkedHashMap<String, T>
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        private final AtomicLong evictions;
+
+        Segment( final int capacity, final AtomicLong evictions )
+        {
+            super( 16, 0.75f, true );
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry( final Map.Entry<String, T> eldest )
+        {
+            if ( size() > capacity )
+            {
+                evictions.incrementAndGet();
+                return true;
+            }
+
+            return false;
+        }
+    }
+
+}
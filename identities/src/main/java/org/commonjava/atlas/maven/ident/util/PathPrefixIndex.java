@@ -0,0 +1,725 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import org.commonjava.atlas.maven.ident.ref.ProjectRef;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+
+/**
+ * In-memory index of parsed repository paths ({@link ArtifactPathInfo}, NpmPackagePathInfo, ...), stored in a trie
+ * keyed on path segments. Chains of single-child directories are compressed into one node, so queries only visit
+ * nodes that lead to results: a prefix query costs the length of the prefix plus the size of its result.
+ * <p/>
+ * Paths are split on '/' (or '\'), ignoring empty segments, so "/org/foo" and "org/foo" are the same path. Each path
+ * holds at most one entry. Reads may run concurrently; writes are exclusive.
+ * <p/>
+ * The index can be written to a compact snapshot with {@link #write(OutputStream)}, which stores every directory name
+ * once and the tree structure around it, and restored with {@link #read(InputStream, Function)}.
+ */
+public final class PathPrefixIndex<T extends PathInfo>
+{
+
+    private static final int SNAPSHOT_MAGIC = 0x41504958; // "APIX"
+
+    private static final int SNAPSHOT_VERSION = 1;
+
+    // how an entry's full path relates to the path of its node, in snapshots.
+    private static final int PATH_JOINED = 1;
+
+    private static final int PATH_ROOTED = 2;
+
+    private static final int PATH_EXPLICIT = 3;
+
+    private static final String[] NO_SEGMENTS = new String[0];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Node<T> root = new Node<T>( NO_SEGMENTS );
+
+    private int size;
+
+    /**
+     * Add the entry under its full path, replacing any entry already there.
+     *
+     * @return the replaced entry, or null
+     */
+    public T add( final T info )
+    {
+        final String[] segments = segments( info.getFullPath() );
+
+        lock.writeLock()
+            .lock();
+        try
+        {
+            Node<T> node = root;
+            int i = 0;
+            while ( i < segments.length )
+            {
+                final Node<T> child = node.child( segments[i] );
+                if ( child == null )
+                {
+                    final Node<T> leaf = new Node<T>( Arrays.copyOfRange( segments, i, segments.length ) );
+                    node.addChild( leaf );
+                    node = leaf;
+                    break;
+                }
+
+                final int common = child.commonLength( segments, i );
+                if ( common < child.label.length )
+                {
+                    node = node.split( child, common );
+                }
+                else
+                {
+                    node = child;
+                }
+
+                i += common;
+            }
+
+            final T old = node.value;
+            node.value = info;
+            if ( old == null )
+            {
+                size++;
+            }
+
+            return old;
+        }
+        finally
+        {
+            lock.writeLock()
+                .unlock();
+        }
+    }
+
+    public void addAll( final Iterable<? extends T> infos )
+    {
+        for ( final T info : infos )
+        {
+            add( info );
+        }
+    }
+
+    /**
+     * @return the removed entry, or null if there was none at that path
+     */
+    public T remove( final String path )
+    {
+        final String[] segments = segments( path );
+
+        lock.writeLock()
+            .lock();
+        try
+        {
+            final List<Node<T>> parents = new ArrayList<Node<T>>();
+            Node<T> node = root;
+            int i = 0;
+            while ( i < segments.length )
+            {
+                final Node<T> child = node.child( segments[i] );
+                if ( child == null || child.commonLength( segments, i ) < child.label.length )
+                {
+                    return null;
+                }
+
+                parents.add( node );
+                node = child;
+                i += child.label.length;
+            }
+
+            final T old = node.value;
+            if ( old == null )
+            {
+                return null;
+            }
+
+            node.value = null;
+            size--;
+
+            if ( node != root )
+            {
+                final Node<T> parent = parents.get( parents.size() - 1 );
+                if ( node.children == null )
+                {
+                    parent.removeChild( node );
+                    if ( parent != root && parent.value == null )
+                    {
+                        parents.get( parents.size() - 2 )
+                               .mergeIfSingleChild( parent );
+                    }
+                }
+                else
+                {
+                    parent.mergeIfSingleChild( node );
+                }
+            }
+
+            return old;
+        }
+        finally
+        {
+            lock.writeLock()
+                .unlock();
+        }
+    }
+
+    public T get( final String path )
+    {
+        final String[] segments = segments( path );
+
+        lock.readLock()
+            .lock();
+        try
+        {
+            final Position<T> pos = find( segments );
+            return pos == null || pos.depth != segments.length ? null : pos.node.value;
+        }
+        finally
+        {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    /**
+     * @return every entry whose path starts with the given directory (or is that path), in no particular order
+     */
+    public List<T> getUnder( final String prefix )
+    {
+        return collect( segments( prefix ), Integer.MAX_VALUE );
+    }
+
+    /**
+     * @return the entries directly inside the given directory
+     */
+    public List<T> getFilesIn( final String directory )
+    {
+        return collect( segments( directory ), 1 );
+    }
+
+    /**
+     * @return the entries in every version directory of the project, e.g. all files in org/foo/bar/* for org.foo:bar
+     */
+    public List<T> getByProject( final ProjectRef ref )
+    {
+        return collect( segments( projectPath( ref ) ), 2 );
+    }
+
+    /**
+     * @return the entries in the version directory of the project, e.g. all files in org/foo/bar/1.2 for
+     *         org.foo:bar:1.2
+     */
+    public List<T> getByProjectVersion( final ProjectVersionRef ref )
+    {
+        return collect( segments( projectPath( ref ) + '/' + ref.getVersionString() ), 1 );
+    }
+
+    public int size()
+    {
+        lock.readLock()
+            .lock();
+        try
+        {
+            return size;
+        }
+        finally
+        {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    public void clear()
+    {
+        lock.writeLock()
+            .lock();
+        try
+        {
+            root.children = null;
+            root.value = null;
+            size = 0;
+        }
+        finally
+        {
+            lock.writeLock()
+                .unlock();
+        }
+    }
+
+    /**
+     * Write a snapshot of the index. Entries are stored as their paths, and parsed again by
+     * {@link #read(InputStream, Function)}. The stream is not closed.
+     */
+    public void write( final OutputStream out )
+        throws IOException
+    {
+        lock.readLock()
+            .lock();
+        try
+        {
+            final Map<String, Integer> strings = new LinkedHashMap<String, Integer>();
+            collectStrings( root, new StringBuilder(), strings );
+
+            final DataOutputStream data = new DataOutputStream( out );
+            data.writeInt( SNAPSHOT_MAGIC );
+            data.writeInt( SNAPSHOT_VERSION );
+            writeVarInt( data, size );
+            writeVarInt( data, strings.size() );
+            for ( final String s : strings.keySet() )
+            {
+                data.writeUTF( s );
+            }
+
+            writeNode( data, root, new StringBuilder(), strings );
+            data.flush();
+        }
+        finally
+        {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    /**
+     * Restore an index from a snapshot written by {@link #write(OutputStream)}. Each stored path is passed to the
+     * parser (e.g. ArtifactPathInfo::parse); paths it returns null for are left out. The stream is not closed.
+     */
+    public static <T extends PathInfo> PathPrefixIndex<T> read( final InputStream in,
+                                                                final Function<String, ? extends T> parser )
+        throws IOException
+    {
+        final DataInputStream data = new DataInputStream( in );
+        if ( data.readInt() != SNAPSHOT_MAGIC )
+        {
+            throw new IOException( "Not a path index snapshot." );
+        }
+
+        final int version = data.readInt();
+        if ( version != SNAPSHOT_VERSION )
+        {
+            throw new IOException( "Unsupported path index snapshot version: " + version );
+        }
+
+        // the stored size is only informative; entries the parser rejects are dropped.
+        readVarInt( data );
+
+        final String[] strings = new String[readVarInt( data )];
+        for ( int i = 0; i < strings.length; i++ )
+        {
+            strings[i] = data.readUTF();
+        }
+
+        final PathPrefixIndex<T> index = new PathPrefixIndex<T>();
+        final Node<T> stored = index.readNode( data, new StringBuilder(), strings, parser );
+        index.root.children = stored.children;
+        index.root.value = stored.value;
+        return index;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "PathPrefixIndex [size=%s]", size() );
+    }
+
+    private List<T> collect( final String[] segments, final int maxDepth )
+    {
+        lock.readLock()
+            .lock();
+        try
+        {
+            final List<T> result = new ArrayList<T>();
+            final Position<T> pos = find( segments );
+            if ( pos != null )
+            {
+                collect( pos.node, pos.depth - segments.length, maxDepth, result );
+            }
+
+            return result;
+        }
+        finally
+        {
+            lock.readLock()
+                .unlock();
+        }
+    }
+
+    // depth is counted from the queried directory; subtrees deeper than maxDepth are skipped entirely.
+    private void collect( final Node<T> node, final int depth, final int maxDepth, final List<T> result )
+    {
+        if ( node.value != null && ( maxDepth == Integer.MAX_VALUE || depth == maxDepth ) )
+        {
+            result.add( node.value );
+        }
+
+        if ( node.children == null )
+        {
+            return;
+        }
+
+        for ( final Node<T> child : node.children.values() )
+        {
+            final int childDepth = depth + child.label.length;
+            if ( childDepth <= maxDepth )
+            {
+                collect( child, childDepth, maxDepth, result );
+            }
+        }
+    }
+
+    /**
+     * Find the node whose path starts with the given segments and is shortest, which may end below them if the last
+     * segments are the start of a compressed label.
+     */
+    private Position<T> find( final String[] segments )
+    {
+        Node<T> node = root;
+        int i = 0;
+        while ( i < segments.length )
+        {
+            final Node<T> child = node.child( segments[i] );
+            if ( child == null )
+            {
+                return null;
+            }
+
+            final int common = child.commonLength( segments, i );
+            if ( common < child.label.length && i + common < segments.length )
+            {
+                return null;
+            }
+
+            node = child;
+            i += child.label.length;
+        }
+
+        return new Position<T>( node, i );
+    }
+
+    private void collectStrings( final Node<T> node, final StringBuilder path, final Map<String, Integer> strings )
+    {
+        final int mark = path.length();
+        for ( final String segment : node.label )
+        {
+            intern( segment, strings );
+            appendSegment( path, segment );
+        }
+
+        if ( node.value != null && pathForm( node.value, path.toString() ) == PATH_EXPLICIT )
+        {
+            intern( node.value.getFullPath(), strings );
+        }
+
+        if ( node.children != null )
+        {
+            for ( final Node<T> child : node.children.values() )
+            {
+                collectStrings( child, path, strings );
+            }
+        }
+
+        path.setLength( mark );
+    }
+
+    private void writeNode( final DataOutputStream data, final Node<T> node, final StringBuilder path,
+                            final Map<String, Integer> strings )
+        throws IOException
+    {
+        final int mark = path.length();
+        writeVarInt( data, node.label.length );
+        for ( final String segment : node.label )
+        {
+            writeVarInt( data, strings.get( segment ) );
+            appendSegment( path, segment );
+        }
+
+        if ( node.value == null )
+        {
+            data.writeByte( 0 );
+        }
+        else
+        {
+            final int form = pathForm( node.value, path.toString() );
+            data.writeByte( form );
+            if ( form == PATH_EXPLICIT )
+            {
+                writeVarInt( data, strings.get( node.value.getFullPath() ) );
+            }
+        }
+
+        writeVarInt( data, node.children == null ? 0 : node.children.size() );
+        if ( node.children != null )
+        {
+            for ( final Node<T> child : node.children.values() )
+            {
+                writeNode( data, child, path, strings );
+            }
+        }
+
+        path.setLength( mark );
+    }
+
+    private Node<T> readNode( final DataInputStream data, final StringBuilder path, final String[] strings,
+                              final Function<String, ? extends T> parser )
+        throws IOException
+    {
+        final int mark = path.length();
+        final String[] label = new String[readVarInt( data )];
+        for ( int i = 0; i < label.length; i++ )
+        {
+            label[i] = strings[readVarInt( data )];
+            appendSegment( path, label[i] );
+        }
+
+        final Node<T> node = new Node<T>( label );
+
+        final int form = data.readByte();
+        if ( form != 0 )
+        {
+            final String fullPath;
+            switch ( form )
+            {
+                case PATH_JOINED:
+                    fullPath = path.toString();
+                    break;
+                case PATH_ROOTED:
+                    fullPath = "/" + path;
+                    break;
+                case PATH_EXPLICIT:
+                    fullPath = strings[readVarInt( data )];
+                    break;
+                default:
+                    throw new IOException( "Invalid path index snapshot: unknown path form: " + form );
+            }
+
+            final T info = parser.apply( fullPath );
+            if ( info != null )
+            {
+                node.value = info;
+                size++;
+            }
+        }
+
+        final int children = readVarInt( data );
+        for ( int i = 0; i < children; i++ )
+        {
+            node.addChild( readNode( data, path, strings, parser ) );
+        }
+
+        path.setLength( mark );
+        return node;
+    }
+
+    private static int pathForm( final PathInfo info, final String path )
+    {
+        final String fullPath = info.getFullPath();
+        if ( fullPath.equals( path ) )
+        {
+            return PATH_JOINED;
+        }
+
+        if ( fullPath.length() == path.length() + 1 && fullPath.charAt( 0 ) == '/' && fullPath.endsWith( path ) )
+        {
+            return PATH_ROOTED;
+        }
+
+        return PATH_EXPLICIT;
+    }
+
+    private static void intern( final String s, final Map<String, Integer> strings )
+    {
+        if ( !strings.containsKey( s ) )
+        {
+            strings.put( s, strings.size() );
+        }
+    }
+
+    private static void appendSegment( final StringBuilder path, final String segment )
+    {
+        if ( path.length() > 0 )
+        {
+            path.append( '/' );
+        }
+        path.append( segment );
+    }
+
+    private static String projectPath( final ProjectRef ref )
+    {
+        return ref.getGroupId()
+                  .replace( '.', '/' ) + '/' + ref.getArtifactId();
+    }
+
+    static String[] segments( final String path )
+    {
+        final List<String> result = new ArrayList<String>();
+        int start = 0;
+        for ( int i = 0; i <= path.length(); i++ )
+        {
+            if ( i == path.length() || path.charAt( i ) == '/' || path.charAt( i ) == '\\' )
+            {
+                if ( i > start )
+                {
+                    result.add( path.substring( start, i ) );
+                }
+                start = i + 1;
+            }
+        }
+
+        return result.toArray( NO_SEGMENTS );
+    }
+
+    private static void writeVarInt( final DataOutputStream data, final int value )
+        throws IOException
+    {
+        int v = value;
+        while ( ( v & ~0x7F ) != 0 )
+        {
+            data.writeByte( ( v & 0x7F ) | 0x80 );
+            v >>>= 7;
+        }
+        data.writeByte( v );
+    }
+
+    private static int readVarInt( final DataInputStream data )
+        throws IOException
+    {
+        int value = 0;
+        for ( int shift = 0; shift < 32; shift += 7 )
+        {
+            final int b = data.readUnsignedByte();
+            value |= ( b & 0x7F ) << shift;
+            if ( ( b & 0x80 ) == 0 )
+            {
+                return value;
+            }
+        }
+
+        throw new IOException( "Invalid path index snapshot: malformed number." );
+    }
+
+    private static final class Position<T>
+    {
+        private final Node<T> node;
+
+        // number of segments from the root to the end of the node's label.
+        private final int depth;
+
+        Position( final Node<T> node, final int depth )
+        {
+            this.node = node;
+            this.depth = depth;
+        }
+    }
+
+    private static final class Node<T>
+    {
+        private String[] label;
+
+        // keyed on the first segment of each child's label.
+        private Map<String, Node<T>> children;
+
+        private T value;
+
+        Node( final String[] label )
+        {
+            this.label = label;
+        }
+
+        Node<T> child( final String segment )
+        {
+            return children == null ? null : children.get( segment );
+        }
+
+        void addChild( final Node<T> child )
+        {
+            if ( children == null )
+            {
+                children = new HashMap<String, Node<T>>( 4 );
+            }
+            children.put( child.label[0], child );
+        }
+
+        void removeChild( final Node<T> child )
+        {
+            children.remove( child.label[0] );
+            if ( children.isEmpty() )
+            {
+                children = null;
+            }
+        }
+
+        int commonLength( final String[] segments, final int offset )
+        {
+            int i = 0;
+            while ( i < label.length && offset + i < segments.length && label[i].equals( segments[offset + i] ) )
+            {
+                i++;
+            }
+
+            return i;
+        }
+
+        /**
+         * Split the child's label after the given number of segments, inserting a new node there.
+         *
+         * @return the new node
+         */
+        Node<T> split( final Node<T> child, final int at )
+        {
+            final Node<T> mid = new Node<T>( Arrays.copyOfRange( child.label, 0, at ) );
+            child.label = Arrays.copyOfRange( child.label, at, child.label.length );
+            mid.addChild( child );
+            children.put( mid.label[0], mid );
+            return mid;
+        }
+
+        /**
+         * Fold the child (which has no entry) into its only remaining child, if that's all it has left.
+         */
+        void mergeIfSingleChild( final Node<T> child )
+        {
+            if ( child.value != null || child.children == null || child.children.size() != 1 )
+            {
+                return;
+            }
+
+            final Node<T> grandchild = child.children.values()
+                                                     .iterator()
+                                                     .next();
+            final String[] label = Arrays.copyOf( child.label, child.label.length + grandchild.label.length );
+            System.arraycopy( grandchild.label, 0, label, child.label.length, grandchild.label.length );
+            grandchild.label = label;
+            children.put( label[0], grandchild );
+        }
+    }
+
+}
@@ -18,14 +18,16 @@ package org.commonjava.atlas.maven.ident.util;
 import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.Calendar;
 import java.util.Date;
 import java.util.TimeZone;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.commonjava.atlas.maven.ident.version.part.SnapshotPart;
 
+/**
+ * Snapshot timestamps are always read and written in UTC, as Maven deploys them. The common fixed-width forms are
+ * handled by hand without a {@link DateFormat}; anything else (including years before the Gregorian cutover) falls
+ * back to a lenient {@link SimpleDateFormat}, so both paths accept and produce the same values.
+ */
 public class SnapshotUtils
 {
 
@@ -39,6 +41,19 @@ public class SnapshotUtils
 
     public static final String LOCAL_SNAPSHOT_VERSION_PART = "-SNAPSHOT";
 
+    public static final TimeZone SNAPSHOT_TIME_ZONE = TimeZone.getTimeZone( "UTC" );
+
+    private static final int SNAPSHOT_TSTAMP_LENGTH = SNAPSHOT_TSTAMP_FORMAT.length();
+
+    private static final int LAST_UPDATED_LENGTH = LAST_UPDATED_FORMAT.length();
+
+    // Below this year the legacy calendar switches to Julian dates, which the hand-rolled arithmetic doesn't model.
+    private static final int MIN_FAST_YEAR = 1600;
+
+    private static final int MAX_FAST_YEAR = 9999;
+
+    private static final long NOT_PARSED = Long.MIN_VALUE;
+
     public static String generateSnapshotSuffix( final Date d, final int buildNumber )
     {
         return generateSnapshotTimestamp( d ) + "-" + buildNumber;
@@ -46,14 +61,14 @@ public class SnapshotUtils
 
     public static String generateSnapshotTimestamp( final Date d )
     {
-        return getFormat().format( d );
+        final String result = formatTimestamp( d.getTime(), '.' );
+        return result == null ? getFormat( SNAPSHOT_TSTAMP_FORMAT ).format( d ) : result;
     }
 
     public static Date getCurrentTimestamp()
     {
-        final Calendar cal = Calendar.getInstance( TimeZone.getTimeZone( "UTC" ) );
-        cal.set( Calendar.MILLISECOND, 0 );
-        return cal.getTime();
+        final long now = System.currentTimeMillis();
+        return new Date( now - Math.floorMod( now, 1000L ) );
     }
 
     public static boolean isSnapshotVersion( final String literal )
@@ -63,55 +78,62 @@ public class SnapshotUtils
 
     public static boolean isRemoteSnapshotVersion( final String literal )
     {
-        return literal.matches( REMOTE_SNAPSHOT_PART_PATTERN );
+        return indexOfRemoteSnapshotPart( literal ) > -1;
     }
 
     public static boolean isRemoteSnapshotVersionPart( final String literal )
     {
-        return literal.matches( REMOTE_SNAPSHOT_PART_PATTERN );
+        return indexOfRemoteSnapshotPart( literal ) > -1;
     }
 
     public static SnapshotPart parseRemoteSnapshotVersionPart( final String literal )
     {
-        final Pattern pattern = Pattern.compile( REMOTE_SNAPSHOT_PART_PATTERN );
-        final Matcher matcher = pattern.matcher( literal );
-        if ( matcher.matches() )
+        final int start = indexOfRemoteSnapshotPart( literal );
+        if ( start < 0 )
         {
-            final String tstamp = matcher.group( 3 );
-            final String bn = matcher.group( 4 );
-            if ( tstamp != null || bn != null )
-            {
-                Date d;
-                try
-                {
-                    d = parseSnapshotTimestamp( tstamp );
-                }
-                catch ( final ParseException e )
-                {
-                    throw new IllegalArgumentException( "'" + literal
-                        + "' is not a remote snapshot version-part (of the format: " + SNAPSHOT_TSTAMP_FORMAT
-                        + "-NN (invalid timestamp)", e );
-                }
-                final int build = Integer.parseInt( bn );
+            throw new IllegalArgumentException( "'" + literal
+                + "' is not a remote snapshot version-part (of the format: " + SNAPSHOT_TSTAMP_FORMAT + "-NN" );
+        }
+
+        final int dash = literal.lastIndexOf( '-' );
 
-                return new SnapshotPart( d, build, literal );
+        long millis = parseTimestamp( literal, start, dash, '.' );
+        if ( millis == NOT_PARSED )
+        {
+            try
+            {
+                millis = parseSnapshotTimestamp( literal.substring( start, dash ) ).getTime();
+            }
+            catch ( final ParseException e )
+            {
+                throw new IllegalArgumentException( "'" + literal
+                    + "' is not a remote snapshot version-part (of the format: " + SNAPSHOT_TSTAMP_FORMAT
+                    + "-NN (invalid timestamp)", e );
             }
         }
 
-        throw new IllegalArgumentException( "'" + literal + "' is not a remote snapshot version-part (of the format: "
-            + SNAPSHOT_TSTAMP_FORMAT + "-NN" );
+        return new SnapshotPart( new Date( millis ), parseBuildNumber( literal, dash + 1 ), literal );
     }
 
     public static Date parseSnapshotTimestamp( final String tstamp )
         throws ParseException
     {
-        return getFormat().parse( tstamp );
+        if ( tstamp.length() == SNAPSHOT_TSTAMP_LENGTH )
+        {
+            final long millis = parseTimestamp( tstamp, 0, SNAPSHOT_TSTAMP_LENGTH, '.' );
+            if ( millis != NOT_PARSED )
+            {
+                return new Date( millis );
+            }
+        }
+
+        return getFormat( SNAPSHOT_TSTAMP_FORMAT ).parse( tstamp );
     }
 
-    private static DateFormat getFormat()
+    private static DateFormat getFormat( final String format )
     {
-        final SimpleDateFormat fmt = new SimpleDateFormat( SNAPSHOT_TSTAMP_FORMAT );
-        //        fmt.setTimeZone( TimeZone.getTimeZone( "UTC" ) );
+        final SimpleDateFormat fmt = new SimpleDateFormat( format );
+        fmt.setTimeZone( SNAPSHOT_TIME_ZONE );
 
         return fmt;
     }
@@ -133,13 +155,237 @@ public class SnapshotUtils
 
     public static String generateUpdateTimestamp( final Date d )
     {
-        return new SimpleDateFormat( LAST_UPDATED_FORMAT ).format( d );
+        final String result = formatTimestamp( d.getTime(), (char) 0 );
+        return result == null ? getFormat( LAST_UPDATED_FORMAT ).format( d ) : result;
     }
 
     public static Date parseUpdateTimestamp( final String tstamp )
         throws ParseException
     {
-        return new SimpleDateFormat( LAST_UPDATED_FORMAT ).parse( tstamp );
+        if ( tstamp.length() == LAST_UPDATED_LENGTH )
+        {
+            final long millis = parseTimestamp( tstamp, 0, LAST_UPDATED_LENGTH, (char) 0 );
+            if ( millis != NOT_PARSED )
+            {
+                return new Date( millis );
+            }
+        }
+
+        return getFormat( LAST_UPDATED_FORMAT ).parse( tstamp );
+    }
+
+    /**
+     * Find where the timestamp of a remote snapshot version starts, matching it the way
+     * {@link #REMOTE_SNAPSHOT_PART_PATTERN} would.
+     *
+     * @return the index of the timestamp, or -1 if the literal isn't a remote snapshot version
+     */
+    private static int indexOfRemoteSnapshotPart( final String literal )
+    {
+        final int len = literal.length();
+
+        int dash = len;
+        while ( dash > 0 && isDigit( literal.charAt( dash - 1 ) ) )
+        {
+            dash--;
+        }
+
+        if ( dash == len || dash == 0 || literal.charAt( --dash ) != '-' )
+        {
+            return -1;
+        }
+
+        int separator = dash - 7;
+        if ( separator < 0 || !isDigits( literal, separator + 1, dash ) )
+        {
+            return -1;
+        }
+
+        // the separator is any single code point except a line terminator
+        if ( separator > 0 && Character.isLowSurrogate( literal.charAt( separator ) )
+            && Character.isHighSurrogate( literal.charAt( separator - 1 ) ) )
+        {
+            separator--;
+        }
+        else if ( isLineTerminator( literal.charAt( separator ) ) )
+        {
+            return -1;
+        }
+
+        final int start = separator - 8;
+        if ( start < 0 || !isDigits( literal, start, separator ) )
+        {
+            return -1;
+        }
+
+        if ( start > 0 )
+        {
+            if ( start < 2 || literal.charAt( start - 1 ) != '-' )
+            {
+                return -1;
+            }
+
+            for ( int i = 0; i < start - 1; i++ )
+            {
+                if ( isLineTerminator( literal.charAt( i ) ) )
+                {
+                    return -1;
+                }
+            }
+        }
+
+        return start;
+    }
+
+    private static int parseBuildNumber( final String literal, final int start )
+    {
+        int result = 0;
+        for ( int i = start; i < literal.length(); i++ )
+        {
+            final int digit = literal.charAt( i ) - '0';
+            if ( result > ( Integer.MAX_VALUE - digit ) / 10 )
+            {
+                throw new NumberFormatException( "For input string: \"" + literal.substring( start ) + "\"" );
+            }
+
+            result = result * 10 + digit;
+        }
+
+        return result;
+    }
+
+    /**
+     * Parse 'yyyyMMdd' + separator + 'HHmmss' between start and end, or the same without a separator when it's 0.
+     * Out-of-range fields roll over as they would in a lenient calendar.
+     *
+     * @return the UTC epoch millis, or {@link #NOT_PARSED} if the value has to go through the legacy formatter
+     */
+    private static long parseTimestamp( final String value, final int start, final int end, final char separator )
+    {
+        final int time = separator == 0 ? start + 8 : start + 9;
+        if ( end - time != 6 || !isDigits( value, start, start + 8 ) || !isDigits( value, time, end )
+            || ( separator != 0 && value.charAt( start + 8 ) != separator ) )
+        {
+            return NOT_PARSED;
+        }
+
+        final int year = digits( value, start, 4 );
+        if ( year < MIN_FAST_YEAR )
+        {
+            return NOT_PARSED;
+        }
+
+        final int month = digits( value, start + 4, 2 ) - 1;
+        final long days = daysFromCivil( year + Math.floorDiv( month, 12 ), Math.floorMod( month, 12 ) + 1, 1 )
+            + digits( value, start + 6, 2 ) - 1;
+        final long seconds =
+            days * 86400L + digits( value, time, 2 ) * 3600L + digits( value, time + 2, 2 ) * 60L
+                + digits( value, time + 4, 2 );
+
+        return seconds * 1000L;
+    }
+
+    /**
+     * Format the UTC date and time of the given epoch millis as 'yyyyMMdd' + separator + 'HHmmss', leaving out the
+     * separator when it's 0.
+     *
+     * @return the formatted timestamp, or null if the year is outside the range handled here
+     */
+    private static String formatTimestamp( final long millis, final char separator )
+    {
+        final long seconds = Math.floorDiv( millis, 1000L );
+        final long days = Math.floorDiv( seconds, 86400L );
+        final int secondOfDay = (int) Math.floorMod( seconds, 86400L );
+
+        // civil-from-days, over 400-year eras starting on March 1st
+        final long z = days + 719468;
+        final long era = Math.floorDiv( z, 146097L );
+        final int dayOfEra = (int) ( z - era * 146097L );
+        final int yearOfEra = ( dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096 ) / 365;
+        final int dayOfYear = dayOfEra - ( 365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100 );
+        final int mp = ( 5 * dayOfYear + 2 ) / 153;
+        final int day = dayOfYear - ( 153 * mp + 2 ) / 5 + 1;
+        final int month = mp < 10 ? mp + 3 : mp - 9;
+        final long year = era * 400 + yearOfEra + ( month <= 2 ? 1 : 0 );
+
+        if ( year < MIN_FAST_YEAR || year > MAX_FAST_YEAR )
+        {
+            return null;
+        }
+
+        final char[] buf = new char[separator == 0 ? 14 : 15];
+        int pos = writeDigits( buf, 0, (int) year, 4 );
+        pos = writeDigits( buf, pos, month, 2 );
+        pos = writeDigits( buf, pos, day, 2 );
+        if ( separator != 0 )
+        {
+            buf[pos++] = separator;
+        }
+        pos = writeDigits( buf, pos, secondOfDay / 3600, 2 );
+        pos = writeDigits( buf, pos, secondOfDay / 60 % 60, 2 );
+        writeDigits( buf, pos, secondOfDay % 60, 2 );
+
+        return new String( buf );
+    }
+
+    /**
+     * Days from 1970-01-01 to the given proleptic Gregorian date, with month in 1-12.
+     */
+    private static long daysFromCivil( final long year, final int month, final int day )
+    {
+        final long y = month <= 2 ? year - 1 : year;
+        final long era = Math.floorDiv( y, 400L );
+        final int yearOfEra = (int) ( y - era * 400 );
+        final int dayOfYear = ( 153 * ( month > 2 ? month - 3 : month + 9 ) + 2 ) / 5 + day - 1;
+        final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+
+        return era * 146097L + dayOfEra - 719468L;
+    }
+
+    private static int writeDigits( final char[] buf, final int pos, final int value, final int width )
+    {
+        int v = value;
+        for ( int i = pos + width - 1; i >= pos; i-- )
+        {
+            buf[i] = (char) ( '0' + v % 10 );
+            v /= 10;
+        }
+
+        return pos + width;
+    }
+
+    private static int digits( final String value, final int start, final int count )
+    {
+        int result = 0;
+        for ( int i = start; i < start + count; i++ )
+        {
+            result = result * 10 + value.charAt( i ) - '0';
+        }
+
+        return result;
+    }
+
+    private static boolean isDigits( final String value, final int start, final int end )
+    {
+        for ( int i = start; i < end; i++ )
+        {
+            if ( !isDigit( value.charAt( i ) ) )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isDigit( final char c )
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLineTerminator( final char c )
+    {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
     }
 
 }
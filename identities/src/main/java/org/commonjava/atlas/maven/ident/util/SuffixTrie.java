@@ -0,0 +1,123 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of suffixes stored as a trie of their reversed characters, so that all suffixes of a string can be
+ * matched in one backwards walk. When several suffixes match, the one added first wins, which is how a loop over the
+ * suffixes calling {@link String#endsWith(String)} would behave.
+ */
+final class SuffixTrie
+{
+
+    private final Node root = new Node();
+
+    SuffixTrie( final Iterable<String> suffixes )
+    {
+        int rank = 0;
+        for ( final String suffix : suffixes )
+        {
+            Node node = root;
+            for ( int i = suffix.length() - 1; i > -1; i-- )
+            {
+                node = node.addChild( suffix.charAt( i ) );
+            }
+
+            if ( node.suffix == null )
+            {
+                node.suffix = suffix;
+                node.rank = rank;
+            }
+
+            rank++;
+        }
+    }
+
+    /**
+     * @return the first-added suffix that the characters between start (inclusive) and end (exclusive) end with, or
+     *         null if none of them match.
+     */
+    String match( final String value, final int start, final int end )
+    {
+        String result = null;
+        int best = Integer.MAX_VALUE;
+
+        Node node = root;
+        int i = end;
+        while ( node != null )
+        {
+            if ( node.suffix != null && node.rank < best )
+            {
+                result = node.suffix;
+                best = node.rank;
+            }
+
+            if ( i == start )
+            {
+                break;
+            }
+
+            node = node.child( value.charAt( --i ) );
+        }
+
+        return result;
+    }
+
+    private static final class Node
+    {
+        private char[] keys = new char[0];
+
+        private Node[] children = new Node[0];
+
+        private String suffix;
+
+        private int rank;
+
+        Node child( final char c )
+        {
+            final int idx = Arrays.binarySearch( keys, c );
+            return idx < 0 ? null : children[idx];
+        }
+
+        Node addChild( final char c )
+        {
+            int idx = Arrays.binarySearch( keys, c );
+            if ( idx > -1 )
+            {
+                return children[idx];
+            }
+
+            idx = -idx - 1;
+
+            final char[] newKeys = new char[keys.length + 1];
+            System.arraycopy( keys, 0, newKeys, 0, idx );
+            System.arraycopy( keys, idx, newKeys, idx + 1, keys.length - idx );
+            newKeys[idx] = c;
+
+            final Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy( children, 0, newChildren, 0, idx );
+            System.arraycopy( children, idx, newChildren, idx + 1, children.length - idx );
+            newChildren[idx] = new Node();
+
+            keys = newKeys;
+            children = newChildren;
+            return newChildren[idx];
+        }
+    }
+
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import org.commonjava.atlas.maven.ident.version.VersionSpec;
+
+/**
+ * {@link ParseCache} of parsed {@link VersionSpec} instances, keyed by their raw expression.
+ *
+ * @see VersionUtils#enableCache(int)
+ */
+public final class VersionSpecCache<T extends VersionSpec>
+    extends ParseCache<T>
+{
+
+    public VersionSpecCache( final int maxSize )
+    {
+        super( maxSize );
+    }
+
+}
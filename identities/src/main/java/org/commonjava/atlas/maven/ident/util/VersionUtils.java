@@ -20,18 +20,117 @@ import org.commonjava.atlas.maven.ident.version.RangeVersionSpec;
 import org.commonjava.atlas.maven.ident.version.SingleVersion;
 import org.commonjava.atlas.maven.ident.version.VersionSpec;
 import org.commonjava.atlas.maven.ident.version.parse.ParseException;
+import org.commonjava.atlas.maven.ident.version.parse.SingleVersionParser;
 import org.commonjava.atlas.maven.ident.version.parse.TokenMgrError;
 import org.commonjava.atlas.maven.ident.version.parse.VersionParser;
 
 public final class VersionUtils
 {
 
+    /**
+     * Maximum number of parsed versions to cache per parse method (single, range, and any spec). When this system
+     * property is unset or not a positive number, parsed versions are not cached.
+     */
+    public static final String VERSION_CACHE_SIZE_PROP = "atlas.version.cache.size";
+
+    private static volatile VersionSpecCache<VersionSpec> specCache;
+
+    private static volatile VersionSpecCache<RangeVersionSpec> rangeCache;
+
+    private static volatile VersionSpecCache<SingleVersion> singleCache;
+
+    static
+    {
+        final String size = System.getProperty( VERSION_CACHE_SIZE_PROP );
+        if ( size != null )
+        {
+            try
+            {
+                final int maxSize = Integer.parseInt( size.trim() );
+                if ( maxSize > 0 )
+                {
+                    enableCache( maxSize );
+                }
+            }
+            catch ( final NumberFormatException e )
+            {
+                // leave the cache disabled.
+            }
+        }
+    }
+
     private VersionUtils()
     {
     }
 
+    /**
+     * Enable (or resize) the caches of parsed versions, discarding anything cached previously. Cached instances are
+     * shared between callers, so they must not be modified.
+     */
+    public static synchronized void enableCache( final int maxSize )
+    {
+        specCache = new VersionSpecCache<VersionSpec>( maxSize );
+        rangeCache = new VersionSpecCache<RangeVersionSpec>( maxSize );
+        singleCache = new VersionSpecCache<SingleVersion>( maxSize );
+    }
+
+    public static synchronized void disableCache()
+    {
+        specCache = null;
+        rangeCache = null;
+        singleCache = null;
+    }
+
+    public static boolean isCacheEnabled()
+    {
+        return singleCache != null;
+    }
+
+    /**
+     * @return the cache backing {@link #createFromSpec(String)}, or null if caching is disabled.
+     */
+    public static VersionSpecCache<VersionSpec> getSpecCache()
+    {
+        return specCache;
+    }
+
+    /**
+     * @return the cache backing {@link #createRange(String)}, or null if caching is disabled.
+     */
+    public static VersionSpecCache<RangeVersionSpec> getRangeCache()
+    {
+        return rangeCache;
+    }
+
+    /**
+     * @return the cache backing {@link #createSingleVersion(String)}, or null if caching is disabled.
+     */
+    public static VersionSpecCache<SingleVersion> getSingleVersionCache()
+    {
+        return singleCache;
+    }
+
     public static VersionSpec createFromSpec( final String version )
         throws InvalidVersionSpecificationException
+    {
+        final VersionSpecCache<VersionSpec> cache = specCache;
+        if ( cache == null )
+        {
+            return parseSpec( version );
+        }
+
+        VersionSpec spec = version == null ? null : cache.get( version );
+        if ( spec == null )
+        {
+            spec = parseSpec( version );
+            cache.put( version, spec );
+        }
+
+        return spec;
+    }
+
+    private static VersionSpec parseSpec( final String version )
+        throws InvalidVersionSpecificationException
     {
         checkEmpty( version );
 
@@ -68,6 +167,25 @@ public final class VersionUtils
 
     public static RangeVersionSpec createRange( final String version )
         throws InvalidVersionSpecificationException
+    {
+        final VersionSpecCache<RangeVersionSpec> cache = rangeCache;
+        if ( cache == null )
+        {
+            return parseRange( version );
+        }
+
+        RangeVersionSpec spec = version == null ? null : cache.get( version );
+        if ( spec == null )
+        {
+            spec = parseRange( version );
+            cache.put( version, spec );
+        }
+
+        return spec;
+    }
+
+    private static RangeVersionSpec parseRange( final String version )
+        throws InvalidVersionSpecificationException
     {
         checkEmpty( version );
 
@@ -90,45 +208,50 @@ public final class VersionUtils
     public static SingleVersion createSingleVersion( final String version )
         throws InvalidVersionSpecificationException
     {
-        checkEmpty( version );
-
-        try
+        final VersionSpecCache<SingleVersion> cache = singleCache;
+        if ( cache == null )
         {
-            return new VersionParser( version ).single();
-        }
-        catch ( final ParseException e )
-        {
-            throw new InvalidVersionSpecificationException( version, "Failed to parse single version: %s", e,
-                                                            e.getMessage() );
+            return parseSingleVersion( version );
         }
-        catch ( final TokenMgrError e )
+
+        SingleVersion spec = version == null ? null : cache.get( version );
+        if ( spec == null )
         {
-            throw new InvalidVersionSpecificationException( version, "Failed to parse single version: %s", e,
-                                                            e.getMessage() );
+            spec = parseSingleVersion( version );
+            cache.put( version, spec );
         }
+
+        return spec;
+    }
+
+    private static SingleVersion parseSingleVersion( final String version )
+        throws InvalidVersionSpecificationException
+    {
+        checkEmpty( version );
+
+        return SingleVersionParser.parse( version );
+    }
+
+    /**
+     * Create a single version that is only parsed into phrases when its structure is needed (see
+     * {@link SingleVersion#lazy(String)}). Lazy versions are not cached.
+     */
+    public static SingleVersion createLazySingleVersion( final String version )
+        throws InvalidVersionSpecificationException
+    {
+        checkEmpty( version );
+
+        return SingleVersion.lazy( version );
     }
 
     public static boolean isValidSingleVersion( final String version )
     {
-        boolean result = true;
-        
         if ( version == null || version.trim().length() < 1 )
         {
             return false;
         }
-        try
-        {
-            SingleVersion singleVersion = new VersionParser( version ).single();
-        }
-        catch ( final ParseException e )
-        {
-            result = false;
-        }
-        catch ( final TokenMgrError e )
-        {
-            result = false;
-        }
-        return result;
+
+        return SingleVersionParser.isValid( version );
     }
 
 }
@@ -0,0 +1,340 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.version;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.commonjava.atlas.maven.ident.version.part.NumericPart;
+import org.commonjava.atlas.maven.ident.version.part.SeparatorPart;
+import org.commonjava.atlas.maven.ident.version.part.SnapshotPart;
+import org.commonjava.atlas.maven.ident.version.part.StringPart;
+import org.commonjava.atlas.maven.ident.version.part.VersionPart;
+import org.commonjava.atlas.maven.ident.version.part.VersionPhrase;
+
+/**
+ * Builds the collation key of a {@link SingleVersion}: a byte array whose unsigned lexicographic order matches
+ * {@link VersionSpecComparisons#compareTo(VersionSpec, VersionSpec)}.
+ * <p/>
+ * Phrase and part comparisons pad the shorter side with zeros, which plain lexicographic order cannot express. So at
+ * both levels, zero-equivalent elements are dropped and each remaining element is written as
+ * <code>[sign class][zero-run length][element]</code>, followed by an END class that sorts between the negative and
+ * positive classes. Padding then falls out of the byte order: a longer zero-run loses to a positive element and wins
+ * against a negative one.
+ * <p/>
+ * The part comparison is not transitive in one corner: a snapshot marker equals a zero-equivalent qualifier like
+ * 'GA', but sorts below a numeric zero. Versions with a zero-equivalent qualifier followed by a pre-release qualifier
+ * in the same phrase (the only shape where this changes the outcome), or with negative numeric parts, get no key
+ * ({@link #NO_KEY}), and comparisons involving them fall back to walking the phrases.
+ */
+final class CollationKeyBuilder
+{
+
+    static final byte[] NO_KEY = new byte[0];
+
+    private static final int NEGATIVE = 1;
+
+    private static final int END = 2;
+
+    private static final int POSITIVE = 3;
+
+    private static final int MAX_RUN = 0xFFFF;
+
+    // offset applied to marker indexes (StringPart.getZeroCompareIndex()) so they fit in an unsigned byte.
+    private static final int MARKER_OFFSET = 16;
+
+    private static final int ZERO_MARKER = StringPart.ADJ_ZERO_EQUIV_INDEX;
+
+    private static final int SP_MARKER = StringPart.ADJ_RANDOM_STRING_EQUIV_INDEX - 1;
+
+    private static final int SNAPSHOT_RANK = MARKER_OFFSET + ZERO_MARKER;
+
+    private static final int SP_RANK = 0;
+
+    private static final int RANDOM_RANK = 1;
+
+    private static final int NUMERIC_RANK = 2;
+
+    private static final byte[] ZERO_PHRASE = { (byte) ( MARKER_OFFSET + ZERO_MARKER ), END, 1 };
+
+    private byte[] buf = new byte[32];
+
+    private int len;
+
+    private CollationKeyBuilder()
+    {
+    }
+
+    static byte[] build( final List<VersionPhrase> phrases, final boolean release )
+    {
+        final CollationKeyBuilder key = new CollationKeyBuilder();
+        int run = 0;
+        for ( final VersionPhrase phrase : phrases )
+        {
+            final byte[] phraseKey = buildPhrase( phrase );
+            if ( phraseKey == null )
+            {
+                return NO_KEY;
+            }
+
+            final int sign = compare( phraseKey, ZERO_PHRASE );
+            if ( sign == 0 )
+            {
+                run++;
+            }
+            else
+            {
+                if ( !key.element( sign, run ) )
+                {
+                    return NO_KEY;
+                }
+
+                key.write( phraseKey, phraseKey.length );
+                run = 0;
+            }
+        }
+
+        key.write( END );
+        key.write( release ? 1 : 0 );
+
+        return key.toByteArray();
+    }
+
+    /**
+     * Unsigned lexicographic comparison of two collation keys.
+     */
+    static int compare( final byte[] first, final byte[] second )
+    {
+        final int len = Math.min( first.length, second.length );
+        for ( int i = 0; i < len; i++ )
+        {
+            final int comp = ( first[i] & 0xff ) - ( second[i] & 0xff );
+            if ( comp != 0 )
+            {
+                return comp < 0 ? -1 : 1;
+            }
+        }
+
+        return Integer.signum( first.length - second.length );
+    }
+
+    private static byte[] buildPhrase( final VersionPhrase phrase )
+    {
+        final CollationKeyBuilder key = new CollationKeyBuilder();
+
+        final Integer marker = phrase.getMarkerIndex();
+        key.write( MARKER_OFFSET + ( marker == null ? 0 : marker ) );
+
+        int run = 0;
+        boolean zeroQualifierSeen = false;
+        for ( final VersionPart part : phrase.getVersionParts() )
+        {
+            if ( part instanceof SeparatorPart )
+            {
+                continue;
+            }
+
+            if ( part instanceof NumericPart )
+            {
+                final long value = ( (NumericPart) part ).getLongValue();
+                if ( value < 0 )
+                {
+                    return null;
+                }
+                else if ( value == 0 )
+                {
+                    run++;
+                }
+                else
+                {
+                    if ( !key.element( 1, run ) )
+                    {
+                        return null;
+                    }
+
+                    key.write( NUMERIC_RANK );
+                    key.writeUnsigned( value );
+                    run = 0;
+                }
+            }
+            else if ( part instanceof StringPart )
+            {
+                final StringPart str = (StringPart) part;
+                final int idx = str.getZeroCompareIndex();
+                if ( idx == ZERO_MARKER )
+                {
+                    zeroQualifierSeen = true;
+                    run++;
+                }
+                else if ( idx < ZERO_MARKER )
+                {
+                    if ( zeroQualifierSeen || !key.element( -1, run ) )
+                    {
+                        return null;
+                    }
+
+                    key.write( MARKER_OFFSET + idx );
+                    run = 0;
+                }
+                else
+                {
+                    if ( !key.element( 1, run ) )
+                    {
+                        return null;
+                    }
+
+                    if ( idx == SP_MARKER )
+                    {
+                        key.write( SP_RANK );
+                    }
+                    else
+                    {
+                        key.write( RANDOM_RANK );
+                        key.writeString( str.getValue().toLowerCase( Locale.ENGLISH ) );
+                    }
+                    run = 0;
+                }
+            }
+            else if ( part instanceof SnapshotPart )
+            {
+                if ( !key.element( -1, run ) )
+                {
+                    return null;
+                }
+
+                final SnapshotPart snap = (SnapshotPart) part;
+                key.write( SNAPSHOT_RANK );
+                if ( snap.isLocalSnapshot() )
+                {
+                    key.write( 1 );
+                }
+                else
+                {
+                    key.write( 0 );
+                    key.writeLong( snap.getTimestamp().getTime() ^ Long.MIN_VALUE );
+                    key.writeInt( snap.getBuildNumber() ^ Integer.MIN_VALUE );
+                }
+                run = 0;
+            }
+            else
+            {
+                return null;
+            }
+        }
+
+        key.write( END );
+        key.write( phrase.isRelease() ? 1 : 0 );
+
+        return key.toByteArray();
+    }
+
+    private boolean element( final int sign, final int run )
+    {
+        if ( run > MAX_RUN )
+        {
+            return false;
+        }
+
+        if ( sign < 0 )
+        {
+            write( NEGATIVE );
+            write( run >>> 8 );
+            write( run );
+        }
+        else
+        {
+            // on the positive side, the element that comes after fewer zeros sorts higher.
+            write( POSITIVE );
+            write( ( MAX_RUN - run ) >>> 8 );
+            write( MAX_RUN - run );
+        }
+
+        return true;
+    }
+
+    private void writeString( final String value )
+    {
+        // each char is prefixed with a non-zero byte, so the terminating zero sorts a prefix before longer strings.
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            final char c = value.charAt( i );
+            write( 1 );
+            write( c >>> 8 );
+            write( c );
+        }
+        write( 0 );
+    }
+
+    private void writeUnsigned( final long value )
+    {
+        // length-prefixed, so that shorter (smaller) values sort first without padding every number to eight bytes.
+        int bytes = 1;
+        while ( bytes < 8 && ( value >>> ( bytes * 8 ) ) != 0 )
+        {
+            bytes++;
+        }
+
+        write( bytes );
+        for ( int shift = ( bytes - 1 ) * 8; shift >= 0; shift -= 8 )
+        {
+            write( (int) ( value >>> shift ) );
+        }
+    }
+
+    private void writeLong( final long value )
+    {
+        for ( int shift = 56; shift >= 0; shift -= 8 )
+        {
+            write( (int) ( value >>> shift ) );
+        }
+    }
+
+    private void writeInt( final int value )
+    {
+        for ( int shift = 24; shift >= 0; shift -= 8 )
+        {
+            write( value >>> shift );
+        }
+    }
+
+    private void write( final byte[] bytes, final int count )
+    {
+        ensureCapacity( count );
+        System.arraycopy( bytes, 0, buf, len, count );
+        len += count;
+    }
+
+    private void write( final int b )
+    {
+        ensureCapacity( 1 );
+        buf[len++] = (byte) b;
+    }
+
+    private void ensureCapacity( final int extra )
+    {
+        if ( len + extra > buf.length )
+        {
+            buf = Arrays.copyOf( buf, Math.max( buf.length * 2, len + extra ) );
+        }
+    }
+
+    private byte[] toByteArray()
+    {
+        return Arrays.copyOf( buf, len );
+    }
+
+}
@@ -31,6 +31,10 @@ public class CompoundVersionSpec
 
     private final String rawExpression;
 
+    private transient volatile VersionIntervalSet intervals;
+
+    private transient volatile Boolean outOfBoundsSnapshots;
+
     public CompoundVersionSpec( final String rawExpression, final VersionSpec... specs )
     {
         this.rawExpression = rawExpression;
@@ -56,7 +60,7 @@ public class CompoundVersionSpec
         final List<VersionSpec> s = new ArrayList<VersionSpec>();
         for ( final VersionSpec spec : specs )
         {
-            if ( spec.isSingle() )
+            if ( spec instanceof SingleVersion )
             {
                 final SingleVersion sv = (SingleVersion) spec;
                 s.add( new RangeVersionSpec( "[" + spec.renderStandard() + "]", sv, sv, true, true ) );
@@ -90,6 +94,11 @@ public class CompoundVersionSpec
 
     public boolean contains( final VersionSpec version )
     {
+        if ( version instanceof SingleVersion && !( version.isSnapshot() && acceptsOutOfBoundsSnapshots() ) )
+        {
+            return getIntervalSet().contains( (SingleVersion) version );
+        }
+
         for ( final VersionSpec spec : specs )
         {
             if ( spec.contains( version ) )
@@ -101,6 +110,33 @@ public class CompoundVersionSpec
         return false;
     }
 
+    /**
+     * The component specs merged into sorted, disjoint intervals. Built on first use.
+     */
+    public VersionIntervalSet getIntervalSet()
+    {
+        VersionIntervalSet result = intervals;
+        if ( result == null )
+        {
+            result = VersionIntervalSet.of( this );
+            intervals = result;
+        }
+
+        return result;
+    }
+
+    private boolean acceptsOutOfBoundsSnapshots()
+    {
+        Boolean result = outOfBoundsSnapshots;
+        if ( result == null )
+        {
+            result = VersionIntervalSet.acceptsOutOfBoundsSnapshots( this );
+            outOfBoundsSnapshots = result;
+        }
+
+        return result;
+    }
+
     public int compareTo( final VersionSpec other )
     {
         return VersionSpecComparisons.compareTo( this, other );
@@ -0,0 +1,304 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.version;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.commonjava.atlas.maven.ident.util.IntervalTreap;
+
+/**
+ * Index over many {@link RangeVersionSpec} / {@link CompoundVersionSpec} instances, answering "which of these specs
+ * contain version X" without calling {@link VersionSpec#contains(VersionSpec)} on every one of them.
+ * <p/>
+ * Range bounds (and the component ranges of compound specs) are kept in an {@link IntervalTreap}, so a lookup visits
+ * O(log n + k) nodes. The tree treats every bound as inclusive and unbounded ends as infinite; each candidate it finds
+ * is then confirmed with
+ * {@link VersionSpec#contains(VersionSpec)}, so results always agree with the specs themselves.
+ * <p/>
+ * A few specs don't behave like plain intervals: ranges with an inclusive snapshot bound contain every snapshot
+ * version, and single versions contain anything with the same base version. These are also checked one by one, but
+ * only for the queries where they could differ from the tree.
+ * <p/>
+ * This class is not thread-safe.
+ */
+public final class RangeVersionIndex
+{
+
+    private static final Comparator<SingleVersion> BOUND_ORDER = new Comparator<SingleVersion>()
+    {
+        @Override
+        public int compare( final SingleVersion first, final SingleVersion second )
+        {
+            return VersionSpecComparisons.compareTo( first, second );
+        }
+    };
+
+    private final Map<VersionSpec, List<IntervalTreap.Entry<SingleVersion, Interval>>> registrations =
+        new HashMap<VersionSpec, List<IntervalTreap.Entry<SingleVersion, Interval>>>();
+
+    // specs whose contains() can accept snapshot versions outside of their bounds.
+    private final Map<VersionSpec, Integer> snapshotSpecs = new HashMap<VersionSpec, Integer>();
+
+    // specs that can't be expressed as intervals at all.
+    private final Map<VersionSpec, Integer> unindexedSpecs = new HashMap<VersionSpec, Integer>();
+
+    private final IntervalTreap<SingleVersion, Interval> tree =
+        new IntervalTreap<SingleVersion, Interval>( BOUND_ORDER, new Function<Interval, SingleVersion>()
+        {
+            @Override
+            public SingleVersion apply( final Interval interval )
+            {
+                return interval.range.getLowerBound();
+            }
+        }, new Function<Interval, SingleVersion>()
+        {
+            @Override
+            public SingleVersion apply( final Interval interval )
+            {
+                return interval.range.getUpperBound();
+            }
+        } );
+
+    private int size;
+
+    /**
+     * Add a spec to the index. The same spec may be added more than once; it then has to be removed the same number of
+     * times.
+     */
+    public void add( final VersionSpec spec )
+    {
+        if ( spec == null )
+        {
+            throw new IllegalArgumentException( "Cannot index a null version spec!" );
+        }
+
+        final List<IntervalTreap.Entry<SingleVersion, Interval>> entries =
+            new ArrayList<IntervalTreap.Entry<SingleVersion, Interval>>();
+        final boolean indexed = addIntervals( spec, spec, entries );
+
+        List<IntervalTreap.Entry<SingleVersion, Interval>> registered = registrations.get( spec );
+        if ( registered == null )
+        {
+            registered = new ArrayList<IntervalTreap.Entry<SingleVersion, Interval>>();
+            registrations.put( spec, registered );
+        }
+        registered.addAll( entries );
+
+        if ( !indexed )
+        {
+            increment( unindexedSpecs, spec );
+        }
+        else if ( VersionIntervalSet.acceptsOutOfBoundsSnapshots( spec ) )
+        {
+            increment( snapshotSpecs, spec );
+        }
+
+        size++;
+    }
+
+    /**
+     * Remove one registration of the given spec (or an equal one).
+     *
+     * @return false if the spec was not in the index
+     */
+    public boolean remove( final VersionSpec spec )
+    {
+        if ( spec == null || !registrations.containsKey( spec ) )
+        {
+            return false;
+        }
+
+        if ( !decrement( unindexedSpecs, spec ) )
+        {
+            decrement( snapshotSpecs, spec );
+
+            // every registration of an equal spec produces the same intervals, so drop the most recent set.
+            final List<IntervalTreap.Entry<SingleVersion, Interval>> registered = registrations.get( spec );
+            final int count = countIntervals( spec );
+            for ( int i = 0; i < count; i++ )
+            {
+                tree.remove( registered.remove( registered.size() - 1 ) );
+            }
+        }
+
+        if ( registrations.get( spec )
+                          .isEmpty() && !unindexedSpecs.containsKey( spec ) )
+        {
+            registrations.remove( spec );
+        }
+
+        size--;
+        return true;
+    }
+
+    /**
+     * Find the indexed specs that contain the given version, in no particular order.
+     */
+    public Set<VersionSpec> findContaining( final SingleVersion version )
+    {
+        final Set<VersionSpec> result = new LinkedHashSet<VersionSpec>();
+        if ( version == null )
+        {
+            return result;
+        }
+
+        tree.stab( version, new Consumer<Interval>()
+        {
+            @Override
+            public void accept( final Interval interval )
+            {
+                if ( !result.contains( interval.owner ) && interval.owner.contains( version ) )
+                {
+                    result.add( interval.owner );
+                }
+            }
+        } );
+
+        if ( version.isSnapshot() )
+        {
+            collect( snapshotSpecs, version, result );
+        }
+        collect( unindexedSpecs, version, result );
+
+        return result;
+    }
+
+    /**
+     * The number of registered specs, counting repeated registrations.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public void clear()
+    {
+        registrations.clear();
+        snapshotSpecs.clear();
+        unindexedSpecs.clear();
+        tree.clear();
+        size = 0;
+    }
+
+    private boolean addIntervals( final VersionSpec owner, final VersionSpec spec,
+                                  final List<IntervalTreap.Entry<SingleVersion, Interval>> entries )
+    {
+        if ( spec instanceof RangeVersionSpec )
+        {
+            entries.add( tree.add( new Interval( owner, (RangeVersionSpec) spec ) ) );
+            return true;
+        }
+        else if ( spec instanceof CompoundVersionSpec )
+        {
+            final int mark = entries.size();
+            for ( final VersionSpec component : (CompoundVersionSpec) spec )
+            {
+                if ( !addIntervals( owner, component, entries ) )
+                {
+                    // roll back, and let the whole compound spec be checked directly.
+                    for ( int i = entries.size() - 1; i >= mark; i-- )
+                    {
+                        tree.remove( entries.remove( i ) );
+                    }
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        return false;
+    }
+
+    private static int countIntervals( final VersionSpec spec )
+    {
+        if ( spec instanceof CompoundVersionSpec )
+        {
+            int count = 0;
+            for ( final VersionSpec component : (CompoundVersionSpec) spec )
+            {
+                count += countIntervals( component );
+            }
+            return count;
+        }
+
+        return 1;
+    }
+
+    private static void collect( final Map<VersionSpec, Integer> specs, final SingleVersion version,
+                                 final Set<VersionSpec> result )
+    {
+        for ( final VersionSpec spec : specs.keySet() )
+        {
+            if ( !result.contains( spec ) && spec.contains( version ) )
+            {
+                result.add( spec );
+            }
+        }
+    }
+
+    private static void increment( final Map<VersionSpec, Integer> counts, final VersionSpec spec )
+    {
+        final Integer count = counts.get( spec );
+        counts.put( spec, count == null ? 1 : count + 1 );
+    }
+
+    private static boolean decrement( final Map<VersionSpec, Integer> counts, final VersionSpec spec )
+    {
+        final Integer count = counts.get( spec );
+        if ( count == null )
+        {
+            return false;
+        }
+
+        if ( count == 1 )
+        {
+            counts.remove( spec );
+        }
+        else
+        {
+            counts.put( spec, count - 1 );
+        }
+
+        return true;
+    }
+
+    private static final class Interval
+    {
+        private final VersionSpec owner;
+
+        private final RangeVersionSpec range;
+
+        Interval( final VersionSpec owner, final RangeVersionSpec range )
+        {
+            this.owner = owner;
+            this.range = range;
+        }
+    }
+
+}
@@ -17,12 +17,16 @@ package org.commonjava.atlas.maven.ident.version;
 
 import static org.apache.commons.lang3.StringUtils.join;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.StringTokenizer;
 
+import org.commonjava.atlas.maven.ident.version.parse.SingleVersionParser;
 import org.commonjava.atlas.maven.ident.version.part.NumericPart;
 import org.commonjava.atlas.maven.ident.version.part.SeparatorPart;
 import org.commonjava.atlas.maven.ident.version.part.SnapshotPart;
@@ -37,14 +41,28 @@ public class SingleVersion
 
     private static final long serialVersionUID = 1L;
 
-    private final List<VersionPhrase> phrases;
+    // null until first needed for versions created with lazy(..)
+    private volatile List<VersionPhrase> phrases;
 
     private final String rawExpression;
 
+    private final transient boolean lazy;
+
+    private transient volatile String canonicalForm;
+
+    private transient volatile byte[] collationKey;
+
     private SingleVersion( final List<VersionPhrase> phrases )
     {
-        this.phrases = new ArrayList<VersionPhrase>( phrases );
+        this.phrases = Collections.unmodifiableList( new ArrayList<VersionPhrase>( phrases ) );
         this.rawExpression = join( phrases, "" );
+        this.lazy = false;
+    }
+
+    private SingleVersion( final String rawExpression )
+    {
+        this.rawExpression = rawExpression;
+        this.lazy = true;
     }
 
     public SingleVersion( final String rawExpression, final VersionPart... parts )
@@ -57,10 +75,52 @@ public class SingleVersion
         throws InvalidVersionSpecificationException
     {
         this.rawExpression = rawExpression;
-        phrases = parsePhrases( parts );
+        this.lazy = false;
+        phrases = Collections.unmodifiableList( parsePhrases( parts ) );
         validatePhrases();
     }
 
+    /**
+     * Create a version that keeps only its expression, and parses it into phrases the first time its structure is
+     * needed. Storing, rendering, hashing and equality checks don't need the phrases (see {@link #getCanonicalForm()}),
+     * and neither does comparing two such versions when both are plain numeric releases, like '1.10.2'. Apart from
+     * that, lazy versions behave exactly like parsed ones, and are equal to them.
+     *
+     * @throws InvalidVersionSpecificationException if the expression isn't a valid single version
+     */
+    public static SingleVersion lazy( final String rawExpression )
+        throws InvalidVersionSpecificationException
+    {
+        if ( !SingleVersionParser.isValid( rawExpression ) )
+        {
+            throw new InvalidVersionSpecificationException( rawExpression, "Not a valid single version" );
+        }
+
+        return new SingleVersion( rawExpression );
+    }
+
+    private List<VersionPhrase> phrases()
+    {
+        List<VersionPhrase> result = phrases;
+        if ( result == null )
+        {
+            result = SingleVersionParser.parse( rawExpression )
+                                        .phrases();
+            phrases = result;
+        }
+
+        return result;
+    }
+
+    /*
+     * The expression of a version created with lazy(..). Unlike the raw expression of parsed versions (for instance,
+     * range bounds carry the whole range expression), it is known to be exactly this version.
+     */
+    String lazyExpression()
+    {
+        return lazy ? rawExpression : null;
+    }
+
     private void validatePhrases()
         throws InvalidVersionSpecificationException
     {
@@ -258,6 +318,7 @@ public class SingleVersion
             return this;
         }
 
+        final List<VersionPhrase> phrases = phrases();
         return new SingleVersion( phrases.subList( 0, phrases.size() - 1 ) );
     }
 
@@ -314,7 +375,7 @@ public class SingleVersion
     {
         final StringBuilder sb = new StringBuilder();
         sb.append( "SingleVersion: [" );
-        for ( final VersionPhrase phrase : phrases )
+        for ( final VersionPhrase phrase : phrases() )
         {
             sb.append( phrase )
               .append( ", " );
@@ -330,6 +391,7 @@ public class SingleVersion
     @Override
     public boolean isSnapshot()
     {
+        final List<VersionPhrase> phrases = phrases();
         final VersionPhrase last = phrases.get( phrases.size() - 1 );
         return last.isSnapshot();
     }
@@ -348,6 +410,7 @@ public class SingleVersion
 
     private VersionPart getLastPart()
     {
+        final List<VersionPhrase> phrases = phrases();
         int idx = phrases.size();
         VersionPhrase last;
         List<VersionPart> parts;
@@ -388,26 +451,89 @@ public class SingleVersion
 
     public List<VersionPhrase> getVersionPhrases()
     {
-        return phrases;
+        return phrases();
     }
 
-    @Override
-    public int hashCode()
+    /**
+     * Retrieve the form of this version that equality and hashing are based on: the canonical renderings of its phrases
+     * (see {@link VersionPhrase#renderCanonical()}), separated by slashes and without trailing silent phrases. For
+     * instance, '1', '1.0' and '1.0.GA' all have the canonical form '1'.
+     */
+    public String getCanonicalForm()
     {
-        final int prime = 31;
-        int result = 1;
-        if ( phrases != null )
+        String form = canonicalForm;
+        if ( form == null )
         {
-            for ( final VersionPhrase phrase : phrases )
+            if ( phrases == null )
             {
-                if ( !phrase.isSilent() )
-                {
-                    result += phrase.hashCode();
-                }
+                form = SingleVersionParser.canonicalForm( rawExpression );
             }
+
+            if ( form == null )
+            {
+                form = renderCanonical( phrases() );
+            }
+
+            canonicalForm = form;
+        }
+
+        return form;
+    }
+
+    private static String renderCanonical( final List<VersionPhrase> phrases )
+    {
+        final StringBuilder sb = new StringBuilder();
+        int keep = 0;
+        for ( int i = 0; i < phrases.size(); i++ )
+        {
+            if ( i > 0 )
+            {
+                sb.append( '/' );
+            }
+
+            final String phrase = phrases.get( i )
+                                         .renderCanonical();
+            sb.append( phrase );
+            if ( phrase.length() > 0 )
+            {
+                keep = sb.length();
+            }
+        }
+
+        // trailing silent phrases don't take part in equality.
+        sb.setLength( keep );
+        return sb.toString();
+    }
+
+    /**
+     * Retrieve a copy of this version's collation key: a byte array whose unsigned lexicographic order (see
+     * {@link VersionSpecComparisons#compareCollationKeys(byte[], byte[])}) is the same as the order of the versions
+     * themselves. This allows sorting and binary-searching large version lists without walking their phrases.
+     *
+     * @return the collation key, or null for the (rare) versions whose order cannot be captured that way
+     */
+    public byte[] getCollationKey()
+    {
+        final byte[] key = collationKey();
+        return key == null ? null : key.clone();
+    }
+
+    byte[] collationKey()
+    {
+        byte[] key = collationKey;
+        if ( key == null )
+        {
+            key = CollationKeyBuilder.build( phrases(), isRelease() );
+            collationKey = key;
         }
 
-        return prime * result;
+        return key == CollationKeyBuilder.NO_KEY ? null : key;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return getCanonicalForm().hashCode();
     }
 
     @Override
@@ -426,59 +552,12 @@ public class SingleVersion
             return false;
         }
         final SingleVersion other = (SingleVersion) obj;
-        if ( phrases == null )
+        if ( lazy && other.lazy && rawExpression.equals( other.rawExpression ) )
         {
-            if ( other.phrases != null )
-            {
-                return false;
-            }
-        }
-        else
-        {
-            int i = 0;
-            for ( ; i < Math.min( phrases.size(), other.phrases.size() ); i++ )
-            {
-                final VersionPhrase mine = phrases.get( i );
-                final VersionPhrase theirs = other.phrases.get( i );
-                if ( mine.isSilent() != theirs.isSilent() )
-                {
-                    return false;
-                }
-                else if ( !mine.isSilent() && !theirs.isSilent() )
-                {
-                    if ( !mine.equals( theirs ) )
-                    {
-                        return false;
-                    }
-                }
-            }
-
-            if ( i < phrases.size() )
-            {
-                for ( int j = i; j < phrases.size(); j++ )
-                {
-                    final VersionPhrase mine = phrases.get( j );
-                    if ( !mine.isSilent() )
-                    {
-                        return false;
-                    }
-                }
-            }
-
-            if ( i < other.phrases.size() )
-            {
-                for ( int j = i; j < other.phrases.size(); j++ )
-                {
-                    final VersionPhrase theirs = other.phrases.get( j );
-                    if ( !theirs.isSilent() )
-                    {
-                        return false;
-                    }
-                }
-            }
+            return true;
         }
 
-        return true;
+        return getCanonicalForm().equals( other.getCanonicalForm() );
     }
 
     public SnapshotPart getSnapshotPart()
@@ -486,4 +565,11 @@ public class SingleVersion
         return isSnapshot() ? (SnapshotPart) getLastPart() : null;
     }
 
+    private void writeObject( final ObjectOutputStream out )
+        throws IOException
+    {
+        phrases();
+        out.defaultWriteObject();
+    }
+
 }
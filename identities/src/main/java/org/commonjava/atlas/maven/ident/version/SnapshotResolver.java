@@ -0,0 +1,292 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.version;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import org.commonjava.atlas.maven.ident.util.SnapshotUtils;
+import org.commonjava.atlas.maven.ident.util.VersionUtils;
+import org.commonjava.atlas.maven.ident.version.part.SnapshotPart;
+
+/**
+ * Collects timestamped snapshot builds and keeps the newest of them for each base version (as given by
+ * {@link SingleVersion#getBaseVersion()}), for resolving a version like '1.2-SNAPSHOT' to a concrete build, or for
+ * finding the builds a cleanup should keep. Candidates are taken in a single pass; only the retained builds of each
+ * base version are kept, in a small heap, so the candidates are never sorted as a whole.
+ * <p/>
+ * Builds are ordered by their {@link SnapshotPart} (timestamp, then build number). Releases and local snapshots are
+ * not builds, and are ignored. When the same build is added twice, the first one is kept. Not thread-safe.
+ */
+public final class SnapshotResolver
+{
+
+    private static final Comparator<Build> OLDEST_FIRST = new Comparator<Build>()
+    {
+        @Override
+        public int compare( final Build first, final Build second )
+        {
+            return first.part.compareTo( second.part );
+        }
+    };
+
+    private static final Comparator<Build> NEWEST_FIRST = Collections.reverseOrder( OLDEST_FIRST );
+
+    private final int retain;
+
+    private final Map<SingleVersion, PriorityQueue<Build>> builds =
+        new LinkedHashMap<SingleVersion, PriorityQueue<Build>>();
+
+    /**
+     * Create a resolver that keeps only the latest build of each base version.
+     */
+    public SnapshotResolver()
+    {
+        this( 1 );
+    }
+
+    /**
+     * @param retain the number of newest builds to keep for each base version
+     */
+    public SnapshotResolver( final int retain )
+    {
+        if ( retain < 1 )
+        {
+            throw new IllegalArgumentException( "Must retain at least one build, not: " + retain );
+        }
+
+        this.retain = retain;
+    }
+
+    /**
+     * Add a candidate version, such as '1.2-20231011.120000-3'.
+     *
+     * @return true if it is a timestamped snapshot build, whether or not it is among the retained ones
+     * @throws InvalidVersionSpecificationException if the version can't be parsed
+     */
+    public boolean add( final String version )
+    {
+        return add( VersionUtils.createSingleVersion( version ) );
+    }
+
+    /**
+     * @see #add(String)
+     */
+    public boolean add( final SingleVersion version )
+    {
+        final SnapshotPart part = version.getSnapshotPart();
+        if ( part == null || part.isLocalSnapshot() )
+        {
+            return false;
+        }
+
+        offer( new Build( version.getBaseVersion(), part, version ) );
+        return true;
+    }
+
+    /**
+     * Add a build of the given base version, identified by its snapshot part. The concrete version is rendered as
+     * 'base-yyyyMMdd.HHmmss-N' if it's among the results.
+     *
+     * @return true if the part is a timestamped build, whether or not it is among the retained ones
+     */
+    public boolean add( final SingleVersion baseVersion, final SnapshotPart part )
+    {
+        if ( part.isLocalSnapshot() )
+        {
+            return false;
+        }
+
+        offer( new Build( base( baseVersion ), part, null ) );
+        return true;
+    }
+
+    public void addAll( final Iterable<String> versions )
+    {
+        for ( final String version : versions )
+        {
+            add( version );
+        }
+    }
+
+    /**
+     * @param version the base version, or any snapshot of it (like '1.2-SNAPSHOT')
+     * @return the latest build of the base version, or null if there isn't one
+     */
+    public SingleVersion getLatest( final String version )
+    {
+        return getLatest( VersionUtils.createSingleVersion( version ) );
+    }
+
+    /**
+     * @see #getLatest(String)
+     */
+    public SingleVersion getLatest( final SingleVersion version )
+    {
+        final List<SingleVersion> newest = getNewest( version, 1 );
+        return newest.isEmpty() ? null : newest.get( 0 );
+    }
+
+    /**
+     * @param version the base version, or any snapshot of it (like '1.2-SNAPSHOT')
+     * @return the retained builds of the base version, newest first
+     */
+    public List<SingleVersion> getNewest( final String version )
+    {
+        return getNewest( VersionUtils.createSingleVersion( version ), retain );
+    }
+
+    /**
+     * @param version the base version, or any snapshot of it (like '1.2-SNAPSHOT')
+     * @param count the maximum number of builds to return; at most the number retained are available
+     * @return up to count of the newest builds of the base version, newest first
+     */
+    public List<SingleVersion> getNewest( final SingleVersion version, final int count )
+    {
+        final PriorityQueue<Build> heap = builds.get( base( version ) );
+        if ( heap == null || count < 1 )
+        {
+            return Collections.emptyList();
+        }
+
+        final List<Build> sorted = new ArrayList<Build>( heap );
+        Collections.sort( sorted, NEWEST_FIRST );
+
+        final int size = Math.min( count, sorted.size() );
+        final List<SingleVersion> result = new ArrayList<SingleVersion>( size );
+        for ( int i = 0; i < size; i++ )
+        {
+            result.add( sorted.get( i )
+                              .getVersion() );
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the latest build of each base version, keyed by base version in the order they were first seen
+     */
+    public Map<SingleVersion, SingleVersion> getLatestVersions()
+    {
+        final Map<SingleVersion, SingleVersion> result = new LinkedHashMap<SingleVersion, SingleVersion>();
+        for ( final Map.Entry<SingleVersion, PriorityQueue<Build>> entry : builds.entrySet() )
+        {
+            Build latest = null;
+            for ( final Build build : entry.getValue() )
+            {
+                if ( latest == null || OLDEST_FIRST.compare( build, latest ) > 0 )
+                {
+                    latest = build;
+                }
+            }
+
+            result.put( entry.getKey(), latest.getVersion() );
+        }
+
+        return result;
+    }
+
+    public Set<SingleVersion> getBaseVersions()
+    {
+        return Collections.unmodifiableSet( builds.keySet() );
+    }
+
+    public int getRetain()
+    {
+        return retain;
+    }
+
+    public void clear()
+    {
+        builds.clear();
+    }
+
+    private void offer( final Build build )
+    {
+        PriorityQueue<Build> heap = builds.get( build.base );
+        if ( heap == null )
+        {
+            heap = new PriorityQueue<Build>( Math.min( retain, 16 ), OLDEST_FIRST );
+            builds.put( build.base, heap );
+        }
+
+        if ( heap.size() < retain )
+        {
+            if ( !contains( heap, build ) )
+            {
+                heap.add( build );
+            }
+        }
+        else if ( OLDEST_FIRST.compare( build, heap.peek() ) > 0 && !contains( heap, build ) )
+        {
+            heap.poll();
+            heap.add( build );
+        }
+    }
+
+    // duplicate builds only need checking when they would be retained; linear, but the heaps are small.
+    private static boolean contains( final PriorityQueue<Build> heap, final Build build )
+    {
+        for ( final Build retained : heap )
+        {
+            if ( OLDEST_FIRST.compare( retained, build ) == 0 )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static SingleVersion base( final SingleVersion version )
+    {
+        return version.isSnapshot() ? version.getBaseVersion() : version;
+    }
+
+    private static final class Build
+    {
+        private final SingleVersion base;
+
+        private final SnapshotPart part;
+
+        private SingleVersion version;
+
+        Build( final SingleVersion base, final SnapshotPart part, final SingleVersion version )
+        {
+            this.base = base;
+            this.part = part;
+            this.version = version;
+        }
+
+        SingleVersion getVersion()
+        {
+            if ( version == null )
+            {
+                version = VersionUtils.createSingleVersion( base.renderStandard() + "-"
+                    + SnapshotUtils.generateSnapshotSuffix( part.getTimestamp(), part.getBuildNumber() ) );
+            }
+
+            return version;
+        }
+    }
+
+}
@@ -0,0 +1,354 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.version;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * The available versions of one project (for instance, from its repository metadata), sorted once so that many
+ * version specs can be resolved against them with binary searches on the spec bounds, instead of calling
+ * {@link VersionSpec#contains(VersionSpec)} for every available version.
+ * <p/>
+ * Every version returned is still confirmed with {@link VersionSpec#contains(VersionSpec)}, so the selection agrees
+ * with a linear scan. Single-version specs, whose containment is based on the base version rather than on ordering,
+ * and ranges whose inclusive snapshot bound accepts any snapshot, fall back to scanning the list.
+ * <p/>
+ * Lists hold each version once, and are immutable. Lists of several repositories can be combined with
+ * {@link #merge(SortedVersionList)}, which walks the two sorted lists instead of sorting again.
+ */
+public final class SortedVersionList
+{
+
+    private final SingleVersion[] versions;
+
+    public SortedVersionList( final Collection<SingleVersion> versions )
+    {
+        final List<SingleVersion> sorted = new ArrayList<SingleVersion>( new LinkedHashSet<SingleVersion>( versions ) );
+        Collections.sort( sorted );
+
+        this.versions = sorted.toArray( new SingleVersion[sorted.size()] );
+    }
+
+    private SortedVersionList( final SingleVersion[] sorted )
+    {
+        this.versions = sorted;
+    }
+
+    public int size()
+    {
+        return versions.length;
+    }
+
+    public SingleVersion get( final int idx )
+    {
+        return versions[idx];
+    }
+
+    public List<SingleVersion> getVersions()
+    {
+        return Collections.unmodifiableList( Arrays.asList( versions ) );
+    }
+
+    /**
+     * @return the index of the version, or -1 if it isn't in the list
+     */
+    public int indexOf( final SingleVersion version )
+    {
+        // versions that compare as equal without being equal sit next to each other.
+        for ( int i = lowerIndex( version ); i < versions.length; i++ )
+        {
+            if ( versions[i].equals( version ) )
+            {
+                return i;
+            }
+            else if ( VersionSpecComparisons.compareTo( versions[i], version ) != 0 )
+            {
+                break;
+            }
+        }
+
+        return -1;
+    }
+
+    public boolean contains( final SingleVersion version )
+    {
+        return indexOf( version ) > -1;
+    }
+
+    /**
+     * Combine this list with another in a single pass over both, dropping the versions they have in common.
+     */
+    public SortedVersionList merge( final SortedVersionList other )
+    {
+        if ( other.versions.length == 0 )
+        {
+            return this;
+        }
+        else if ( versions.length == 0 )
+        {
+            return other;
+        }
+
+        final SingleVersion[] merged = new SingleVersion[versions.length + other.versions.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while ( i < versions.length || j < other.versions.length )
+        {
+            final SingleVersion next;
+            if ( j == other.versions.length
+                || ( i < versions.length && VersionSpecComparisons.compareTo( versions[i], other.versions[j] ) <= 0 ) )
+            {
+                next = versions[i++];
+            }
+            else
+            {
+                next = other.versions[j++];
+            }
+
+            if ( !containsTail( merged, size, next ) )
+            {
+                merged[size++] = next;
+            }
+        }
+
+        return new SortedVersionList( size == merged.length ? merged : Arrays.copyOf( merged, size ) );
+    }
+
+    public static SortedVersionList merge( final Collection<SortedVersionList> lists )
+    {
+        SortedVersionList result = new SortedVersionList( new SingleVersion[0] );
+        for ( final SortedVersionList list : lists )
+        {
+            result = result.merge( list );
+        }
+
+        return result;
+    }
+
+    // whether the version is among the last versions merged that compare as equal to it.
+    private static boolean containsTail( final SingleVersion[] merged, final int size, final SingleVersion version )
+    {
+        for ( int i = size - 1; i > -1 && VersionSpecComparisons.compareTo( merged[i], version ) == 0; i-- )
+        {
+            if ( merged[i].equals( version ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Select the highest available version contained in the spec.
+     *
+     * @param includeSnapshots whether snapshot versions may be selected
+     * @return the version, or null if none matches
+     */
+    public SingleVersion selectHighest( final VersionSpec spec, final boolean includeSnapshots )
+    {
+        final List<SingleVersion> matches = select( spec, includeSnapshots, -1 );
+        return matches.isEmpty() ? null : matches.get( 0 );
+    }
+
+    /**
+     * Select the lowest available version contained in the spec.
+     *
+     * @param includeSnapshots whether snapshot versions may be selected
+     * @return the version, or null if none matches
+     */
+    public SingleVersion selectLowest( final VersionSpec spec, final boolean includeSnapshots )
+    {
+        final List<SingleVersion> matches = select( spec, includeSnapshots, 1 );
+        return matches.isEmpty() ? null : matches.get( 0 );
+    }
+
+    /**
+     * Select all available versions contained in the spec, in ascending order.
+     *
+     * @param includeSnapshots whether snapshot versions may be selected
+     */
+    public List<SingleVersion> selectAll( final VersionSpec spec, final boolean includeSnapshots )
+    {
+        return select( spec, includeSnapshots, 0 );
+    }
+
+    /*
+     * limit: -1 to find only the highest match, 1 to find only the lowest, 0 to find all of them (ascending).
+     */
+    private List<SingleVersion> select( final VersionSpec spec, final boolean includeSnapshots, final int limit )
+    {
+        if ( spec == null || versions.length == 0 )
+        {
+            return Collections.emptyList();
+        }
+
+        if ( spec instanceof SingleVersion )
+        {
+            return scan( spec, includeSnapshots, limit, 0, versions.length );
+        }
+
+        if ( spec instanceof MultiVersionSpec && ( (MultiVersionSpec) spec ).isPinned() )
+        {
+            final SingleVersion pinned = ( (MultiVersionSpec) spec ).getPinnedVersion();
+            if ( pinned != null && !VersionIntervalSet.acceptsOutOfBoundsSnapshots( spec ) )
+            {
+                final int from = lowerIndex( pinned );
+                final int to = upperIndex( pinned );
+                return scan( spec, includeSnapshots, limit, from, to );
+            }
+        }
+
+        if ( includeSnapshots && VersionIntervalSet.acceptsOutOfBoundsSnapshots( spec ) )
+        {
+            // matching snapshots may lie anywhere in the list.
+            return scan( spec, includeSnapshots, limit, 0, versions.length );
+        }
+
+        final VersionIntervalSet intervals = VersionIntervalSet.of( spec );
+        final List<SingleVersion> result = new ArrayList<SingleVersion>();
+
+        final int count = intervals.getIntervalCount();
+        for ( int n = 0; n < count; n++ )
+        {
+            // walk the intervals from the end when looking for the highest match.
+            final int i = limit < 0 ? count - 1 - n : n;
+            final List<SingleVersion> found =
+                scan( spec, includeSnapshots, limit, firstAdmitted( intervals, i ), lastAdmitted( intervals, i ) + 1 );
+
+            if ( limit != 0 && !found.isEmpty() )
+            {
+                return found;
+            }
+
+            result.addAll( found );
+        }
+
+        return result;
+    }
+
+    private List<SingleVersion> scan( final VersionSpec spec, final boolean includeSnapshots, final int limit,
+                                      final int from, final int to )
+    {
+        final List<SingleVersion> result = new ArrayList<SingleVersion>();
+        for ( int n = from; n < to; n++ )
+        {
+            final SingleVersion version = versions[limit < 0 ? to - 1 - ( n - from ) : n];
+            if ( ( includeSnapshots || !version.isSnapshot() ) && spec.contains( version ) )
+            {
+                if ( limit != 0 )
+                {
+                    return Collections.singletonList( version );
+                }
+
+                result.add( version );
+            }
+        }
+
+        return result;
+    }
+
+    // index of the first version that isn't below the bound.
+    private int lowerIndex( final SingleVersion bound )
+    {
+        int low = 0;
+        int high = versions.length;
+        while ( low < high )
+        {
+            final int mid = ( low + high ) >>> 1;
+            final int comp = VersionSpecComparisons.compareTo( versions[mid], bound );
+            if ( comp < 0 )
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    // index just after the last version that isn't above the bound.
+    private int upperIndex( final SingleVersion bound )
+    {
+        int low = 0;
+        int high = versions.length;
+        while ( low < high )
+        {
+            final int mid = ( low + high ) >>> 1;
+            final int comp = VersionSpecComparisons.compareTo( versions[mid], bound );
+            if ( comp <= 0 )
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    private int firstAdmitted( final VersionIntervalSet intervals, final int interval )
+    {
+        int low = 0;
+        int high = versions.length;
+        while ( low < high )
+        {
+            final int mid = ( low + high ) >>> 1;
+            if ( intervals.admitsLower( interval, versions[mid] ) )
+            {
+                high = mid;
+            }
+            else
+            {
+                low = mid + 1;
+            }
+        }
+
+        return low;
+    }
+
+    private int lastAdmitted( final VersionIntervalSet intervals, final int interval )
+    {
+        int low = -1;
+        int high = versions.length - 1;
+        while ( low < high )
+        {
+            final int mid = ( low + high + 1 ) >>> 1;
+            if ( intervals.admitsUpper( interval, versions[mid] ) )
+            {
+                low = mid;
+            }
+            else
+            {
+                high = mid - 1;
+            }
+        }
+
+        return low;
+    }
+
+}
@@ -0,0 +1,482 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.version;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.commonjava.atlas.maven.ident.version.part.VersionPhrase;
+
+/**
+ * Normalized form of a set of version ranges: a sorted array of disjoint, non-adjacent intervals. Overlapping or
+ * touching ranges (like <code>[1.0,2.0)</code> and <code>[2.0,3.0]</code>) are merged when the set is built, so
+ * {@link #contains(SingleVersion)} is a binary search, and union, intersection and complement are linear merges.
+ * <p/>
+ * This is plain interval arithmetic over {@link VersionSpecComparisons#compareTo(VersionSpec, VersionSpec)}. It does
+ * not reproduce the special case in {@link RangeVersionSpec#contains(VersionSpec)} where an inclusive snapshot bound
+ * accepts any snapshot version; see {@link #acceptsOutOfBoundsSnapshots(VersionSpec)}.
+ */
+public final class VersionIntervalSet
+    implements Serializable
+{
+
+    private static final long serialVersionUID = 1L;
+
+    public static final VersionIntervalSet EMPTY = new VersionIntervalSet( new ArrayList<Interval>() );
+
+    public static final VersionIntervalSet ALL =
+        new VersionIntervalSet( Collections.singletonList( new Interval( null, false, null, false ) ) );
+
+    // null bounds are unbounded.
+    private final SingleVersion[] lowers;
+
+    private final boolean[] lowerInclusive;
+
+    private final SingleVersion[] uppers;
+
+    private final boolean[] upperInclusive;
+
+    private VersionIntervalSet( final List<Interval> normalized )
+    {
+        final int size = normalized.size();
+        lowers = new SingleVersion[size];
+        lowerInclusive = new boolean[size];
+        uppers = new SingleVersion[size];
+        upperInclusive = new boolean[size];
+        for ( int i = 0; i < size; i++ )
+        {
+            final Interval interval = normalized.get( i );
+            lowers[i] = interval.lower;
+            lowerInclusive[i] = interval.lowerInclusive;
+            uppers[i] = interval.upper;
+            upperInclusive[i] = interval.upperInclusive;
+        }
+    }
+
+    /**
+     * Build the interval set covered by a version spec. Ranges map to one interval each, compound specs to the union
+     * of their components, and single versions to a pinned interval.
+     */
+    public static VersionIntervalSet of( final VersionSpec spec )
+    {
+        final List<Interval> intervals = new ArrayList<Interval>();
+        collect( spec, intervals );
+
+        return new VersionIntervalSet( normalize( intervals ) );
+    }
+
+    /**
+     * Whether {@link VersionSpec#contains(VersionSpec)} on this spec may accept snapshot versions that lie outside of
+     * its bounds, which the interval set would not. This happens for ranges with an inclusive snapshot bound.
+     */
+    public static boolean acceptsOutOfBoundsSnapshots( final VersionSpec spec )
+    {
+        if ( spec instanceof RangeVersionSpec )
+        {
+            final RangeVersionSpec range = (RangeVersionSpec) spec;
+            return ( range.isLowerBoundInclusive() && range.getLowerBound() != null
+                && !range.getLowerBound().isRelease() )
+                || ( range.isUpperBoundInclusive() && range.getUpperBound() != null
+                && !range.getUpperBound().isRelease() );
+        }
+        else if ( spec instanceof CompoundVersionSpec )
+        {
+            for ( final VersionSpec component : (CompoundVersionSpec) spec )
+            {
+                if ( acceptsOutOfBoundsSnapshots( component ) )
+                {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    public boolean contains( final SingleVersion version )
+    {
+        // find the last interval whose lower bound admits the version; intervals are disjoint, so it's the only one
+        // that can contain it.
+        int low = 0;
+        int high = lowers.length - 1;
+        int found = -1;
+        while ( low <= high )
+        {
+            final int mid = ( low + high ) >>> 1;
+            if ( admitsLower( mid, version ) )
+            {
+                found = mid;
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid - 1;
+            }
+        }
+
+        return found > -1 && admitsUpper( found, version );
+    }
+
+    public VersionIntervalSet union( final VersionIntervalSet other )
+    {
+        final List<Interval> intervals = intervals();
+        intervals.addAll( other.intervals() );
+
+        return new VersionIntervalSet( normalize( intervals ) );
+    }
+
+    public VersionIntervalSet intersect( final VersionIntervalSet other )
+    {
+        final List<Interval> result = new ArrayList<Interval>();
+        int i = 0;
+        int j = 0;
+        while ( i < lowers.length && j < other.lowers.length )
+        {
+            // the later of the two lower bounds, and the earlier of the two upper bounds.
+            final int lc = compareLower( lowers[i], lowerInclusive[i], other.lowers[j], other.lowerInclusive[j] );
+            final SingleVersion lower = lc >= 0 ? lowers[i] : other.lowers[j];
+            final boolean li = lc >= 0 ? lowerInclusive[i] : other.lowerInclusive[j];
+
+            final int uc = compareUpper( uppers[i], upperInclusive[i], other.uppers[j], other.upperInclusive[j] );
+            final SingleVersion upper = uc <= 0 ? uppers[i] : other.uppers[j];
+            final boolean ui = uc <= 0 ? upperInclusive[i] : other.upperInclusive[j];
+
+            final Interval interval = new Interval( lower, li, upper, ui );
+            if ( !interval.isEmpty() )
+            {
+                result.add( interval );
+            }
+
+            // advance whichever interval ends first.
+            if ( uc <= 0 )
+            {
+                i++;
+            }
+            if ( uc >= 0 )
+            {
+                j++;
+            }
+        }
+
+        return new VersionIntervalSet( result );
+    }
+
+    public VersionIntervalSet complement()
+    {
+        if ( lowers.length == 0 )
+        {
+            return ALL;
+        }
+
+        final List<Interval> result = new ArrayList<Interval>();
+        SingleVersion lower = null;
+        boolean li = false;
+        for ( int i = 0; i < lowers.length; i++ )
+        {
+            if ( lowers[i] != null )
+            {
+                final Interval gap = new Interval( lower, li, lowers[i], !lowerInclusive[i] );
+                if ( !gap.isEmpty() )
+                {
+                    result.add( gap );
+                }
+            }
+
+            if ( uppers[i] == null )
+            {
+                return new VersionIntervalSet( result );
+            }
+
+            lower = uppers[i];
+            li = !upperInclusive[i];
+        }
+
+        result.add( new Interval( lower, li, null, false ) );
+
+        return new VersionIntervalSet( result );
+    }
+
+    public boolean isEmpty()
+    {
+        return lowers.length == 0;
+    }
+
+    public int getIntervalCount()
+    {
+        return lowers.length;
+    }
+
+    boolean admitsLower( final int idx, final SingleVersion version )
+    {
+        if ( lowers[idx] == null )
+        {
+            return true;
+        }
+
+        final int comp = VersionSpecComparisons.compareTo( lowers[idx], version );
+        return comp < 0 || ( comp == 0 && lowerInclusive[idx] );
+    }
+
+    boolean admitsUpper( final int idx, final SingleVersion version )
+    {
+        if ( uppers[idx] == null )
+        {
+            return true;
+        }
+
+        final int comp = VersionSpecComparisons.compareTo( uppers[idx], version );
+        return comp > 0 || ( comp == 0 && upperInclusive[idx] );
+    }
+
+    /**
+     * Render this set back into a version spec: a single {@link RangeVersionSpec}, or a {@link CompoundVersionSpec}
+     * for more than one interval.
+     *
+     * @return null if the set is empty or contains every version, since neither can be written as a range.
+     */
+    public VersionSpec toVersionSpec()
+    {
+        if ( lowers.length == 0 || ( lowers.length == 1 && lowers[0] == null && uppers[0] == null ) )
+        {
+            return null;
+        }
+
+        final List<VersionSpec> ranges = new ArrayList<VersionSpec>();
+        final StringBuilder sb = new StringBuilder();
+        for ( int i = 0; i < lowers.length; i++ )
+        {
+            final String expression = render( i );
+            if ( sb.length() > 0 )
+            {
+                sb.append( ',' );
+            }
+            sb.append( expression );
+            ranges.add( new RangeVersionSpec( expression, lowers[i], uppers[i], lowerInclusive[i],
+                                              upperInclusive[i] ) );
+        }
+
+        return ranges.size() == 1 ? ranges.get( 0 ) : new CompoundVersionSpec( sb.toString(), ranges );
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder sb = new StringBuilder( "VersionIntervalSet [" );
+        for ( int i = 0; i < lowers.length; i++ )
+        {
+            if ( i > 0 )
+            {
+                sb.append( ", " );
+            }
+            sb.append( render( i ) );
+        }
+
+        return sb.append( ']' ).toString();
+    }
+
+    private String render( final int idx )
+    {
+        return ( lowerInclusive[idx] ? "[" : "(" ) + render( lowers[idx] ) + "," + render( uppers[idx] )
+            + ( upperInclusive[idx] ? "]" : ")" );
+    }
+
+    // range bounds carry the raw expression of the whole range, so render them from their phrases instead.
+    private static String render( final SingleVersion bound )
+    {
+        if ( bound == null )
+        {
+            return "";
+        }
+
+        final StringBuilder sb = new StringBuilder();
+        for ( final VersionPhrase phrase : bound.getVersionPhrases() )
+        {
+            sb.append( phrase.renderStandard() );
+        }
+
+        return sb.toString();
+    }
+
+    private List<Interval> intervals()
+    {
+        final List<Interval> intervals = new ArrayList<Interval>( lowers.length );
+        for ( int i = 0; i < lowers.length; i++ )
+        {
+            intervals.add( new Interval( lowers[i], lowerInclusive[i], uppers[i], upperInclusive[i] ) );
+        }
+
+        return intervals;
+    }
+
+    private static void collect( final VersionSpec spec, final List<Interval> intervals )
+    {
+        if ( spec instanceof RangeVersionSpec )
+        {
+            final RangeVersionSpec range = (RangeVersionSpec) spec;
+            intervals.add( new Interval( range.getLowerBound(), range.isLowerBoundInclusive(), range.getUpperBound(),
+                                         range.isUpperBoundInclusive() ) );
+        }
+        else if ( spec instanceof CompoundVersionSpec )
+        {
+            for ( final VersionSpec component : (CompoundVersionSpec) spec )
+            {
+                collect( component, intervals );
+            }
+        }
+        else if ( spec instanceof SingleVersion )
+        {
+            final SingleVersion single = (SingleVersion) spec;
+            intervals.add( new Interval( single, true, single, true ) );
+        }
+        else if ( spec != null )
+        {
+            throw new IllegalArgumentException( "Unsupported version spec: " + spec.getClass()
+                                                                                  .getName() );
+        }
+    }
+
+    private static List<Interval> normalize( final List<Interval> intervals )
+    {
+        final List<Interval> sorted = new ArrayList<Interval>( intervals.size() );
+        for ( final Interval interval : intervals )
+        {
+            if ( !interval.isEmpty() )
+            {
+                sorted.add( interval );
+            }
+        }
+
+        Collections.sort( sorted, new Comparator<Interval>()
+        {
+            public int compare( final Interval first, final Interval second )
+            {
+                return compareLower( first.lower, first.lowerInclusive, second.lower, second.lowerInclusive );
+            }
+        } );
+
+        final List<Interval> result = new ArrayList<Interval>();
+        Interval current = null;
+        for ( final Interval next : sorted )
+        {
+            if ( current == null )
+            {
+                current = next;
+            }
+            else if ( touches( current, next ) )
+            {
+                if ( compareUpper( next.upper, next.upperInclusive, current.upper, current.upperInclusive ) > 0 )
+                {
+                    current = new Interval( current.lower, current.lowerInclusive, next.upper, next.upperInclusive );
+                }
+            }
+            else
+            {
+                result.add( current );
+                current = next;
+            }
+        }
+
+        if ( current != null )
+        {
+            result.add( current );
+        }
+
+        return result;
+    }
+
+    // whether next (which starts no earlier than current) overlaps current or starts right where it ends.
+    private static boolean touches( final Interval current, final Interval next )
+    {
+        if ( current.upper == null || next.lower == null )
+        {
+            return true;
+        }
+
+        final int comp = VersionSpecComparisons.compareTo( next.lower, current.upper );
+        return comp < 0 || ( comp == 0 && ( next.lowerInclusive || current.upperInclusive ) );
+    }
+
+    // orders lower bounds by the first version they admit: unbounded first, then inclusive before exclusive.
+    private static int compareLower( final SingleVersion first, final boolean firstInclusive,
+                                     final SingleVersion second, final boolean secondInclusive )
+    {
+        if ( first == null || second == null )
+        {
+            return first == second ? 0 : ( first == null ? -1 : 1 );
+        }
+
+        final int comp = VersionSpecComparisons.compareTo( first, second );
+        if ( comp != 0 || firstInclusive == secondInclusive )
+        {
+            return comp;
+        }
+
+        return firstInclusive ? -1 : 1;
+    }
+
+    // orders upper bounds by the last version they admit: exclusive before inclusive, then unbounded last.
+    private static int compareUpper( final SingleVersion first, final boolean firstInclusive,
+                                     final SingleVersion second, final boolean secondInclusive )
+    {
+        if ( first == null || second == null )
+        {
+            return first == second ? 0 : ( first == null ? 1 : -1 );
+        }
+
+        final int comp = VersionSpecComparisons.compareTo( first, second );
+        if ( comp != 0 || firstInclusive == secondInclusive )
+        {
+            return comp;
+        }
+
+        return firstInclusive ? 1 : -1;
+    }
+
+    private static final class Interval
+    {
+        private final SingleVersion lower;
+
+        private final boolean lowerInclusive;
+
+        private final SingleVersion upper;
+
+        private final boolean upperInclusive;
+
+        Interval( final SingleVersion lower, final boolean lowerInclusive, final SingleVersion upper,
+                  final boolean upperInclusive )
+        {
+            this.lower = lower;
+            this.lowerInclusive = lower != null && lowerInclusive;
+            this.upper = upper;
+            this.upperInclusive = upper != null && upperInclusive;
+        }
+
+        boolean isEmpty()
+        {
+            if ( lower == null || upper == null )
+            {
+                return false;
+            }
+
+            final int comp = VersionSpecComparisons.compareTo( lower, upper );
+            return comp > 0 || ( comp == 0 && !( lowerInclusive && upperInclusive ) );
+        }
+    }
+
+}
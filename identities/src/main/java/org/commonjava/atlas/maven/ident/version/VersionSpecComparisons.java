@@ -304,7 +304,135 @@ public final class VersionSpecComparisons
         }
     }
 
+    /**
+     * Compare two keys obtained from {@link SingleVersion#getCollationKey()}, in the same order as the versions they
+     * were created from.
+     */
+    public static int compareCollationKeys( final byte[] first, final byte[] second )
+    {
+        return CollationKeyBuilder.compare( first, second );
+    }
+
     private static int compareSingleToSingle( final SingleVersion first, final SingleVersion second )
+    {
+        if ( first == second )
+        {
+            return 0;
+        }
+
+        final String fe = first.lazyExpression();
+        final String se = fe == null ? null : second.lazyExpression();
+        if ( se != null )
+        {
+            if ( fe.equals( se ) )
+            {
+                return 0;
+            }
+            else if ( isNumericRelease( fe ) && isNumericRelease( se ) )
+            {
+                return compareNumericReleases( fe, se );
+            }
+        }
+
+        final byte[] fk = first.collationKey();
+        if ( fk != null )
+        {
+            final byte[] sk = second.collationKey();
+            if ( sk != null )
+            {
+                return CollationKeyBuilder.compare( fk, sk );
+            }
+        }
+
+        return compareSingleToSingleByPhrases( first, second );
+    }
+
+    /*
+     * Whether a valid version expression is made only of digits and dots, with no empty segments. Segments of 8 or
+     * more digits are excluded, since the parser may read them as part of a 'yyyyMMdd.HHmmss' timestamp and split
+     * them differently; empty segments ('1..5', '.5', '1.') are excluded because the parser doesn't read them as zero.
+     */
+    private static boolean isNumericRelease( final String expression )
+    {
+        int length = 0;
+        for ( int i = 0; i < expression.length(); i++ )
+        {
+            final char c = expression.charAt( i );
+            if ( c == '.' )
+            {
+                if ( length == 0 )
+                {
+                    return false;
+                }
+                length = 0;
+            }
+            else if ( c < '0' || c > '9' || ++length > 7 )
+            {
+                return false;
+            }
+        }
+
+        return length > 0;
+    }
+
+    /*
+     * Compare two valid versions made only of digits and dots segment by segment, the way their numeric parts would
+     * compare (so leading zeros don't matter, and missing segments count as zero).
+     */
+    private static int compareNumericReleases( final String first, final String second )
+    {
+        int i = 0;
+        int j = 0;
+        while ( i < first.length() || j < second.length() )
+        {
+            final int fe = segmentEnd( first, i );
+            final int se = segmentEnd( second, j );
+
+            // leading zeros don't count, and missing segments are empty (zero).
+            int fs = i;
+            while ( fs < fe && first.charAt( fs ) == '0' )
+            {
+                fs++;
+            }
+            int ss = j;
+            while ( ss < se && second.charAt( ss ) == '0' )
+            {
+                ss++;
+            }
+
+            if ( fe - fs != se - ss )
+            {
+                return fe - fs < se - ss ? -1 : 1;
+            }
+
+            for ( int n = 0; n < fe - fs; n++ )
+            {
+                final int comp = first.charAt( fs + n ) - second.charAt( ss + n );
+                if ( comp != 0 )
+                {
+                    return comp < 0 ? -1 : 1;
+                }
+            }
+
+            i = fe + 1;
+            j = se + 1;
+        }
+
+        return 0;
+    }
+
+    private static int segmentEnd( final String expression, final int start )
+    {
+        int end = start;
+        while ( end < expression.length() && expression.charAt( end ) != '.' )
+        {
+            end++;
+        }
+
+        return end;
+    }
+
+    static int compareSingleToSingleByPhrases( final SingleVersion first, final SingleVersion second )
     {
         final int comp = comparePhrasesToPhrases( first.getVersionPhrases(), second.getVersionPhrases() );
 
@@ -408,43 +536,23 @@ public final class VersionSpecComparisons
 
     private static int comparePartsToParts( final List<VersionPart> first, final List<VersionPart> second )
     {
-        final List<VersionPart> fp = new ArrayList<VersionPart>( first );
-        final List<VersionPart> sp = new ArrayList<VersionPart>( second );
-
-        for ( int i = Math.min( first.size() - 1, second.size() - 1 ); i < Math.max( first.size(), second.size() ); i++ )
-        {
-            final VersionPart f = i < first.size() ? first.get( i ) : null;
-            final VersionPart s = i < second.size() ? second.get( i ) : null;
-            if ( f == null )
+        // pad the shorter side in place, rather than copying both lists: separators line up with separators, and
+        // every other missing part compares as zero.
+        final int size = Math.max( first.size(), second.size() );
+        for ( int i = 0; i < size; i++ )
+        {
+            VersionPart fPart = i < first.size() ? first.get( i ) : null;
+            VersionPart sPart = i < second.size() ? second.get( i ) : null;
+            if ( fPart == null )
             {
-                if ( s instanceof SeparatorPart )
-                {
-                    fp.add( s );
-                }
-                else
-                {
-                    fp.add( NumericPart.ZERO );
-                }
+                fPart = sPart instanceof SeparatorPart ? sPart : NumericPart.ZERO;
             }
-            else if ( s == null )
+            else if ( sPart == null )
             {
-                if ( f instanceof SeparatorPart )
-                {
-                    sp.add( f );
-                }
-                else
-                {
-                    sp.add( NumericPart.ZERO );
-                }
+                sPart = fPart instanceof SeparatorPart ? fPart : NumericPart.ZERO;
             }
-        }
 
-        // the two lists should be of equal length now.
-        for ( int i = 0; i < fp.size(); i++ )
-        {
-            final VersionPart fPart = fp.get( i );
-            final VersionPart sPart = sp.get( i );
-            final int comp = fPart.compareTo( sPart );
+            final int comp = comparePartToPart( fPart, sPart );
             if ( comp != 0 )
             {
                 return comp;
@@ -454,4 +562,15 @@ public final class VersionSpecComparisons
         return 0;
     }
 
+    private static int comparePartToPart( final VersionPart first, final VersionPart second )
+    {
+        // numeric against numeric is by far the most common pairing, so compare the primitive values directly.
+        if ( first instanceof NumericPart && second instanceof NumericPart )
+        {
+            return Long.compare( ( (NumericPart) first ).getLongValue(), ( (NumericPart) second ).getLongValue() );
+        }
+
+        return first.compareTo( second );
+    }
+
 }
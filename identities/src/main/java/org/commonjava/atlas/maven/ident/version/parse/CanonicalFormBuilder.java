@@ -0,0 +1,364 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.version.parse;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import org.commonjava.atlas.maven.ident.version.SingleVersion;
+import org.commonjava.atlas.maven.ident.version.part.SnapshotPart;
+import org.commonjava.atlas.maven.ident.version.part.StringPart;
+import org.commonjava.atlas.maven.ident.version.part.VersionPhrase;
+
+/**
+ * Collects the parts scanned by {@link SingleVersionParser} as plain values and renders the canonical form that
+ * {@link SingleVersion#getCanonicalForm()} would produce after building the version, without creating any
+ * {@link org.commonjava.atlas.maven.ident.version.part.VersionPart}s or {@link VersionPhrase}s.
+ * <p/>
+ * The part normalization and phrase splitting of {@link SingleVersion} are reproduced step by step. Where that code
+ * would drop or reject a phrase, {@link #render()} gives up and returns null, so the caller can fall back to parsing.
+ */
+final class CanonicalFormBuilder
+{
+
+    private static final int NUMERIC = 0;
+
+    private static final int STRING = 1;
+
+    private static final int LOCAL_SNAPSHOT = 2;
+
+    private static final int REMOTE_SNAPSHOT = 3;
+
+    private static final int SEPARATOR = 4;
+
+    private static final int DASH = 5;
+
+    private int[] kinds = new int[8];
+
+    private long[] values = new long[8];
+
+    private String[] texts = new String[8];
+
+    private Date[] timestamps = new Date[8];
+
+    private int size;
+
+    void numeric( final long value )
+    {
+        blank();
+        add( NUMERIC, value, null, null );
+    }
+
+    void string( final String value )
+    {
+        blank();
+        add( STRING, 0, value, null );
+    }
+
+    void localSnapshot( final String literal )
+    {
+        blank();
+        add( LOCAL_SNAPSHOT, 0, literal, null );
+    }
+
+    void remoteSnapshot( final String date, final Date timestamp, final int buildNumber )
+    {
+        blank();
+        add( REMOTE_SNAPSHOT, buildNumber, date, timestamp );
+    }
+
+    void separator( final boolean dash )
+    {
+        add( dash ? DASH : SEPARATOR, 0, null, null );
+    }
+
+    /**
+     * @return the canonical form, or null if it can't be derived without building the version
+     */
+    String render()
+    {
+        final CanonicalFormBuilder normal = normalize();
+        if ( normal.size == 0 )
+        {
+            return null;
+        }
+
+        return normal.renderPhrases();
+    }
+
+    // the same adjacency rule as SingleVersionParser.addPart(..).
+    private void blank()
+    {
+        if ( size > 0 && !isSeparator( kinds[size - 1] ) )
+        {
+            add( SEPARATOR, 0, null, null );
+        }
+    }
+
+    private void add( final int kind, final long value, final String text, final Date timestamp )
+    {
+        if ( size == kinds.length )
+        {
+            final int capacity = size * 2;
+            kinds = Arrays.copyOf( kinds, capacity );
+            values = Arrays.copyOf( values, capacity );
+            texts = Arrays.copyOf( texts, capacity );
+            timestamps = Arrays.copyOf( timestamps, capacity );
+        }
+
+        kinds[size] = kind;
+        values[size] = value;
+        texts[size] = text;
+        timestamps[size] = timestamp;
+        size++;
+    }
+
+    // see SingleVersion.normalize(..): snapshots that aren't at the end are turned into plain parts.
+    private CanonicalFormBuilder normalize()
+    {
+        final CanonicalFormBuilder result = new CanonicalFormBuilder();
+        for ( int i = 0; i < size; i++ )
+        {
+            final int kind = kinds[i];
+            if ( isSnapshot( kind ) && ( size == 1 || i < size - 1 ) )
+            {
+                if ( kind == LOCAL_SNAPSHOT )
+                {
+                    result.add( STRING, 0, texts[i], null );
+                }
+                else
+                {
+                    final String date = texts[i];
+                    final int dot = date.indexOf( '.' );
+                    result.add( NUMERIC, Long.parseLong( date.substring( 0, dot ) ), null, null );
+                    result.add( SEPARATOR, 0, null, null );
+                    result.add( NUMERIC, Long.parseLong( date.substring( dot + 1 ) ), null, null );
+                    result.add( DASH, 0, null, null );
+                    result.add( NUMERIC, values[i], null, null );
+                }
+            }
+            else
+            {
+                if ( !isSeparator( kind ) )
+                {
+                    result.blank();
+                }
+                result.add( kind, values[i], texts[i], timestamps[i] );
+            }
+        }
+
+        if ( result.size > 0 && isSeparator( result.kinds[result.size - 1] ) )
+        {
+            result.size--;
+        }
+
+        return result;
+    }
+
+    // see SingleVersion.parsePhrases(..); phrases are tracked as lists of part indexes.
+    private String renderPhrases()
+    {
+        final StringBuilder sb = new StringBuilder();
+        int keep = 0;
+        int phrases = 0;
+
+        final int[] current = new int[size];
+        int length = 0;
+
+        for ( int i = 0; i < size; i++ )
+        {
+            final int kind = kinds[i];
+            final int prev = i == 0 ? -1 : kinds[i - 1];
+            final int next = i >= size - 1 ? -1 : kinds[i + 1];
+
+            boolean split = false;
+            int pending = -1;
+            if ( kind == DASH )
+            {
+                if ( prev != -1 && ( prev != STRING || isSnapshot( next ) ) )
+                {
+                    split = true;
+                }
+                else
+                {
+                    current[length++] = i;
+                }
+
+                if ( next != -1 )
+                {
+                    pending = i + 1;
+                    i++;
+                }
+            }
+            else if ( ( isSnapshot( kind ) || kind == STRING ) && prev != -1 && prev != DASH )
+            {
+                if ( isSeparator( prev ) )
+                {
+                    length--;
+                }
+
+                split = true;
+                pending = i;
+            }
+            else
+            {
+                current[length++] = i;
+            }
+
+            if ( split )
+            {
+                final String phrase = renderPhrase( current, length );
+                if ( phrase == null )
+                {
+                    // SingleVersion silently drops phrases it can't build.
+                    return null;
+                }
+
+                if ( phrases++ > 0 )
+                {
+                    sb.append( '/' );
+                }
+                sb.append( phrase );
+                if ( phrase.length() > 0 )
+                {
+                    keep = sb.length();
+                }
+
+                length = 0;
+            }
+
+            if ( pending > -1 )
+            {
+                current[length++] = pending;
+            }
+        }
+
+        if ( length > 0 )
+        {
+            final String phrase = renderPhrase( current, length );
+            if ( phrase == null )
+            {
+                return null;
+            }
+
+            if ( phrases > 0 )
+            {
+                sb.append( '/' );
+            }
+            sb.append( phrase );
+            if ( phrase.length() > 0 )
+            {
+                keep = sb.length();
+            }
+        }
+
+        // trailing silent phrases don't take part in equality.
+        sb.setLength( keep );
+        return sb.toString();
+    }
+
+    // see VersionPhrase.renderCanonical()
+    private String renderPhrase( final int[] indexes, final int length )
+    {
+        int last = -1;
+        int parts = 0;
+        for ( int n = 0; n < length; n++ )
+        {
+            final int kind = kinds[indexes[n]];
+            if ( isSeparator( kind ) )
+            {
+                continue;
+            }
+
+            if ( isSnapshot( kind ) && n < length - 1 )
+            {
+                // VersionPhrase rejects this.
+                return null;
+            }
+
+            parts++;
+            if ( !isSilenceable( indexes[n] ) )
+            {
+                last = n;
+            }
+        }
+
+        if ( parts == 0 )
+        {
+            return null;
+        }
+
+        final StringBuilder sb = new StringBuilder();
+        for ( int n = 0; n <= last; n++ )
+        {
+            final int idx = indexes[n];
+            if ( isSeparator( kinds[idx] ) )
+            {
+                continue;
+            }
+
+            if ( sb.length() > 0 )
+            {
+                sb.append( '.' );
+            }
+
+            switch ( kinds[idx] )
+            {
+                case NUMERIC:
+                    sb.append( values[idx] );
+                    break;
+                case STRING:
+                    sb.append( StringPart.renderCanonical( texts[idx] ) );
+                    break;
+                case LOCAL_SNAPSHOT:
+                    sb.append( SnapshotPart.renderCanonical( null, null ) );
+                    break;
+                default:
+                    sb.append( SnapshotPart.renderCanonical( timestamps[idx], (int) values[idx] ) );
+            }
+        }
+
+        return sb.toString();
+    }
+
+    // see VersionPhrase.markSilentParts(..)
+    private boolean isSilenceable( final int idx )
+    {
+        switch ( kinds[idx] )
+        {
+            case NUMERIC:
+                return values[idx] == 0;
+            case STRING:
+                return StringPart.zeroCompareIndexOf( texts[idx] ) == StringPart.ADJ_ZERO_EQUIV_INDEX;
+            case SEPARATOR:
+            case DASH:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isSeparator( final int kind )
+    {
+        return kind == SEPARATOR || kind == DASH;
+    }
+
+    private static boolean isSnapshot( final int kind )
+    {
+        return kind == LOCAL_SNAPSHOT || kind == REMOTE_SNAPSHOT;
+    }
+
+}
@@ -0,0 +1,517 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.version.parse;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.commonjava.atlas.maven.ident.util.SnapshotUtils;
+import org.commonjava.atlas.maven.ident.version.InvalidVersionSpecificationException;
+import org.commonjava.atlas.maven.ident.version.SingleVersion;
+import org.commonjava.atlas.maven.ident.version.part.NumericPart;
+import org.commonjava.atlas.maven.ident.version.part.SeparatorPart;
+import org.commonjava.atlas.maven.ident.version.part.SnapshotPart;
+import org.commonjava.atlas.maven.ident.version.part.StringPart;
+import org.commonjava.atlas.maven.ident.version.part.VersionPart;
+import org.commonjava.atlas.maven.ident.version.part.VersionPartSeparator;
+
+/**
+ * Hand-written equivalent of the <code>single()</code> production in version.jj. It scans the expression directly into
+ * {@link VersionPart}s, without creating tokens, and reports syntax errors without throwing so that validation stays
+ * cheap. Ranges and compound specs are still handled by the generated {@link VersionParser}.
+ * <p/>
+ * The token rules (including skipped spaces, the case-insensitive 'SNAPSHOT' keyword and the 'yyyyMMdd.HHmmss'
+ * timestamp token) and the points at which the generated parser stops consuming input are reproduced exactly, so both
+ * parsers produce the same parts for the same expression.
+ */
+public final class SingleVersionParser
+{
+
+    private static final int EOF = 0;
+
+    private static final int DOT = 1;
+
+    private static final int DASH = 2;
+
+    private static final int PLUS = 3;
+
+    private static final int USCORE = 4;
+
+    private static final int LSNAP = 5;
+
+    private static final int SNAPDATE = 6;
+
+    private static final int STRING = 7;
+
+    private static final int DIGIT = 8;
+
+    private static final int OTHER = 9;
+
+    private static final int INVALID = 10;
+
+    private static final int SNAPDATE_LENGTH = SnapshotUtils.SNAPSHOT_TSTAMP_FORMAT.length();
+
+    private static final String LSNAP_IMAGE = "SNAPSHOT";
+
+    private static final int LOOKAHEAD = 2;
+
+    private final String expr;
+
+    // the buffered lookahead tokens, as [kind, start, end) triples.
+    private final int[] kinds = new int[LOOKAHEAD];
+
+    private final int[] starts = new int[LOOKAHEAD];
+
+    private final int[] ends = new int[LOOKAHEAD];
+
+    private int buffered;
+
+    private int pos;
+
+    private List<VersionPart> parts;
+
+    private VersionPart last;
+
+    private CanonicalFormBuilder canonical;
+
+    private String error;
+
+    private int tokenLength;
+
+    private SingleVersionParser( final String expr, final boolean build )
+    {
+        this.expr = expr;
+        this.parts = build ? new ArrayList<VersionPart>() : null;
+    }
+
+    /**
+     * Parse a single version, as {@link VersionParser#single()} would.
+     */
+    public static SingleVersion parse( final String expression )
+        throws InvalidVersionSpecificationException
+    {
+        final SingleVersionParser parser = new SingleVersionParser( expression, true );
+        if ( !parser.single() )
+        {
+            throw new InvalidVersionSpecificationException( expression, "Failed to parse single version: %s",
+                                                            parser.error );
+        }
+
+        return new SingleVersion( expression, parser.parts );
+    }
+
+    /**
+     * Compute the canonical form of a single version (see {@link SingleVersion#getCanonicalForm()}) directly from the
+     * expression, without building its parts.
+     *
+     * @return the canonical form, or null if the expression isn't a valid single version, or if the canonical form
+     *         can only be determined by parsing it
+     */
+    public static String canonicalForm( final String expression )
+    {
+        if ( expression == null )
+        {
+            return null;
+        }
+
+        final SingleVersionParser parser = new SingleVersionParser( expression, false );
+        parser.canonical = new CanonicalFormBuilder();
+        if ( !parser.single() )
+        {
+            return null;
+        }
+
+        return parser.canonical.render();
+    }
+
+    /**
+     * Check whether the expression is a syntactically valid single version, without building its parts. Unlike
+     * {@link VersionParser#single()}, numeric segments that overflow a long are reported as invalid rather than
+     * throwing {@link NumberFormatException}.
+     */
+    public static boolean isValid( final String expression )
+    {
+        return expression != null && new SingleVersionParser( expression, false ).single();
+    }
+
+    private boolean single()
+    {
+        if ( !isSegmentStart( peek( 0 ) ) )
+        {
+            return fail( "Expected a version segment" );
+        }
+
+        if ( !segment() )
+        {
+            return false;
+        }
+
+        while ( true )
+        {
+            final int kind = peek( 0 );
+            if ( isSegmentStart( kind ) )
+            {
+                if ( !segment() )
+                {
+                    return false;
+                }
+            }
+            else if ( isSeparator( kind ) && isSegmentStart( peek( 1 ) ) )
+            {
+                if ( parts != null )
+                {
+                    addPart( new SeparatorPart( toSeparator( kind ) ) );
+                }
+                else if ( canonical != null )
+                {
+                    canonical.separator( kind == DASH );
+                }
+                consume();
+
+                if ( !segment() )
+                {
+                    return false;
+                }
+            }
+            else
+            {
+                return error == null;
+            }
+        }
+    }
+
+    private boolean segment()
+    {
+        final int kind = peek( 0 );
+        final int start = starts[0];
+        final int end = ends[0];
+        consume();
+
+        switch ( kind )
+        {
+            case LSNAP:
+            {
+                if ( parts != null )
+                {
+                    addPart( new SnapshotPart( expr.substring( start, end ) ) );
+                }
+                else if ( canonical != null )
+                {
+                    canonical.localSnapshot( expr.substring( start, end ) );
+                }
+                return true;
+            }
+            case SNAPDATE:
+            {
+                if ( peek( 0 ) == DASH && peek( 1 ) == DIGIT )
+                {
+                    consume();
+                    final int bnStart = starts[0];
+                    final StringBuilder bn = new StringBuilder();
+                    long build = 0;
+                    while ( peek( 0 ) == DIGIT )
+                    {
+                        final char c = expr.charAt( starts[0] );
+                        build = Math.min( build * 10 + ( c - '0' ), Integer.MAX_VALUE + 1L );
+                        bn.append( c );
+                        consume();
+                    }
+
+                    if ( build > Integer.MAX_VALUE )
+                    {
+                        return fail( "Failed to parse snapshot build number: '" + bn + "' at column "
+                                         + ( bnStart + 1 ) );
+                    }
+
+                    return snapshot( expr.substring( start, end ), (int) build, bn );
+                }
+
+                // the generated parser re-splits timestamp-like segments on the dot.
+                final int dot = start + SNAPDATE_LENGTH - 7;
+                if ( parts != null )
+                {
+                    addPart( new NumericPart( expr.substring( start, dot ) ) );
+                    addPart( new SeparatorPart( VersionPartSeparator.DOT ) );
+                    addPart( new NumericPart( expr.substring( dot + 1, end ) ) );
+                }
+                else if ( canonical != null )
+                {
+                    canonical.numeric( Long.parseLong( expr.substring( start, dot ) ) );
+                    canonical.separator( false );
+                    canonical.numeric( Long.parseLong( expr.substring( dot + 1, end ) ) );
+                }
+                return true;
+            }
+            case DIGIT:
+            {
+                // digits may be separated by skipped spaces, so they have to be collected one token at a time.
+                final StringBuilder num = parts == null ? null : new StringBuilder().append( expr.charAt( start ) );
+                long value = expr.charAt( start ) - '0';
+                boolean overflow = false;
+                while ( peek( 0 ) == DIGIT )
+                {
+                    final int digit = expr.charAt( starts[0] ) - '0';
+                    overflow = overflow || value > ( Long.MAX_VALUE - digit ) / 10;
+                    value = value * 10 + digit;
+                    if ( num != null )
+                    {
+                        num.append( expr.charAt( starts[0] ) );
+                    }
+                    consume();
+                }
+
+                if ( num != null )
+                {
+                    addPart( new NumericPart( num.toString() ) );
+                }
+                else if ( overflow )
+                {
+                    return fail( "Numeric segment is too large for a version part, at column " + ( start + 1 ) );
+                }
+                else if ( canonical != null )
+                {
+                    canonical.numeric( value );
+                }
+
+                return true;
+            }
+            default:
+            {
+                if ( parts != null )
+                {
+                    addPart( new StringPart( expr.substring( start, end ) ) );
+                }
+                else if ( canonical != null )
+                {
+                    canonical.string( expr.substring( start, end ) );
+                }
+                return true;
+            }
+        }
+    }
+
+    private boolean snapshot( final String date, final int build, final CharSequence buildNumber )
+    {
+        if ( parts == null && canonical == null )
+        {
+            return true;
+        }
+
+        final Date timestamp;
+        try
+        {
+            timestamp = SnapshotUtils.parseSnapshotTimestamp( date );
+        }
+        catch ( final java.text.ParseException e )
+        {
+            return fail( "Failed to parse snapshot timestamp: '" + date + "'. Error: " + e.getMessage() );
+        }
+
+        if ( parts != null )
+        {
+            addPart( new SnapshotPart( timestamp, build, date + "-" + buildNumber ) );
+        }
+        else
+        {
+            canonical.remoteSnapshot( date, timestamp, build );
+        }
+
+        return true;
+    }
+
+    private void addPart( final VersionPart current )
+    {
+        if ( parts == null )
+        {
+            return;
+        }
+
+        if ( last != null && !( last instanceof SeparatorPart ) && !( current instanceof SeparatorPart ) )
+        {
+            parts.add( new SeparatorPart( VersionPartSeparator.BLANK ) );
+        }
+
+        parts.add( current );
+        last = current;
+    }
+
+    private boolean fail( final String message )
+    {
+        if ( error == null )
+        {
+            error = message;
+        }
+
+        return false;
+    }
+
+    private void consume()
+    {
+        buffered--;
+        for ( int i = 0; i < buffered; i++ )
+        {
+            kinds[i] = kinds[i + 1];
+            starts[i] = starts[i + 1];
+            ends[i] = ends[i + 1];
+        }
+    }
+
+    private int peek( final int idx )
+    {
+        while ( buffered <= idx )
+        {
+            if ( error != null )
+            {
+                // never scan past a lexical error; the generated parser would have thrown at this point.
+                return INVALID;
+            }
+
+            final int i = buffered;
+            final int kind = scan();
+            if ( kind == INVALID )
+            {
+                fail( "Lexical error at column " + ( pos + 1 ) + ". Encountered: '" + expr.charAt( pos ) + "'" );
+            }
+
+            kinds[i] = kind;
+            starts[i] = pos - tokenLength;
+            ends[i] = pos;
+            buffered++;
+        }
+
+        return kinds[idx];
+    }
+
+    private int scan()
+    {
+        final int len = expr.length();
+        while ( pos < len && expr.charAt( pos ) == ' ' )
+        {
+            pos++;
+        }
+
+        tokenLength = 0;
+        if ( pos >= len )
+        {
+            return EOF;
+        }
+
+        final char c = expr.charAt( pos );
+        switch ( c )
+        {
+            case '.':
+                return token( 1, DOT );
+            case '-':
+                return token( 1, DASH );
+            case '+':
+                return token( 1, PLUS );
+            case '_':
+                return token( 1, USCORE );
+            case ',':
+            case '(':
+            case ')':
+            case '[':
+            case ']':
+                return token( 1, OTHER );
+            default:
+        }
+
+        if ( isDigit( c ) )
+        {
+            return isSnapDate( pos ) ? token( SNAPDATE_LENGTH, SNAPDATE ) : token( 1, DIGIT );
+        }
+
+        if ( isLetter( c ) )
+        {
+            int end = pos + 1;
+            while ( end < len && isLetter( expr.charAt( end ) ) )
+            {
+                end++;
+            }
+
+            final int length = end - pos;
+            final boolean snap = length == LSNAP_IMAGE.length() && expr.regionMatches( true, pos, LSNAP_IMAGE, 0,
+                                                                                       length );
+            return token( length, snap ? LSNAP : STRING );
+        }
+
+        return INVALID;
+    }
+
+    private int token( final int length, final int kind )
+    {
+        tokenLength = length;
+        pos += length;
+        return kind;
+    }
+
+    private boolean isSnapDate( final int start )
+    {
+        if ( start + SNAPDATE_LENGTH > expr.length() )
+        {
+            return false;
+        }
+
+        final int dot = start + SNAPDATE_LENGTH - 7;
+        for ( int i = start; i < start + SNAPDATE_LENGTH; i++ )
+        {
+            final char c = expr.charAt( i );
+            if ( i == dot ? c != '.' : !isDigit( c ) )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isDigit( final char c )
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter( final char c )
+    {
+        return ( c >= 'a' && c <= 'z' ) || ( c >= 'A' && c <= 'Z' );
+    }
+
+    private static boolean isSegmentStart( final int kind )
+    {
+        return kind == LSNAP || kind == SNAPDATE || kind == STRING || kind == DIGIT;
+    }
+
+    private static boolean isSeparator( final int kind )
+    {
+        return kind == DOT || kind == DASH || kind == PLUS || kind == USCORE;
+    }
+
+    private static VersionPartSeparator toSeparator( final int kind )
+    {
+        switch ( kind )
+        {
+            case DOT:
+                return VersionPartSeparator.DOT;
+            case DASH:
+                return VersionPartSeparator.DASH;
+            case PLUS:
+                return VersionPartSeparator.PLUS;
+            default:
+                return VersionPartSeparator.UNDERSCORE;
+        }
+    }
+
+}
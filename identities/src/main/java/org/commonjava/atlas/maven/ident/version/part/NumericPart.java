@@ -23,37 +23,54 @@ public class NumericPart
     implements Serializable
 {
 
-    private static final long serialVersionUID = 1L;
+    private static final long serialVersionUID = 2L;
 
     public static final NumericPart ZERO = new NumericPart( 0 );
 
-    private final BigInteger value;
+    // numeric segments that overflow a long are rejected by the parser, so a primitive is enough here.
+    private final long value;
 
     public NumericPart( final String value )
     {
-        this.value = BigInteger.valueOf( Long.parseLong( value ) );
+        this.value = Long.parseLong( value );
     }
 
     public NumericPart( final long value )
     {
-        this.value = BigInteger.valueOf( value );
+        this.value = value;
     }
 
     @Override
     public String renderStandard()
     {
-        return value.toString();
+        return Long.toString( value );
+    }
+
+    @Override
+    public String renderCanonical()
+    {
+        return Long.toString( value );
     }
 
     public BigInteger getValue()
+    {
+        return BigInteger.valueOf( value );
+    }
+
+    public long getLongValue()
     {
         return value;
     }
 
+    public boolean isZero()
+    {
+        return value == 0;
+    }
+
     @Override
     public String toString()
     {
-        return String.format( "NUM[%s]", value );
+        return "NUM[" + value + "]";
     }
 
     public int compareTo( final VersionPart part )
@@ -71,8 +88,7 @@ public class NumericPart
         }
         else if ( part instanceof NumericPart )
         {
-            final BigInteger other = ( (NumericPart) part ).getValue();
-            return value.compareTo( other );
+            return Long.compare( value, ( (NumericPart) part ).value );
         }
 
         // punt...shouldn't happen.
@@ -84,7 +100,7 @@ public class NumericPart
     {
         final int prime = 31;
         int result = 1;
-        result = prime * result + value.hashCode();
+        result = prime * result + (int) ( value ^ ( value >>> 32 ) );
         return result;
     }
 
@@ -104,7 +120,7 @@ public class NumericPart
             return false;
         }
         final NumericPart other = (NumericPart) obj;
-        return value.equals( other.value );
+        return value == other.value;
     }
 
 }
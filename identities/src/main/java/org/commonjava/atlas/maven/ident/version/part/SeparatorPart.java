@@ -37,6 +37,13 @@ public class SeparatorPart
         return type.getRenderedString();
     }
 
+    @Override
+    public String renderCanonical()
+    {
+        // separators never take part in equality.
+        return "";
+    }
+
     public VersionPartSeparator getValue()
     {
         return type;
@@ -94,6 +94,27 @@ public class SnapshotPart
         return literal;
     }
 
+    @Override
+    public String renderCanonical()
+    {
+        return renderCanonical( timestamp, buildNumber );
+    }
+
+    /**
+     * Render a snapshot part for the canonical form of its version, without creating it.
+     *
+     * @param timestamp the snapshot timestamp, or null for a local snapshot
+     */
+    public static String renderCanonical( final Date timestamp, final Integer buildNumber )
+    {
+        if ( timestamp == null )
+        {
+            return "@";
+        }
+
+        return "@" + timestamp.getTime() + "-" + buildNumber;
+    }
+
     public String getValue()
     {
         return renderStandard();
@@ -107,10 +128,10 @@ public class SnapshotPart
             final SnapshotPart oSnap = (SnapshotPart) o;
             if ( !isLocalSnapshot() && !oSnap.isLocalSnapshot() )
             {
-                final int comp = getTimestamp().compareTo( oSnap.getTimestamp() );
+                final int comp = Long.compare( timestamp.getTime(), oSnap.timestamp.getTime() );
                 if ( comp == 0 )
                 {
-                    return getBuildNumber() - oSnap.getBuildNumber();
+                    return Integer.compare( buildNumber, oSnap.buildNumber );
                 }
 
                 return comp;
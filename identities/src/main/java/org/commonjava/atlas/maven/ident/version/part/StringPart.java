@@ -81,6 +81,14 @@ public class StringPart
     public StringPart( final String value )
     {
         this.value = value;
+        zeroCompareIndex = zeroCompareIndexOf( value );
+    }
+
+    /**
+     * Retrieve the marker index a part with the given value would have, without creating it.
+     */
+    public static int zeroCompareIndexOf( final String value )
+    {
         String uc = value.toUpperCase();
         if ( ALIASES.containsKey( uc ) )
         {
@@ -101,7 +109,27 @@ public class StringPart
             idx = ADJ_RANDOM_STRING_EQUIV_INDEX;
         }
 
-        zeroCompareIndex = idx;
+        return idx;
+    }
+
+    /**
+     * Render a part with the given value for the canonical form of its version, without creating it. Markers render
+     * as their index (so aliases like 'CR' and 'RC' render the same), other strings in lower case.
+     */
+    public static String renderCanonical( final String value )
+    {
+        final int idx = zeroCompareIndexOf( value );
+        return renderCanonical( value, idx );
+    }
+
+    private static String renderCanonical( final String value, final int zeroCompareIndex )
+    {
+        if ( zeroCompareIndex == ADJ_RANDOM_STRING_EQUIV_INDEX )
+        {
+            return value.toLowerCase( Locale.ENGLISH );
+        }
+
+        return "#" + zeroCompareIndex;
     }
 
     public boolean isMarker()
@@ -120,6 +148,12 @@ public class StringPart
         return value;
     }
 
+    @Override
+    public String renderCanonical()
+    {
+        return renderCanonical( value, zeroCompareIndex );
+    }
+
     public String getValue()
     {
         return value;
@@ -142,7 +176,7 @@ public class StringPart
         }
         else if ( part instanceof NumericPart )
         {
-            if ( !NumericPart.ZERO.equals( part ) )
+            if ( !( (NumericPart) part ).isZero() )
             {
                 return -1;
             }
@@ -27,6 +27,16 @@ public abstract class VersionPart
 
     public abstract String renderStandard();
 
+    /**
+     * Render this part for the canonical form of its version (see {@link VersionPhrase#renderCanonical()}): two parts
+     * render the same way exactly when they are equal. Defaults to {@link #renderStandard()}; parts that can be equal
+     * while rendering differently (e.g. leading zeros, case) override this.
+     */
+    public String renderCanonical()
+    {
+        return renderStandard();
+    }
+
     final boolean isSilent()
     {
         return silent;
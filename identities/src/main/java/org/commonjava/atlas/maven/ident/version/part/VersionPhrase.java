@@ -18,6 +18,7 @@ package org.commonjava.atlas.maven.ident.version.part;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
@@ -54,7 +55,7 @@ public class VersionPhrase
         markSilentParts( parts );
         this.markerIndex = findMarkerIndex( parts.get( 0 ) );
 
-        this.parts = new ArrayList<VersionPart>( parts );
+        this.parts = Collections.unmodifiableList( new ArrayList<VersionPart>( parts ) );
     }
 
     private void markSilentParts( final List<VersionPart> parts )
@@ -63,7 +64,7 @@ public class VersionPhrase
         {
             final VersionPart part = parts.get( i );
             boolean silenced = false;
-            if ( NumericPart.ZERO.equals( part ) )
+            if ( ( part instanceof NumericPart ) && ( (NumericPart) part ).isZero() )
             {
                 silenced = true;
             }
@@ -111,7 +112,7 @@ public class VersionPhrase
         {
             markerIndex = StringPart.ADJ_ZERO_EQUIV_INDEX;
         }
-        else if ( ( part instanceof NumericPart ) && ( ( (NumericPart) part ).equals( NumericPart.ZERO ) ) )
+        else if ( ( part instanceof NumericPart ) && ( (NumericPart) part ).isZero() )
         {
             markerIndex = StringPart.ADJ_ZERO_EQUIV_INDEX;
         }
@@ -235,6 +236,33 @@ public class VersionPhrase
         return sb.toString();
     }
 
+    /**
+     * Render the parts that take part in equality (everything except separators and trailing zero-equivalent parts),
+     * separated by dots. Two phrases are equal exactly when these renderings are, and a silent phrase renders as an
+     * empty string.
+     */
+    public String renderCanonical()
+    {
+        final StringBuilder sb = new StringBuilder();
+        for ( final VersionPart part : parts )
+        {
+            if ( part.isSilent() )
+            {
+                break;
+            }
+            else if ( !( part instanceof SeparatorPart ) )
+            {
+                if ( sb.length() > 0 )
+                {
+                    sb.append( '.' );
+                }
+                sb.append( part.renderCanonical() );
+            }
+        }
+
+        return sb.toString();
+    }
+
     @Override
     public int compareTo( final VersionPhrase other )
     {
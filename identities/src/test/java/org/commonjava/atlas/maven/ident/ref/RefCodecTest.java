@@ -0,0 +1,175 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.ref;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.commonjava.atlas.maven.ident.util.VersionUtils;
+import org.commonjava.atlas.maven.ident.version.VersionSpec;
+import org.junit.Test;
+
+public class RefCodecTest
+{
+
+    private static final List<ProjectRef> REFS =
+        Arrays.<ProjectRef> asList( new SimpleProjectRef( "org.foo", "bar" ),
+                                    new SimpleProjectVersionRef( "org.foo", "bar", "1.0" ), null,
+                                    new SimpleArtifactRef( "org.foo", "bar", "1.0", "jar", "sources" ),
+                                    new SimpleArtifactRef( "org.foo", "bar", "[1.0,2.0)", "pom", null ),
+                                    new SimpleVersionlessArtifactRef( "org.foo", "bar", "test-jar", "tests" ),
+                                    new SimpleProjectVersionRef( "org.foo", "baz",
+                                                                 VersionUtils.createFromSpec( "1.0-SNAPSHOT" ) ) );
+
+    @Test
+    public void refsRoundTrip()
+        throws Exception
+    {
+        final List<ProjectRef> decoded = RefCodec.decode( RefCodec.encode( REFS ), null );
+
+        // versions are only parsed on use, and strings are shared between the decoded refs.
+        final ProjectVersionRef gav = (ProjectVersionRef) decoded.get( 1 );
+        assertThat( gav.getVersionSpecRaw(), nullValue() );
+        assertThat( gav.getVersionSpec(), equalTo( VersionUtils.createFromSpec( "1.0" ) ) );
+        assertThat( decoded.get( 1 ).getGroupId(), sameInstance( decoded.get( 0 ).getGroupId() ) );
+
+        assertThat( decoded, equalTo( REFS ) );
+        for ( int i = 0; i < REFS.size(); i++ )
+        {
+            if ( REFS.get( i ) != null )
+            {
+                assertThat( decoded.get( i ).toString(), equalTo( REFS.get( i ).toString() ) );
+                assertThat( decoded.get( i ).getClass(), equalTo( (Object) REFS.get( i ).getClass() ) );
+            }
+        }
+    }
+
+    @Test
+    public void smallerThanDefaultSerialization()
+        throws Exception
+    {
+        final List<ProjectRef> refs = new ArrayList<ProjectRef>();
+        for ( int i = 0; i < 1000; i++ )
+        {
+            final ProjectVersionRef gav = new SimpleProjectVersionRef( "org.foo", "bar-" + ( i % 20 ), "1." + ( i % 7 ) );
+            gav.getVersionSpec();
+            refs.add( i % 2 == 0 ? gav : gav.asJarArtifact() );
+        }
+
+        final ByteArrayOutputStream java = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream( java );
+        out.writeObject( refs );
+        out.close();
+
+        final byte[] encoded = RefCodec.encode( refs );
+        assertTrue( encoded.length + " vs. " + java.size(), encoded.length * 5 < java.size() );
+        assertThat( RefCodec.decode( encoded ), equalTo( (List<ProjectRef>) refs ) );
+    }
+
+    @Test
+    public void versionSpecsAndExternalizableHolders()
+        throws Exception
+    {
+        final Holder holder = new Holder();
+        holder.refs.addAll( REFS );
+        for ( final String spec : new String[] { "1.0", "1.0-20231011.120000-3", "[1.0,2.0)", "[1.0],[1.2,)" } )
+        {
+            holder.specs.add( VersionUtils.createFromSpec( spec ) );
+        }
+        holder.specs.add( null );
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream( bytes );
+        out.writeObject( holder );
+        out.close();
+
+        final Holder result =
+            (Holder) new ObjectInputStream( new ByteArrayInputStream( bytes.toByteArray() ) ).readObject();
+        assertThat( result.refs, equalTo( holder.refs ) );
+        assertThat( result.specs, equalTo( holder.specs ) );
+        for ( int i = 0; i < holder.specs.size() - 1; i++ )
+        {
+            assertThat( result.specs.get( i ).renderStandard(), equalTo( holder.specs.get( i ).renderStandard() ) );
+        }
+    }
+
+    @Test( expected = StreamCorruptedException.class )
+    public void unknownStringReferencesFail()
+        throws Exception
+    {
+        // one project ref, whose groupId refers to a string that was never written.
+        RefCodec.decode( new byte[] { 1, 1, 5, 0 } );
+    }
+
+    public static final class Holder
+        implements Externalizable
+    {
+        private final List<ProjectRef> refs = new ArrayList<ProjectRef>();
+
+        private final List<VersionSpec> specs = new ArrayList<VersionSpec>();
+
+        @Override
+        public void writeExternal( final ObjectOutput out )
+            throws IOException
+        {
+            final RefCodec.Writer writer = new RefCodec.Writer( out );
+            writer.writeVarInt( refs.size() );
+            for ( final ProjectRef ref : refs )
+            {
+                writer.writeRef( ref );
+            }
+
+            writer.writeVarInt( specs.size() );
+            for ( final VersionSpec spec : specs )
+            {
+                writer.writeVersionSpec( spec );
+            }
+        }
+
+        @Override
+        public void readExternal( final ObjectInput in )
+            throws IOException
+        {
+            final RefCodec.Reader reader = new RefCodec.Reader( in );
+            for ( int i = reader.readVarInt(); i > 0; i-- )
+            {
+                refs.add( reader.readRef() );
+            }
+
+            for ( int i = reader.readVarInt(); i > 0; i-- )
+            {
+                specs.add( reader.readVersionSpec() );
+            }
+        }
+    }
+
+}
@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.ref;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Hammers freshly created refs (whose versions haven't been parsed yet) from many threads at once, checking that each
+ * thread sees the same hash codes, parsed versions and map lookups as a single-threaded run.
+ */
+public class RefConcurrencyTest
+{
+
+    private static final int THREADS = 8;
+
+    private static final int REFS = 2000;
+
+    private static final int ROUNDS = 10;
+
+    @Test
+    public void sharedRefsAreConsistentAcrossThreads()
+        throws Exception
+    {
+        final ExecutorService executor = Executors.newFixedThreadPool( THREADS );
+        try
+        {
+            for ( int round = 0; round < ROUNDS; round++ )
+            {
+                runRound( executor, round );
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+            executor.awaitTermination( 10, TimeUnit.SECONDS );
+        }
+    }
+
+    private void runRound( final ExecutorService executor, final int round )
+        throws Exception
+    {
+        // expected values come from separate, unshared instances.
+        final Map<ProjectRef, Integer> index = new HashMap<ProjectRef, Integer>();
+        final int[] hashes = new int[REFS];
+        final String[] versions = new String[REFS];
+        for ( int i = 0; i < REFS; i++ )
+        {
+            final ProjectRef ref = newRef( round, i );
+            index.put( ref, i );
+            hashes[i] = ref.hashCode();
+            versions[i] = ref instanceof ProjectVersionRef ? ( (ProjectVersionRef) ref ).getVersionSpec()
+                                                                                         .renderStandard() : null;
+        }
+
+        final List<ProjectRef> shared = new ArrayList<ProjectRef>( REFS );
+        for ( int i = 0; i < REFS; i++ )
+        {
+            shared.add( newRef( round, i ) );
+        }
+
+        final CountDownLatch start = new CountDownLatch( 1 );
+        final List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+        for ( int t = 0; t < THREADS; t++ )
+        {
+            final int offset = t * ( REFS / THREADS );
+            results.add( executor.submit( new Callable<Integer>()
+            {
+                @Override
+                public Integer call()
+                    throws Exception
+                {
+                    start.await();
+
+                    int mismatches = 0;
+                    for ( int n = 0; n < REFS; n++ )
+                    {
+                        // each thread starts at a different ref, so first uses race with reuses.
+                        final int i = ( offset + n ) % REFS;
+                        final ProjectRef ref = shared.get( i );
+                        if ( ref.hashCode() != hashes[i] )
+                        {
+                            mismatches++;
+                        }
+
+                        if ( ref instanceof ProjectVersionRef && !( (ProjectVersionRef) ref ).getVersionSpec()
+                                                                                           .renderStandard()
+                                                                                           .equals( versions[i] ) )
+                        {
+                            mismatches++;
+                        }
+
+                        final Integer found = index.get( ref );
+                        if ( found == null || found != i )
+                        {
+                            mismatches++;
+                        }
+                    }
+
+                    return mismatches;
+                }
+            } ) );
+        }
+
+        start.countDown();
+        for ( final Future<Integer> result : results )
+        {
+            assertThat( "Round " + round, result.get( 30, TimeUnit.SECONDS ), equalTo( 0 ) );
+        }
+    }
+
+    private ProjectRef newRef( final int round, final int i )
+    {
+        final String groupId = "org.test.g" + ( i % 37 );
+        final String artifactId = "artifact-" + i;
+        final String version = ( i % 5 ) + "." + round + "." + ( i % 11 ) + ( i % 3 == 0 ? "-SNAPSHOT" : "" );
+        switch ( i % 4 )
+        {
+            case 0:
+                return new SimpleProjectRef( groupId, artifactId );
+            case 1:
+                return new SimpleProjectVersionRef( groupId, artifactId, version );
+            case 2:
+                return new SimpleArtifactRef( groupId, artifactId, version, "jar", i % 5 == 0 ? "sources" : null );
+            default:
+                return new SimpleVersionlessArtifactRef( new SimpleProjectRef( groupId, artifactId ), "pom", null );
+        }
+    }
+
+}
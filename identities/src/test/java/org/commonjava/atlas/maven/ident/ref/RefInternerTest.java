@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.ref;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.commonjava.atlas.maven.ident.util.IdentityUtils;
+import org.junit.Test;
+
+public class RefInternerTest
+{
+
+    private final RefInterner interner = new RefInterner();
+
+    @Test
+    public void parsedRefsShareInstances()
+    {
+        final ProjectVersionRef first = SimpleProjectVersionRef.parse( "org.foo:bar:1.0", interner );
+        final ProjectVersionRef second = SimpleProjectVersionRef.parse( "org.foo:bar:1.0", interner );
+        assertThat( second, sameInstance( first ) );
+
+        final ProjectRef project = SimpleProjectRef.parse( "org.foo:baz", interner );
+        assertThat( project.getGroupId(), sameInstance( first.getGroupId() ) );
+
+        final SimpleArtifactRef artifact = SimpleArtifactRef.parse( "org.foo:bar:jar:1.0:sources", interner );
+        assertThat( SimpleArtifactRef.parse( "org.foo:bar:jar:1.0:sources", interner ), sameInstance( artifact ) );
+        assertThat( artifact.getArtifactId(), sameInstance( first.getArtifactId() ) );
+    }
+
+    @Test
+    public void internedRefsKeepTheirClassAndVersionString()
+    {
+        final ProjectVersionRef full = interner.intern( new SimpleProjectVersionRef( "org.foo", "bar", "1.0" ) );
+        final ProjectVersionRef shortened = interner.intern( new SimpleProjectVersionRef( "org.foo", "bar", "1" ) );
+        assertThat( full, equalTo( shortened ) );
+        assertThat( shortened, not( sameInstance( full ) ) );
+        assertThat( shortened.getVersionString(), equalTo( "1" ) );
+
+        final ArtifactRef artifact = interner.intern( new SimpleArtifactRef( full, "pom", null ) );
+        assertThat( artifact.getClass(), equalTo( (Object) SimpleArtifactRef.class ) );
+        assertThat( artifact.getGroupId(), sameInstance( full.getGroupId() ) );
+    }
+
+    @Test
+    public void versionlessArtifactRefsShareInstances()
+    {
+        final VersionlessArtifactRef ref = interner.intern( SimpleVersionlessArtifactRef.parse( "org.foo:bar:jar" ) );
+        assertThat( interner.intern( SimpleVersionlessArtifactRef.parse( "org.foo:bar:jar" ) ), sameInstance( ref ) );
+        assertThat( ref.getClass(), equalTo( (Object) SimpleVersionlessArtifactRef.class ) );
+        assertThat( ref.getType(), equalTo( "jar" ) );
+
+        final ProjectRef project = SimpleProjectRef.parse( "org.foo:bar", interner );
+        assertThat( ref.getArtifactId(), sameInstance( project.getArtifactId() ) );
+        assertThat( interner.intern( SimpleVersionlessArtifactRef.parse( "org.foo:bar:pom" ) ),
+                    not( sameInstance( ref ) ) );
+    }
+
+    @Test
+    public void otherRefsAreReturnedUnchanged()
+    {
+        final ProjectVersionRef ref = new SimpleProjectVersionRef( "org.foo", "bar", "1.0" )
+        {
+            private static final long serialVersionUID = 1L;
+        };
+        assertThat( interner.intern( ref ), sameInstance( ref ) );
+        assertThat( interner.size(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void unusedRefsAreDropped()
+        throws Exception
+    {
+        for ( int i = 0; i < 100; i++ )
+        {
+            interner.intern( new SimpleProjectVersionRef( "org.foo", "bar", "1." + i ) );
+        }
+
+        for ( int i = 0; i < 20 && interner.size() > 0; i++ )
+        {
+            System.gc();
+            Thread.sleep( 50 );
+        }
+
+        assertThat( interner.size(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void sharedInternerIsUsedByFactories()
+    {
+        RefInterner.enableShared();
+        try
+        {
+            final ProjectVersionRef ref = IdentityUtils.projectVersion( "org.foo:bar:2.0" );
+            assertThat( SimpleProjectVersionRef.parse( "org.foo:bar:2.0" ), sameInstance( ref ) );
+            assertThat( IdentityUtils.projectVersion( "org.foo", "bar", "2.0" ), sameInstance( ref ) );
+        }
+        finally
+        {
+            RefInterner.disableShared();
+        }
+
+        assertThat( SimpleProjectVersionRef.parse( "org.foo:bar:2.0" ),
+                    not( sameInstance( SimpleProjectVersionRef.parse( "org.foo:bar:2.0" ) ) ) );
+    }
+
+}
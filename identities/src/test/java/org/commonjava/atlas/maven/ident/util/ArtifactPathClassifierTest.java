@@ -0,0 +1,211 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ArtifactPathClassifierTest
+{
+
+    private static final List<String> PATHS =
+        Arrays.asList( "org/foo/bar/1.0/bar-1.0.jar", "org/foo/bar/1.0/bar-1.0-sources.jar",
+                       "org/foo/bar/1.0/bar-1.0.pom.sha1", "org/foo/bar/maven-metadata.xml",
+                       "org/foo/bar/maven-metadata.xml.md5", "org/foo/bar/1.0-SNAPSHOT/maven-metadata-local.xml",
+                       "org/foo/bar/1.0-SNAPSHOT/bar-1.0-20231011.120000-3.pom", "README.txt", "org/foo/.index" );
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private final ExecutorService executor = Executors.newFixedThreadPool( 3 );
+
+    private final Set<String> artifacts = Collections.synchronizedSet( new TreeSet<String>() );
+
+    private final Set<String> checksums = Collections.synchronizedSet( new TreeSet<String>() );
+
+    private final Set<String> metadata = Collections.synchronizedSet( new TreeSet<String>() );
+
+    private final Set<String> unrecognized = Collections.synchronizedSet( new TreeSet<String>() );
+
+    private ArtifactPathClassifier classifier;
+
+    @Before
+    public void setup()
+    {
+        classifier = new ArtifactPathClassifier.Builder().withArtifactSink( new InfoSink( artifacts ) )
+                                                         .withChecksumSink( new InfoSink( checksums ) )
+                                                         .withMetadataSink( new PathSink( metadata ) )
+                                                         .withUnrecognizedSink( new PathSink( unrecognized ) )
+                                                         .withExecutor( executor )
+                                                         .withBatchSize( 2 )
+                                                         .withMaxPendingBatches( 2 )
+                                                         .build();
+    }
+
+    @After
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void classifyStream()
+    {
+        final ArtifactPathClassifier.Summary summary = classifier.classify( PATHS.stream() );
+        assertThat( summary.getTotalCount(), equalTo( (long) PATHS.size() ) );
+        assertSorted();
+    }
+
+    @Test
+    public void classifyListing()
+        throws Exception
+    {
+        // CRLF line ends, blank lines and no final line break.
+        final StringBuilder sb = new StringBuilder( "\n" );
+        for ( final String path : PATHS )
+        {
+            sb.append( path )
+              .append( "\r\n\n" );
+        }
+        sb.setLength( sb.length() - 3 );
+
+        final File listing = temp.newFile( "listing.txt" );
+        Files.write( listing.toPath(), sb.toString()
+                                         .getBytes( StandardCharsets.UTF_8 ) );
+
+        final ArtifactPathClassifier.Summary summary = classifier.classifyListing( listing.toPath() );
+        assertThat( summary.getTotalCount(), equalTo( (long) PATHS.size() ) );
+        assertSorted();
+    }
+
+    @Test
+    public void classifyTree()
+        throws Exception
+    {
+        final Path root = temp.newFolder( "repo" )
+                              .toPath();
+        for ( final String path : PATHS )
+        {
+            final Path file = root.resolve( path );
+            Files.createDirectories( file.getParent() );
+            Files.createFile( file );
+        }
+
+        classifier.classifyTree( root );
+        assertSorted();
+    }
+
+    @Test( expected = IllegalStateException.class )
+    public void sinkFailuresAreRethrown()
+    {
+        new ArtifactPathClassifier.Builder().withUnrecognizedSink( new Consumer<List<String>>()
+        {
+            @Override
+            public void accept( final List<String> paths )
+            {
+                throw new IllegalStateException( "Unexpected: " + paths );
+            }
+        } )
+                                            .withExecutor( executor )
+                                            .build()
+                                            .classify( PATHS.stream() );
+    }
+
+    @Test( expected = RejectedExecutionException.class )
+    public void rejectedBatchesAreRethrown()
+    {
+        final ExecutorService stopped = Executors.newSingleThreadExecutor();
+        stopped.shutdown();
+
+        new ArtifactPathClassifier.Builder().withExecutor( stopped )
+                                            .withBatchSize( 1 )
+                                            .withMaxPendingBatches( 1 )
+                                            .build()
+                                            .classify( PATHS.stream() );
+    }
+
+    private void assertSorted()
+    {
+        assertThat( new ArrayList<String>( artifacts ),
+                    equalTo( Arrays.asList( "org/foo/bar/1.0-SNAPSHOT/bar-1.0-20231011.120000-3.pom",
+                                            "org/foo/bar/1.0/bar-1.0-sources.jar", "org/foo/bar/1.0/bar-1.0.jar" ) ) );
+        assertThat( new ArrayList<String>( checksums ),
+                    equalTo( Collections.singletonList( "org/foo/bar/1.0/bar-1.0.pom.sha1" ) ) );
+        assertThat( new ArrayList<String>( metadata ),
+                    equalTo( Arrays.asList( "org/foo/bar/1.0-SNAPSHOT/maven-metadata-local.xml",
+                                            "org/foo/bar/maven-metadata.xml", "org/foo/bar/maven-metadata.xml.md5" ) ) );
+        assertThat( new ArrayList<String>( unrecognized ), equalTo( Arrays.asList( "README.txt", "org/foo/.index" ) ) );
+    }
+
+    private static final class InfoSink
+        implements Consumer<List<ArtifactPathInfo>>
+    {
+        private final Set<String> paths;
+
+        InfoSink( final Set<String> paths )
+        {
+            this.paths = paths;
+        }
+
+        @Override
+        public void accept( final List<ArtifactPathInfo> infos )
+        {
+            for ( final ArtifactPathInfo info : infos )
+            {
+                paths.add( info.getFullPath() );
+            }
+        }
+    }
+
+    private static final class PathSink
+        implements Consumer<List<String>>
+    {
+        private final Set<String> paths;
+
+        PathSink( final Set<String> paths )
+        {
+            this.paths = paths;
+        }
+
+        @Override
+        public void accept( final List<String> batch )
+        {
+            paths.addAll( batch );
+        }
+    }
+
+}
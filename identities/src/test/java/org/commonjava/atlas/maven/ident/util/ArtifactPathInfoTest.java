@@ -24,6 +24,12 @@ import org.commonjava.atlas.maven.ident.version.part.SnapshotPart;
 import org.junit.Test;
 
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class ArtifactPathInfoTest
 {
@@ -128,7 +134,9 @@ public class ArtifactPathInfoTest
         assertEquals( "0.10.4-20160229.212037-2", snap.getValue() );
         assertEquals( "0.10.4-20160229.212037-2", snap.getLiteral() );
         assertEquals( 2, snap.getBuildNumber() );
-        assertEquals( "20160229", new SimpleDateFormat( "yyyyMMdd" ).format( snap.getTimestamp() ) );
+        final SimpleDateFormat format = new SimpleDateFormat( "yyyyMMdd" );
+        format.setTimeZone( SnapshotUtils.SNAPSHOT_TIME_ZONE );
+        assertEquals( "20160229", format.format( snap.getTimestamp() ) );
     }
 
     @Test
@@ -168,6 +176,20 @@ public class ArtifactPathInfoTest
     @Test
     public void matchCompoundExtTypes2(){
         System.setProperty("atlas.compoext.types", "a.b.c, x.y.z");
+        ArtifactPathInfo.reloadConfiguration();
+        try
+        {
+            matchConfiguredCompoundExtTypes();
+        }
+        finally
+        {
+            System.clearProperty( "atlas.compoext.types" );
+            ArtifactPathInfo.reloadConfiguration();
+        }
+    }
+
+    private void matchConfiguredCompoundExtTypes()
+    {
 
         String path =
                 "/com/example/example-artifact/1.0.0.redhat-00001/example-artifact-1.0.0.redhat-00001-x.y.z.tar";
@@ -231,4 +253,155 @@ public class ArtifactPathInfoTest
         assertThat( pathInfo.getType(), equalTo( "jar.sha512" ) );
     }
 
+    @Test
+    public void matchesRegexParser()
+    {
+        comparePaths( new Random( 1212 ) );
+
+        // overlapping types, where the set's iteration order decides which one wins.
+        System.setProperty( "atlas.compoext.types", "gz, rdf.xml,, bz2 ,x.y.z,jar.md5" );
+        ArtifactPathInfo.reloadConfiguration();
+        try
+        {
+            comparePaths( new Random( 3434 ) );
+        }
+        finally
+        {
+            System.clearProperty( "atlas.compoext.types" );
+            ArtifactPathInfo.reloadConfiguration();
+        }
+    }
+
+    private static final String[] GROUPS = { "org/foo", "org", "com/example/deep/group", "org/foo-bar", "a" };
+
+    private static final String[] ARTIFACTS = { "bar", "bar-core", "foo", "x" };
+
+    private static final String[] VERSIONS =
+        { "1.0", "1.0-SNAPSHOT", "2.3.4.Final-redhat-00001", "1.0-20120307.200227-1", "SNAPSHOT", "-SNAPSHOT", "1" };
+
+    private static final String[] FILE_VERSIONS =
+        { "1.0", "1.0-20120307.200227-12", "1.0-SNAPSHOT-20120307.200227-3", "1.0-20120307x200227-1",
+            "1.0-20120307.200227-", "1.0-20120307.200227-1-20120307.200227-1", "1.0-SNAPSHOT", "2.3.4.Final-redhat-00001",
+            "1", "1.0-20120307\n200227-4" };
+
+    private static final String[] TAILS =
+        { ".jar", "-sources.jar", ".tar.gz", "-src.tar.bz2.sha1", "-wildfly8.1.war", ".pom.md5", "-x.y.z.tar", ".spdx.rdf.xml",
+            "-", "", "5", "-5", ".md5", "jar", "/nested/file.jar", "//x.jar", ".jar\n", "-a.b.c.sha256", ".xml.gz.sha512" };
+
+    private void comparePaths( final Random random )
+    {
+        for ( int i = 0; i < 5000; i++ )
+        {
+            final String g = GROUPS[random.nextInt( GROUPS.length )];
+            final String a = ARTIFACTS[random.nextInt( ARTIFACTS.length )];
+            final String v = VERSIONS[random.nextInt( VERSIONS.length )];
+            final String fv = random.nextBoolean() ? v : FILE_VERSIONS[random.nextInt( FILE_VERSIONS.length )];
+            final String fa = random.nextInt( 10 ) > 0 ? a : ARTIFACTS[random.nextInt( ARTIFACTS.length )];
+
+            String path = g + "/" + a + "/" + v + "/" + fa + "-" + fv + TAILS[random.nextInt( TAILS.length )];
+            switch ( random.nextInt( 8 ) )
+            {
+                case 0:
+                    path = "/" + path;
+                    break;
+                case 1:
+                    path = path.replace( '/', '\\' );
+                    break;
+                case 2:
+                    path = "//" + path;
+                    break;
+                case 3:
+                    path = path.replaceFirst( "/", "//" );
+                    break;
+                default:
+                    path = "/" + path;
+            }
+
+            assertThat( path, describe( ArtifactPathInfo.parse( path ) ), equalTo( describe( parseWithRegex( path ) ) ) );
+        }
+    }
+
+    private static String describe( final ArtifactPathInfo info )
+    {
+        if ( info == null )
+        {
+            return null;
+        }
+
+        return info.getGroupId() + "|" + info.getArtifactId() + "|" + info.getVersion() + "|" + info.getClassifier()
+            + "|" + info.getType() + "|" + info.getFile() + "|" + info.getFullPath();
+    }
+
+    // the regex-based parser that ArtifactPathInfo.parse(..) replaced.
+    private static final String ARTIFACT_PATH_REGEX =
+        "/?(([^/]+/)*[^/]+)/([^/]+)/(([^/]+)(-SNAPSHOT)?)/(\\3-((\\4)|(\\5-"
+            + SnapshotUtils.RAW_REMOTE_SNAPSHOT_PART_PATTERN + "))-?(.+))";
+
+    private static ArtifactPathInfo parseWithRegex( final String path )
+    {
+        final Matcher matcher = Pattern.compile( ARTIFACT_PATH_REGEX )
+                                       .matcher( path.replace( '\\', '/' ) );
+        if ( !matcher.matches() )
+        {
+            return null;
+        }
+
+        final String g = matcher.group( 1 )
+                                .replace( '/', '.' );
+        final String a = matcher.group( 3 );
+        final String v = matcher.group( 8 );
+
+        String c = "";
+        String t = null;
+        String left = matcher.group( matcher.groupCount() );
+
+        String checksumType = null;
+        for ( String type : Arrays.asList( ".md5", ".sha1", ".sha128", ".sha256", ".sha384", ".sha512" ) )
+        {
+            if ( left.endsWith( type ) )
+            {
+                left = left.substring( 0, left.length() - type.length() );
+                checksumType = type;
+                break;
+            }
+        }
+
+        final String typesFromSys = System.getProperty( "atlas.compoext.types" );
+        final Set<String> compoundedExtensions =
+            new HashSet<>( new HashSet<>( Arrays.asList( "tar.gz", "tar.bz2", "xml.gz", "spdx.rdf.xml" ) ) );
+        if ( typesFromSys != null && !typesFromSys.trim().isEmpty() )
+        {
+            for ( final String type : typesFromSys.split( "," ) )
+            {
+                compoundedExtensions.add( type.trim() );
+            }
+        }
+        for ( String type : compoundedExtensions )
+        {
+            if ( left.endsWith( type ) )
+            {
+                t = type;
+                break;
+            }
+        }
+        if ( t == null || t.isEmpty() )
+        {
+            t = left.substring( left.lastIndexOf( "." ) + 1 );
+        }
+
+        int extLen = t.length() + 1;
+        int leftLen = left.length();
+        if ( leftLen > extLen )
+        {
+            c = left.substring( 0, leftLen - extLen );
+        }
+
+        if ( checksumType != null )
+        {
+            t = t + checksumType;
+        }
+
+        return new ArtifactPathInfo( g, a, v, c, t, matcher.group( 7 ), path );
+    }
+
 }
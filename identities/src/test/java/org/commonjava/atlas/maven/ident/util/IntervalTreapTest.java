@@ -0,0 +1,120 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+public class IntervalTreapTest
+{
+
+    private static final Comparator<Integer> ORDER = new Comparator<Integer>()
+    {
+        @Override
+        public int compare( final Integer first, final Integer second )
+        {
+            return first.compareTo( second );
+        }
+    };
+
+    private static final Function<Integer[], Integer> LOWER = new Function<Integer[], Integer>()
+    {
+        @Override
+        public Integer apply( final Integer[] interval )
+        {
+            return interval[0];
+        }
+    };
+
+    private static final Function<Integer[], Integer> UPPER = new Function<Integer[], Integer>()
+    {
+        @Override
+        public Integer apply( final Integer[] interval )
+        {
+            return interval[1];
+        }
+    };
+
+    @Test
+    public void stabMatchesLinearScan()
+    {
+        final Random random = new Random( 31 );
+        final IntervalTreap<Integer, Integer[]> treap = new IntervalTreap<Integer, Integer[]>( ORDER, LOWER, UPPER );
+        final List<IntervalTreap.Entry<Integer, Integer[]>> entries =
+            new ArrayList<IntervalTreap.Entry<Integer, Integer[]>>();
+
+        for ( int round = 0; round < 2000; round++ )
+        {
+            if ( !entries.isEmpty() && random.nextInt( 3 ) == 0 )
+            {
+                treap.remove( entries.remove( random.nextInt( entries.size() ) ) );
+            }
+            else
+            {
+                final int lower = random.nextInt( 100 );
+                final Integer[] interval = { random.nextInt( 10 ) == 0 ? null : lower,
+                    random.nextInt( 10 ) == 0 ? null : lower + random.nextInt( 20 ) };
+
+                // the same interval, added twice.
+                entries.add( treap.add( interval ) );
+                if ( random.nextInt( 10 ) == 0 )
+                {
+                    entries.add( treap.add( interval ) );
+                }
+            }
+
+            final int point = random.nextInt( 130 ) - 10;
+            final List<Integer[]> expected = new ArrayList<Integer[]>();
+            for ( final IntervalTreap.Entry<Integer, Integer[]> entry : entries )
+            {
+                final Integer[] interval = entry.getValue();
+                if ( ( interval[0] == null || interval[0] <= point ) && ( interval[1] == null || interval[1] >= point ) )
+                {
+                    expected.add( interval );
+                }
+            }
+
+            final List<Integer[]> found = new ArrayList<Integer[]>();
+            treap.stab( point, new Consumer<Integer[]>()
+            {
+                @Override
+                public void accept( final Integer[] interval )
+                {
+                    found.add( interval );
+                }
+            } );
+
+            assertThat( "point " + point, found.size(), equalTo( expected.size() ) );
+            assertThat( "point " + point, found.containsAll( expected ), equalTo( true ) );
+        }
+
+        for ( final IntervalTreap.Entry<Integer, Integer[]> entry : entries )
+        {
+            treap.remove( entry );
+        }
+        assertThat( treap.isEmpty(), equalTo( true ) );
+    }
+
+}
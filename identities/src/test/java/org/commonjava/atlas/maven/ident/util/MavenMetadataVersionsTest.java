@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.commonjava.atlas.maven.ident.version.SingleVersion;
+import org.commonjava.atlas.maven.ident.version.SortedVersionList;
+import org.junit.Test;
+
+public class MavenMetadataVersionsTest
+{
+
+    private static final String BASE = "metadata/";
+
+    private static final List<String> FILES =
+        Arrays.asList( "central-maven-metadata.xml", "mirror-maven-metadata.xml", "snapshot-maven-metadata.xml" );
+
+    @Test
+    public void readVersionsOfCorpus()
+        throws IOException
+    {
+        final Properties expected = new Properties();
+        try (InputStream in = resource( "versions.txt" ))
+        {
+            expected.load( in );
+        }
+
+        final List<SortedVersionList> lists = new ArrayList<SortedVersionList>();
+        for ( final String file : FILES )
+        {
+            final SortedVersionList versions = read( file ).getVersions();
+            assertThat( file, render( versions ), equalTo( expected.getProperty( file ) ) );
+            lists.add( versions );
+        }
+
+        final SortedVersionList merged = SortedVersionList.merge( lists );
+        assertThat( render( merged ), equalTo( expected.getProperty( "merged" ) ) );
+
+        Collections.reverse( lists );
+        assertThat( render( SortedVersionList.merge( lists ) ), equalTo( expected.getProperty( "merged" ) ) );
+    }
+
+    @Test
+    public void readReleaseMetadata()
+        throws IOException
+    {
+        final MavenMetadataVersions central = read( "central-maven-metadata.xml" );
+        assertThat( central.getGroupId(), equalTo( "org.foo" ) );
+        assertThat( central.getArtifactId(), equalTo( "bar" ) );
+        assertThat( central.getVersion(), nullValue() );
+        assertThat( central.getLatest()
+                           .renderStandard(), equalTo( "2.0-rc1" ) );
+        assertThat( central.getRelease()
+                           .renderStandard(), equalTo( "1.1" ) );
+        assertThat( SnapshotUtils.generateUpdateTimestamp( central.getLastUpdated() ), equalTo( "20231011120000" ) );
+
+        final MavenMetadataVersions mirror = read( "mirror-maven-metadata.xml" );
+        assertThat( mirror.getLatest()
+                          .renderStandard(), equalTo( "1.2.GA" ) );
+        assertThat( mirror.getInvalidVersions(), equalTo( Arrays.asList( "-", "1.99999999999999999999" ) ) );
+    }
+
+    @Test
+    public void readSnapshotMetadata()
+        throws IOException
+    {
+        final MavenMetadataVersions metadata = read( "snapshot-maven-metadata.xml" );
+        assertThat( metadata.getVersion(), equalTo( "2.0-SNAPSHOT" ) );
+        assertThat( metadata.getLatest(), nullValue() );
+
+        final List<MavenMetadataVersions.SnapshotVersion> snapshots = metadata.getSnapshotVersions();
+        assertThat( snapshots.size(), equalTo( 3 ) );
+        assertThat( snapshots.get( 0 )
+                             .getClassifier(), equalTo( "sources" ) );
+        assertThat( snapshots.get( 1 )
+                             .getClassifier(), nullValue() );
+        assertThat( snapshots.get( 2 )
+                             .getExtension(), equalTo( "pom" ) );
+        assertThat( SnapshotUtils.generateUpdateTimestamp( snapshots.get( 2 )
+                                                                    .getUpdated() ), equalTo( "20231010090000" ) );
+
+        assertThat( render( metadata.getSnapshotVersionList() ),
+                    equalTo( "2.0-20231010.090000-2,2.0-20231011.120000-3" ) );
+    }
+
+    private static MavenMetadataVersions read( final String file )
+        throws IOException
+    {
+        try (InputStream in = resource( file ))
+        {
+            return MavenMetadataVersions.read( in );
+        }
+    }
+
+    private static InputStream resource( final String file )
+    {
+        return Thread.currentThread()
+                     .getContextClassLoader()
+                     .getResourceAsStream( BASE + file );
+    }
+
+    private static String render( final SortedVersionList versions )
+    {
+        final StringBuilder sb = new StringBuilder();
+        for ( final SingleVersion version : versions.getVersions() )
+        {
+            if ( sb.length() > 0 )
+            {
+                sb.append( ',' );
+            }
+            sb.append( version.renderStandard() );
+        }
+
+        return sb.toString();
+    }
+
+}
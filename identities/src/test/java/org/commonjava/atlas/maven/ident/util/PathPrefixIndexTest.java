@@ -0,0 +1,266 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+import org.junit.Test;
+
+public class PathPrefixIndexTest
+{
+
+    private static final String[] PATHS = { "/org/foo/bar/1.2/bar-1.2.jar", "/org/foo/bar/1.2/bar-1.2.pom",
+        "/org/foo/bar/1.3/bar-1.3.pom", "/org/foo/bar/baz/2.0/baz-2.0.jar", "/org/foo/bar-api/1.2/bar-api-1.2.jar",
+        "org/other/thing/1/thing-1.zip" };
+
+    @Test
+    public void answerPrefixAndProjectQueries()
+    {
+        final PathPrefixIndex<ArtifactPathInfo> index = artifactIndex();
+        assertThat( index.size(), equalTo( PATHS.length ) );
+
+        assertThat( paths( index.getUnder( "org/foo/bar/1.2" ) ),
+                    equalTo( set( "/org/foo/bar/1.2/bar-1.2.jar", "/org/foo/bar/1.2/bar-1.2.pom" ) ) );
+        assertThat( paths( index.getUnder( "/org/foo/bar" ) ),
+                    equalTo( set( PATHS[0], PATHS[1], PATHS[2], PATHS[3] ) ) );
+        assertThat( paths( index.getUnder( "org/other" ) ), equalTo( set( PATHS[5] ) ) );
+        assertThat( index.getUnder( "org/fo" )
+                         .size(), equalTo( 0 ) );
+
+        // org.foo.bar:baz lives under org/foo/bar, but isn't a version of org.foo:bar.
+        assertThat( paths( index.getByProject( new SimpleProjectRef( "org.foo", "bar" ) ) ),
+                    equalTo( set( PATHS[0], PATHS[1], PATHS[2] ) ) );
+        assertThat( paths( index.getByProjectVersion( new SimpleProjectVersionRef( "org.foo", "bar", "1.3" ) ) ),
+                    equalTo( set( PATHS[2] ) ) );
+        assertThat( paths( index.getByProject( new SimpleProjectRef( "org.other", "thing" ) ) ),
+                    equalTo( set( PATHS[5] ) ) );
+
+        assertThat( index.get( "org/foo/bar/1.2/bar-1.2.jar" )
+                         .getVersion(), equalTo( "1.2" ) );
+        assertThat( index.get( "org/foo/bar/1.2" ), nullValue() );
+    }
+
+    @Test
+    public void removeEntries()
+    {
+        final PathPrefixIndex<ArtifactPathInfo> index = artifactIndex();
+        assertThat( index.remove( "org/foo/bar/1.3/bar-1.3.pom" )
+                         .getFullPath(), equalTo( PATHS[2] ) );
+        assertThat( index.remove( "org/foo/bar/1.3/bar-1.3.pom" ), nullValue() );
+        assertThat( index.remove( "org/foo/bar/1.2" ), nullValue() );
+
+        assertThat( index.size(), equalTo( PATHS.length - 1 ) );
+        assertThat( paths( index.getByProject( new SimpleProjectRef( "org.foo", "bar" ) ) ),
+                    equalTo( set( PATHS[0], PATHS[1] ) ) );
+    }
+
+    @Test
+    public void snapshotRoundTrip()
+        throws Exception
+    {
+        final PathPrefixIndex<ArtifactPathInfo> index = artifactIndex();
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        index.write( out );
+
+        final Function<String, ArtifactPathInfo> parser = new Function<String, ArtifactPathInfo>()
+        {
+            @Override
+            public ArtifactPathInfo apply( final String path )
+            {
+                return ArtifactPathInfo.parse( path );
+            }
+        };
+
+        final PathPrefixIndex<ArtifactPathInfo> restored =
+            PathPrefixIndex.read( new ByteArrayInputStream( out.toByteArray() ), parser );
+
+        assertThat( restored.size(), equalTo( index.size() ) );
+        for ( final String path : PATHS )
+        {
+            assertThat( restored.get( path ), equalTo( index.get( path ) ) );
+            assertThat( restored.get( path )
+                                .getFullPath(), equalTo( path ) );
+        }
+    }
+
+    @Test
+    public void matchesLinearScan()
+        throws Exception
+    {
+        final Random random = new Random( 77 );
+        final PathPrefixIndex<Info> index = new PathPrefixIndex<Info>();
+        final Map<String, Info> expected = new HashMap<String, Info>();
+
+        for ( int round = 0; round < 3000; round++ )
+        {
+            final String path = randomPath( random, 1 + random.nextInt( 5 ) );
+            final String key = normalize( path );
+            if ( random.nextInt( 3 ) == 0 )
+            {
+                assertThat( path, index.remove( path ), equalTo( expected.remove( key ) ) );
+            }
+            else
+            {
+                final Info info = new Info( path );
+                assertThat( path, index.add( info ), equalTo( expected.put( key, info ) ) );
+            }
+        }
+
+        assertThat( index.size(), equalTo( expected.size() ) );
+        for ( int i = 0; i < 200; i++ )
+        {
+            final String prefix = randomPath( random, random.nextInt( 4 ) );
+            final String dir = normalize( prefix );
+
+            final Set<String> under = new TreeSet<String>();
+            final Set<String> files = new TreeSet<String>();
+            for ( final Map.Entry<String, Info> e : expected.entrySet() )
+            {
+                final String key = e.getKey();
+                if ( dir.isEmpty() || key.equals( dir ) || key.startsWith( dir + "/" ) )
+                {
+                    under.add( e.getValue()
+                                .getFullPath() );
+
+                    if ( PathPrefixIndex.segments( key ).length == PathPrefixIndex.segments( dir ).length + 1 )
+                    {
+                        files.add( e.getValue()
+                                    .getFullPath() );
+                    }
+                }
+            }
+
+            assertThat( prefix, paths( index.getUnder( prefix ) ), equalTo( under ) );
+            assertThat( prefix, paths( index.getFilesIn( prefix ) ), equalTo( files ) );
+        }
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        index.write( out );
+        final PathPrefixIndex<Info> restored =
+            PathPrefixIndex.read( new ByteArrayInputStream( out.toByteArray() ), new Function<String, Info>()
+            {
+                @Override
+                public Info apply( final String path )
+                {
+                    return new Info( path );
+                }
+            } );
+
+        assertThat( paths( restored.getUnder( "" ) ), equalTo( paths( index.getUnder( "" ) ) ) );
+    }
+
+    private PathPrefixIndex<ArtifactPathInfo> artifactIndex()
+    {
+        final PathPrefixIndex<ArtifactPathInfo> index = new PathPrefixIndex<ArtifactPathInfo>();
+        for ( final String path : PATHS )
+        {
+            index.add( ArtifactPathInfo.parse( path ) );
+        }
+
+        return index;
+    }
+
+    private static String randomPath( final Random random, final int segments )
+    {
+        final StringBuilder sb = new StringBuilder( random.nextBoolean() ? "/" : "" );
+        for ( int i = 0; i < segments; i++ )
+        {
+            if ( i > 0 )
+            {
+                sb.append( random.nextInt( 10 ) == 0 ? "//" : "/" );
+            }
+            sb.append( (char) ( 'a' + random.nextInt( 3 ) ) );
+        }
+
+        return sb.toString();
+    }
+
+    private static String normalize( final String path )
+    {
+        final StringBuilder sb = new StringBuilder();
+        for ( final String segment : PathPrefixIndex.segments( path ) )
+        {
+            if ( sb.length() > 0 )
+            {
+                sb.append( '/' );
+            }
+            sb.append( segment );
+        }
+
+        return sb.toString();
+    }
+
+    private static Set<String> paths( final List<? extends PathInfo> infos )
+    {
+        final Set<String> result = new TreeSet<String>();
+        for ( final PathInfo info : infos )
+        {
+            result.add( info.getFullPath() );
+        }
+
+        return result;
+    }
+
+    private static Set<String> set( final String... paths )
+    {
+        final Set<String> result = new TreeSet<String>();
+        for ( final String path : paths )
+        {
+            result.add( path );
+        }
+
+        return result;
+    }
+
+    private static final class Info
+        implements PathInfo
+    {
+        private final String path;
+
+        Info( final String path )
+        {
+            this.path = path;
+        }
+
+        @Override
+        public String getFile()
+        {
+            return path.substring( path.lastIndexOf( '/' ) + 1 );
+        }
+
+        @Override
+        public String getFullPath()
+        {
+            return path;
+        }
+    }
+
+}
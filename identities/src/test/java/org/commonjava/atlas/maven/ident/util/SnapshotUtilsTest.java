@@ -19,9 +19,14 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertThat;
 
 import java.text.ParseException;
+import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.commonjava.atlas.maven.ident.util.SnapshotUtils;
+import org.commonjava.atlas.maven.ident.version.part.SnapshotPart;
 import org.junit.Test;
 
 public class SnapshotUtilsTest
@@ -75,4 +80,110 @@ public class SnapshotUtilsTest
         assertThat( result, equalTo( d ) );
     }
 
+    @Test
+    public void parseSnapshotTimestampInUtc()
+        throws ParseException
+    {
+        final SnapshotPart part = SnapshotUtils.parseRemoteSnapshotVersionPart( "1.0-20160229.212037-2" );
+        assertThat( part.getTimestamp()
+                        .getTime(), equalTo( 1456780837000L ) );
+        assertThat( part.getBuildNumber(), equalTo( 2 ) );
+        assertThat( SnapshotUtils.parseUpdateTimestamp( "20160229212037" )
+                                 .getTime(), equalTo( 1456780837000L ) );
+    }
+
+    @Test
+    public void matchesLegacyFormatter()
+        throws ParseException
+    {
+        final SimpleDateFormat snapshotFormat = utcFormat( SnapshotUtils.SNAPSHOT_TSTAMP_FORMAT );
+        final SimpleDateFormat updateFormat = utcFormat( "yyyyMMddHHmmss" );
+        final Random random = new Random( 15 );
+
+        for ( int i = 0; i < 20000; i++ )
+        {
+            // out-of-range fields roll over in the lenient legacy calendar
+            final String date = String.format( "%04d%02d%02d", random.nextInt( 10000 ), random.nextInt( 100 ),
+                                               random.nextInt( 100 ) );
+            final String time =
+                String.format( "%02d%02d%02d", random.nextInt( 100 ), random.nextInt( 100 ), random.nextInt( 100 ) );
+
+            final String tstamp = date + "." + time;
+            assertThat( tstamp, SnapshotUtils.parseSnapshotTimestamp( tstamp ),
+                        equalTo( snapshotFormat.parse( tstamp ) ) );
+            assertThat( tstamp, SnapshotUtils.parseUpdateTimestamp( date + time ),
+                        equalTo( updateFormat.parse( date + time ) ) );
+
+            final Date d = new Date( ( random.nextLong() % 400000000000000L ) / 1000 * 1000 );
+            assertThat( d.toString(), SnapshotUtils.generateSnapshotTimestamp( d ),
+                        equalTo( snapshotFormat.format( d ) ) );
+            assertThat( d.toString(), SnapshotUtils.generateUpdateTimestamp( d ), equalTo( updateFormat.format( d ) ) );
+        }
+    }
+
+    @Test
+    public void matchesRemoteSnapshotPattern()
+        throws ParseException
+    {
+        final Pattern pattern = Pattern.compile( SnapshotUtils.REMOTE_SNAPSHOT_PART_PATTERN );
+        final SimpleDateFormat format = utcFormat( SnapshotUtils.SNAPSHOT_TSTAMP_FORMAT );
+        final String[] separators = { ".", "_", "\n", "\u2028", "\ud83d\ude00", "1" };
+        final String[] prefixes = { "", "-", "1.0-", "a-b-", "\r-", "1.0", "1.0-SNAPSHOT-", "2-" };
+        final String[] builds = { "1", "007", "", "2147483647", "1-2", "3\n" };
+        final Random random = new Random( 15 );
+
+        for ( int i = 0; i < 5000; i++ )
+        {
+            final String literal =
+                prefixes[random.nextInt( prefixes.length )] + String.format( "%08d", random.nextInt( 100000000 ) )
+                    + separators[random.nextInt( separators.length )] + String.format( "%06d", random.nextInt( 1000000 ) )
+                    + "-" + builds[random.nextInt( builds.length )];
+
+            final Matcher matcher = pattern.matcher( literal );
+            final boolean matches = matcher.matches();
+            assertThat( literal, SnapshotUtils.isRemoteSnapshotVersion( literal ), equalTo( matches ) );
+
+            SnapshotPart part = null;
+            try
+            {
+                part = SnapshotUtils.parseRemoteSnapshotVersionPart( literal );
+            }
+            catch ( final IllegalArgumentException e )
+            {
+                // checked below
+            }
+
+            Date expected = null;
+            if ( matches )
+            {
+                try
+                {
+                    expected = format.parse( matcher.group( 3 ) );
+                }
+                catch ( final ParseException e )
+                {
+                    // not a valid timestamp
+                }
+            }
+
+            if ( expected == null )
+            {
+                assertThat( literal, part, equalTo( null ) );
+            }
+            else
+            {
+                assertThat( literal, part.getTimestamp(), equalTo( expected ) );
+                assertThat( literal, part.getBuildNumber(), equalTo( Integer.parseInt( matcher.group( 4 ) ) ) );
+                assertThat( literal, part.getLiteral(), equalTo( literal ) );
+            }
+        }
+    }
+
+    private static SimpleDateFormat utcFormat( final String format )
+    {
+        final SimpleDateFormat result = new SimpleDateFormat( format );
+        result.setTimeZone( SnapshotUtils.SNAPSHOT_TIME_ZONE );
+        return result;
+    }
+
 }
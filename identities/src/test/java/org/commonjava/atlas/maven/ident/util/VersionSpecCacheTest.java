@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.commonjava.atlas.maven.ident.version.SingleVersion;
+import org.commonjava.atlas.maven.ident.version.VersionSpec;
+import org.junit.After;
+import org.junit.Test;
+
+public class VersionSpecCacheTest
+{
+
+    @After
+    public void disableCache()
+    {
+        VersionUtils.disableCache();
+    }
+
+    @Test
+    public void uncachedParsesReturnDistinctInstances()
+    {
+        VersionUtils.disableCache();
+
+        final SingleVersion first = VersionUtils.createSingleVersion( "1.0.0" );
+        final SingleVersion second = VersionUtils.createSingleVersion( "1.0.0" );
+
+        assertThat( first.equals( second ), equalTo( true ) );
+        assertThat( first == second, equalTo( false ) );
+        assertThat( VersionUtils.getSingleVersionCache(), nullValue() );
+    }
+
+    @Test
+    public void cachedParsesReturnSharedInstances()
+    {
+        VersionUtils.enableCache( 100 );
+
+        final SingleVersion first = VersionUtils.createSingleVersion( "2.3.1.Final" );
+        final SingleVersion second = VersionUtils.createSingleVersion( "2.3.1.Final" );
+        assertThat( second, sameInstance( first ) );
+
+        final VersionSpec range = VersionUtils.createFromSpec( "[1.0,2.0)" );
+        assertThat( VersionUtils.createFromSpec( "[1.0,2.0)" ), sameInstance( range ) );
+
+        final VersionSpecCache<SingleVersion> cache = VersionUtils.getSingleVersionCache();
+        assertThat( cache.getHitCount(), equalTo( 1L ) );
+        assertThat( cache.getMissCount(), equalTo( 1L ) );
+        assertThat( VersionUtils.getSpecCache().getHitCount(), equalTo( 1L ) );
+    }
+
+    @Test
+    public void leastRecentlyUsedEntriesAreEvicted()
+    {
+        final VersionSpecCache<SingleVersion> cache = new VersionSpecCache<SingleVersion>( 1 );
+
+        final SingleVersion one = VersionUtils.createSingleVersion( "1" );
+        final SingleVersion two = VersionUtils.createSingleVersion( "2" );
+
+        cache.put( "1", one );
+        cache.put( "2", two );
+
+        assertThat( cache.size(), equalTo( 1 ) );
+        assertThat( cache.getEvictionCount(), equalTo( 1L ) );
+        assertThat( cache.get( "1" ), nullValue() );
+        assertThat( cache.get( "2" ), sameInstance( two ) );
+    }
+
+    @Test
+    public void fullCacheHoldsMaxSizeEntries()
+    {
+        final VersionSpecCache<SingleVersion> cache = new VersionSpecCache<SingleVersion>( 100 );
+        final SingleVersion version = VersionUtils.createSingleVersion( "1" );
+        for ( int i = 0; i < 10000; i++ )
+        {
+            cache.put( "1." + i, version );
+        }
+
+        assertThat( cache.size(), equalTo( 100 ) );
+        assertThat( cache.getEvictionCount(), equalTo( 9900L ) );
+    }
+
+    @Test( expected = UnsupportedOperationException.class )
+    public void cachedVersionPhrasesAreImmutable()
+    {
+        VersionUtils.enableCache( 10 );
+
+        VersionUtils.createSingleVersion( "1.0" )
+                    .getVersionPhrases()
+                    .clear();
+    }
+
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.version;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.commonjava.atlas.maven.ident.util.VersionUtils;
+import org.junit.Test;
+
+public class CollationKeyTest
+{
+
+    private static final String[] WORDS = { "0", "1", "2", "10", "00", "alpha", "a", "beta", "b", "m", "rc", "cr",
+        "ga", "GA", "Final", "sp", "cp", "pre", "foo", "Bar", "redhat", "SNAPSHOT", "20031129.200437-1",
+        "20031129.200437-2", "20050101.000000-1", "20031129.200437" };
+
+    private static final String[] SEPARATORS = { ".", "-", "_", "+", "" };
+
+    @Test
+    public void corpusKeysFollowVersionOrder()
+        throws Exception
+    {
+        final List<SingleVersion> versions = new ArrayList<SingleVersion>();
+        final BufferedReader reader = new BufferedReader(
+                        new InputStreamReader( getClass().getClassLoader().getResourceAsStream( "single-version-corpus.txt" ),
+                                               StandardCharsets.UTF_8 ) );
+        try
+        {
+            String line;
+            while ( ( line = reader.readLine() ) != null )
+            {
+                if ( line.trim().length() > 0 && !line.startsWith( "#" ) )
+                {
+                    versions.add( VersionUtils.createSingleVersion( line ) );
+                }
+            }
+        }
+        finally
+        {
+            reader.close();
+        }
+
+        checkPairs( versions );
+    }
+
+    @Test
+    public void randomKeysFollowVersionOrder()
+    {
+        final Random random = new Random( 4321 );
+        final List<SingleVersion> versions = new ArrayList<SingleVersion>();
+        while ( versions.size() < 600 )
+        {
+            final StringBuilder sb = new StringBuilder( WORDS[random.nextInt( WORDS.length )] );
+            final int segments = random.nextInt( 6 );
+            for ( int i = 0; i < segments; i++ )
+            {
+                sb.append( SEPARATORS[random.nextInt( SEPARATORS.length )] )
+                  .append( WORDS[random.nextInt( WORDS.length )] );
+            }
+
+            if ( random.nextInt( 4 ) == 0 )
+            {
+                sb.append( "-SNAPSHOT" );
+            }
+
+            try
+            {
+                versions.add( VersionUtils.createSingleVersion( sb.toString() ) );
+            }
+            catch ( final InvalidVersionSpecificationException e )
+            {
+                // not every random combination is a valid version.
+            }
+        }
+
+        checkPairs( versions );
+    }
+
+    @Test
+    public void keysAreStableCopies()
+    {
+        final SingleVersion version = VersionUtils.createSingleVersion( "1.2.3-SNAPSHOT" );
+        final byte[] key = version.getCollationKey();
+        assertThat( key, notNullValue() );
+
+        key[0] = (byte) ~key[0];
+        assertThat( VersionSpecComparisons.compareCollationKeys( key, version.getCollationKey() ) != 0,
+                    equalTo( true ) );
+    }
+
+    @Test
+    public void trailingZerosShareTheSameKey()
+    {
+        final byte[] one = VersionUtils.createSingleVersion( "1" ).getCollationKey();
+        assertThat( VersionSpecComparisons.compareCollationKeys( one, VersionUtils.createSingleVersion( "1.0.0" )
+                                                                                  .getCollationKey() ), equalTo( 0 ) );
+        assertThat( VersionSpecComparisons.compareCollationKeys( one, VersionUtils.createSingleVersion( "1.0.GA" )
+                                                                                  .getCollationKey() ), equalTo( 0 ) );
+    }
+
+    @Test
+    public void zeroQualifierBeforePreReleaseHasNoKey()
+    {
+        assertThat( VersionUtils.createSingleVersion( "1.GA-alpha" ).getCollationKey(), nullValue() );
+    }
+
+    private void checkPairs( final List<SingleVersion> versions )
+    {
+        for ( final SingleVersion first : versions )
+        {
+            for ( final SingleVersion second : versions )
+            {
+                final int expected =
+                    Integer.signum( VersionSpecComparisons.compareSingleToSingleByPhrases( first, second ) );
+
+                assertThat( first.renderStandard() + " vs. " + second.renderStandard(),
+                            Integer.signum( first.compareTo( second ) ), equalTo( expected ) );
+
+                final byte[] fk = first.getCollationKey();
+                final byte[] sk = second.getCollationKey();
+                if ( fk != null && sk != null )
+                {
+                    assertThat( first.renderStandard() + " vs. " + second.renderStandard(),
+                                VersionSpecComparisons.compareCollationKeys( fk, sk ), equalTo( expected ) );
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,241 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.version;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.commonjava.atlas.maven.ident.util.VersionUtils;
+import org.commonjava.atlas.maven.ident.version.parse.SingleVersionParser;
+import org.commonjava.atlas.maven.ident.version.part.VersionPhrase;
+import org.junit.Test;
+
+public class LazySingleVersionTest
+{
+
+    private static final String CORPUS = "single-version-corpus.txt";
+
+    private static final String[] SEGMENTS = { "0", "00", "1", "01", "2", "10", "a", "alpha", "GA", "Final", "ga",
+        "rc", "CR", "M", "sp", "redhat", "SNAPSHOT", "snapshot", "20231011.120000-3", "20231011.120000" };
+
+    private static final String[] SEPARATORS = { ".", "-", "_", "+", "" };
+
+    @Test
+    public void lazyVersionRendersItsExpression()
+    {
+        final SingleVersion version = VersionUtils.createLazySingleVersion( "1.0.Final" );
+        assertThat( version.renderStandard(), equalTo( "1.0.Final" ) );
+        assertThat( version.getCanonicalForm(), equalTo( "1" ) );
+        assertThat( version, equalTo( VersionUtils.createSingleVersion( "1" ) ) );
+        assertThat( version.isRelease(), equalTo( true ) );
+    }
+
+    @Test( expected = InvalidVersionSpecificationException.class )
+    public void invalidLazyVersionIsRejected()
+    {
+        VersionUtils.createLazySingleVersion( "1.0@" );
+    }
+
+    @Test
+    public void lazyVersionSurvivesSerialization()
+        throws Exception
+    {
+        final SingleVersion version = SingleVersion.lazy( "2.1-20231011.120000-3" );
+
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final ObjectOutputStream out = new ObjectOutputStream( baos );
+        out.writeObject( version );
+        out.close();
+
+        final ObjectInputStream in = new ObjectInputStream( new ByteArrayInputStream( baos.toByteArray() ) );
+        final SingleVersion result = (SingleVersion) in.readObject();
+
+        assertThat( result, equalTo( version ) );
+        assertThat( result.renderStandard(), equalTo( version.renderStandard() ) );
+        assertThat( result.isSnapshot(), equalTo( true ) );
+    }
+
+    @Test
+    public void lazyVersionsMatchParsedVersions()
+        throws Exception
+    {
+        final List<String> versions = readCorpus();
+        final Random random = new Random( 4242 );
+        while ( versions.size() < 400 )
+        {
+            final String version = randomVersion( random );
+            if ( SingleVersionParser.isValid( version ) )
+            {
+                versions.add( version );
+            }
+        }
+
+        final List<SingleVersion> parsed = new ArrayList<SingleVersion>();
+        final List<SingleVersion> lazy = new ArrayList<SingleVersion>();
+        for ( final String version : versions )
+        {
+            final SingleVersion eager = SingleVersionParser.parse( version );
+            parsed.add( eager );
+            lazy.add( SingleVersion.lazy( version ) );
+
+            final String canonical = SingleVersionParser.canonicalForm( version );
+            assertThat( version, canonical, notNullValue() );
+            assertThat( version, canonical, equalTo( eager.getCanonicalForm() ) );
+        }
+
+        for ( int i = 0; i < versions.size(); i++ )
+        {
+            assertThat( versions.get( i ), lazy.get( i )
+                                               .hashCode(), equalTo( parsed.get( i )
+                                                                           .hashCode() ) );
+
+            for ( int j = 0; j < versions.size(); j++ )
+            {
+                final String pair = versions.get( i ) + " vs. " + versions.get( j );
+                final boolean equal = phrasesEqual( parsed.get( i ), parsed.get( j ) );
+
+                assertThat( pair, parsed.get( i )
+                                        .equals( parsed.get( j ) ), equalTo( equal ) );
+                assertThat( pair, lazy.get( i )
+                                      .equals( parsed.get( j ) ), equalTo( equal ) );
+                assertThat( pair, lazy.get( i )
+                                      .equals( lazy.get( j ) ), equalTo( equal ) );
+
+                final int comp = Integer.signum( parsed.get( i )
+                                                       .compareTo( parsed.get( j ) ) );
+                assertThat( pair, Integer.signum( lazy.get( i )
+                                                      .compareTo( lazy.get( j ) ) ), equalTo( comp ) );
+            }
+        }
+    }
+
+    @Test
+    public void emptyNumericSegmentsCompareLikeParsedVersions()
+    {
+        final String[] versions = { "1..5", "1.0.5", "1", "1.5", ".5", "0.5", "1.", "1.0", "2..", "2" };
+        for ( final String first : versions )
+        {
+            if ( !SingleVersionParser.isValid( first ) )
+            {
+                continue;
+            }
+
+            for ( final String second : versions )
+            {
+                if ( !SingleVersionParser.isValid( second ) )
+                {
+                    continue;
+                }
+
+                final String pair = first + " vs. " + second;
+                final SingleVersion parsed = SingleVersionParser.parse( first );
+                final SingleVersion lazy = SingleVersion.lazy( first );
+                final int comp = Integer.signum( parsed.compareTo( SingleVersionParser.parse( second ) ) );
+
+                assertThat( pair, Integer.signum( lazy.compareTo( SingleVersion.lazy( second ) ) ), equalTo( comp ) );
+                assertThat( pair, lazy.equals( SingleVersion.lazy( second ) ), equalTo( comp == 0 ) );
+            }
+        }
+    }
+
+    // phrase-by-phrase equality, ignoring silent phrases; what equality meant before canonical forms.
+    private boolean phrasesEqual( final SingleVersion first, final SingleVersion second )
+    {
+        final List<VersionPhrase> fp = first.getVersionPhrases();
+        final List<VersionPhrase> sp = second.getVersionPhrases();
+        for ( int i = 0; i < Math.max( fp.size(), sp.size() ); i++ )
+        {
+            final VersionPhrase mine = i < fp.size() ? fp.get( i ) : null;
+            final VersionPhrase theirs = i < sp.size() ? sp.get( i ) : null;
+            if ( mine == null || theirs == null )
+            {
+                if ( !( mine == null ? theirs : mine ).isSilent() )
+                {
+                    return false;
+                }
+            }
+            else if ( mine.isSilent() != theirs.isSilent() )
+            {
+                return false;
+            }
+            else if ( !mine.isSilent() && !mine.equals( theirs ) )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private String randomVersion( final Random random )
+    {
+        final StringBuilder sb = new StringBuilder( SEGMENTS[random.nextInt( SEGMENTS.length )] );
+        final int segments = random.nextInt( 5 );
+        for ( int i = 0; i < segments; i++ )
+        {
+            sb.append( SEPARATORS[random.nextInt( SEPARATORS.length )] )
+              .append( SEGMENTS[random.nextInt( SEGMENTS.length )] );
+        }
+
+        return sb.toString();
+    }
+
+    private List<String> readCorpus()
+        throws IOException
+    {
+        final InputStream in = Thread.currentThread().getContextClassLoader().getResourceAsStream( CORPUS );
+        if ( in == null )
+        {
+            fail( "Cannot find corpus: " + CORPUS );
+        }
+
+        final List<String> versions = new ArrayList<String>();
+        final BufferedReader reader = new BufferedReader( new InputStreamReader( in, StandardCharsets.UTF_8 ) );
+        try
+        {
+            String line;
+            while ( ( line = reader.readLine() ) != null )
+            {
+                if ( line.trim().length() > 0 && !line.startsWith( "#" ) )
+                {
+                    versions.add( line );
+                }
+            }
+        }
+        finally
+        {
+            reader.close();
+        }
+
+        return versions;
+    }
+
+}
@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.version;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.commonjava.atlas.maven.ident.util.VersionUtils;
+import org.junit.Test;
+
+public class RangeVersionIndexTest
+{
+
+    private static final String[] VERSIONS = { "0.9", "1.0-alpha-1", "1.0-SNAPSHOT", "1.0", "1.0.1", "1.1-beta",
+        "1.1", "1.2.GA", "1.5-SNAPSHOT", "1.5", "2.0-rc1", "2.0", "2.0.1.redhat-1", "2.1-SNAPSHOT", "3.0", "10.0" };
+
+    @Test
+    public void findContainingSimpleRanges()
+    {
+        final RangeVersionIndex index = new RangeVersionIndex();
+        final VersionSpec first = VersionUtils.createFromSpec( "[1.0,2.0)" );
+        final VersionSpec second = VersionUtils.createFromSpec( "[1.5,)" );
+        final VersionSpec third = VersionUtils.createFromSpec( "(,1.0]" );
+        index.add( first );
+        index.add( second );
+        index.add( third );
+
+        assertThat( index.findContaining( VersionUtils.createSingleVersion( "1.0" ) ),
+                    equalTo( set( first, third ) ) );
+        assertThat( index.findContaining( VersionUtils.createSingleVersion( "1.7" ) ),
+                    equalTo( set( first, second ) ) );
+        assertThat( index.findContaining( VersionUtils.createSingleVersion( "2.0" ) ), equalTo( set( second ) ) );
+
+        assertThat( index.remove( second ), equalTo( true ) );
+        assertThat( index.remove( second ), equalTo( false ) );
+        assertThat( index.findContaining( VersionUtils.createSingleVersion( "2.0" ) ),
+                    equalTo( new HashSet<VersionSpec>() ) );
+        assertThat( index.size(), equalTo( 2 ) );
+    }
+
+    @Test
+    public void randomSpecsMatchLinearScan()
+    {
+        final Random random = new Random( 2468 );
+        final RangeVersionIndex index = new RangeVersionIndex();
+        final List<VersionSpec> specs = new ArrayList<VersionSpec>();
+        for ( int i = 0; i < 400; i++ )
+        {
+            final VersionSpec spec = randomSpec( random );
+            specs.add( spec );
+            index.add( spec );
+        }
+
+        check( index, specs );
+
+        for ( int i = 0; i < 150; i++ )
+        {
+            final VersionSpec spec = specs.remove( random.nextInt( specs.size() ) );
+            assertThat( index.remove( spec ), equalTo( true ) );
+        }
+
+        assertThat( index.size(), equalTo( specs.size() ) );
+        check( index, specs );
+    }
+
+    private void check( final RangeVersionIndex index, final List<VersionSpec> specs )
+    {
+        for ( final String v : VERSIONS )
+        {
+            final SingleVersion version = VersionUtils.createSingleVersion( v );
+            final Set<VersionSpec> expected = new HashSet<VersionSpec>();
+            for ( final VersionSpec spec : specs )
+            {
+                if ( spec.contains( version ) )
+                {
+                    expected.add( spec );
+                }
+            }
+
+            assertThat( v, index.findContaining( version ), equalTo( expected ) );
+        }
+    }
+
+    private VersionSpec randomSpec( final Random random )
+    {
+        final int components = 1 + random.nextInt( 3 );
+        final StringBuilder sb = new StringBuilder();
+        for ( int i = 0; i < components; i++ )
+        {
+            int lower = random.nextInt( VERSIONS.length );
+            int upper = random.nextInt( VERSIONS.length );
+            if ( upper < lower )
+            {
+                final int tmp = lower;
+                lower = upper;
+                upper = tmp;
+            }
+
+            final boolean unboundedLower = random.nextInt( 6 ) == 0;
+            final boolean unboundedUpper = !unboundedLower && random.nextInt( 6 ) == 0;
+            sb.append( unboundedLower || random.nextBoolean() ? '(' : '[' )
+              .append( unboundedLower ? "" : VERSIONS[lower] )
+              .append( ',' )
+              .append( unboundedUpper ? "" : VERSIONS[upper] )
+              .append( unboundedUpper || random.nextBoolean() ? ')' : ']' );
+        }
+
+        return VersionUtils.createFromSpec( sb.toString() );
+    }
+
+    private Set<VersionSpec> set( final VersionSpec... specs )
+    {
+        final Set<VersionSpec> result = new HashSet<VersionSpec>();
+        for ( final VersionSpec spec : specs )
+        {
+            result.add( spec );
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.version;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.commonjava.atlas.maven.ident.util.SnapshotUtils;
+import org.commonjava.atlas.maven.ident.util.VersionUtils;
+import org.junit.Test;
+
+public class SnapshotResolverTest
+{
+
+    @Test
+    public void resolveLatestBuildPerBaseVersion()
+    {
+        final SnapshotResolver resolver = new SnapshotResolver();
+        resolver.addAll( Arrays.asList( "1.2-20231011.120000-3", "1.2-20231011.120000-10", "1.2-20230901.080000-11",
+                                        "1.2", "1.2-SNAPSHOT", "1.3-20220101.000000-1", "1.2.1-20240101.000000-1" ) );
+
+        assertThat( resolver.getLatest( "1.2-SNAPSHOT" )
+                            .renderStandard(), equalTo( "1.2-20231011.120000-10" ) );
+        assertThat( resolver.getLatest( "1.2" )
+                            .renderStandard(), equalTo( "1.2-20231011.120000-10" ) );
+        assertThat( resolver.getLatest( "1.3-SNAPSHOT" )
+                            .renderStandard(), equalTo( "1.3-20220101.000000-1" ) );
+        assertThat( resolver.getLatest( "1.4-SNAPSHOT" ), nullValue() );
+        assertThat( resolver.getLatestVersions()
+                            .size(), equalTo( 3 ) );
+        assertThat( resolver.getLatest( "1.2.1-SNAPSHOT" )
+                            .renderStandard(), equalTo( "1.2.1-20240101.000000-1" ) );
+    }
+
+    @Test
+    public void addSnapshotParts()
+    {
+        final SnapshotResolver resolver = new SnapshotResolver( 2 );
+        final SingleVersion base = VersionUtils.createSingleVersion( "2.0-SNAPSHOT" );
+        resolver.add( base, SnapshotUtils.parseRemoteSnapshotVersionPart( "20231011.120000-3" ) );
+        resolver.add( base, SnapshotUtils.parseRemoteSnapshotVersionPart( "20231012.120000-4" ) );
+        resolver.add( base, SnapshotUtils.parseRemoteSnapshotVersionPart( "20231010.120000-2" ) );
+        resolver.add( "2.0-20231012.120000-4" );
+
+        assertThat( render( resolver.getNewest( "2.0" ) ),
+                    equalTo( Arrays.asList( "2.0-20231012.120000-4", "2.0-20231011.120000-3" ) ) );
+    }
+
+    @Test
+    public void matchesFullSort()
+    {
+        final Random random = new Random( 16 );
+        final String[] bases = { "1.0", "1.0.1", "2.0-rc-1", "3" };
+        final List<String> candidates = new ArrayList<String>();
+        for ( int i = 0; i < 2000; i++ )
+        {
+            // few distinct timestamps, so that build numbers decide some of the ties.
+            candidates.add( String.format( "%s-202310%02d.1200%02d-%d", bases[random.nextInt( bases.length )],
+                                           1 + random.nextInt( 28 ), random.nextInt( 3 ), random.nextInt( 40 ) ) );
+        }
+
+        final SnapshotResolver latest = new SnapshotResolver();
+        final SnapshotResolver newest = new SnapshotResolver( 5 );
+        latest.addAll( candidates );
+        newest.addAll( candidates );
+
+        final Map<SingleVersion, List<SingleVersion>> grouped = new HashMap<SingleVersion, List<SingleVersion>>();
+        for ( final String candidate : candidates )
+        {
+            final SingleVersion version = VersionUtils.createSingleVersion( candidate );
+            List<SingleVersion> group = grouped.get( version.getBaseVersion() );
+            if ( group == null )
+            {
+                group = new ArrayList<SingleVersion>();
+                grouped.put( version.getBaseVersion(), group );
+            }
+
+            if ( !group.contains( version ) )
+            {
+                group.add( version );
+            }
+        }
+
+        assertThat( latest.getBaseVersions(), equalTo( grouped.keySet() ) );
+        for ( final Map.Entry<SingleVersion, List<SingleVersion>> entry : grouped.entrySet() )
+        {
+            final List<SingleVersion> sorted = entry.getValue();
+            Collections.sort( sorted, Collections.reverseOrder() );
+
+            assertThat( latest.getLatest( entry.getKey() ), equalTo( sorted.get( 0 ) ) );
+            assertThat( latest.getLatestVersions()
+                              .get( entry.getKey() ), equalTo( sorted.get( 0 ) ) );
+            assertThat( newest.getNewest( entry.getKey(), 5 ), equalTo( sorted.subList( 0, 5 ) ) );
+            assertThat( newest.getNewest( entry.getKey(), 3 ), equalTo( sorted.subList( 0, 3 ) ) );
+        }
+    }
+
+    private static List<String> render( final List<SingleVersion> versions )
+    {
+        final List<String> result = new ArrayList<String>();
+        for ( final SingleVersion version : versions )
+        {
+            result.add( version.renderStandard() );
+        }
+
+        return result;
+    }
+
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.version;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.commonjava.atlas.maven.ident.util.VersionUtils;
+import org.junit.Test;
+
+public class SortedVersionListTest
+{
+
+    private static final String[] AVAILABLE = { "0.9", "1.0-alpha-1", "1.0-SNAPSHOT", "1.0", "1.0.1", "1.1-beta",
+        "1.1", "1.2.GA", "1.5-SNAPSHOT", "1.5", "2.0-rc1", "2.0", "2.0.1.redhat-1", "2.1-SNAPSHOT", "3.0", "10.0" };
+
+    private static final String[] SPECS = { "[1.0,2.0)", "[1.0,2.0]", "(1.0,)", "(,1.1]", "[1.5]", "[1.0-SNAPSHOT]",
+        "[1.0-SNAPSHOT,2.0)", "(1.0,1.1)[2.0,3.0]", "[4.0,5.0)", "1.0", "1.5-SNAPSHOT", "(,1.0-SNAPSHOT]" };
+
+    private final SortedVersionList list = new SortedVersionList( versions( AVAILABLE ) );
+
+    @Test
+    public void selectHighestAndLowestInRange()
+    {
+        final VersionSpec spec = VersionUtils.createFromSpec( "[1.0,2.0)" );
+        assertThat( list.selectHighest( spec, false )
+                        .renderStandard(), equalTo( "2.0-rc1" ) );
+        assertThat( list.selectLowest( spec, false )
+                        .renderStandard(), equalTo( "1.0" ) );
+        assertThat( list.selectHighest( VersionUtils.createFromSpec( "[4.0,5.0)" ), true ), nullValue() );
+    }
+
+    @Test
+    public void pinnedRangeSelectsItsVersion()
+    {
+        assertThat( list.selectAll( VersionUtils.createFromSpec( "[1.1]" ), false )
+                        .size(), equalTo( 1 ) );
+        assertThat( list.selectHighest( VersionUtils.createFromSpec( "[1.1]" ), false )
+                        .renderStandard(), equalTo( "1.1" ) );
+    }
+
+    @Test
+    public void selectionMatchesLinearScan()
+    {
+        final List<SingleVersion> shuffled = versions( AVAILABLE );
+        Collections.shuffle( shuffled, new Random( 99 ) );
+        final SortedVersionList sorted = new SortedVersionList( shuffled );
+
+        for ( final String s : SPECS )
+        {
+            final VersionSpec spec = VersionUtils.createFromSpec( s );
+            for ( final boolean snapshots : new boolean[] { true, false } )
+            {
+                final List<SingleVersion> expected = new ArrayList<SingleVersion>();
+                for ( final SingleVersion version : sorted.getVersions() )
+                {
+                    if ( ( snapshots || !version.isSnapshot() ) && spec.contains( version ) )
+                    {
+                        expected.add( version );
+                    }
+                }
+
+                final String label = s + ( snapshots ? " (with snapshots)" : "" );
+                assertThat( label, sorted.selectAll( spec, snapshots ), equalTo( expected ) );
+                assertThat( label, sorted.selectLowest( spec, snapshots ),
+                            equalTo( expected.isEmpty() ? null : expected.get( 0 ) ) );
+                assertThat( label, sorted.selectHighest( spec, snapshots ),
+                            equalTo( expected.isEmpty() ? null : expected.get( expected.size() - 1 ) ) );
+            }
+        }
+    }
+
+    @Test
+    public void mergeMatchesSortingTheUnion()
+    {
+        final Random random = new Random( 17 );
+        for ( int round = 0; round < 50; round++ )
+        {
+            final List<SingleVersion> first = new ArrayList<SingleVersion>();
+            final List<SingleVersion> second = new ArrayList<SingleVersion>();
+            for ( final SingleVersion version : versions( AVAILABLE ) )
+            {
+                final int where = random.nextInt( 4 );
+                if ( where == 1 || where == 3 )
+                {
+                    first.add( version );
+                }
+                if ( where == 2 || where == 3 )
+                {
+                    second.add( version );
+                }
+            }
+
+            final List<SingleVersion> union = new ArrayList<SingleVersion>( first );
+            union.addAll( second );
+            final SortedVersionList expected = new SortedVersionList( union );
+
+            final SortedVersionList merged = new SortedVersionList( first ).merge( new SortedVersionList( second ) );
+            assertThat( merged.getVersions(), equalTo( expected.getVersions() ) );
+
+            for ( final SingleVersion version : versions( AVAILABLE ) )
+            {
+                assertThat( version.renderStandard(), merged.contains( version ), equalTo( union.contains( version ) ) );
+                if ( merged.contains( version ) )
+                {
+                    assertThat( merged.get( merged.indexOf( version ) ), equalTo( version ) );
+                }
+            }
+        }
+    }
+
+    @Test
+    public void dropDuplicates()
+    {
+        final SortedVersionList sorted = new SortedVersionList( versions( "1.0", "2.0", "1.0", "1.0.0" ) );
+        assertThat( sorted.size(), equalTo( 2 ) );
+        assertThat( sorted.indexOf( VersionUtils.createSingleVersion( "2.0" ) ), equalTo( 1 ) );
+        assertThat( sorted.indexOf( VersionUtils.createSingleVersion( "3.0" ) ), equalTo( -1 ) );
+    }
+
+    private static List<SingleVersion> versions( final String... versions )
+    {
+        final List<SingleVersion> result = new ArrayList<SingleVersion>();
+        for ( final String version : versions )
+        {
+            result.add( VersionUtils.createSingleVersion( version ) );
+        }
+
+        return result;
+    }
+
+}
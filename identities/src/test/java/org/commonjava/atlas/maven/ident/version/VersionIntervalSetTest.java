@@ -0,0 +1,162 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.version;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Random;
+
+import org.commonjava.atlas.maven.ident.util.VersionUtils;
+import org.junit.Test;
+
+public class VersionIntervalSetTest
+{
+
+    private static final String[] BOUNDS = { "0.9", "1.0", "1.1", "1.5", "2.0", "2.0.1", "3.0", "10.0" };
+
+    private static final String[] PROBES = { "0.1", "0.9", "1.0-alpha-1", "1.0-SNAPSHOT", "1.0", "1.0.0", "1.0.1",
+        "1.1-beta", "1.1", "1.2.GA", "1.5", "1.5.0.Final", "2.0-rc1", "2.0", "2.0.1", "2.1", "3.0", "9.9", "10.0",
+        "11" };
+
+    @Test
+    public void overlappingAndAdjacentRangesAreMerged()
+    {
+        final VersionIntervalSet set = VersionIntervalSet.of( VersionUtils.createFromSpec( "[1.0,2.0)[2.0,3.0](2.5,4.0)" ) );
+        assertThat( set.getIntervalCount(), equalTo( 1 ) );
+        assertThat( set.toVersionSpec()
+                       .renderStandard(), equalTo( "[1.0,4.0)" ) );
+
+        final VersionIntervalSet gap = VersionIntervalSet.of( VersionUtils.createFromSpec( "(1.0,2.0)(2.0,3.0)" ) );
+        assertThat( gap.getIntervalCount(), equalTo( 2 ) );
+        assertThat( gap.contains( VersionUtils.createSingleVersion( "2.0" ) ), equalTo( false ) );
+    }
+
+    @Test
+    public void complementOfEverythingIsEmpty()
+    {
+        final VersionIntervalSet set = VersionIntervalSet.of( VersionUtils.createFromSpec( "(,1.0)[1.0,)" ) );
+        assertThat( set.complement()
+                       .isEmpty(), equalTo( true ) );
+        assertThat( set.toVersionSpec(), nullValue() );
+        assertThat( set.complement()
+                       .complement()
+                       .contains( VersionUtils.createSingleVersion( "5" ) ), equalTo( true ) );
+    }
+
+    @Test
+    public void randomSetAlgebraMatchesMembership()
+    {
+        final Random random = new Random( 1357 );
+        for ( int i = 0; i < 300; i++ )
+        {
+            final VersionSpec first = randomSpec( random );
+            final VersionSpec second = randomSpec( random );
+            final VersionIntervalSet fs = VersionIntervalSet.of( first );
+            final VersionIntervalSet ss = VersionIntervalSet.of( second );
+
+            final VersionIntervalSet union = fs.union( ss );
+            final VersionIntervalSet intersection = fs.intersect( ss );
+            final VersionIntervalSet complement = fs.complement();
+
+            for ( final String p : PROBES )
+            {
+                final SingleVersion probe = VersionUtils.createSingleVersion( p );
+                final String label = first.renderStandard() + " / " + second.renderStandard() + " @ " + p;
+                final boolean inFirst = containsAny( first, probe );
+                final boolean inSecond = containsAny( second, probe );
+
+                assertThat( label, fs.contains( probe ), equalTo( inFirst ) );
+                assertThat( label, union.contains( probe ), equalTo( inFirst || inSecond ) );
+                assertThat( label, intersection.contains( probe ), equalTo( inFirst && inSecond ) );
+                assertThat( label, complement.contains( probe ), equalTo( !inFirst ) );
+
+                if ( first instanceof CompoundVersionSpec && !probe.isSnapshot() )
+                {
+                    assertThat( label, first.contains( probe ), equalTo( inFirst ) );
+                }
+            }
+        }
+    }
+
+    // membership as defined by the individual ranges, without the snapshot special case.
+    private boolean containsAny( final VersionSpec spec, final SingleVersion version )
+    {
+        if ( spec instanceof CompoundVersionSpec )
+        {
+            for ( final VersionSpec component : (CompoundVersionSpec) spec )
+            {
+                if ( containsAny( component, version ) )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        final RangeVersionSpec range = (RangeVersionSpec) spec;
+        if ( range.getLowerBound() != null )
+        {
+            final int comp = range.getLowerBound()
+                                  .compareTo( version );
+            if ( comp > 0 || ( comp == 0 && !range.isLowerBoundInclusive() ) )
+            {
+                return false;
+            }
+        }
+
+        if ( range.getUpperBound() != null )
+        {
+            final int comp = range.getUpperBound()
+                                  .compareTo( version );
+            if ( comp < 0 || ( comp == 0 && !range.isUpperBoundInclusive() ) )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private VersionSpec randomSpec( final Random random )
+    {
+        final int components = 1 + random.nextInt( 4 );
+        final StringBuilder sb = new StringBuilder();
+        for ( int i = 0; i < components; i++ )
+        {
+            int lower = random.nextInt( BOUNDS.length );
+            int upper = random.nextInt( BOUNDS.length );
+            if ( upper < lower )
+            {
+                final int tmp = lower;
+                lower = upper;
+                upper = tmp;
+            }
+
+            final boolean unboundedLower = random.nextInt( 6 ) == 0;
+            final boolean unboundedUpper = !unboundedLower && random.nextInt( 6 ) == 0;
+            sb.append( unboundedLower || random.nextBoolean() ? '(' : '[' )
+              .append( unboundedLower ? "" : BOUNDS[lower] )
+              .append( ',' )
+              .append( unboundedUpper ? "" : BOUNDS[upper] )
+              .append( unboundedUpper || random.nextBoolean() ? ')' : ']' );
+        }
+
+        return VersionUtils.createFromSpec( sb.toString() );
+    }
+
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.ident.version.parse;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.commonjava.atlas.maven.ident.version.SingleVersion;
+import org.commonjava.atlas.maven.ident.version.part.VersionPart;
+import org.commonjava.atlas.maven.ident.version.part.VersionPhrase;
+import org.junit.Test;
+
+/**
+ * Differential tests proving that {@link SingleVersionParser} and the generated {@link VersionParser#single()} agree.
+ */
+public class SingleVersionParserTest
+{
+
+    private static final String CORPUS = "single-version-corpus.txt";
+
+    private static final String[] INVALID = { "abc@1", "abc//1", ".", "-1", "1.0@", "@", "[1.0]", "\u00e91", "1\t2",
+        "1.0-20031129.200437-99999999999", "1.99999999999999999999" };
+
+    private static final String FUZZ_ALPHABET = "0123456789..--_+ abSNAPHOTsnapshot,[]@";
+
+    @Test
+    public void corpusParsesIdentically()
+        throws Exception
+    {
+        for ( final String version : readCorpus() )
+        {
+            final SingleVersion expected = new VersionParser( version ).single();
+            final SingleVersion actual = SingleVersionParser.parse( version );
+
+            assertThat( version, describe( actual ), equalTo( describe( expected ) ) );
+            assertThat( version, SingleVersionParser.isValid( version ), equalTo( true ) );
+        }
+    }
+
+    @Test
+    public void corpusComparesIdentically()
+        throws Exception
+    {
+        final List<String> corpus = readCorpus();
+        final List<SingleVersion> expected = new ArrayList<SingleVersion>();
+        final List<SingleVersion> actual = new ArrayList<SingleVersion>();
+        for ( final String version : corpus )
+        {
+            expected.add( new VersionParser( version ).single() );
+            actual.add( SingleVersionParser.parse( version ) );
+        }
+
+        for ( int i = 0; i < corpus.size(); i++ )
+        {
+            for ( int j = 0; j < corpus.size(); j++ )
+            {
+                final String pair = corpus.get( i ) + " vs. " + corpus.get( j );
+                assertThat( pair, Integer.signum( actual.get( i ).compareTo( actual.get( j ) ) ),
+                            equalTo( Integer.signum( expected.get( i ).compareTo( expected.get( j ) ) ) ) );
+                assertThat( pair, actual.get( i ).equals( actual.get( j ) ),
+                            equalTo( expected.get( i ).equals( expected.get( j ) ) ) );
+                assertThat( pair, actual.get( i ).equals( expected.get( j ) ),
+                            equalTo( expected.get( i ).equals( expected.get( j ) ) ) );
+            }
+        }
+    }
+
+    @Test
+    public void invalidVersionsAreRejected()
+    {
+        for ( final String version : INVALID )
+        {
+            assertThat( version, SingleVersionParser.isValid( version ), equalTo( false ) );
+        }
+    }
+
+    @Test
+    public void randomExpressionsParseIdentically()
+    {
+        final Random random = new Random( 1234 );
+        for ( int i = 0; i < 20000; i++ )
+        {
+            final StringBuilder sb = new StringBuilder();
+            final int len = 1 + random.nextInt( 24 );
+            for ( int j = 0; j < len; j++ )
+            {
+                sb.append( FUZZ_ALPHABET.charAt( random.nextInt( FUZZ_ALPHABET.length() ) ) );
+            }
+
+            final String version = sb.toString();
+            final String expected = outcome( version, true );
+            final String actual = outcome( version, false );
+
+            assertThat( "'" + version + "'", actual, equalTo( expected ) );
+
+            if ( !expected.startsWith( "!" ) )
+            {
+                assertThat( "'" + version + "'", SingleVersionParser.isValid( version ), equalTo( true ) );
+            }
+            else if ( expected.equals( "!syntax" ) )
+            {
+                assertThat( "'" + version + "'", SingleVersionParser.isValid( version ), equalTo( false ) );
+            }
+        }
+    }
+
+    private String outcome( final String version, final boolean generated )
+    {
+        try
+        {
+            final SingleVersion v =
+                generated ? new VersionParser( version ).single() : SingleVersionParser.parse( version );
+            return describe( v );
+        }
+        catch ( final ParseException e )
+        {
+            return "!syntax";
+        }
+        catch ( final TokenMgrError e )
+        {
+            return "!syntax";
+        }
+        catch ( final RuntimeException e )
+        {
+            if ( !generated && e.getCause() == null && e.getMessage().contains( "Failed to parse single version" ) )
+            {
+                return "!syntax";
+            }
+
+            return "!" + e.getClass().getSimpleName();
+        }
+    }
+
+    private String describe( final SingleVersion version )
+    {
+        final StringBuilder sb = new StringBuilder();
+        for ( final VersionPhrase phrase : version.getVersionPhrases() )
+        {
+            sb.append( '<' ).append( phrase.getSeparator() ).append( '>' );
+            for ( final VersionPart part : phrase.getVersionParts() )
+            {
+                sb.append( part );
+            }
+            sb.append( ' ' );
+        }
+
+        return sb.append( "(" ).append( version.renderStandard() ).append( ")" ).toString();
+    }
+
+    private List<String> readCorpus()
+        throws IOException
+    {
+        final InputStream in = Thread.currentThread().getContextClassLoader().getResourceAsStream( CORPUS );
+        if ( in == null )
+        {
+            fail( "Cannot find corpus: " + CORPUS );
+        }
+
+        final List<String> versions = new ArrayList<String>();
+        final BufferedReader reader = new BufferedReader( new InputStreamReader( in, StandardCharsets.UTF_8 ) );
+        try
+        {
+            String line;
+            while ( ( line = reader.readLine() ) != null )
+            {
+                if ( line.trim().length() > 0 && !line.startsWith( "#" ) )
+                {
+                    versions.add( line );
+                }
+            }
+        }
+        finally
+        {
+            reader.close();
+        }
+
+        return versions;
+    }
+
+}
@@ -32,4 +32,22 @@ public class NumericPartTest
         assertThat( new NumericPart( "20050331" ), equalTo( new NumericPart( "20050331" ) ) );
     }
 
+    @Test
+    public void primitiveValueMatchesBigIntegerValue()
+    {
+        final NumericPart part = new NumericPart( "9223372036854775807" );
+        assertThat( part.getLongValue(), equalTo( Long.MAX_VALUE ) );
+        assertThat( part.getValue().longValue(), equalTo( Long.MAX_VALUE ) );
+        assertThat( part.renderStandard(), equalTo( "9223372036854775807" ) );
+    }
+
+    @Test
+    public void compareUsesNumericOrder()
+    {
+        assertThat( new NumericPart( "10" ).compareTo( new NumericPart( "9" ) ) > 0, equalTo( true ) );
+        assertThat( new NumericPart( "007" ).compareTo( new NumericPart( "7" ) ), equalTo( 0 ) );
+        assertThat( new NumericPart( "007" ).hashCode(), equalTo( new NumericPart( 7 ).hashCode() ) );
+        assertThat( new NumericPart( "00" ).isZero(), equalTo( true ) );
+    }
+
 }
@@ -18,9 +18,6 @@ package org.commonjava.atlas.npm.ident.util;
 import com.github.zafarkhaja.semver.Version;
 import org.commonjava.atlas.maven.ident.util.PathInfo;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 import static org.commonjava.atlas.npm.ident.util.NpmVersionUtils.valueOf;
 
 /**
@@ -30,20 +27,16 @@ public class NpmPackagePathInfo implements PathInfo
 {
     private static final String EXT_TGZ = ".tgz";
 
-    private static final String PACKAGE_PATH_REGEX = "/((?:(.+)/)?(.+))/-/(.+)\\" + EXT_TGZ;
-
-    private static final int SCOPED_PACKAGE_NAME_GROUP = 1;
-
-    private static final int PACKAGE_SCOPE_GROUP = 2;
-
-    private static final int PACKAGE_NAME_GROUP = 3;
-
-    private static final int PACKAGE_NAME_AND_VERSION_GROUP = 4;
-
+    private static final String TARBALL_DIR = "/-/";
 
     /**
      * Parses an npm package path into fields. The path might be scoped or not. A package metadata path, e.g.
      * &quot;/keycloak-connect&quot;, cannot be parsed by this method.
+     * <p/>
+     * The path is matched as the pattern <code>/((?:(.+)/)?(.+))/-/(.+)\.tgz</code> would match it (with backslashes
+     * read as slashes), without using a regex: the last usable '/-/' separates the package from the tarball, and the
+     * last '/' before it separates the scope from the name. Versions are parsed through
+     * {@link NpmVersionUtils#valueOf(String)}, which may cache them.
      *
      * @param path
      *            parsed path starting with '/', e.g. /keycloak-connect/-/keycloak-connect-3.4.1.tgz or
@@ -52,21 +45,45 @@ public class NpmPackagePathInfo implements PathInfo
      */
     public static NpmPackagePathInfo parse( final String path )
     {
-        final Matcher matcher = Pattern.compile( PACKAGE_PATH_REGEX ).matcher( path.replace( '\\', '/' ) );
-        if ( !matcher.matches() )
+        final String p = path.replace( '\\', '/' );
+        final int len = p.length();
+        if ( len < 10 || p.charAt( 0 ) != '/' || !p.endsWith( EXT_TGZ ) || hasLineTerminator( p ) )
+        {
+            return null;
+        }
+
+        // the package name needs at least one character after the leading '/', and the file at least one before
+        // the extension.
+        final int tarball = p.lastIndexOf( TARBALL_DIR, len - EXT_TGZ.length() - TARBALL_DIR.length() - 1 );
+        if ( tarball < 2 )
         {
             return null;
         }
 
-        final String scopedName = matcher.group( SCOPED_PACKAGE_NAME_GROUP );
-        final String name = matcher.group( PACKAGE_NAME_GROUP );
-        final String nameAndVersion = matcher.group( PACKAGE_NAME_AND_VERSION_GROUP );
+        final int scope = p.lastIndexOf( '/', tarball - 2 );
+        final String scopedName = p.substring( 1, tarball );
+        final String name = scope < 2 ? scopedName : p.substring( scope + 1, tarball );
+        final String nameAndVersion = p.substring( tarball + TARBALL_DIR.length(), len - EXT_TGZ.length() );
 
         final String version = nameAndVersion.substring( name.length() + 1 );
 
         return new NpmPackagePathInfo( scopedName, valueOf( version ), nameAndVersion + EXT_TGZ, path );
     }
 
+    private static boolean hasLineTerminator( final String path )
+    {
+        for ( int i = 0; i < path.length(); i++ )
+        {
+            final char c = path.charAt( i );
+            if ( c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029' )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
 
     private String name;
 
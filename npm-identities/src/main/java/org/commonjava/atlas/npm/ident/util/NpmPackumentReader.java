@@ -0,0 +1,312 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.npm.ident.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.commonjava.atlas.npm.ident.ref.NpmPackageRef;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads the versions of an npm package document (packument) with a streaming parser. Only the "versions" object is
+ * walked, one version at a time; of each version only the name, the dist tarball and the dependencies are kept, and
+ * everything else in the document is skipped without being parsed into objects. Memory use doesn't grow with the
+ * size of the document.
+ */
+public final class NpmPackumentReader
+{
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private static final String VERSIONS = "versions";
+
+    private NpmPackumentReader()
+    {
+    }
+
+    /**
+     * Stream the versions of a packument, in document order. The stream is lazy: the document is read as the stream
+     * is consumed, and reading stops once it's done with the "versions" object. Closing the stream closes the input.
+     * Read errors are thrown as {@link UncheckedIOException}.
+     */
+    public static Stream<PackageVersion> versions( final InputStream in )
+        throws IOException
+    {
+        final JsonParser parser = FACTORY.createParser( in );
+        return StreamSupport.stream( new VersionSpliterator( parser ), false ).onClose( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    parser.close();
+                }
+                catch ( final IOException e )
+                {
+                    throw new UncheckedIOException( e );
+                }
+            }
+        } );
+    }
+
+    /**
+     * @return the path of a tarball URL (e.g. /@hawtio/core-dts/-/core-dts-3.3.2.tgz), which
+     *         {@link NpmPackagePathInfo#parse(String)} accepts; values without a scheme are returned as they are.
+     */
+    public static String getTarballPath( final String tarball )
+    {
+        if ( tarball == null )
+        {
+            return null;
+        }
+
+        final int scheme = tarball.indexOf( "://" );
+        if ( scheme < 0 )
+        {
+            return tarball;
+        }
+
+        final int path = tarball.indexOf( '/', scheme + 3 );
+        return path < 0 ? "/" : tarball.substring( path );
+    }
+
+    /**
+     * One entry of the "versions" object of a packument.
+     */
+    public static final class PackageVersion
+    {
+        private final NpmPackageRef ref;
+
+        private final String tarball;
+
+        private final Map<String, String> dependencies;
+
+        PackageVersion( final NpmPackageRef ref, final String tarball, final Map<String, String> dependencies )
+        {
+            this.ref = ref;
+            this.tarball = tarball;
+            this.dependencies = dependencies;
+        }
+
+        /**
+         * @return the package and version; the version is parsed the first time it's needed.
+         */
+        public NpmPackageRef getRef()
+        {
+            return ref;
+        }
+
+        /**
+         * @return the dist tarball URL, or null if the version has none
+         */
+        public String getTarball()
+        {
+            return tarball;
+        }
+
+        public String getTarballPath()
+        {
+            return NpmPackumentReader.getTarballPath( tarball );
+        }
+
+        /**
+         * @return the declared dependencies (name to range), in document order
+         */
+        public Map<String, String> getDependencies()
+        {
+            return dependencies;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "PackageVersion [" + ref.getName() + ":" + ref.getVersionString() + "]";
+        }
+    }
+
+    private static final class VersionSpliterator
+        extends Spliterators.AbstractSpliterator<PackageVersion>
+    {
+        private final JsonParser parser;
+
+        private String documentName;
+
+        private boolean started;
+
+        private boolean done;
+
+        VersionSpliterator( final JsonParser parser )
+        {
+            super( Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL );
+            this.parser = parser;
+        }
+
+        @Override
+        public boolean tryAdvance( final Consumer<? super PackageVersion> action )
+        {
+            try
+            {
+                if ( !started )
+                {
+                    started = true;
+                    done = !findVersions();
+                }
+
+                while ( !done )
+                {
+                    final JsonToken token = parser.nextToken();
+                    if ( token != JsonToken.FIELD_NAME )
+                    {
+                        // the end of the versions object (or of a truncated document).
+                        done = true;
+                        break;
+                    }
+
+                    final String version = parser.getCurrentName();
+                    if ( parser.nextToken() != JsonToken.START_OBJECT )
+                    {
+                        parser.skipChildren();
+                        continue;
+                    }
+
+                    action.accept( readVersion( version ) );
+                    return true;
+                }
+
+                return false;
+            }
+            catch ( final IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+        }
+
+        // move to the start of the top-level versions object, noting the package name on the way.
+        private boolean findVersions()
+            throws IOException
+        {
+            if ( parser.nextToken() != JsonToken.START_OBJECT )
+            {
+                return false;
+            }
+
+            JsonToken token;
+            while ( ( token = parser.nextToken() ) == JsonToken.FIELD_NAME )
+            {
+                final String field = parser.getCurrentName();
+                token = parser.nextToken();
+                if ( VERSIONS.equals( field ) && token == JsonToken.START_OBJECT )
+                {
+                    return true;
+                }
+                else if ( "name".equals( field ) && token == JsonToken.VALUE_STRING )
+                {
+                    documentName = parser.getText();
+                }
+                else
+                {
+                    parser.skipChildren();
+                }
+            }
+
+            return false;
+        }
+
+        private PackageVersion readVersion( final String version )
+            throws IOException
+        {
+            String name = documentName;
+            String tarball = null;
+            Map<String, String> dependencies = Collections.emptyMap();
+
+            while ( parser.nextToken() == JsonToken.FIELD_NAME )
+            {
+                final String field = parser.getCurrentName();
+                final JsonToken token = parser.nextToken();
+                if ( "name".equals( field ) && token == JsonToken.VALUE_STRING )
+                {
+                    name = parser.getText();
+                }
+                else if ( "dist".equals( field ) && token == JsonToken.START_OBJECT )
+                {
+                    tarball = readTarball();
+                }
+                else if ( "dependencies".equals( field ) && token == JsonToken.START_OBJECT )
+                {
+                    dependencies = readDependencies();
+                }
+                else
+                {
+                    parser.skipChildren();
+                }
+            }
+
+            return new PackageVersion( new NpmPackageRef( name, version ), tarball, dependencies );
+        }
+
+        private String readTarball()
+            throws IOException
+        {
+            String tarball = null;
+            while ( parser.nextToken() == JsonToken.FIELD_NAME )
+            {
+                final String field = parser.getCurrentName();
+                if ( parser.nextToken() == JsonToken.VALUE_STRING && "tarball".equals( field ) )
+                {
+                    tarball = parser.getText();
+                }
+                else
+                {
+                    parser.skipChildren();
+                }
+            }
+
+            return tarball;
+        }
+
+        private Map<String, String> readDependencies()
+            throws IOException
+        {
+            final Map<String, String> dependencies = new LinkedHashMap<String, String>();
+            while ( parser.nextToken() == JsonToken.FIELD_NAME )
+            {
+                final String name = parser.getCurrentName();
+                if ( parser.nextToken() == JsonToken.VALUE_STRING )
+                {
+                    dependencies.put( name, parser.getText() );
+                }
+                else
+                {
+                    parser.skipChildren();
+                }
+            }
+
+            return Collections.unmodifiableMap( dependencies );
+        }
+    }
+}
@@ -16,14 +16,83 @@
 package org.commonjava.atlas.npm.ident.util;
 
 import com.github.zafarkhaja.semver.Version;
+import org.commonjava.atlas.maven.ident.util.ParseCache;
 
 /**
  * Created by ruhan on 10/17/18.
  */
 public class NpmVersionUtils
 {
+    /**
+     * Maximum number of parsed npm versions to cache. When this system property is unset or not a positive number,
+     * parsed versions are not cached.
+     */
+    public static final String VERSION_CACHE_SIZE_PROP = "atlas.npm.version.cache.size";
+
+    private static volatile ParseCache<Version> cache;
+
+    static
+    {
+        final String size = System.getProperty( VERSION_CACHE_SIZE_PROP );
+        if ( size != null )
+        {
+            try
+            {
+                final int maxSize = Integer.parseInt( size.trim() );
+                if ( maxSize > 0 )
+                {
+                    enableCache( maxSize );
+                }
+            }
+            catch ( final NumberFormatException e )
+            {
+                // leave the cache disabled.
+            }
+        }
+    }
+
+    /**
+     * Enable (or resize) the cache of parsed versions, discarding anything cached previously. Versions are immutable,
+     * so cached instances are shared between callers.
+     */
+    public static synchronized void enableCache( final int maxSize )
+    {
+        cache = new ParseCache<Version>( maxSize );
+    }
+
+    public static synchronized void disableCache()
+    {
+        cache = null;
+    }
+
+    public static boolean isCacheEnabled()
+    {
+        return cache != null;
+    }
+
+    /**
+     * @return the cache backing {@link #valueOf(String)}, or null if caching is disabled.
+     */
+    public static ParseCache<Version> getCache()
+    {
+        return cache;
+    }
+
     public static Version valueOf( String ver )
     {
-        return Version.valueOf( ver );
+        final ParseCache<Version> c = cache;
+        if ( c == null || ver == null )
+        {
+            return Version.valueOf( ver );
+        }
+
+        Version version = c.get( ver );
+        if ( version == null )
+        {
+            version = Version.valueOf( ver );
+            c.put( ver, version );
+        }
+
+        return version;
     }
 }
@@ -0,0 +1,264 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.npm.ident.version;
+
+import com.github.zafarkhaja.semver.Version;
+import org.commonjava.atlas.maven.ident.util.IntervalTreap;
+import org.commonjava.atlas.npm.ident.ref.NpmPackageRef;
+import org.commonjava.atlas.npm.ident.ref.NpmProjectRef;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Index of the version ranges that dependent packages declare on other projects, answering "which dependents accept
+ * this newly published version" without evaluating every dependent's range.
+ * <p/>
+ * The intervals of the compiled {@link NpmVersionRange}s are kept in one {@link IntervalTreap} per dependency, so a
+ * lookup visits O(log n + k) nodes. Each interval found is then checked with {@link NpmVersionRange.Interval#contains(Version)}, which also applies npm's
+ * prerelease rule.
+ * <p/>
+ * This class is not thread-safe.
+ */
+public final class NpmRangeIndex
+{
+    private static final Comparator<Version> BOUND_ORDER = new Comparator<Version>()
+    {
+        @Override
+        public int compare( final Version first, final Version second )
+        {
+            return first.compareTo( second );
+        }
+    };
+
+    private static final Function<RegisteredInterval, Version> LOWER = new Function<RegisteredInterval, Version>()
+    {
+        @Override
+        public Version apply( final RegisteredInterval registered )
+        {
+            return registered.interval.getLower();
+        }
+    };
+
+    private static final Function<RegisteredInterval, Version> UPPER = new Function<RegisteredInterval, Version>()
+    {
+        @Override
+        public Version apply( final RegisteredInterval registered )
+        {
+            return registered.interval.getUpper();
+        }
+    };
+
+    private final Map<NpmProjectRef, Map<NpmPackageRef, Registration>> registrations =
+        new HashMap<NpmProjectRef, Map<NpmPackageRef, Registration>>();
+
+    private final Map<NpmProjectRef, IntervalTreap<Version, RegisteredInterval>> trees =
+        new HashMap<NpmProjectRef, IntervalTreap<Version, RegisteredInterval>>();
+
+    private int size;
+
+    /**
+     * @see #add(NpmPackageRef, NpmProjectRef, NpmVersionRange)
+     */
+    public void add( final NpmPackageRef dependent, final NpmProjectRef dependency, final String range )
+    {
+        add( dependent, dependency, NpmVersionRange.parse( range ) );
+    }
+
+    /**
+     * Register the range a dependent declares on a dependency, replacing the range it declared before, if any.
+     */
+    public void add( final NpmPackageRef dependent, final NpmProjectRef dependency, final NpmVersionRange range )
+    {
+        if ( dependent == null || dependency == null || range == null )
+        {
+            throw new IllegalArgumentException( "Dependent, dependency and range are all required!" );
+        }
+
+        remove( dependent, dependency );
+
+        final NpmProjectRef key = dependency.asNpmProjectRef();
+        Map<NpmPackageRef, Registration> dependents = registrations.get( key );
+        if ( dependents == null )
+        {
+            dependents = new HashMap<NpmPackageRef, Registration>();
+            registrations.put( key, dependents );
+        }
+
+        final Registration registration = new Registration( dependent, range );
+        if ( !range.getIntervals()
+                   .isEmpty() )
+        {
+            IntervalTreap<Version, RegisteredInterval> tree = trees.get( key );
+            if ( tree == null )
+            {
+                tree = new IntervalTreap<Version, RegisteredInterval>( BOUND_ORDER, LOWER, UPPER );
+                trees.put( key, tree );
+            }
+
+            for ( final NpmVersionRange.Interval interval : range.getIntervals() )
+            {
+                registration.entries.add( tree.add( new RegisteredInterval( registration, interval ) ) );
+            }
+        }
+
+        dependents.put( dependent, registration );
+        size++;
+    }
+
+    /**
+     * Remove the range a dependent declares on a dependency.
+     *
+     * @return false if it wasn't registered
+     */
+    public boolean remove( final NpmPackageRef dependent, final NpmProjectRef dependency )
+    {
+        if ( dependent == null || dependency == null )
+        {
+            return false;
+        }
+
+        final NpmProjectRef key = dependency.asNpmProjectRef();
+        final Map<NpmPackageRef, Registration> dependents = registrations.get( key );
+        final Registration registration = dependents == null ? null : dependents.remove( dependent );
+        if ( registration == null )
+        {
+            return false;
+        }
+
+        final IntervalTreap<Version, RegisteredInterval> tree = trees.get( key );
+        if ( tree != null )
+        {
+            for ( final IntervalTreap.Entry<Version, RegisteredInterval> entry : registration.entries )
+            {
+                tree.remove( entry );
+            }
+
+            if ( tree.isEmpty() )
+            {
+                trees.remove( key );
+            }
+        }
+
+        if ( dependents.isEmpty() )
+        {
+            registrations.remove( key );
+        }
+
+        size--;
+        return true;
+    }
+
+    /**
+     * @return the range the dependent declares on the dependency, or null if it isn't registered
+     */
+    public NpmVersionRange getRange( final NpmPackageRef dependent, final NpmProjectRef dependency )
+    {
+        final Map<NpmPackageRef, Registration> dependents = registrations.get( dependency.asNpmProjectRef() );
+        final Registration registration = dependents == null ? null : dependents.get( dependent );
+        return registration == null ? null : registration.range;
+    }
+
+    /**
+     * Find the dependents whose range on the published package's project accepts its version, in no particular order.
+     */
+    public Set<NpmPackageRef> findAccepting( final NpmPackageRef published )
+    {
+        return findAccepting( published, published.getVersion() );
+    }
+
+    /**
+     * Find the dependents whose range on the dependency accepts the version, in no particular order.
+     */
+    public Set<NpmPackageRef> findAccepting( final NpmProjectRef dependency, final Version version )
+    {
+        final Set<NpmPackageRef> result = new LinkedHashSet<NpmPackageRef>();
+        final IntervalTreap<Version, RegisteredInterval> tree =
+            dependency == null ? null : trees.get( dependency.asNpmProjectRef() );
+        if ( tree != null && version != null )
+        {
+            tree.stab( version, new Consumer<RegisteredInterval>()
+            {
+                @Override
+                public void accept( final RegisteredInterval registered )
+                {
+                    if ( registered.interval.contains( version ) )
+                    {
+                        result.add( registered.owner.dependent );
+                    }
+                }
+            } );
+        }
+
+        return result;
+    }
+
+    /**
+     * The number of registered dependent / dependency pairs.
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public void clear()
+    {
+        registrations.clear();
+        trees.clear();
+        size = 0;
+    }
+
+    private static final class Registration
+    {
+        private final NpmPackageRef dependent;
+
+        private final NpmVersionRange range;
+
+        private final List<IntervalTreap.Entry<Version, RegisteredInterval>> entries =
+            new ArrayList<IntervalTreap.Entry<Version, RegisteredInterval>>();
+
+        Registration( final NpmPackageRef dependent, final NpmVersionRange range )
+        {
+            this.dependent = dependent;
+            this.range = range;
+        }
+    }
+
+    private static final class RegisteredInterval
+    {
+        private final Registration owner;
+
+        private final NpmVersionRange.Interval interval;
+
+        RegisteredInterval( final Registration owner, final NpmVersionRange.Interval interval )
+        {
+            this.owner = owner;
+            this.interval = interval;
+        }
+    }
+}
@@ -0,0 +1,752 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.npm.ident.version;
+
+import com.github.zafarkhaja.semver.ParseException;
+import com.github.zafarkhaja.semver.Version;
+import org.commonjava.atlas.npm.ident.ref.InvalidNpmRefException;
+import org.commonjava.atlas.npm.ident.util.NpmVersionUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An npm version range (like &quot;^1.2.3 || 2.x&quot;, &quot;~1.2&quot;, &quot;&gt;=1.0.0 &lt;2&quot; or
+ * &quot;1.2 - 2.3.4&quot;), compiled into a normalized, sorted set of intervals over {@link Version}.
+ * <p/>
+ * Tilde, caret, x-ranges and hyphen ranges are expanded the way the npm client expands them, and each comparator set
+ * (the parts between '||') is intersected into a single interval; empty ones are dropped, and overlapping ones are
+ * merged. As in npm, a prerelease version is only accepted by an interval whose own comparators name a prerelease of
+ * the same major.minor.patch, so '^1.2.3-beta.1' accepts 1.2.3-beta.2 but not 1.3.0-beta.1. Build metadata is
+ * ignored.
+ */
+public final class NpmVersionRange
+{
+    private static final Comparator<Interval> BY_LOWER = new Comparator<Interval>()
+    {
+        @Override
+        public int compare( final Interval first, final Interval second )
+        {
+            return compareLower( first.lower, first.lowerInclusive, second.lower, second.lowerInclusive );
+        }
+    };
+
+    private final String expression;
+
+    private final List<Interval> intervals;
+
+    private NpmVersionRange( final String expression, final List<Interval> intervals )
+    {
+        this.expression = expression;
+        this.intervals = Collections.unmodifiableList( intervals );
+    }
+
+    /**
+     * @throws InvalidNpmRefException if the expression isn't a valid npm range
+     */
+    public static NpmVersionRange parse( final String expression )
+    {
+        if ( expression == null )
+        {
+            throw new InvalidNpmRefException( "npm version range cannot be null" );
+        }
+
+        final List<Interval> intervals = new ArrayList<Interval>();
+        for ( final String set : expression.split( "\\|\\|", -1 ) )
+        {
+            final Interval interval = parseSet( expression, set.trim() );
+            if ( interval != null )
+            {
+                intervals.add( interval );
+            }
+        }
+
+        return new NpmVersionRange( expression, normalize( intervals ) );
+    }
+
+    public String getExpression()
+    {
+        return expression;
+    }
+
+    /**
+     * @return the intervals of the range, sorted by their lower bounds
+     */
+    public List<Interval> getIntervals()
+    {
+        return intervals;
+    }
+
+    /**
+     * @return true if no version can satisfy the range
+     */
+    public boolean isEmpty()
+    {
+        return intervals.isEmpty();
+    }
+
+    public boolean contains( final Version version )
+    {
+        for ( final Interval interval : intervals )
+        {
+            if ( interval.contains( version ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean equals( final Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+
+        return intervals.equals( ( (NpmVersionRange) o ).intervals );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return intervals.hashCode();
+    }
+
+    /**
+     * @return the normalized form of the range, like &quot;&gt;=1.2.3 &lt;2.0.0-0 || &gt;=3.0.0&quot;
+     */
+    @Override
+    public String toString()
+    {
+        if ( intervals.isEmpty() )
+        {
+            return "<0.0.0-0";
+        }
+
+        final StringBuilder sb = new StringBuilder();
+        for ( final Interval interval : intervals )
+        {
+            if ( sb.length() > 0 )
+            {
+                sb.append( " || " );
+            }
+            sb.append( interval );
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * A contiguous run of versions between two bounds. Missing bounds are unbounded.
+     */
+    public static final class Interval
+    {
+        private final Version lower;
+
+        private final boolean lowerInclusive;
+
+        private final Version upper;
+
+        private final boolean upperInclusive;
+
+        // comparator versions with a prerelease; prereleases of their major.minor.patch are accepted.
+        private final List<Version> prereleases;
+
+        Interval( final Version lower, final boolean lowerInclusive, final Version upper, final boolean upperInclusive,
+                  final List<Version> prereleases )
+        {
+            this.lower = lower;
+            this.lowerInclusive = lower != null && lowerInclusive;
+            this.upper = upper;
+            this.upperInclusive = upper != null && upperInclusive;
+            this.prereleases = Collections.unmodifiableList( prereleases );
+        }
+
+        public Version getLower()
+        {
+            return lower;
+        }
+
+        public boolean isLowerInclusive()
+        {
+            return lowerInclusive;
+        }
+
+        public Version getUpper()
+        {
+            return upper;
+        }
+
+        public boolean isUpperInclusive()
+        {
+            return upperInclusive;
+        }
+
+        public List<Version> getPrereleases()
+        {
+            return prereleases;
+        }
+
+        /**
+         * @return whether the version is between the bounds, ignoring the prerelease rule of {@link #contains(Version)}
+         */
+        public boolean isWithinBounds( final Version version )
+        {
+            if ( lower != null )
+            {
+                final int comp = version.compareTo( lower );
+                if ( comp < 0 || ( comp == 0 && !lowerInclusive ) )
+                {
+                    return false;
+                }
+            }
+
+            if ( upper != null )
+            {
+                final int comp = version.compareTo( upper );
+                if ( comp > 0 || ( comp == 0 && !upperInclusive ) )
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        public boolean contains( final Version version )
+        {
+            if ( !isWithinBounds( version ) )
+            {
+                return false;
+            }
+            else if ( version.getPreReleaseVersion()
+                             .isEmpty() )
+            {
+                return true;
+            }
+
+            for ( final Version allowed : prereleases )
+            {
+                if ( allowed.getMajorVersion() == version.getMajorVersion()
+                    && allowed.getMinorVersion() == version.getMinorVersion()
+                    && allowed.getPatchVersion() == version.getPatchVersion() )
+                {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        @Override
+        public boolean equals( final Object o )
+        {
+            if ( this == o )
+            {
+                return true;
+            }
+            if ( o == null || getClass() != o.getClass() )
+            {
+                return false;
+            }
+
+            final Interval that = (Interval) o;
+            return lowerInclusive == that.lowerInclusive && upperInclusive == that.upperInclusive
+                && ( lower == null ? that.lower == null : lower.equals( that.lower ) )
+                && ( upper == null ? that.upper == null : upper.equals( that.upper ) )
+                && prereleases.equals( that.prereleases );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int result = lower == null ? 0 : lower.hashCode();
+            result = 31 * result + ( lowerInclusive ? 1 : 0 );
+            result = 31 * result + ( upper == null ? 0 : upper.hashCode() );
+            result = 31 * result + ( upperInclusive ? 1 : 0 );
+            return 31 * result + prereleases.hashCode();
+        }
+
+        @Override
+        public String toString()
+        {
+            if ( lower == null && upper == null )
+            {
+                return "*";
+            }
+
+            final StringBuilder sb = new StringBuilder();
+            if ( lower != null )
+            {
+                sb.append( lowerInclusive ? ">=" : ">" )
+                  .append( lower );
+            }
+            if ( upper != null )
+            {
+                if ( sb.length() > 0 )
+                {
+                    sb.append( ' ' );
+                }
+                sb.append( upperInclusive ? "<=" : "<" )
+                  .append( upper );
+            }
+
+            return sb.toString();
+        }
+    }
+
+    /*
+     * Parse one comparator set into the interval of its intersected comparators, or null if it can't match anything.
+     */
+    private static Interval parseSet( final String expression, final String set )
+    {
+        final String[] tokens = set.isEmpty() ? new String[0] : set.split( "\\s+" );
+        final Bounds bounds = new Bounds();
+
+        if ( tokens.length == 3 && "-".equals( tokens[1] ) )
+        {
+            final Partial from = Partial.parse( expression, tokens[0] );
+            final Partial to = Partial.parse( expression, tokens[2] );
+            from.atLeast( bounds );
+            to.atMost( bounds );
+        }
+        else
+        {
+            for ( int i = 0; i < tokens.length; i++ )
+            {
+                String token = tokens[i];
+                int op = operatorLength( token );
+                if ( op == token.length() && i < tokens.length - 1 )
+                {
+                    // allow whitespace between an operator and its version, as in '>= 1.2.3'.
+                    token += tokens[++i];
+                }
+
+                if ( op == token.length() )
+                {
+                    throw invalid( expression );
+                }
+
+                comparator( expression, token.substring( 0, op ), Partial.parse( expression, token.substring( op ) ),
+                            bounds );
+            }
+        }
+
+        return bounds.toInterval();
+    }
+
+    private static int operatorLength( final String token )
+    {
+        if ( token.startsWith( ">=" ) || token.startsWith( "<=" ) || token.startsWith( "~>" ) )
+        {
+            return 2;
+        }
+        else if ( token.startsWith( ">" ) || token.startsWith( "<" ) || token.startsWith( "~" )
+            || token.startsWith( "^" ) )
+        {
+            return 1;
+        }
+
+        return 0;
+    }
+
+    private static void comparator( final String expression, final String op, final Partial partial,
+                                    final Bounds bounds )
+    {
+        if ( op.isEmpty() )
+        {
+            partial.atLeast( bounds );
+            partial.atMost( bounds );
+        }
+        else if ( ">=".equals( op ) )
+        {
+            partial.atLeast( bounds );
+        }
+        else if ( "<=".equals( op ) )
+        {
+            partial.atMost( bounds );
+        }
+        else if ( ">".equals( op ) )
+        {
+            partial.above( bounds );
+        }
+        else if ( "<".equals( op ) )
+        {
+            partial.below( bounds );
+        }
+        else if ( "^".equals( op ) )
+        {
+            partial.caret( bounds );
+        }
+        else
+        {
+            partial.tilde( bounds );
+        }
+    }
+
+    private static List<Interval> normalize( final List<Interval> intervals )
+    {
+        Collections.sort( intervals, BY_LOWER );
+
+        final List<Interval> result = new ArrayList<Interval>( intervals.size() );
+        for ( final Interval interval : intervals )
+        {
+            final Interval last = result.isEmpty() ? null : result.get( result.size() - 1 );
+            if ( last != null && last.prereleases.isEmpty() && interval.prereleases.isEmpty() && touches( last,
+                                                                                                          interval ) )
+            {
+                final boolean higher = compareUpper( interval.upper, interval.upperInclusive, last.upper,
+                                                     last.upperInclusive ) > 0;
+                final Interval upper = higher ? interval : last;
+                result.set( result.size() - 1,
+                            new Interval( last.lower, last.lowerInclusive, upper.upper, upper.upperInclusive,
+                                          Collections.<Version>emptyList() ) );
+            }
+            else
+            {
+                result.add( interval );
+            }
+        }
+
+        return result;
+    }
+
+    // whether the next interval (which doesn't start below the last one) overlaps or adjoins it.
+    private static boolean touches( final Interval last, final Interval next )
+    {
+        if ( last.upper == null || next.lower == null )
+        {
+            return true;
+        }
+
+        final int comp = next.lower.compareTo( last.upper );
+        return comp < 0 || ( comp == 0 && ( last.upperInclusive || next.lowerInclusive ) );
+    }
+
+    // a missing lower bound is below everything; an exclusive bound is above an inclusive one of the same version.
+    static int compareLower( final Version first, final boolean firstInclusive, final Version second,
+                             final boolean secondInclusive )
+    {
+        if ( first == null || second == null )
+        {
+            return first == second ? 0 : ( first == null ? -1 : 1 );
+        }
+
+        final int comp = first.compareTo( second );
+        return comp != 0 || firstInclusive == secondInclusive ? comp : ( firstInclusive ? -1 : 1 );
+    }
+
+    // a missing upper bound is above everything; an inclusive bound is above an exclusive one of the same version.
+    static int compareUpper( final Version first, final boolean firstInclusive, final Version second,
+                             final boolean secondInclusive )
+    {
+        if ( first == null || second == null )
+        {
+            return first == second ? 0 : ( first == null ? 1 : -1 );
+        }
+
+        final int comp = first.compareTo( second );
+        return comp != 0 || firstInclusive == secondInclusive ? comp : ( firstInclusive ? 1 : -1 );
+    }
+
+    private static InvalidNpmRefException invalid( final String expression )
+    {
+        return new InvalidNpmRefException( "Invalid npm version range: '%s'", expression );
+    }
+
+    /*
+     * The intersection of the comparators of one set.
+     */
+    private static final class Bounds
+    {
+        private Version lower;
+
+        private boolean lowerInclusive;
+
+        private Version upper;
+
+        private boolean upperInclusive;
+
+        private boolean empty;
+
+        private final List<Version> prereleases = new ArrayList<Version>();
+
+        void lower( final Version version, final boolean inclusive )
+        {
+            if ( compareLower( version, inclusive, lower, lowerInclusive ) > 0 )
+            {
+                lower = version;
+                lowerInclusive = inclusive;
+            }
+        }
+
+        void upper( final Version version, final boolean inclusive )
+        {
+            if ( compareUpper( version, inclusive, upper, upperInclusive ) < 0 )
+            {
+                upper = version;
+                upperInclusive = inclusive;
+            }
+        }
+
+        Interval toInterval()
+        {
+            if ( empty )
+            {
+                return null;
+            }
+
+            if ( lower != null && upper != null )
+            {
+                final int comp = lower.compareTo( upper );
+                if ( comp > 0 || ( comp == 0 && !( lowerInclusive && upperInclusive ) ) )
+                {
+                    return null;
+                }
+            }
+
+            return new Interval( lower, lowerInclusive, upper, upperInclusive, prereleases );
+        }
+    }
+
+    /*
+     * A possibly partial version, like '1', '1.2.x' or '1.2.3-beta.1'. Missing or wildcard parts are -1.
+     */
+    private static final class Partial
+    {
+        private final int major;
+
+        private final int minor;
+
+        private final int patch;
+
+        private final Version version;
+
+        private Partial( final int major, final int minor, final int patch, final Version version )
+        {
+            this.major = major;
+            this.minor = minor;
+            this.patch = patch;
+            this.version = version;
+        }
+
+        static Partial parse( final String expression, final String value )
+        {
+            int pos = 0;
+            while ( pos < value.length() && ( value.charAt( pos ) == '=' || value.charAt( pos ) == 'v'
+                || value.charAt( pos ) == 'V' ) )
+            {
+                pos++;
+            }
+
+            final int[] parts = { -1, -1, -1 };
+            boolean wildcard = false;
+            int count = 0;
+            for ( int i = 0; i < 3; i++, count++ )
+            {
+                if ( i > 0 )
+                {
+                    if ( pos == value.length() || value.charAt( pos ) != '.' )
+                    {
+                        break;
+                    }
+                    pos++;
+                }
+
+                final char c = pos < value.length() ? value.charAt( pos ) : 0;
+                if ( c == 'x' || c == 'X' || c == '*' )
+                {
+                    wildcard = true;
+                    pos++;
+                }
+                else if ( c >= '0' && c <= '9' )
+                {
+                    final int start = pos;
+                    while ( pos < value.length() && value.charAt( pos ) >= '0' && value.charAt( pos ) <= '9' )
+                    {
+                        pos++;
+                    }
+
+                    if ( !wildcard )
+                    {
+                        try
+                        {
+                            parts[i] = Integer.parseInt( value.substring( start, pos ) );
+                        }
+                        catch ( final NumberFormatException e )
+                        {
+                            throw invalid( expression );
+                        }
+                    }
+                }
+                else
+                {
+                    throw invalid( expression );
+                }
+            }
+
+            Version version = null;
+            if ( pos < value.length() )
+            {
+                // prerelease and build metadata may only follow a full version.
+                final char c = value.charAt( pos );
+                if ( ( c != '-' && c != '+' ) || count < 3 || pos + 1 == value.length() )
+                {
+                    throw invalid( expression );
+                }
+
+                try
+                {
+                    final Version full = NpmVersionUtils.valueOf( "0.0.0" + value.substring( pos ) );
+                    if ( !wildcard && !full.getPreReleaseVersion()
+                                           .isEmpty() )
+                    {
+                        version = NpmVersionUtils.valueOf(
+                            parts[0] + "." + parts[1] + "." + parts[2] + "-" + full.getPreReleaseVersion() );
+                    }
+                }
+                catch ( final ParseException e )
+                {
+                    throw invalid( expression );
+                }
+            }
+
+            if ( version == null && !wildcard && parts[2] > -1 )
+            {
+                version = Version.forIntegers( parts[0], parts[1], parts[2] );
+            }
+
+            return new Partial( parts[0], parts[1], parts[2], version );
+        }
+
+        // >=partial
+        void atLeast( final Bounds bounds )
+        {
+            if ( major > -1 )
+            {
+                bounds.lower( version == null ? of( major, Math.max( minor, 0 ), 0 ) : version, true );
+                prerelease( bounds );
+            }
+        }
+
+        // <=partial
+        void atMost( final Bounds bounds )
+        {
+            if ( version != null )
+            {
+                bounds.upper( version, true );
+                prerelease( bounds );
+            }
+            else if ( major > -1 )
+            {
+                bounds.upper( minor < 0 ? first( major + 1, 0, 0 ) : first( major, minor + 1, 0 ), false );
+            }
+        }
+
+        // >partial
+        void above( final Bounds bounds )
+        {
+            if ( version != null )
+            {
+                bounds.lower( version, false );
+                prerelease( bounds );
+            }
+            else if ( major > -1 )
+            {
+                bounds.lower( minor < 0 ? of( major + 1, 0, 0 ) : of( major, minor + 1, 0 ), true );
+            }
+            else
+            {
+                bounds.empty = true;
+            }
+        }
+
+        // <partial
+        void below( final Bounds bounds )
+        {
+            if ( version != null )
+            {
+                bounds.upper( version, false );
+                prerelease( bounds );
+            }
+            else if ( major > -1 )
+            {
+                bounds.upper( first( major, Math.max( minor, 0 ), 0 ), false );
+            }
+            else
+            {
+                bounds.empty = true;
+            }
+        }
+
+        // ~partial: patch-level changes if a minor version is given, minor-level changes if not.
+        void tilde( final Bounds bounds )
+        {
+            atLeast( bounds );
+            if ( major > -1 )
+            {
+                bounds.upper( minor < 0 ? first( major + 1, 0, 0 ) : first( major, minor + 1, 0 ), false );
+            }
+        }
+
+        // ^partial: changes that don't modify the left-most non-zero part.
+        void caret( final Bounds bounds )
+        {
+            atLeast( bounds );
+            if ( major > 0 || ( major == 0 && minor < 0 ) )
+            {
+                bounds.upper( first( major + 1, 0, 0 ), false );
+            }
+            else if ( major == 0 && ( minor > 0 || patch < 0 ) )
+            {
+                bounds.upper( first( 0, minor + 1, 0 ), false );
+            }
+            else if ( major == 0 )
+            {
+                bounds.upper( first( 0, 0, patch + 1 ), false );
+            }
+        }
+
+        private void prerelease( final Bounds bounds )
+        {
+            if ( version != null && !version.getPreReleaseVersion()
+                                            .isEmpty() && !bounds.prereleases.contains( version ) )
+            {
+                bounds.prereleases.add( version );
+            }
+        }
+
+        private static Version of( final int major, final int minor, final int patch )
+        {
+            return Version.forIntegers( major, minor, patch );
+        }
+
+        // the lowest possible version of major.minor.patch, below all of its prereleases.
+        private static Version first( final int major, final int minor, final int patch )
+        {
+            return NpmVersionUtils.valueOf( major + "." + minor + "." + patch + "-0" );
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.npm.ident.util;
+
+import com.github.zafarkhaja.semver.Version;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class NpmPackagePathInfoTest
+{
+    // the pattern parse(..) used to match paths with, kept to check the hand-written parser against.
+    private static final Pattern PACKAGE_PATH = Pattern.compile( "/((?:(.+)/)?(.+))/-/(.+)\\.tgz" );
+
+    private static final String[] TOKENS = { "/", "-", "/-/", "@scope", "name", "\\", ".tgz", ".", "name-1.0.0", "\n" };
+
+    @After
+    public void resetCache()
+    {
+        NpmVersionUtils.disableCache();
+    }
+
+    @Test
+    public void backslashesAndNestedTarballDirs()
+    {
+        final NpmPackagePathInfo info = NpmPackagePathInfo.parse( "\\@scope\\a/-/b\\-\\a-1.0.0.tgz" );
+        assertEquals( "@scope/a/-/b", info.getName() );
+        assertEquals( "a-1.0.0.tgz", info.getFile() );
+        assertEquals( "1.0.0", info.getVersion().toString() );
+
+        assertNull( NpmPackagePathInfo.parse( "/a/-/.tgz" ) );
+        assertNull( NpmPackagePathInfo.parse( "a/-/a-1.0.0.tgz" ) );
+        assertNull( NpmPackagePathInfo.parse( "/a/-/a-1.0.0.tgz\n" ) );
+    }
+
+    @Test
+    public void matchesRegexParser()
+    {
+        final Random random = new Random( 18 );
+        for ( int i = 0; i < 100000; i++ )
+        {
+            final StringBuilder sb = new StringBuilder( random.nextInt( 10 ) > 0 ? "/" : "" );
+            final int count = random.nextInt( 8 );
+            for ( int j = 0; j < count; j++ )
+            {
+                sb.append( TOKENS[random.nextInt( TOKENS.length )] );
+            }
+            sb.append( random.nextInt( 5 ) > 0 ? "-1.0.0.tgz" : "" );
+
+            final String path = sb.toString();
+            final Matcher matcher = PACKAGE_PATH.matcher( path.replace( '\\', '/' ) );
+            final String expected = matcher.matches() ? matcher.group( 1 ) + " " + matcher.group( 4 ) + ".tgz" : null;
+
+            String result;
+            try
+            {
+                final NpmPackagePathInfo info = NpmPackagePathInfo.parse( path );
+                result = info == null ? null : info.getName() + " " + info.getFile();
+            }
+            catch ( final RuntimeException e )
+            {
+                // the file doesn't start with the name, or the version isn't valid semver; only once the path matched.
+                result = expected == null ? e.toString() : expected;
+            }
+
+            assertEquals( path, expected, result );
+        }
+    }
+
+    @Test
+    public void cacheParsedVersions()
+    {
+        NpmVersionUtils.enableCache( 16 );
+
+        final Version first = NpmPackagePathInfo.parse( "/a/-/a-1.2.3.tgz" ).getVersion();
+        final Version second = NpmPackagePathInfo.parse( "/@s/a/-/a-1.2.3.tgz" ).getVersion();
+        assertSame( first, second );
+        assertEquals( 1, NpmVersionUtils.getCache().getHitCount() );
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.npm.ident.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class NpmPackumentReaderTest
+{
+    private static final String PACKUMENT = "{\"_id\":\"@hawtio/core-dts\",\"name\":\"@hawtio/core-dts\","
+                    + "\"dist-tags\":{\"latest\":\"3.3.2\"},"
+                    + "\"versions\":{"
+                    + "\"3.3.1\":{\"name\":\"@hawtio/core-dts\",\"version\":\"3.3.1\","
+                    + "\"scripts\":{\"build\":\"tsc\"},\"keywords\":[\"a\",{\"b\":[1,2]}],"
+                    + "\"dependencies\":{\"angular\":\"^1.5.0\",\"odd\":{\"x\":1},\"lodash\":\"~4.17.0\"},"
+                    + "\"dist\":{\"shasum\":\"abc\",\"tarball\":\"https://registry.npmjs.org/@hawtio/core-dts/-/core-dts-3.3.1.tgz\","
+                    + "\"signatures\":[{\"sig\":\"x\"}]}},"
+                    + "\"3.3.2\":{\"version\":\"3.3.2\",\"dist\":{\"tarball\":\"/@hawtio/core-dts/-/core-dts-3.3.2.tgz\"}},"
+                    + "\"broken\":null"
+                    + "},"
+                    + "\"time\":{\"3.3.1\":\"2020-01-01T00:00:00.000Z\"},\"readme\":\"" + repeat( 'x', 10000 ) + "\"}";
+
+    @Test
+    public void readSelectedFields()
+        throws Exception
+    {
+        final List<NpmPackumentReader.PackageVersion> versions;
+        try (Stream<NpmPackumentReader.PackageVersion> stream = NpmPackumentReader.versions( utf8( PACKUMENT ) ))
+        {
+            versions = stream.collect( Collectors.toList() );
+        }
+
+        assertEquals( 2, versions.size() );
+
+        final NpmPackumentReader.PackageVersion first = versions.get( 0 );
+        assertEquals( "@hawtio/core-dts", first.getRef().getName() );
+        assertEquals( "3.3.1", first.getRef().getVersionString() );
+        assertEquals( "https://registry.npmjs.org/@hawtio/core-dts/-/core-dts-3.3.1.tgz", first.getTarball() );
+        assertEquals( "/@hawtio/core-dts/-/core-dts-3.3.1.tgz", first.getTarballPath() );
+
+        final Map<String, String> deps = new LinkedHashMap<>();
+        deps.put( "angular", "^1.5.0" );
+        deps.put( "lodash", "~4.17.0" );
+        assertEquals( deps, first.getDependencies() );
+
+        final NpmPackagePathInfo info = NpmPackagePathInfo.parse( first.getTarballPath() );
+        assertEquals( "@hawtio/core-dts", info.getName() );
+        assertEquals( "3.3.1", info.getVersion().toString() );
+
+        // the version has no name of its own, so it gets the document's.
+        final NpmPackumentReader.PackageVersion second = versions.get( 1 );
+        assertEquals( "@hawtio/core-dts", second.getRef().getName() );
+        assertEquals( "3.3.2", second.getRef().getVersionString() );
+        assertEquals( "/@hawtio/core-dts/-/core-dts-3.3.2.tgz", second.getTarballPath() );
+        assertEquals( Collections.emptyMap(), second.getDependencies() );
+    }
+
+    @Test
+    public void streamIsLazyAndClosesInput()
+        throws Exception
+    {
+        final AtomicBoolean closed = new AtomicBoolean();
+        final CountingInput in = new CountingInput( PACKUMENT.getBytes( StandardCharsets.UTF_8 ), closed );
+        try (Stream<NpmPackumentReader.PackageVersion> stream = NpmPackumentReader.versions( in ))
+        {
+            assertEquals( "3.3.1", stream.findFirst().get().getRef().getVersionString() );
+            // the long readme after the versions was never reached.
+            assertTrue( in.read < PACKUMENT.length() / 2 );
+        }
+
+        assertTrue( closed.get() );
+    }
+
+    @Test
+    public void documentsWithoutVersions()
+        throws Exception
+    {
+        assertEquals( 0, NpmPackumentReader.versions( utf8( "{\"name\":\"a\",\"time\":{}}" ) ).count() );
+        assertEquals( 0, NpmPackumentReader.versions( utf8( "{\"versions\":[]}" ) ).count() );
+        assertEquals( 0, NpmPackumentReader.versions( utf8( "[]" ) ).count() );
+        assertEquals( 0, NpmPackumentReader.versions( utf8( "" ) ).count() );
+    }
+
+    @Test( expected = UncheckedIOException.class )
+    public void malformedDocument()
+        throws Exception
+    {
+        NpmPackumentReader.versions( utf8( "{\"versions\":{\"1.0.0\":{\"dist\":" ) ).count();
+    }
+
+    @Test
+    public void tarballPaths()
+    {
+        assertEquals( "/a/-/a-1.0.0.tgz", NpmPackumentReader.getTarballPath( "http://localhost:8080/a/-/a-1.0.0.tgz" ) );
+        assertEquals( "/", NpmPackumentReader.getTarballPath( "https://host" ) );
+        assertEquals( "a/-/a-1.0.0.tgz", NpmPackumentReader.getTarballPath( "a/-/a-1.0.0.tgz" ) );
+        assertNull( NpmPackumentReader.getTarballPath( null ) );
+    }
+
+    private static InputStream utf8( final String json )
+    {
+        return new ByteArrayInputStream( json.getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+    private static String repeat( final char c, final int count )
+    {
+        final char[] chars = new char[count];
+        Arrays.fill( chars, c );
+        return new String( chars );
+    }
+
+    private static final class CountingInput
+        extends ByteArrayInputStream
+    {
+        private final AtomicBoolean closed;
+
+        private int read;
+
+        CountingInput( final byte[] bytes, final AtomicBoolean closed )
+        {
+            super( bytes );
+            this.closed = closed;
+        }
+
+        @Override
+        public synchronized int read( final byte[] b, final int off, final int len )
+        {
+            // hand out small chunks, so the parser can't buffer the whole document at once.
+            final int n = super.read( b, off, Math.min( len, 64 ) );
+            read += Math.max( n, 0 );
+            return n;
+        }
+
+        @Override
+        public void close()
+        {
+            closed.set( true );
+        }
+    }
+}
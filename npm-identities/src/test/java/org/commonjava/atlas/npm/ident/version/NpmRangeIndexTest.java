@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.npm.ident.version;
+
+import com.github.zafarkhaja.semver.Version;
+import org.commonjava.atlas.npm.ident.ref.NpmPackageRef;
+import org.commonjava.atlas.npm.ident.ref.NpmProjectRef;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+public class NpmRangeIndexTest
+{
+    private static final String[] OPERATORS = { "", "^", "~", ">", ">=", "<", "<=" };
+
+    private static final String[] PRERELEASES = { "", "", "", "-beta.1", "-0" };
+
+    @Test
+    public void findDependentsAcceptingVersion()
+    {
+        final NpmProjectRef lodash = new NpmProjectRef( "lodash" );
+        final NpmPackageRef app = new NpmPackageRef( "app", "1.0.0" );
+        final NpmPackageRef lib = new NpmPackageRef( "lib", "2.1.0" );
+
+        final NpmRangeIndex index = new NpmRangeIndex();
+        index.add( app, lodash, "^4.17.0" );
+        index.add( lib, new NpmPackageRef( "lodash", "3.0.0" ), "3.x || >=4.17.21" );
+        index.add( lib, new NpmProjectRef( "underscore" ), "*" );
+
+        assertEquals( set( app, lib ), index.findAccepting( new NpmPackageRef( "lodash", "4.17.21" ) ) );
+        assertEquals( set( app ), index.findAccepting( lodash, Version.valueOf( "4.17.20" ) ) );
+        assertEquals( set( lib ), index.findAccepting( lodash, Version.valueOf( "5.0.0" ) ) );
+        assertEquals( set(), index.findAccepting( lodash, Version.valueOf( "4.18.0-rc.1" ) ) );
+
+        index.add( app, lodash, "^5.0.0" );
+        assertEquals( set( app, lib ), index.findAccepting( lodash, Version.valueOf( "5.0.0" ) ) );
+        assertEquals( 3, index.size() );
+
+        index.remove( lib, lodash );
+        assertEquals( set( app ), index.findAccepting( lodash, Version.valueOf( "5.0.0" ) ) );
+    }
+
+    @Test
+    public void matchesLinearScan()
+    {
+        final Random random = new Random( 19 );
+        final NpmProjectRef dependency = new NpmProjectRef( "dep" );
+        final NpmRangeIndex index = new NpmRangeIndex();
+        final Map<NpmPackageRef, NpmVersionRange> expected = new HashMap<NpmPackageRef, NpmVersionRange>();
+
+        for ( int i = 0; i < 3000; i++ )
+        {
+            final NpmPackageRef dependent = new NpmPackageRef( "pkg" + random.nextInt( 500 ), "1.0.0" );
+            if ( random.nextInt( 4 ) == 0 )
+            {
+                assertEquals( expected.remove( dependent ) != null, index.remove( dependent, dependency ) );
+                continue;
+            }
+
+            final StringBuilder range = new StringBuilder( comparator( random ) );
+            if ( random.nextBoolean() )
+            {
+                range.append( ' ' )
+                     .append( comparator( random ) );
+            }
+            if ( random.nextInt( 3 ) == 0 )
+            {
+                range.append( " || " )
+                     .append( comparator( random ) );
+            }
+
+            final NpmVersionRange parsed = NpmVersionRange.parse( range.toString() );
+            index.add( dependent, dependency, parsed );
+            expected.put( dependent, parsed );
+        }
+
+        assertEquals( expected.size(), index.size() );
+        for ( int i = 0; i < 500; i++ )
+        {
+            final Version version = Version.valueOf( random.nextInt( 4 ) + "." + random.nextInt( 4 ) + "."
+                + random.nextInt( 4 ) + PRERELEASES[random.nextInt( PRERELEASES.length )] );
+
+            final Set<NpmPackageRef> accepting = new HashSet<NpmPackageRef>();
+            for ( final Map.Entry<NpmPackageRef, NpmVersionRange> entry : expected.entrySet() )
+            {
+                if ( entry.getValue().contains( version ) )
+                {
+                    accepting.add( entry.getKey() );
+                }
+            }
+
+            assertEquals( version.toString(), accepting, index.findAccepting( dependency, version ) );
+        }
+    }
+
+    private static String comparator( final Random random )
+    {
+        final StringBuilder sb = new StringBuilder( OPERATORS[random.nextInt( OPERATORS.length )] );
+        sb.append( random.nextInt( 4 ) );
+        if ( random.nextInt( 4 ) > 0 )
+        {
+            sb.append( '.' )
+              .append( random.nextInt( 5 ) == 0 ? "x" : String.valueOf( random.nextInt( 4 ) ) );
+            if ( random.nextInt( 4 ) > 0 )
+            {
+                sb.append( '.' )
+                  .append( random.nextInt( 4 ) )
+                  .append( PRERELEASES[random.nextInt( PRERELEASES.length )] );
+            }
+        }
+
+        return sb.toString();
+    }
+
+    private static Set<NpmPackageRef> set( final NpmPackageRef... refs )
+    {
+        final Set<NpmPackageRef> result = new HashSet<NpmPackageRef>();
+        Collections.addAll( result, refs );
+        return result;
+    }
+}
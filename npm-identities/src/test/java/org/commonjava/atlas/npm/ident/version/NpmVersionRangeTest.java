@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.npm.ident.version;
+
+import com.github.zafarkhaja.semver.Version;
+import org.commonjava.atlas.npm.ident.ref.InvalidNpmRefException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class NpmVersionRangeTest
+{
+    // range, normalized form; taken from the npm semver documentation where it has examples.
+    private static final String[][] NORMALIZED = {
+        { "1.2.3 - 2.3.4", ">=1.2.3 <=2.3.4" },
+        { "1.2 - 2.3.4", ">=1.2.0 <=2.3.4" },
+        { "1.2.3 - 2.3", ">=1.2.3 <2.4.0-0" },
+        { "1.2.3 - 2", ">=1.2.3 <3.0.0-0" },
+        { "*", "*" },
+        { "", "*" },
+        { "1.x", ">=1.0.0 <2.0.0-0" },
+        { "1.2.x", ">=1.2.0 <1.3.0-0" },
+        { "~1.2.3", ">=1.2.3 <1.3.0-0" },
+        { "~1.2", ">=1.2.0 <1.3.0-0" },
+        { "~1", ">=1.0.0 <2.0.0-0" },
+        { "~0.2.3", ">=0.2.3 <0.3.0-0" },
+        { "~1.2.3-beta.2", ">=1.2.3-beta.2 <1.3.0-0" },
+        { "^1.2.3", ">=1.2.3 <2.0.0-0" },
+        { "^0.2.3", ">=0.2.3 <0.3.0-0" },
+        { "^0.0.3", ">=0.0.3 <0.0.4-0" },
+        { "^1.2.x", ">=1.2.0 <2.0.0-0" },
+        { "^0.0.x", ">=0.0.0 <0.1.0-0" },
+        { "^0.0", ">=0.0.0 <0.1.0-0" },
+        { "^1.x", ">=1.0.0 <2.0.0-0" },
+        { "^0.x", ">=0.0.0 <1.0.0-0" },
+        { ">1.2", ">=1.3.0" },
+        { "<=1.2", "<1.3.0-0" },
+        { ">= 1.2.3 < 2", ">=1.2.3 <2.0.0-0" },
+        { "=v1.2.3", ">=1.2.3 <=1.2.3" },
+        { "<1.0.0 || >=1.0.0", "*" },
+        { "^1.0.0 || ^1.5.0 || ^3.0.0", ">=1.0.0 <2.0.0-0 || >=3.0.0 <4.0.0-0" },
+        { "1.x || >=2.5.0 || 5.0.0 - 7.2.3", ">=1.0.0 <2.0.0-0 || >=2.5.0" },
+        { ">2.0.0 <2.0.0", "<0.0.0-0" },
+        { "<*", "<0.0.0-0" },
+    };
+
+    @Test
+    public void normalizeRanges()
+    {
+        for ( final String[] pair : NORMALIZED )
+        {
+            assertEquals( pair[0], pair[1], NpmVersionRange.parse( pair[0] ).toString() );
+        }
+    }
+
+    @Test
+    public void prereleasesOnlyMatchTheirOwnVersion()
+    {
+        final NpmVersionRange range = NpmVersionRange.parse( ">1.2.3-alpha.3" );
+        assertTrue( range.contains( Version.valueOf( "1.2.3-alpha.7" ) ) );
+        assertTrue( range.contains( Version.valueOf( "3.4.5" ) ) );
+        assertFalse( range.contains( Version.valueOf( "3.4.5-alpha.9" ) ) );
+        assertFalse( range.contains( Version.valueOf( "1.2.3-alpha.3" ) ) );
+
+        // the prerelease of one comparator set doesn't let prereleases into another.
+        final NpmVersionRange union = NpmVersionRange.parse( "1.0.0-beta || >=0.5.0 <2.0.0" );
+        assertFalse( union.contains( Version.valueOf( "1.0.0-alpha" ) ) );
+        assertTrue( union.contains( Version.valueOf( "1.0.0-beta" ) ) );
+        assertTrue( union.contains( Version.valueOf( "1.5.0" ) ) );
+        assertFalse( NpmVersionRange.parse( "^1.2.3" ).contains( Version.valueOf( "1.5.0-rc.1" ) ) );
+    }
+
+    @Test
+    public void rejectInvalidRanges()
+    {
+        for ( final String range : new String[] { "1.2.3 -", "abc", ">=", "1.2.3-", "1.x-beta", "1..2", "^1.2.3 ~" } )
+        {
+            try
+            {
+                NpmVersionRange.parse( range );
+                fail( "Should not parse: '" + range + "'" );
+            }
+            catch ( final InvalidNpmRefException e )
+            {
+                // expected
+            }
+        }
+    }
+}
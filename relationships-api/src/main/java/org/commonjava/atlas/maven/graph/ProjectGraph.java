@@ -0,0 +1,541 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.commonjava.atlas.maven.graph.model.EProjectDirectRelationships;
+import org.commonjava.atlas.maven.graph.rel.DependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.ParentRelationship;
+import org.commonjava.atlas.maven.graph.rel.PluginDependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+import org.commonjava.atlas.maven.graph.rel.RelationshipType;
+import org.commonjava.atlas.maven.ident.DependencyScope;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+
+/**
+ * Immutable, in-memory graph of projects and the relationships between them, laid out for size and traversal speed.
+ * Every project (by {@link ProjectVersionRef}, so artifact targets count as their project) gets a dense int ID, and
+ * the relationships are stored as edges in compressed sparse row form: for each node, its outgoing edges sit next to
+ * each other in primitive arrays, in the order they were added, and a second set of arrays indexes the same edges by
+ * target for reverse traversal. Each edge is its target ID plus one short holding the relationship type, dependency
+ * scope and the managed / inherited / optional / mixin flags; other relationship details (sources, POM location,
+ * artifact type and classifier, the plugin of a plugin dependency) are not kept.
+ * <p/>
+ * Edges are addressed by their position (0 to {@link #getEdgeCount()} - 1), which is what {@link EdgeVisitor}s get,
+ * so walking the graph doesn't allocate anything per edge. Graphs are built with a {@link Builder}.
+ */
+public final class ProjectGraph
+{
+
+    private static final int TYPE_BITS = 3;
+
+    private static final int TYPE_MASK = ( 1 << TYPE_BITS ) - 1;
+
+    private static final int SCOPE_SHIFT = TYPE_BITS;
+
+    private static final int SCOPE_MASK = 0xF;
+
+    private static final int MANAGED = 1 << 7;
+
+    private static final int INHERITED = 1 << 8;
+
+    private static final int OPTIONAL = 1 << 9;
+
+    private static final int MIXIN = 1 << 10;
+
+    private static final RelationshipType[] TYPES = RelationshipType.values();
+
+    private static final DependencyScope[] SCOPES = DependencyScope.values();
+
+    /**
+     * Called for each edge of a traversal.
+     */
+    public interface EdgeVisitor
+    {
+        /**
+         * @param declaring the node ID of the project declaring the relationship
+         * @param target the node ID of the relationship's target
+         * @param edge the edge, for looking up its type and flags on the graph
+         * @return whether to go on: for {@link ProjectGraph#forEachOutgoing(int, EdgeVisitor)} and
+         *         {@link ProjectGraph#forEachIncoming(int, EdgeVisitor)}, false stops the iteration; for
+         *         {@link ProjectGraph#reachable(int, boolean, EdgeVisitor)}, false means this edge isn't followed.
+         */
+        boolean visit( int declaring, int target, int edge );
+    }
+
+    private final ProjectVersionRef[] refs;
+
+    private final int[] idTable;
+
+    private final int[] offsets;
+
+    private final int[] targets;
+
+    private final short[] flags;
+
+    private final int[] reverseOffsets;
+
+    private final int[] reverseSources;
+
+    private final int[] reverseEdges;
+
+    private ProjectGraph( final Builder builder )
+    {
+        final int nodes = builder.nodeCount;
+        final int edges = builder.edgeCount;
+
+        refs = Arrays.copyOf( builder.refs, nodes );
+        idTable = builder.idTable.clone();
+
+        // forward rows, keeping the order edges were added in within each row.
+        offsets = new int[nodes + 1];
+        for ( int e = 0; e < edges; e++ )
+        {
+            offsets[builder.sources[e] + 1]++;
+        }
+        for ( int n = 0; n < nodes; n++ )
+        {
+            offsets[n + 1] += offsets[n];
+        }
+
+        targets = new int[edges];
+        flags = new short[edges];
+        final int[] next = Arrays.copyOf( offsets, nodes );
+        for ( int e = 0; e < edges; e++ )
+        {
+            final int pos = next[builder.sources[e]]++;
+            targets[pos] = builder.targets[e];
+            flags[pos] = builder.flags[e];
+        }
+
+        // reverse rows, ordered by declaring node.
+        reverseOffsets = new int[nodes + 1];
+        for ( int e = 0; e < edges; e++ )
+        {
+            reverseOffsets[targets[e] + 1]++;
+        }
+        for ( int n = 0; n < nodes; n++ )
+        {
+            reverseOffsets[n + 1] += reverseOffsets[n];
+        }
+
+        reverseSources = new int[edges];
+        reverseEdges = new int[edges];
+        System.arraycopy( reverseOffsets, 0, next, 0, nodes );
+        for ( int n = 0; n < nodes; n++ )
+        {
+            for ( int e = offsets[n]; e < offsets[n + 1]; e++ )
+            {
+                final int pos = next[targets[e]]++;
+                reverseSources[pos] = n;
+                reverseEdges[pos] = e;
+            }
+        }
+    }
+
+    public int getNodeCount()
+    {
+        return refs.length;
+    }
+
+    public int getEdgeCount()
+    {
+        return targets.length;
+    }
+
+    public ProjectVersionRef getRef( final int node )
+    {
+        return refs[node];
+    }
+
+    /**
+     * @return the node ID of the project, or -1 if it isn't in the graph
+     */
+    public int getId( final ProjectVersionRef ref )
+    {
+        return find( refs, idTable, ref.asProjectVersionRef() );
+    }
+
+    public int getOutDegree( final int node )
+    {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    public int getInDegree( final int node )
+    {
+        return reverseOffsets[node + 1] - reverseOffsets[node];
+    }
+
+    /**
+     * @return the node declaring the relationship of the edge (found by binary search over the rows)
+     */
+    public int getDeclaring( final int edge )
+    {
+        if ( edge < 0 || edge >= targets.length )
+        {
+            throw new IndexOutOfBoundsException( "Edge: " + edge + ", edges: " + targets.length );
+        }
+
+        int lo = 0;
+        int hi = refs.length - 1;
+        while ( lo < hi )
+        {
+            final int mid = ( lo + hi + 1 ) >>> 1;
+            if ( offsets[mid] <= edge )
+            {
+                lo = mid;
+            }
+            else
+            {
+                hi = mid - 1;
+            }
+        }
+
+        return lo;
+    }
+
+    public int getTarget( final int edge )
+    {
+        return targets[edge];
+    }
+
+    public RelationshipType getType( final int edge )
+    {
+        return TYPES[flags[edge] & TYPE_MASK];
+    }
+
+    /**
+     * @return the scope of a {@link RelationshipType#DEPENDENCY} edge, or null if it has none; always null for other
+     *         edge types, including {@link RelationshipType#PLUGIN_DEP} (plugin dependencies don't carry a scope)
+     */
+    public DependencyScope getScope( final int edge )
+    {
+        final int scope = ( flags[edge] >>> SCOPE_SHIFT ) & SCOPE_MASK;
+        return scope == 0 ? null : SCOPES[scope - 1];
+    }
+
+    public boolean isManaged( final int edge )
+    {
+        return ( flags[edge] & MANAGED ) != 0;
+    }
+
+    public boolean isInherited( final int edge )
+    {
+        return ( flags[edge] & INHERITED ) != 0;
+    }
+
+    public boolean isOptional( final int edge )
+    {
+        return ( flags[edge] & OPTIONAL ) != 0;
+    }
+
+    public boolean isMixin( final int edge )
+    {
+        return ( flags[edge] & MIXIN ) != 0;
+    }
+
+    /**
+     * Visit the relationships the node declares, in the order they were added.
+     *
+     * @return false if the visitor stopped the iteration
+     */
+    public boolean forEachOutgoing( final int node, final EdgeVisitor visitor )
+    {
+        for ( int e = offsets[node], end = offsets[node + 1]; e < end; e++ )
+        {
+            if ( !visitor.visit( node, targets[e], e ) )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Visit the relationships targeting the node, by declaring node ID.
+     *
+     * @return false if the visitor stopped the iteration
+     */
+    public boolean forEachIncoming( final int node, final EdgeVisitor visitor )
+    {
+        for ( int i = reverseOffsets[node], end = reverseOffsets[node + 1]; i < end; i++ )
+        {
+            if ( !visitor.visit( reverseSources[i], node, reverseEdges[i] ) )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Breadth-first walk from a node, following the edges the filter accepts (or all of them, if the filter is null).
+     * Going forward follows edges from declaring node to target; in reverse, from target to declaring node, which
+     * finds everything that (transitively) uses the root.
+     *
+     * @return the IDs of the nodes reached, including the root
+     */
+    public BitSet reachable( final int root, final boolean reverse, final EdgeVisitor filter )
+    {
+        final BitSet seen = new BitSet( refs.length );
+        final int[] queue = new int[refs.length];
+        int head = 0;
+        int tail = 0;
+
+        seen.set( root );
+        queue[tail++] = root;
+        while ( head < tail )
+        {
+            final int node = queue[head++];
+            if ( reverse )
+            {
+                for ( int i = reverseOffsets[node], end = reverseOffsets[node + 1]; i < end; i++ )
+                {
+                    final int declaring = reverseSources[i];
+                    if ( !seen.get( declaring ) && ( filter == null || filter.visit( declaring, node, reverseEdges[i] ) ) )
+                    {
+                        seen.set( declaring );
+                        queue[tail++] = declaring;
+                    }
+                }
+            }
+            else
+            {
+                for ( int e = offsets[node], end = offsets[node + 1]; e < end; e++ )
+                {
+                    final int target = targets[e];
+                    if ( !seen.get( target ) && ( filter == null || filter.visit( node, target, e ) ) )
+                    {
+                        seen.set( target );
+                        queue[tail++] = target;
+                    }
+                }
+            }
+        }
+
+        return seen;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ProjectGraph [nodes=" + refs.length + ", edges=" + targets.length + "]";
+    }
+
+    private static int find( final ProjectVersionRef[] refs, final int[] table, final ProjectVersionRef ref )
+    {
+        final int mask = table.length - 1;
+        for ( int slot = spread( ref.hashCode() ) & mask; ; slot = ( slot + 1 ) & mask )
+        {
+            final int id = table[slot] - 1;
+            if ( id < 0 )
+            {
+                return -1;
+            }
+            else if ( refs[id].equals( ref ) )
+            {
+                return id;
+            }
+        }
+    }
+
+    private static int spread( final int hash )
+    {
+        return hash ^ ( hash >>> 16 );
+    }
+
+    /**
+     * Collects projects and relationships. The relationships are held as three primitive values each until
+     * {@link #build()} sorts them into rows, so loading doesn't keep any relationship objects. A builder can go on
+     * being used after building; graphs built from it are snapshots.
+     */
+    public static final class Builder
+    {
+        private ProjectVersionRef[] refs = new ProjectVersionRef[64];
+
+        private int[] idTable = new int[128];
+
+        private int nodeCount;
+
+        private int[] sources = new int[256];
+
+        private int[] targets = new int[256];
+
+        private short[] flags = new short[256];
+
+        private int edgeCount;
+
+        /**
+         * @return the node ID of the project, adding it if it's new. (Artifacts are added as their project.)
+         */
+        public int addNode( final ProjectVersionRef ref )
+        {
+            final ProjectVersionRef project = ref.asProjectVersionRef();
+            final int mask = idTable.length - 1;
+            int slot = spread( project.hashCode() ) & mask;
+            while ( idTable[slot] != 0 )
+            {
+                if ( refs[idTable[slot] - 1].equals( project ) )
+                {
+                    return idTable[slot] - 1;
+                }
+                slot = ( slot + 1 ) & mask;
+            }
+
+            if ( nodeCount == refs.length )
+            {
+                refs = Arrays.copyOf( refs, nodeCount * 2 );
+            }
+
+            final int id = nodeCount++;
+            refs[id] = project;
+            idTable[slot] = id + 1;
+
+            // keep the table at most half full.
+            if ( nodeCount * 2 > idTable.length )
+            {
+                rehash( idTable.length * 2 );
+            }
+
+            return id;
+        }
+
+        /**
+         * Add the relationship as an edge. Terminal parent relationships (a project naming itself as parent, which is
+         * how a project without a parent is marked) only add the node.
+         */
+        public Builder add( final ProjectRelationship<?, ?> rel )
+        {
+            final int declaring = addNode( rel.getDeclaring() );
+            if ( rel instanceof ParentRelationship && ( (ParentRelationship) rel ).isTerminus() )
+            {
+                return this;
+            }
+
+            final int target = addNode( rel.getTarget() );
+
+            int bits = rel.getType().ordinal();
+            DependencyScope scope = null;
+            if ( rel instanceof DependencyRelationship )
+            {
+                final DependencyRelationship dep = (DependencyRelationship) rel;
+                scope = dep.getScope();
+                if ( dep.isOptional() )
+                {
+                    bits |= OPTIONAL;
+                }
+            }
+            if ( scope != null )
+            {
+                bits |= ( scope.ordinal() + 1 ) << SCOPE_SHIFT;
+            }
+            if ( rel.isManaged() )
+            {
+                bits |= MANAGED;
+            }
+            if ( rel.isInherited() )
+            {
+                bits |= INHERITED;
+            }
+            if ( rel.isMixin() )
+            {
+                bits |= MIXIN;
+            }
+
+            if ( edgeCount == sources.length )
+            {
+                final int size = edgeCount + ( edgeCount >> 1 );
+                sources = Arrays.copyOf( sources, size );
+                targets = Arrays.copyOf( targets, size );
+                flags = Arrays.copyOf( flags, size );
+            }
+
+            sources[edgeCount] = declaring;
+            targets[edgeCount] = target;
+            flags[edgeCount] = (short) bits;
+            edgeCount++;
+
+            return this;
+        }
+
+        public Builder addAll( final Collection<? extends ProjectRelationship<?, ?>> rels )
+        {
+            for ( final ProjectRelationship<?, ?> rel : rels )
+            {
+                add( rel );
+            }
+
+            return this;
+        }
+
+        /**
+         * Add the project and its relationships, in declaration order: parent, BOMs, dependencies, managed
+         * dependencies, plugins, managed plugins, extensions and plugin dependencies.
+         */
+        public Builder add( final EProjectDirectRelationships rels )
+        {
+            addNode( rels.getProjectRef() );
+            if ( rels.getParent() != null )
+            {
+                add( rels.getParent() );
+            }
+
+            addAll( rels.getBoms() );
+            addAll( rels.getDependencies() );
+            addAll( rels.getManagedDependencies() );
+            addAll( rels.getPlugins() );
+            addAll( rels.getManagedPlugins() );
+            addAll( rels.getExtensions() );
+            for ( final Map.Entry<?, List<PluginDependencyRelationship>> entry : rels.getPluginDependencies()
+                                                                                      .entrySet() )
+            {
+                addAll( entry.getValue() );
+            }
+
+            return this;
+        }
+
+        public ProjectGraph build()
+        {
+            return new ProjectGraph( this );
+        }
+
+        private void rehash( final int size )
+        {
+            final int[] table = new int[size];
+            final int mask = size - 1;
+            for ( int id = 0; id < nodeCount; id++ )
+            {
+                int slot = spread( refs[id].hashCode() ) & mask;
+                while ( table[slot] != 0 )
+                {
+                    slot = ( slot + 1 ) & mask;
+                }
+                table[slot] = id + 1;
+            }
+
+            idTable = table;
+        }
+    }
+
+}
@@ -30,12 +30,11 @@ import org.commonjava.atlas.maven.graph.rel.SimplePluginRelationship;
 import org.commonjava.atlas.maven.ident.ref.ArtifactRef;
 import org.commonjava.atlas.maven.ident.ref.ProjectRef;
 import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.RefInterner;
 import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
 import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
 import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
 import org.commonjava.atlas.maven.ident.DependencyScope;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.URI;
@@ -43,6 +42,10 @@ import java.net.URISyntaxException;
 import java.util.*;
 
 /**
+ * Reads the fields of a relationship straight off the parser, in whatever order they come, and builds the relationship
+ * once the object ends. Graph dumps tend to repeat the same declaring ref, POM location and source URI many times in a
+ * row, so the last one of each that was parsed is kept and reused when the next relationship has the same value.
+ * <p/>
  * Created by jdcasey on 8/26/15.
  */
 @SuppressWarnings( { "rawtypes", "unchecked" } )
@@ -51,157 +54,146 @@ public final class ProjectRelationshipDeserializer<T extends ProjectRelationship
 {
     private static final long serialVersionUID = 1L;
 
+    private final transient RefInterner interner;
+
+    private transient volatile Memo<ProjectVersionRef> lastDeclaring;
+
+    private transient volatile Memo<URI> lastPomLocation;
+
+    private transient volatile Memo<URI> lastSource;
+
     public ProjectRelationshipDeserializer()
+    {
+        this( null );
+    }
+
+    /**
+     * @param interner used to intern the parsed refs; if null, refs are interned in the shared {@link RefInterner}
+     *            when that's enabled
+     */
+    public ProjectRelationshipDeserializer( final RefInterner interner )
     {
         super( ProjectRelationship.class );
+        this.interner = interner;
     }
 
     @Override
     public T deserialize( final JsonParser jp, final DeserializationContext ctx )
             throws JsonProcessingException, IOException
     {
-        Map<String, Object> ast = new HashMap<String, Object>();
-        Map<String, JsonLocation> locations = new HashMap<String, JsonLocation>();
+        String typeName = null;
+        URI pomLocation = RelationshipConstants.POM_ROOT_URI;
+        Collection<URI> sources = new HashSet<URI>();
+        String decl = null;
+        String tgt = null;
+        String plug = null;
+        String scp = null;
+        int index = 0;
+        boolean managed = false;
+        boolean inherited = false;
+        boolean mixin = false;
+        boolean optional = false;
+        boolean report = false;
 
         JsonToken token = jp.getCurrentToken();
-        String currentField = null;
-        List<String> currentArry = null;
+        if ( token == JsonToken.START_OBJECT )
+        {
+            token = jp.nextToken();
+        }
 
-        Logger logger = LoggerFactory.getLogger( getClass() );
-        do
+        for ( ; token == JsonToken.FIELD_NAME; token = jp.nextToken() )
         {
-            //                logger.info( "Token: {}", token );
-            switch ( token )
+            final String field = jp.getCurrentName();
+            token = jp.nextToken();
+            switch ( field )
             {
-                case START_ARRAY:
-                {
-                    //                        logger.info( "Starting array for field: {}", currentField );
-                    currentArry = new ArrayList<String>();
-                    break;
-                }
-                case END_ARRAY:
-                    //                        logger.info( "Ending array for field: {}", currentField );
-                    locations.put( currentField, jp.getCurrentLocation() );
-                    ast.put( currentField, currentArry );
-                    currentArry = null;
+                case SerializationConstants.RELATIONSHIP_TYPE:
+                    typeName = stringValue( jp, token, typeName );
                     break;
-                case FIELD_NAME:
-                    currentField = jp.getCurrentName();
+                case SerializationConstants.POM_LOCATION_URI:
+                    if ( token == JsonToken.VALUE_STRING )
+                    {
+                        final Memo<URI> memo = uri( jp, lastPomLocation, SerializationConstants.POM_LOCATION_URI );
+                        lastPomLocation = memo;
+                        pomLocation = memo.value;
+                    }
                     break;
-                case VALUE_STRING:
-                    if ( currentArry != null )
+                case SerializationConstants.SOURCE_URIS:
+                    if ( token == JsonToken.START_ARRAY )
                     {
-                        currentArry.add( jp.getText() );
+                        readSources( jp, sources );
                     }
-                    else
+                    break;
+                case SerializationConstants.DECLARING_REF:
+                    decl = stringValue( jp, token, decl );
+                    break;
+                case SerializationConstants.TARGET_REF:
+                    tgt = stringValue( jp, token, tgt );
+                    break;
+                case SerializationConstants.PLUGIN_REF:
+                    plug = stringValue( jp, token, plug );
+                    break;
+                case SerializationConstants.SCOPE:
+                    scp = stringValue( jp, token, scp );
+                    break;
+                case SerializationConstants.INDEX:
+                    if ( token == JsonToken.VALUE_NUMBER_INT )
                     {
-                        locations.put( currentField, jp.getCurrentLocation() );
-                        ast.put( currentField, jp.getText() );
+                        index = jp.getIntValue();
                     }
                     break;
-                case VALUE_NUMBER_INT:
-                    locations.put( currentField, jp.getCurrentLocation() );
-                    ast.put( currentField, jp.getIntValue() );
+                // handle null and non-boolean values implicitly by comparing to true.
+                case SerializationConstants.MANAGED:
+                    managed = token == JsonToken.VALUE_TRUE;
+                    break;
+                case SerializationConstants.INHERITED:
+                    inherited = token == JsonToken.VALUE_TRUE;
                     break;
-                case VALUE_NUMBER_FLOAT:
-                    locations.put( currentField, jp.getCurrentLocation() );
-                    ast.put( currentField, jp.getFloatValue() );
+                case SerializationConstants.MIXIN:
+                    mixin = token == JsonToken.VALUE_TRUE;
                     break;
-                case VALUE_TRUE:
-                    locations.put( currentField, jp.getCurrentLocation() );
-                    ast.put( currentField, Boolean.TRUE );
+                case SerializationConstants.OPTIONAL:
+                    optional = token == JsonToken.VALUE_TRUE;
                     break;
-                case VALUE_FALSE:
-                    locations.put( currentField, jp.getCurrentLocation() );
-                    ast.put( currentField, Boolean.FALSE );
+                case SerializationConstants.REPORTING:
+                    report = token == JsonToken.VALUE_TRUE;
                     break;
+                default:
+                    jp.skipChildren();
             }
-
-            token = jp.nextToken();
         }
-        while ( token != JsonToken.END_OBJECT );
 
-        StringBuilder sb = new StringBuilder();
-        sb.append( "AST is:" );
-        for ( String field : ast.keySet() )
+        if ( token != JsonToken.END_OBJECT )
         {
-            Object value = ast.get( field );
-            sb.append( "\n  " ).append( field ).append( " = " );
-            if ( value == null )
-            {
-                sb.append( "null" );
-            }
-            else
-            {
-                sb.append( value ).append( "  (type: " ).append( value.getClass().getSimpleName() ).append( ")" );
-            }
+            throw new JsonParseException( "Expected a field or the end of the relationship, but found: " + token,
+                                          jp.getCurrentLocation() );
         }
 
-        logger.debug( sb.toString() );
-
-        final RelationshipType type = RelationshipType.getType( (String) ast.get( SerializationConstants.RELATIONSHIP_TYPE ) );
-
-        final String uri = (String) ast.get( SerializationConstants.POM_LOCATION_URI );
-        URI pomLocation;
-        if ( uri == null )
+        final RelationshipType type = RelationshipType.getType( typeName );
+        if ( type == null )
         {
-            pomLocation = RelationshipConstants.POM_ROOT_URI;
-        }
-        else
-        {
-            try
-            {
-                pomLocation = new URI( uri );
-            }
-            catch ( final URISyntaxException e )
-            {
-                throw new JsonParseException( "Invalid " + SerializationConstants.POM_LOCATION_URI + ": '" + uri + "': " + e.getMessage(),
-                                              locations.get( SerializationConstants.POM_LOCATION_URI ), e );
-            }
+            throw new JsonParseException( "Invalid or missing relationship type (field: "
+                                                  + SerializationConstants.RELATIONSHIP_TYPE + "): " + typeName,
+                                          jp.getCurrentLocation() );
         }
 
-        Collection<URI> sources = new HashSet<URI>();
-        List<String> srcs = (List<String>) ast.get( SerializationConstants.SOURCE_URIS );
-        if ( srcs != null )
+        if ( decl == null || tgt == null )
         {
-            for ( String u : srcs )
-            {
-                try
-                {
-                    sources.add( new URI( u ) );
-                }
-                catch ( URISyntaxException e )
-                {
-                    throw new JsonParseException( "Failed to parse source URI: " + u,
-                                                  locations.get( SerializationConstants.SOURCE_URIS ) );
-                }
-            }
+            throw new JsonParseException( "No " + ( decl == null ? "declaring" : "target" ) + " reference (field: "
+                                                  + ( decl == null ? SerializationConstants.DECLARING_REF
+                                                                  : SerializationConstants.TARGET_REF )
+                                                  + ") found in relationship!", jp.getCurrentLocation() );
         }
 
-        String decl = (String) ast.get( SerializationConstants.DECLARING_REF );
-        final ProjectVersionRef declaring = SimpleProjectVersionRef.parse( decl );
-
-        String tgt = (String) ast.get( SerializationConstants.TARGET_REF );
-        Integer index = (Integer) ast.get( SerializationConstants.INDEX );
-        if ( index == null )
-        {
-            index = 0;
-        }
-
-        // handle null implicitly by comparing to true.
-        boolean managed = Boolean.TRUE.equals( ast.get( SerializationConstants.MANAGED ) );
-        boolean inherited = Boolean.TRUE.equals( ast.get( SerializationConstants.INHERITED ) );
-        boolean mixin = Boolean.TRUE.equals( ast.get( SerializationConstants.MIXIN ) );
-        boolean optional = Boolean.TRUE.equals( ast.get( SerializationConstants.OPTIONAL ) );
+        final ProjectVersionRef declaring = declaring( decl );
 
         ProjectRelationship<?, ?> rel = null;
         switch ( type )
         {
             case DEPENDENCY:
             {
-                final ArtifactRef target = SimpleArtifactRef.parse( tgt );
+                final ArtifactRef target = SimpleArtifactRef.parse( tgt, refInterner() );
 
-                String scp = (String) ast.get( SerializationConstants.SCOPE );
                 final DependencyScope scope;
                 if ( scp == null )
                 {
@@ -218,30 +210,28 @@ public final class ProjectRelationshipDeserializer<T extends ProjectRelationship
             }
             case EXTENSION:
             {
-                final ProjectVersionRef target = SimpleProjectVersionRef.parse( tgt );
+                final ProjectVersionRef target = SimpleProjectVersionRef.parse( tgt, refInterner() );
 
                 rel = new SimpleExtensionRelationship( sources, pomLocation, declaring, target, index, inherited );
                 break;
             }
             case PARENT:
             {
-                final ProjectVersionRef target = SimpleProjectVersionRef.parse( tgt );
+                final ProjectVersionRef target = SimpleProjectVersionRef.parse( tgt, refInterner() );
 
                 rel = new SimpleParentRelationship( sources, declaring, target );
                 break;
             }
             case PLUGIN:
             {
-                final ProjectVersionRef target = SimpleProjectVersionRef.parse( tgt );
+                final ProjectVersionRef target = SimpleProjectVersionRef.parse( tgt, refInterner() );
 
-                Boolean report = (Boolean) ast.get( SerializationConstants.REPORTING );
-                rel = new SimplePluginRelationship( sources, pomLocation, declaring, target, index, managed,
-                                                    Boolean.TRUE.equals( report ), inherited );
+                rel = new SimplePluginRelationship( sources, pomLocation, declaring, target, index, managed, report,
+                                                    inherited );
                 break;
             }
             case PLUGIN_DEP:
             {
-                String plug = (String) ast.get( SerializationConstants.PLUGIN_REF );
                 if ( plug == null )
                 {
                     throw new JsonParseException( "No plugin reference (field: " + SerializationConstants.PLUGIN_REF
@@ -249,8 +239,8 @@ public final class ProjectRelationshipDeserializer<T extends ProjectRelationship
                                                   jp.getCurrentLocation() );
                 }
 
-                final ProjectRef plugin = SimpleProjectRef.parse( plug );
-                final ArtifactRef target = SimpleArtifactRef.parse( tgt );
+                final ProjectRef plugin = SimpleProjectRef.parse( plug, refInterner() );
+                final ArtifactRef target = SimpleArtifactRef.parse( tgt, refInterner() );
 
                 rel = new SimplePluginDependencyRelationship( sources, pomLocation, declaring, plugin, target,
                                                               index, managed, inherited );
@@ -258,7 +248,7 @@ public final class ProjectRelationshipDeserializer<T extends ProjectRelationship
             }
             case BOM:
             {
-                final ProjectVersionRef target = SimpleProjectVersionRef.parse( tgt );
+                final ProjectVersionRef target = SimpleProjectVersionRef.parse( tgt, refInterner() );
 
                 rel = new SimpleBomRelationship( sources, pomLocation, declaring, target, index, inherited, mixin );
                 break;
@@ -267,4 +257,86 @@ public final class ProjectRelationshipDeserializer<T extends ProjectRelationship
 
         return (T) rel;
     }
+
+    private void readSources( final JsonParser jp, final Collection<URI> sources )
+            throws IOException
+    {
+        JsonToken token;
+        while ( ( token = jp.nextToken() ) != JsonToken.END_ARRAY )
+        {
+            if ( token == JsonToken.VALUE_STRING )
+            {
+                final Memo<URI> memo = uri( jp, lastSource, SerializationConstants.SOURCE_URIS );
+                lastSource = memo;
+                sources.add( memo.value );
+            }
+            else
+            {
+                jp.skipChildren();
+            }
+        }
+    }
+
+    private ProjectVersionRef declaring( final String decl )
+    {
+        final Memo<ProjectVersionRef> last = lastDeclaring;
+        if ( last != null && last.key.equals( decl ) )
+        {
+            return last.value;
+        }
+
+        final ProjectVersionRef declaring = SimpleProjectVersionRef.parse( decl, refInterner() );
+        lastDeclaring = new Memo<ProjectVersionRef>( decl, declaring );
+        return declaring;
+    }
+
+    private RefInterner refInterner()
+    {
+        return interner == null ? RefInterner.getShared() : interner;
+    }
+
+    private static Memo<URI> uri( final JsonParser jp, final Memo<URI> last, final String field )
+            throws IOException
+    {
+        final String value = jp.getText();
+        if ( last != null && last.key.equals( value ) )
+        {
+            return last;
+        }
+
+        try
+        {
+            return new Memo<URI>( value, new URI( value ) );
+        }
+        catch ( final URISyntaxException e )
+        {
+            throw new JsonParseException( "Invalid " + field + ": '" + value + "': " + e.getMessage(),
+                                          jp.getCurrentLocation(), e );
+        }
+    }
+
+    private static String stringValue( final JsonParser jp, final JsonToken token, final String current )
+            throws IOException
+    {
+        if ( token == JsonToken.VALUE_STRING )
+        {
+            return jp.getText();
+        }
+
+        jp.skipChildren();
+        return current;
+    }
+
+    private static final class Memo<V>
+    {
+        private final String key;
+
+        private final V value;
+
+        Memo( final String key, final V value )
+        {
+            this.key = key;
+            this.value = value;
+        }
+    }
 }
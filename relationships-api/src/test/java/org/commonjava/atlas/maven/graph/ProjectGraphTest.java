@@ -0,0 +1,326 @@
+/**
+ * Copyright (C) 2012-2022 Red Hat, Inc. (nos-devel@redhat.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.commonjava.atlas.maven.graph;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.commonjava.atlas.maven.graph.model.EProjectDirectRelationships;
+import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+import org.commonjava.atlas.maven.graph.rel.RelationshipType;
+import org.commonjava.atlas.maven.graph.rel.SimpleBomRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimpleDependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimpleParentRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimplePluginRelationship;
+import org.commonjava.atlas.maven.ident.DependencyScope;
+import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
+import org.junit.Test;
+
+public class ProjectGraphTest
+{
+
+    private static final URI SOURCE = URI.create( "test:source" );
+
+    private final ProjectVersionRef app = new SimpleProjectVersionRef( "org.foo", "app", "1.0" );
+
+    private final ProjectVersionRef parent = new SimpleProjectVersionRef( "org.foo", "parent", "3" );
+
+    private final ProjectVersionRef lib = new SimpleProjectVersionRef( "org.foo", "lib", "2.0" );
+
+    private final ProjectVersionRef junit = new SimpleProjectVersionRef( "junit", "junit", "4.13" );
+
+    private final ProjectVersionRef bom = new SimpleProjectVersionRef( "org.foo", "bom", "1" );
+
+    @Test
+    public void loadProjectRelationships()
+    {
+        final ProjectGraph graph = new ProjectGraph.Builder().add( appRelationships() )
+                                                             .add( new SimpleParentRelationship( parent ) )
+                                                             .add( new SimpleDependencyRelationship( SOURCE, lib,
+                                                                                                     new SimpleArtifactRef( junit, "jar", null ),
+                                                                                                     DependencyScope.test,
+                                                                                                     0, false, false,
+                                                                                                     false ) )
+                                                             .build();
+
+        // the terminal parent of 'parent' adds no edge, and the sources jar of lib is the lib node.
+        assertThat( graph.getNodeCount(), equalTo( 5 ) );
+        assertThat( graph.getEdgeCount(), equalTo( 6 ) );
+
+        final int appId = graph.getId( app );
+        assertThat( graph.getRef( appId ), equalTo( app ) );
+        assertThat( graph.getId( new SimpleProjectVersionRef( "org.foo", "none", "1" ) ), equalTo( -1 ) );
+        assertThat( graph.getOutDegree( appId ), equalTo( 5 ) );
+
+        final List<String> edges = new ArrayList<String>();
+        graph.forEachOutgoing( appId, new ProjectGraph.EdgeVisitor()
+        {
+            @Override
+            public boolean visit( final int declaring, final int target, final int edge )
+            {
+                edges.add( describe( graph, declaring, target, edge ) );
+                return true;
+            }
+        } );
+
+        assertThat( edges, equalTo( Arrays.asList( "app -> parent PARENT",
+                                                   "app -> bom BOM mixin",
+                                                   "app -> lib DEPENDENCY optional compile",
+                                                   "app -> junit DEPENDENCY managed test",
+                                                   "app -> lib PLUGIN managed inherited" ) ) );
+
+        final int junitId = graph.getId( junit );
+        final List<String> incoming = new ArrayList<String>();
+        graph.forEachIncoming( junitId, new ProjectGraph.EdgeVisitor()
+        {
+            @Override
+            public boolean visit( final int declaring, final int target, final int edge )
+            {
+                incoming.add( describe( graph, declaring, target, edge ) );
+                assertThat( graph.getDeclaring( edge ), equalTo( declaring ) );
+                return true;
+            }
+        } );
+
+        assertThat( incoming, equalTo( Arrays.asList( "app -> junit DEPENDENCY managed test",
+                                                      "lib -> junit DEPENDENCY test" ) ) );
+        assertThat( graph.getInDegree( junitId ), equalTo( 2 ) );
+        assertThat( graph.getOutDegree( graph.getId( parent ) ), equalTo( 0 ) );
+    }
+
+    @Test
+    public void reachableWithFilter()
+    {
+        final ProjectGraph graph = new ProjectGraph.Builder().add( appRelationships() )
+                                                             .add( new SimpleDependencyRelationship( SOURCE, lib,
+                                                                                                     new SimpleArtifactRef( junit, "jar", null ),
+                                                                                                     DependencyScope.test,
+                                                                                                     0, false, false,
+                                                                                                     false ) )
+                                                             .build();
+
+        final ProjectGraph.EdgeVisitor runtimeDeps = new ProjectGraph.EdgeVisitor()
+        {
+            @Override
+            public boolean visit( final int declaring, final int target, final int edge )
+            {
+                return graph.getType( edge ) == RelationshipType.DEPENDENCY && !graph.isManaged( edge )
+                    && graph.getScope( edge ) != DependencyScope.test;
+            }
+        };
+
+        assertThat( names( graph, graph.reachable( graph.getId( app ), false, runtimeDeps ) ),
+                    equalTo( set( "app", "lib" ) ) );
+        assertThat( names( graph, graph.reachable( graph.getId( app ), false, null ) ),
+                    equalTo( set( "app", "lib", "junit", "parent", "bom" ) ) );
+        assertThat( names( graph, graph.reachable( graph.getId( junit ), true, null ) ),
+                    equalTo( set( "junit", "lib", "app" ) ) );
+    }
+
+    @Test
+    public void matchesAdjacencyMaps()
+    {
+        final Random random = new Random( 25 );
+        final List<ProjectVersionRef> projects = new ArrayList<ProjectVersionRef>();
+        for ( int i = 0; i < 300; i++ )
+        {
+            projects.add( new SimpleProjectVersionRef( "org.g" + random.nextInt( 10 ), "a" + random.nextInt( 30 ),
+                                                       "1." + random.nextInt( 3 ) ) );
+        }
+
+        final ProjectGraph.Builder builder = new ProjectGraph.Builder();
+        final Map<ProjectVersionRef, List<String>> expected = new LinkedHashMap<ProjectVersionRef, List<String>>();
+        final Map<ProjectVersionRef, Set<ProjectVersionRef>> reverse = new HashMap<ProjectVersionRef, Set<ProjectVersionRef>>();
+        for ( int i = 0; i < 5000; i++ )
+        {
+            final ProjectVersionRef from = projects.get( random.nextInt( projects.size() ) );
+            final ProjectVersionRef to = projects.get( random.nextInt( projects.size() ) );
+            final DependencyScope scope = DependencyScope.values()[random.nextInt( DependencyScope.values().length )];
+            final ProjectRelationship<?, ?> rel;
+            if ( random.nextInt( 4 ) == 0 )
+            {
+                rel = new SimpleBomRelationship( SOURCE, from, to, i, random.nextBoolean(), random.nextBoolean() );
+            }
+            else
+            {
+                rel = new SimpleDependencyRelationship( SOURCE, from, to.asJarArtifact(), scope, i,
+                                                        random.nextBoolean(), random.nextBoolean(),
+                                                        random.nextBoolean() );
+            }
+
+            builder.add( rel );
+            list( expected, from ).add( to + " " + rel.getType() + " " + flags( rel ) );
+            if ( !reverse.containsKey( to ) )
+            {
+                reverse.put( to, new HashSet<ProjectVersionRef>() );
+            }
+            reverse.get( to ).add( from );
+        }
+
+        final ProjectGraph graph = builder.build();
+        assertThat( graph.getEdgeCount(), equalTo( 5000 ) );
+        for ( final ProjectVersionRef ref : new HashSet<ProjectVersionRef>( projects ) )
+        {
+            final int id = graph.getId( ref );
+            final List<String> actual = new ArrayList<String>();
+            for ( int e = 0; e < graph.getEdgeCount(); e++ )
+            {
+                if ( graph.getDeclaring( e ) == id )
+                {
+                    actual.add( graph.getRef( graph.getTarget( e ) ) + " " + graph.getType( e ) + " "
+                        + flags( graph, e ) );
+                }
+            }
+
+            assertThat( ref.toString(), actual, equalTo( list( expected, ref ) ) );
+
+            final Set<ProjectVersionRef> declaring = new HashSet<ProjectVersionRef>();
+            graph.forEachIncoming( id, new ProjectGraph.EdgeVisitor()
+            {
+                @Override
+                public boolean visit( final int from, final int to, final int edge )
+                {
+                    declaring.add( graph.getRef( from ) );
+                    return true;
+                }
+            } );
+
+            final Set<ProjectVersionRef> expectedDeclaring = reverse.get( ref );
+            assertThat( ref.toString(), declaring,
+                        equalTo( expectedDeclaring == null ? new HashSet<ProjectVersionRef>() : expectedDeclaring ) );
+        }
+    }
+
+    @Test
+    public void emptyScopesAndStoppedIterations()
+    {
+        final ProjectGraph graph = new ProjectGraph.Builder().add( appRelationships() )
+                                                             .build();
+        final int appId = graph.getId( app );
+        assertThat( graph.getScope( 0 ), nullValue() );
+
+        final int[] visited = new int[1];
+        final boolean completed = graph.forEachOutgoing( appId, new ProjectGraph.EdgeVisitor()
+        {
+            @Override
+            public boolean visit( final int declaring, final int target, final int edge )
+            {
+                return ++visited[0] < 2;
+            }
+        } );
+
+        assertThat( completed, equalTo( false ) );
+        assertThat( visited[0], equalTo( 2 ) );
+    }
+
+    private EProjectDirectRelationships appRelationships()
+    {
+        return new EProjectDirectRelationships.Builder( SOURCE, app ).withParent( parent )
+                                                                      .withBoms( new SimpleBomRelationship( SOURCE, app,
+                                                                                                            bom, 0,
+                                                                                                            false,
+                                                                                                            true ) )
+                                                                      .withDependencies( new SimpleDependencyRelationship( SOURCE,
+                                                                                                                           app,
+                                                                                                                           new SimpleArtifactRef( lib, "jar", "sources" ),
+                                                                                                                           DependencyScope.compile,
+                                                                                                                           0,
+                                                                                                                           false,
+                                                                                                                           false,
+                                                                                                                           true ),
+                                                                                         new SimpleDependencyRelationship( SOURCE,
+                                                                                                                           app,
+                                                                                                                           new SimpleArtifactRef( junit, "jar", null ),
+                                                                                                                           DependencyScope.test,
+                                                                                                                           1,
+                                                                                                                           true,
+                                                                                                                           false,
+                                                                                                                           false ) )
+                                                                      .withPlugins( new SimplePluginRelationship( SOURCE,
+                                                                                                                  app,
+                                                                                                                  lib,
+                                                                                                                  0,
+                                                                                                                  true,
+                                                                                                                  true ) )
+                                                                      .build();
+    }
+
+    private static String describe( final ProjectGraph graph, final int declaring, final int target, final int edge )
+    {
+        return graph.getRef( declaring ).getArtifactId() + " -> " + graph.getRef( target ).getArtifactId() + " "
+            + graph.getType( edge ) + flags( graph, edge );
+    }
+
+    private static String flags( final ProjectGraph graph, final int edge )
+    {
+        return ( graph.isOptional( edge ) ? " optional" : "" ) + ( graph.isManaged( edge ) ? " managed" : "" )
+            + ( graph.isInherited( edge ) ? " inherited" : "" ) + ( graph.isMixin( edge ) ? " mixin" : "" )
+            + ( graph.getType( edge ) == RelationshipType.DEPENDENCY ? " " + graph.getScope( edge ) : "" );
+    }
+
+    private static String flags( final ProjectRelationship<?, ?> rel )
+    {
+        final boolean dep = rel instanceof SimpleDependencyRelationship;
+        return ( dep && ( (SimpleDependencyRelationship) rel ).isOptional() ? " optional" : "" )
+            + ( rel.isManaged() ? " managed" : "" ) + ( rel.isInherited() ? " inherited" : "" )
+            + ( rel.isMixin() ? " mixin" : "" )
+            + ( dep ? " " + ( (SimpleDependencyRelationship) rel ).getScope() : "" );
+    }
+
+    private static List<String> list( final Map<ProjectVersionRef, List<String>> map, final ProjectVersionRef ref )
+    {
+        List<String> list = map.get( ref );
+        if ( list == null )
+        {
+            list = new ArrayList<String>();
+            map.put( ref, list );
+        }
+
+        return list;
+    }
+
+    private static Set<String> names( final ProjectGraph graph, final BitSet nodes )
+    {
+        final Set<String> names = new HashSet<String>();
+        for ( int n = nodes.nextSetBit( 0 ); n > -1; n = nodes.nextSetBit( n + 1 ) )
+        {
+            names.add( graph.getRef( n ).getArtifactId() );
+        }
+
+        return names;
+    }
+
+    private static Set<String> set( final String... names )
+    {
+        return new HashSet<String>( Arrays.asList( names ) );
+    }
+
+}
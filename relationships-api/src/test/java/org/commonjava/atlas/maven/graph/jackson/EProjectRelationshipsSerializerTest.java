@@ -28,6 +28,7 @@ import org.commonjava.atlas.maven.graph.rel.SimplePluginDependencyRelationship;
 import org.commonjava.atlas.maven.graph.rel.SimplePluginRelationship;
 import org.commonjava.atlas.maven.ident.DependencyScope;
 import org.commonjava.atlas.maven.ident.jackson.ProjectVersionRefSerializerModule;
+import org.commonjava.atlas.maven.ident.jackson.SmileSupport;
 import org.commonjava.atlas.maven.ident.ref.ProjectVersionRef;
 import org.commonjava.atlas.maven.ident.ref.SimpleArtifactRef;
 import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
@@ -39,6 +40,7 @@ import java.net.URI;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by ruhan on 3/16/17.
@@ -58,6 +60,33 @@ public class EProjectRelationshipsSerializerTest
     @Test
     public void roundTrip_EProjectDirectRelationships()
             throws Exception
+    {
+        final EProjectDirectRelationships rels = relationships();
+
+        String json = mapper.writeValueAsString( rels );
+        System.out.println( json );
+
+        EProjectDirectRelationships clone = mapper.readValue(json, EProjectDirectRelationships.class);
+
+        assertClone( clone, rels );
+    }
+
+    @Test
+    public void roundTrip_EProjectDirectRelationshipsAsSmile()
+            throws Exception
+    {
+        final EProjectDirectRelationships rels = relationships();
+        final ObjectMapper smileMapper = SmileSupport.newSmileMapper( new ProjectRelationshipSerializerModule() );
+
+        final byte[] smile = smileMapper.writeValueAsBytes( rels );
+        final EProjectDirectRelationships clone = smileMapper.readValue( smile, EProjectDirectRelationships.class );
+
+        assertClone( clone, rels );
+        assertTrue( smile.length < mapper.writeValueAsBytes( rels ).length );
+    }
+
+    private EProjectDirectRelationships relationships()
+            throws Exception
     {
         URI sourceUri = new URI( "test:source" );
         ProjectVersionRef p = new SimpleProjectVersionRef( "org.apache.maven", "maven-core", "3.0.3" );
@@ -101,13 +130,11 @@ public class EProjectRelationshipsSerializerTest
         prb.withPluginDependencies( pdr );
         prb.withExtensions( wag );
 
-        final EProjectDirectRelationships rels = prb.build();
-
-        String json = mapper.writeValueAsString( rels );
-        System.out.println( json );
-
-        EProjectDirectRelationships clone = mapper.readValue(json, EProjectDirectRelationships.class);
+        return prb.build();
+    }
 
+    private void assertClone( final EProjectDirectRelationships clone, final EProjectDirectRelationships rels )
+    {
         assertThat( clone.getSource(), equalTo( rels.getSource() ) );
         assertThat( clone.getProjectRef(), equalTo( rels.getProjectRef() ) );
         assertThat( clone.getParent(), equalTo( rels.getParent() ) );
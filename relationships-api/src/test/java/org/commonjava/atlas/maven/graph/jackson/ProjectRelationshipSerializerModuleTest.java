@@ -15,24 +15,39 @@
  */
 package org.commonjava.atlas.maven.graph.jackson;
 
+import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.commonjava.atlas.maven.graph.jackson.ProjectRelationshipSerializerModule;
 import org.commonjava.atlas.maven.graph.rel.DependencyRelationship;
 import org.commonjava.atlas.maven.graph.rel.ParentRelationship;
 import org.commonjava.atlas.maven.graph.rel.ProjectRelationship;
+import org.commonjava.atlas.maven.graph.rel.PluginDependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.PluginRelationship;
 import org.commonjava.atlas.maven.graph.rel.RelationshipConstants;
+import org.commonjava.atlas.maven.graph.rel.RelationshipType;
+import org.commonjava.atlas.maven.graph.rel.SimpleBomRelationship;
 import org.commonjava.atlas.maven.graph.rel.SimpleDependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimpleExtensionRelationship;
 import org.commonjava.atlas.maven.graph.rel.SimpleParentRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimplePluginDependencyRelationship;
+import org.commonjava.atlas.maven.graph.rel.SimplePluginRelationship;
 import org.commonjava.atlas.maven.ident.DependencyScope;
 import org.commonjava.atlas.maven.ident.jackson.ProjectVersionRefSerializerModule;
+import org.commonjava.atlas.maven.ident.ref.SimpleProjectRef;
 import org.commonjava.atlas.maven.ident.ref.SimpleProjectVersionRef;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * Created by jdcasey on 8/21/15.
@@ -96,4 +111,97 @@ public class ProjectRelationshipSerializerModuleTest
 
         assertThat( (DependencyRelationship) result, equalTo( rel ) );
     }
+
+    @Test
+    public void roundTrip_AllTypesKeepWireFormat()
+            throws Exception
+    {
+        final URI source = URI.create( "http://repo.maven.apache.org/maven2/" );
+        final URI pom = URI.create( "http://repo.maven.apache.org/maven2/org/foo/bar/1/bar-1.pom" );
+        final SimpleProjectVersionRef declaring = new SimpleProjectVersionRef( "org.foo", "bar", "1" );
+        final SimpleProjectVersionRef target = new SimpleProjectVersionRef( "org.foo", "target", "2.0" );
+
+        final List<ProjectRelationship<?, ?>> rels = Arrays.<ProjectRelationship<?, ?>>asList(
+                new SimpleParentRelationship( source, declaring, target ),
+                new SimpleDependencyRelationship( Collections.singleton( source ), pom, declaring,
+                                                  target.asArtifactRef( "test-jar", "tests" ), DependencyScope.test, 3,
+                                                  true, true, true ),
+                new SimpleExtensionRelationship( Collections.singleton( source ), pom, declaring, target, 1, true ),
+                new SimplePluginRelationship( source, pom, declaring, target, 2, true, true, false ),
+                new SimplePluginDependencyRelationship( Collections.singleton( source ), pom, declaring,
+                                                        new SimpleProjectRef( "org.foo", "plugin" ),
+                                                        target.asJarArtifact(), 4, true, false ),
+                new SimpleBomRelationship( Collections.singleton( source ), pom, declaring, target, 5, false, true ) );
+
+        for ( final ProjectRelationship<?, ?> rel : rels )
+        {
+            final String json = mapper.writeValueAsString( rel );
+            final ProjectRelationship<?, ?> result = mapper.readValue( json, ProjectRelationship.class );
+
+            assertThat( json, result.getType(), equalTo( rel.getType() ) );
+            assertThat( json, (ProjectRelationship) result, equalTo( (ProjectRelationship) rel ) );
+            assertThat( mapper.writeValueAsString( result ), equalTo( json ) );
+        }
+    }
+
+    @Test
+    public void readFieldsInAnyOrderAndSkipUnknownOnes()
+            throws Exception
+    {
+        final String json = "{\"idx\":7,\"extra\":{\"nested\":[1,{\"type\":\"BOM\"}]},\"managed\":true,"
+                + "\"plugin\":\"org.foo:plugin\",\"target\":\"org.foo:dep:1.0:jar\",\"declaring\":\"org.foo:bar:1\","
+                + "\"source-uris\":[\"http://a/\",null,\"http://b/\"],\"inherited\":null,\"type\":\"PLUGIN_DEP\"}";
+
+        final PluginDependencyRelationship result =
+                (PluginDependencyRelationship) mapper.readValue( json, ProjectRelationship.class );
+
+        assertThat( result.getType(), equalTo( RelationshipType.PLUGIN_DEP ) );
+        assertThat( result.getIndex(), equalTo( 7 ) );
+        assertThat( result.isManaged(), equalTo( true ) );
+        assertThat( result.isInherited(), equalTo( false ) );
+        assertThat( result.getPlugin(), equalTo( (Object) new SimpleProjectRef( "org.foo", "plugin" ) ) );
+        assertThat( result.getPomLocation(), equalTo( RelationshipConstants.POM_ROOT_URI ) );
+        assertThat( result.getSources().size(), equalTo( 2 ) );
+    }
+
+    @Test
+    public void reuseRepeatedDeclaringRefs()
+            throws Exception
+    {
+        final ProjectRelationship<?, ?> first = mapper.readValue(
+                "{\"type\":\"PLUGIN\",\"declaring\":\"org.foo:bar:1\",\"target\":\"org.foo:p:1\"}",
+                ProjectRelationship.class );
+        final ProjectRelationship<?, ?> second = mapper.readValue(
+                "{\"type\":\"PLUGIN\",\"declaring\":\"org.foo:bar:1\",\"target\":\"org.foo:q:1\",\"reporting\":true}",
+                ProjectRelationship.class );
+
+        assertThat( second.getDeclaring(), sameInstance( (Object) first.getDeclaring() ) );
+        assertThat( ( (PluginRelationship) second ).isReporting(), equalTo( true ) );
+    }
+
+    @Test
+    public void reportLocationOfInvalidUri()
+            throws Exception
+    {
+        final String json = "{\"type\":\"PARENT\",\n\"source-uris\":[\"http://a b/\"],\n"
+                + "\"declaring\":\"org.foo:bar:1\",\"target\":\"org.foo:parent:1\"}";
+        try
+        {
+            mapper.readValue( json, ProjectRelationship.class );
+            fail( "Invalid source URI should fail" );
+        }
+        catch ( final JsonParseException e )
+        {
+            assertThat( e.getLocation().getLineNr(), equalTo( 2 ) );
+            assertTrue( e.getMessage(), e.getMessage().contains( "http://a b/" ) );
+        }
+    }
+
+    @Test( expected = JsonParseException.class )
+    public void missingTypeFails()
+            throws Exception
+    {
+        mapper.readValue( "{\"declaring\":\"org.foo:bar:1\",\"target\":\"org.foo:parent:1\"}",
+                          ProjectRelationship.class );
+    }
 }